@@ -21,6 +21,7 @@ import com.google.gson.Gson;
 import org.apache.axis2.context.MessageContext;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpStatus;
 import org.apache.synapse.core.axis2.Axis2MessageContext;
 import org.apache.synapse.rest.AbstractHandler;
 import org.wso2.carbon.apimgt.handlers.beans.Certificate;
@@ -28,8 +29,10 @@ import org.wso2.carbon.apimgt.handlers.beans.ValidationResponce;
 import org.wso2.carbon.apimgt.handlers.config.IOTServerConfiguration;
 import org.wso2.carbon.apimgt.handlers.invoker.RESTInvoker;
 import org.wso2.carbon.apimgt.handlers.invoker.RESTResponse;
+import org.wso2.carbon.apimgt.handlers.utils.AccessTokenCache;
 import org.wso2.carbon.apimgt.handlers.utils.AuthConstants;
 import org.wso2.carbon.apimgt.handlers.utils.Utils;
+import org.wso2.carbon.apimgt.handlers.utils.VerificationCache;
 import org.wso2.carbon.certificate.mgt.core.impl.CertificateGenerator;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 
@@ -59,6 +62,8 @@ public class AuthenticationHandler extends AbstractHandler {
     private static final String CONTENT_TYPE = "Content-Type";
 
     private IOTServerConfiguration iotServerConfiguration;
+    private AccessTokenCache accessTokenCache;
+    private VerificationCache verificationCache;
 
     /**
      * Setting up configurations at the constructor
@@ -67,6 +72,11 @@ public class AuthenticationHandler extends AbstractHandler {
         log.info("Engaging API Security Handler..........");
         restInvoker = new RESTInvoker();
         this.iotServerConfiguration = Utils.initConfig();
+        this.accessTokenCache = new AccessTokenCache(iotServerConfiguration, restInvoker);
+        IOTServerConfiguration.VerificationCacheConfiguration cacheConfig = iotServerConfiguration != null &&
+                iotServerConfiguration.getVerificationCache() != null ? iotServerConfiguration.getVerificationCache()
+                : new IOTServerConfiguration.VerificationCacheConfiguration();
+        this.verificationCache = new VerificationCache(cacheConfig.getCapacity(), cacheConfig.getExpiryTime());
     }
 
     /**
@@ -88,6 +98,8 @@ public class AuthenticationHandler extends AbstractHandler {
         try {
             int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
             RESTResponse response = null;
+            String cacheKey = null;
+            String jwtToken = null;
             if (headers.containsKey(AuthConstants.MDM_SIGNATURE)) {
 
                 String mdmSignature = headers.get(AuthConstants.MDM_SIGNATURE);
@@ -98,17 +110,19 @@ public class AuthenticationHandler extends AbstractHandler {
                 if (deviceType == null) {
                     return false;
                 }
-                URI certVerifyUrl = new URI(iotServerConfiguration.getVerificationEndpoint() + deviceType);
-                Map<String, String> certVerifyHeaders = this.setHeaders(this.restInvoker);
+                cacheKey = VerificationCache.getKey(AuthConstants.MDM_SIGNATURE, mdmSignature, tenantId,
+                        deviceType);
+                VerificationCache.Entry verification = verificationCache.get(cacheKey);
+                if (verification != null) {
+                    headers.put(X_JWT_ASSERTION, verification.getJwtToken());
+                    return true;
+                }
 
                 Certificate certificate = new Certificate();
                 certificate.setPem(mdmSignature);
                 certificate.setTenantId(tenantId);
                 certificate.setSerial("");
-
-                Gson gson = new Gson();
-                String certVerifyContent = gson.toJson(certificate);
-                response = restInvoker.invokePOST(certVerifyUrl, certVerifyHeaders, certVerifyContent);
+                response = this.verifyCertificate(deviceType, certificate);
 
                 String str = response.getContent();
                 if (log.isDebugEnabled()) {
@@ -116,8 +130,9 @@ public class AuthenticationHandler extends AbstractHandler {
                     log.debug("Response String : " + str);
                 }
                 if (response.getHttpStatus() == 200 && str.contains(JWTTOKEN)) {
-                    ValidationResponce validationResponce = gson.fromJson(str, ValidationResponce.class);
-                    headers.put(X_JWT_ASSERTION, validationResponce.getJWTToken());
+                    ValidationResponce validationResponce = new Gson().fromJson(str, ValidationResponce.class);
+                    jwtToken = validationResponce.getJWTToken();
+                    headers.put(X_JWT_ASSERTION, jwtToken);
                 } else {
                     return false;
                 }
@@ -130,16 +145,17 @@ public class AuthenticationHandler extends AbstractHandler {
                 }
 
                 String deviceType = this.getDeviceType(messageContext.getTo().getAddress().trim());
-                URI certVerifyUrl = new URI(iotServerConfiguration.getVerificationEndpoint() + deviceType);
-                Map<String, String> certVerifyHeaders = this.setHeaders(this.restInvoker);
+                cacheKey = VerificationCache.getKey(AuthConstants.PROXY_MUTUAL_AUTH_HEADER, subjectDN, tenantId,
+                        deviceType);
+                if (verificationCache.get(cacheKey) != null) {
+                    return true;
+                }
                 Certificate certificate = new Certificate();
                 certificate.setPem(subjectDN);
                 certificate.setTenantId(tenantId);
                 certificate.setSerial(AuthConstants.PROXY_MUTUAL_AUTH_HEADER);
 
-                Gson gson = new Gson();
-                String certVerifyContent = gson.toJson(certificate);
-                response = restInvoker.invokePOST(certVerifyUrl, certVerifyHeaders, certVerifyContent);
+                response = this.verifyCertificate(deviceType, certificate);
                 if (log.isDebugEnabled()) {
                     log.debug("Verify response:" + response.getContent());
                 }
@@ -160,16 +176,16 @@ public class AuthenticationHandler extends AbstractHandler {
                     log.debug("Verify Cert:\n" + encodedPem);
                 }
                 String deviceType = this.getDeviceType(messageContext.getTo().getAddress().trim());
-                URI certVerifyUrl = new URI(iotServerConfiguration.getVerificationEndpoint() + deviceType);
-                Map<String, String> certVerifyHeaders = this.setHeaders(this.restInvoker);
+                cacheKey = VerificationCache.getKey(AuthConstants.ENCODED_PEM, encodedPem, tenantId, deviceType);
+                if (verificationCache.get(cacheKey) != null) {
+                    return true;
+                }
 
                 Certificate certificate = new Certificate();
                 certificate.setPem(encodedPem);
                 certificate.setTenantId(tenantId);
                 certificate.setSerial("");
-                Gson gson = new Gson();
-                String certVerifyContent = gson.toJson(certificate);
-                response = restInvoker.invokePOST(certVerifyUrl, certVerifyHeaders, certVerifyContent);
+                response = this.verifyCertificate(deviceType, certificate);
                 if (log.isDebugEnabled()) {
                     log.debug("Verify response:" + response.getContent());
                 }
@@ -178,6 +194,9 @@ public class AuthenticationHandler extends AbstractHandler {
                 return false;
             }
             if (response != null && !response.getContent().contains("invalid")) {
+                if (cacheKey != null) {
+                    verificationCache.put(cacheKey, jwtToken);
+                }
                 return true;
             }
             log.warn("Unauthorized request for api: " + ctxPath);
@@ -216,11 +235,27 @@ public class AuthenticationHandler extends AbstractHandler {
         return null;
     }
 
-    private Map<String, String> setHeaders(RESTInvoker restInvoker) throws APIMCertificateMGTException {
+    /**
+     * Verifies the certificate with the certificate verification endpoint of the IoT server. The cached access token
+     * is discarded if the endpoint rejects it, so that a new one is requested for the next request.
+     */
+    private RESTResponse verifyCertificate(String deviceType, Certificate certificate)
+            throws URISyntaxException, IOException, APIMCertificateMGTException {
+        URI certVerifyUrl = new URI(iotServerConfiguration.getVerificationEndpoint() + deviceType);
+        String accessToken = this.accessTokenCache.getAccessToken();
+        String certVerifyContent = new Gson().toJson(certificate);
+        RESTResponse response = restInvoker.invokePOST(certVerifyUrl, this.setHeaders(accessToken),
+                certVerifyContent);
+        if (response.getHttpStatus() == HttpStatus.SC_UNAUTHORIZED) {
+            this.accessTokenCache.invalidate(accessToken);
+        }
+        return response;
+    }
+
+    private Map<String, String> setHeaders(String accessToken) {
         Map<String, String> map = new HashMap<>();
-        String accessToken = Utils.getAccessToken(iotServerConfiguration, restInvoker);
         map.put(AUTHORIZATION, BEARER + accessToken);
         map.put(CONTENT_TYPE, "application/json");
         return map;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.handlers.beans;
+
+/**
+ * This class holds an access token issued by the key manager along with the time it expires.
+ */
+public class AccessToken {
+
+    private final String token;
+    private final long issuedTime;
+    private final long expiryTime;
+
+    /**
+     * @param token     Access token.
+     * @param expiresIn Validity period of the token in seconds.
+     */
+    public AccessToken(String token, long expiresIn) {
+        this.token = token;
+        this.issuedTime = System.currentTimeMillis();
+        this.expiryTime = issuedTime + expiresIn * 1000;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public long getIssuedTime() {
+        return issuedTime;
+    }
+
+    public long getExpiryTime() {
+        return expiryTime;
+    }
+}
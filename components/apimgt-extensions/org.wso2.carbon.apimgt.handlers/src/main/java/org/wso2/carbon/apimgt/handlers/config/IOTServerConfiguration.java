@@ -19,6 +19,8 @@
 
 package org.wso2.carbon.apimgt.handlers.config;
 
+import org.wso2.carbon.apimgt.handlers.utils.AuthConstants;
+
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlElementWrapper;
 import javax.xml.bind.annotation.XmlRootElement;
@@ -39,6 +41,7 @@ public class IOTServerConfiguration {
     private  String dynamicClientRegistrationEndpoint;
     private  String oauthTokenEndpoint;
     private List<ContextPath> apis;
+    private VerificationCacheConfiguration verificationCache = new VerificationCacheConfiguration();
 
     @XmlElement(name = "Hostname", required = true)
     public String getHostname() {
@@ -104,6 +107,15 @@ public class IOTServerConfiguration {
         this.apis = apis;
     }
 
+    @XmlElement(name = "VerificationCache")
+    public VerificationCacheConfiguration getVerificationCache() {
+        return verificationCache;
+    }
+
+    public void setVerificationCache(VerificationCacheConfiguration verificationCache) {
+        this.verificationCache = verificationCache;
+    }
+
     @XmlRootElement(name = "ContextPath")
     public static class ContextPath {
 
@@ -118,5 +130,38 @@ public class IOTServerConfiguration {
             this.contextPath = contextPath;
         }
     }
+
+    /**
+     * Bounds of the cache of successful certificate verifications. The defaults apply to the values which are not
+     * configured.
+     */
+    @XmlRootElement(name = "VerificationCache")
+    public static class VerificationCacheConfiguration {
+
+        private int capacity = AuthConstants.DEFAULT_VERIFICATION_CACHE_CAPACITY;
+        private long expiryTime = AuthConstants.DEFAULT_VERIFICATION_CACHE_EXPIRY;
+
+        @XmlElement(name = "Capacity")
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        /**
+         * @return time in milliseconds a verification is kept in the cache, unless the JWT issued for it expires
+         * earlier.
+         */
+        @XmlElement(name = "ExpiryTime")
+        public long getExpiryTime() {
+            return expiryTime;
+        }
+
+        public void setExpiryTime(long expiryTime) {
+            this.expiryTime = expiryTime;
+        }
+    }
 }
 
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.handlers.utils;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.handlers.APIMCertificateMGTException;
+import org.wso2.carbon.apimgt.handlers.beans.AccessToken;
+import org.wso2.carbon.apimgt.handlers.config.IOTServerConfiguration;
+import org.wso2.carbon.apimgt.handlers.invoker.RESTInvoker;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Holds the access token used to call the certificate verification endpoint, so that a token is not requested from
+ * the key manager for every request. Once most of the validity period of the token has passed, a new token is
+ * requested in the background while the current one keeps being served, hence request threads only wait for the key
+ * manager when there is no usable token at all.
+ */
+public class AccessTokenCache {
+
+    private static final Log log = LogFactory.getLog(AccessTokenCache.class);
+    private static final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "access-token-refresher");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final IOTServerConfiguration iotServerConfiguration;
+    private final RESTInvoker restInvoker;
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+    private volatile AccessToken accessToken;
+
+    public AccessTokenCache(IOTServerConfiguration iotServerConfiguration, RESTInvoker restInvoker) {
+        this.iotServerConfiguration = iotServerConfiguration;
+        this.restInvoker = restInvoker;
+    }
+
+    /**
+     * @return a valid access token, requested from the key manager only if there is no usable cached token.
+     * @throws APIMCertificateMGTException if a new token could not be obtained.
+     */
+    public String getAccessToken() throws APIMCertificateMGTException {
+        AccessToken token = accessToken;
+        long now = System.currentTimeMillis();
+        if (token == null || now >= token.getExpiryTime() - AuthConstants.ACCESS_TOKEN_EXPIRY_MARGIN) {
+            return this.refresh(token).getToken();
+        }
+        if (now >= getRefreshTime(token)) {
+            this.refreshInBackground(token);
+        }
+        return token.getToken();
+    }
+
+    /**
+     * Discards the cached token, e.g. when the verification endpoint rejects it.
+     *
+     * @param token the rejected token. The cached token is kept if it has already been replaced.
+     */
+    public synchronized void invalidate(String token) {
+        if (accessToken != null && accessToken.getToken().equals(token)) {
+            accessToken = null;
+        }
+    }
+
+    private synchronized AccessToken refresh(AccessToken staleToken) throws APIMCertificateMGTException {
+        // Another thread may have refreshed the token while this one was waiting.
+        if (accessToken != null && accessToken != staleToken) {
+            return accessToken;
+        }
+        accessToken = Utils.requestAccessToken(iotServerConfiguration, restInvoker);
+        return accessToken;
+    }
+
+    private void refreshInBackground(final AccessToken staleToken) {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        refresh(staleToken);
+                    } catch (APIMCertificateMGTException e) {
+                        log.error("Error occurred while refreshing the access token", e);
+                    } finally {
+                        refreshing.set(false);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.set(false);
+            log.error("Unable to schedule the access token refresh", e);
+        }
+    }
+
+    private static long getRefreshTime(AccessToken token) {
+        long validityPeriod = token.getExpiryTime() - token.getIssuedTime();
+        return token.getIssuedTime() + validityPeriod * AuthConstants.ACCESS_TOKEN_REFRESH_PERCENTAGE / 100;
+    }
+}
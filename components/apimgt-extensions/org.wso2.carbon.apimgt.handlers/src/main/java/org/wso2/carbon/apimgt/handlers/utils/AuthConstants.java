@@ -36,4 +36,11 @@ public class AuthConstants {
     public static final String CLIENT_ID = "clientId";
     public static final String CLIENT_SECRET = "clientSecret";
     public static final String CLIENT_CERTIFICATE = "ssl.client.auth.cert.X509";
+    public static final String ACCESS_TOKEN = "access_token";
+    public static final String EXPIRES_IN = "expires_in";
+    public static final long DEFAULT_ACCESS_TOKEN_VALIDITY = 3600;
+    public static final long ACCESS_TOKEN_EXPIRY_MARGIN = 10000;
+    public static final int ACCESS_TOKEN_REFRESH_PERCENTAGE = 80;
+    public static final int DEFAULT_VERIFICATION_CACHE_CAPACITY = 10000;
+    public static final long DEFAULT_VERIFICATION_CACHE_EXPIRY = 300000;
 }
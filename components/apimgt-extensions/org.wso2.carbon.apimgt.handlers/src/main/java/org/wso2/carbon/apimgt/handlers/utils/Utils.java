@@ -26,6 +26,7 @@ import org.json.JSONException;
 import org.json.JSONObject;
 import org.w3c.dom.Document;
 import org.wso2.carbon.apimgt.handlers.APIMCertificateMGTException;
+import org.wso2.carbon.apimgt.handlers.beans.AccessToken;
 import org.wso2.carbon.apimgt.handlers.beans.DCR;
 import org.wso2.carbon.apimgt.handlers.config.IOTServerConfiguration;
 import org.wso2.carbon.apimgt.handlers.invoker.RESTInvoker;
@@ -142,6 +143,18 @@ public class Utils {
      */
     public static String getAccessToken(IOTServerConfiguration iotServerConfiguration, RESTInvoker restInvoker)
             throws APIMCertificateMGTException {
+        return requestAccessToken(iotServerConfiguration, restInvoker).getToken();
+    }
+
+    /**
+     * This method requests a new access token from the key manager.
+     *
+     * @param iotServerConfiguration Instance of the IoTServerConfiguration.
+     * @return Access token along with its validity period.
+     * @throws APIMCertificateMGTException
+     */
+    public static AccessToken requestAccessToken(IOTServerConfiguration iotServerConfiguration,
+                                                 RESTInvoker restInvoker) throws APIMCertificateMGTException {
         try {
             if (clientId == null || clientSecret == null) {
                 getClientSecretes(iotServerConfiguration, restInvoker);
@@ -159,7 +172,8 @@ public class Utils {
                 log.debug("Token response:" + response.getContent());
             }
             JSONObject jsonResponse = new JSONObject(response.getContent());
-            return jsonResponse.getString("access_token");
+            return new AccessToken(jsonResponse.getString(AuthConstants.ACCESS_TOKEN),
+                    jsonResponse.optLong(AuthConstants.EXPIRES_IN, AuthConstants.DEFAULT_ACCESS_TOKEN_VALIDITY));
 
         } catch (URISyntaxException | IOException e) {
             throw new APIMCertificateMGTException("Error occurred while trying to call oauth token endpoint", e);
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.handlers.utils;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of successful certificate verifications, keyed by the fingerprint of the certificate or subject DN
+ * presented by the device. An entry holds the JWT issued by the verification endpoint and expires after a fixed
+ * period, or when the JWT expires if that is earlier, after which the certificate is verified again. Once the cache
+ * is full, the least recently used entry is evicted.
+ */
+public class VerificationCache {
+
+    private final int capacity;
+    private final long expiryTime;
+    private final Map<String, Entry> entries;
+
+    /**
+     * @param capacity   maximum number of verifications to be cached.
+     * @param expiryTime time in milliseconds a verification is kept in the cache.
+     */
+    public VerificationCache(final int capacity, long expiryTime) {
+        this.capacity = capacity;
+        this.expiryTime = expiryTime;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > VerificationCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * @param type       the header the certificate was presented in.
+     * @param credential certificate or subject DN presented by the device.
+     * @param tenantId   tenant the request belongs to.
+     * @param deviceType device type the request is made for.
+     * @return the key of the verification in the cache.
+     */
+    public static String getKey(String type, String credential, int tenantId, String deviceType) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] fingerprint = digest.digest(credential.getBytes(StandardCharsets.UTF_8));
+            StringBuilder key = new StringBuilder(type).append(':').append(tenantId).append(':')
+                    .append(deviceType).append(':');
+            for (byte b : fingerprint) {
+                key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is available in every Java platform.
+            throw new IllegalStateException("SHA-256 message digest is not available", e);
+        }
+    }
+
+    /**
+     * @param key key of the verification.
+     * @return the cached verification, or null if the credential has not been verified recently.
+     */
+    public synchronized Entry get(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && System.currentTimeMillis() >= entry.expiryTime) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * @param key      key of the verification.
+     * @param jwtToken JWT issued for the device, if any.
+     */
+    public synchronized void put(String key, String jwtToken) {
+        long currentTime = System.currentTimeMillis();
+        long entryExpiryTime = currentTime + expiryTime;
+        if (jwtToken != null) {
+            long jwtExpiryTime = getExpiryTime(jwtToken);
+            if (jwtExpiryTime > 0 && jwtExpiryTime < entryExpiryTime) {
+                entryExpiryTime = jwtExpiryTime;
+            }
+        }
+        if (entryExpiryTime > currentTime) {
+            entries.put(key, new Entry(jwtToken, entryExpiryTime));
+        } else {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * @param jwtToken JWT issued for the device.
+     * @return time in milliseconds at which the JWT expires as per its exp claim, or -1 if the token is not a JWT
+     * with an exp claim.
+     */
+    static long getExpiryTime(String jwtToken) {
+        String[] parts = jwtToken.split("\\.");
+        if (parts.length < 2) {
+            return -1;
+        }
+        try {
+            // The claims set is accepted in both the base64url and the plain base64 alphabets.
+            String claims = new String(Base64.getUrlDecoder().decode(parts[1].replace('+', '-').replace('/', '_')),
+                    StandardCharsets.UTF_8);
+            JsonElement exp = new JsonParser().parse(claims).getAsJsonObject().get("exp");
+            return exp == null || !exp.isJsonPrimitive() ? -1 : exp.getAsLong() * 1000;
+        } catch (IllegalArgumentException | IllegalStateException | JsonParseException e) {
+            // Not a JWT issued with a JSON claims set, hence the token is cached for the configured period.
+            return -1;
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * A successful verification of a credential.
+     */
+    public static class Entry {
+
+        private final String jwtToken;
+        private final long expiryTime;
+
+        private Entry(String jwtToken, long expiryTime) {
+            this.jwtToken = jwtToken;
+            this.expiryTime = expiryTime;
+        }
+
+        public String getJwtToken() {
+            return jwtToken;
+        }
+    }
+}
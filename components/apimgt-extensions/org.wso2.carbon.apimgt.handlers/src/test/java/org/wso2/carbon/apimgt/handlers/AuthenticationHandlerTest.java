@@ -41,7 +41,9 @@ import org.wso2.carbon.apimgt.handlers.beans.ValidationResponce;
 import org.wso2.carbon.apimgt.handlers.invoker.RESTInvoker;
 import org.wso2.carbon.apimgt.handlers.mock.MockClient;
 import org.wso2.carbon.apimgt.handlers.mock.MockHttpResponse;
+import org.wso2.carbon.apimgt.handlers.utils.AccessTokenCache;
 import org.wso2.carbon.apimgt.handlers.utils.AuthConstants;
+import org.wso2.carbon.apimgt.handlers.utils.VerificationCache;
 
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
@@ -50,6 +52,7 @@ import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Field;
 import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.HashMap;
 import javax.security.cert.X509Certificate;
 
@@ -107,7 +110,6 @@ public class AuthenticationHandlerTest extends BaseAPIHandlerTest {
         HashMap<String, String> transportHeaders = new HashMap<>();
         transportHeaders.put(AuthConstants.PROXY_MUTUAL_AUTH_HEADER, "Test Header");
         setMockClient();
-        this.mockClient.setResponse(getAccessTokenReponse());
         this.mockClient.setResponse(getValidationResponse());
         boolean response = this.handler.handleRequest(createSynapseMessageContext("<empty/>", this.synapseConfiguration,
                 transportHeaders, "https://test.com/testservice/api/testdevice"));
@@ -141,7 +143,6 @@ public class AuthenticationHandlerTest extends BaseAPIHandlerTest {
         HashMap<String, String> transportHeaders = new HashMap<>();
         transportHeaders.put(AuthConstants.ENCODED_PEM, "encoded pem");
         setMockClient();
-        this.mockClient.setResponse(getAccessTokenReponse());
         this.mockClient.setResponse(getValidationResponse());
         MessageContext messageContext = createSynapseMessageContext("<empty/>", this.synapseConfiguration,
                 transportHeaders, "https://test.com/testservice/api/testdevice");
@@ -154,9 +155,8 @@ public class AuthenticationHandlerTest extends BaseAPIHandlerTest {
             dependsOnMethods = "testHandleSuccessRequestEncodedPem")
     public void testHandleSuccessRequestEncodedPemInvalidResponse() throws Exception {
         HashMap<String, String> transportHeaders = new HashMap<>();
-        transportHeaders.put(AuthConstants.ENCODED_PEM, "encoded pem");
+        transportHeaders.put(AuthConstants.ENCODED_PEM, "invalid encoded pem");
         setMockClient();
-        this.mockClient.setResponse(getAccessTokenReponse());
         this.mockClient.setResponse(getInvalidResponse());
         MessageContext messageContext = createSynapseMessageContext("<empty/>", this.synapseConfiguration,
                 transportHeaders, "https://test.com/testservice/api/testdevice");
@@ -165,12 +165,51 @@ public class AuthenticationHandlerTest extends BaseAPIHandlerTest {
         this.mockClient.reset();
     }
 
-    @Test(description = "Handle request with cert management exception ",
+    @Test(description = "Handle requests with certificates which have already been verified",
             dependsOnMethods = "testHandleSuccessRequestEncodedPem")
+    public void testHandleRequestWithCachedVerification() throws Exception {
+        HashMap<String, String> transportHeaders = new HashMap<>();
+        transportHeaders.put(AuthConstants.MDM_SIGNATURE, "some cert");
+        setMockClient();
+        this.mockClient.setResponse(getInvalidResponse());
+        boolean response = this.handler.handleRequest(createSynapseMessageContext("<empty/>", this.synapseConfiguration,
+                transportHeaders, "https://test.com/testservice/api/testdevice"));
+        Assert.assertTrue(response);
+        Assert.assertEquals("1234567788888888", transportHeaders.get("X-JWT-Assertion"));
+
+        transportHeaders = new HashMap<>();
+        transportHeaders.put(AuthConstants.ENCODED_PEM, "encoded pem");
+        response = this.handler.handleRequest(createSynapseMessageContext("<empty/>", this.synapseConfiguration,
+                transportHeaders, "https://test.com/testservice/api/testdevice"));
+        Assert.assertTrue(response);
+
+        transportHeaders = new HashMap<>();
+        transportHeaders.put(AuthConstants.ENCODED_PEM, "encoded pem");
+        response = this.handler.handleRequest(createSynapseMessageContext("<empty/>", this.synapseConfiguration,
+                transportHeaders, "https://test.com/testservice/api/otherdevice"));
+        Assert.assertFalse(response);
+        this.mockClient.reset();
+    }
+
+    @Test(description = "Verifications are not cached beyond the expiry of the JWT issued for the device")
+    public void testVerificationCacheExpiry() {
+        VerificationCache verificationCache = new VerificationCache(10, 60000);
+        long currentTime = System.currentTimeMillis() / 1000;
+        verificationCache.put("expired", createJWT(currentTime - 10));
+        Assert.assertNull(verificationCache.get("expired"));
+        verificationCache.put("valid", createJWT(currentTime + 3600));
+        Assert.assertNotNull(verificationCache.get("valid"));
+        verificationCache.put("opaque", "1234567788888888");
+        Assert.assertNotNull(verificationCache.get("opaque"));
+    }
+
+    @Test(description = "Handle request with cert management exception ",
+            dependsOnMethods = "testHandleRequestWithCachedVerification")
     public void testHandleRequestWithCertMgmtException() throws Exception {
         HashMap<String, String> transportHeaders = new HashMap<>();
         transportHeaders.put(AuthConstants.ENCODED_PEM, "encoded pem");
         setMockClient();
+        resetCaches();
         this.mockClient.setResponse(null);
         MessageContext messageContext = createSynapseMessageContext("<empty/>", this.synapseConfiguration,
                 transportHeaders, "https://test.com/testservice/api/testdevice");
@@ -185,6 +224,7 @@ public class AuthenticationHandlerTest extends BaseAPIHandlerTest {
         HashMap<String, String> transportHeaders = new HashMap<>();
         transportHeaders.put(AuthConstants.ENCODED_PEM, "encoded pem");
         setMockClient();
+        resetCaches();
         this.mockClient.setResponse(getAccessTokenReponse());
         this.mockClient.setResponse(null);
         MessageContext messageContext = createSynapseMessageContext("<empty/>", this.synapseConfiguration,
@@ -251,6 +291,25 @@ public class AuthenticationHandlerTest extends BaseAPIHandlerTest {
         clientField.set(restInvoker, this.mockClient);
     }
 
+    private void resetCaches() throws NoSuchFieldException, IllegalAccessException {
+        Field accessTokenCacheField = this.handler.getClass().getDeclaredField("accessTokenCache");
+        accessTokenCacheField.setAccessible(true);
+        AccessTokenCache accessTokenCache = (AccessTokenCache) accessTokenCacheField.get(this.handler);
+        Field accessTokenField = accessTokenCache.getClass().getDeclaredField("accessToken");
+        accessTokenField.setAccessible(true);
+        accessTokenField.set(accessTokenCache, null);
+        Field verificationCacheField = this.handler.getClass().getDeclaredField("verificationCache");
+        verificationCacheField.setAccessible(true);
+        ((VerificationCache) verificationCacheField.get(this.handler)).clear();
+    }
+
+    private static String createJWT(long expiryTime) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString("{"alg":"none"}".getBytes(StandardCharsets.UTF_8)) + "." +
+                encoder.encodeToString(("{"sub":"device","exp":" + expiryTime + "}")
+                        .getBytes(StandardCharsets.UTF_8)) + ".";
+    }
+
     private CloseableHttpResponse getDCRResponse() throws IOException {
         CloseableHttpResponse mockDCRResponse = new MockHttpResponse();
         String dcrResponseFile = TestUtils.getAbsolutePathOfConfig("dcr-response.json");
@@ -52,6 +52,8 @@ public class IOTServerConfigurationTest extends BaseAPIHandlerTest {
                 "https://${iot.keymanager.host}:${iot.keymanager.https.port}/oauth2/token");
         Assert.assertEquals(serverConfiguration.getApis().size(), 1);
         Assert.assertEquals(serverConfiguration.getApis().get(0).getContextPath(), "/services");
+        Assert.assertEquals(serverConfiguration.getVerificationCache().getCapacity(), 100);
+        Assert.assertEquals(serverConfiguration.getVerificationCache().getExpiryTime(), 60000);
     }
 
     @Test(description = "Initializing IoT server config with invalid configuration",
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.certificate.mgt.core.cache;
+
+import org.wso2.carbon.certificate.mgt.core.dto.CertificateResponse;
+
+/**
+ * A certificate cached by its serial number, or the fact that no certificate carries the serial number.
+ */
+public class CertificateCacheEntry {
+
+    private static final CertificateCacheEntry MISSING = new CertificateCacheEntry(null);
+
+    private final CertificateResponse certificateResponse;
+
+    private CertificateCacheEntry(CertificateResponse certificateResponse) {
+        this.certificateResponse = certificateResponse;
+    }
+
+    public static CertificateCacheEntry of(CertificateResponse certificateResponse) {
+        return new CertificateCacheEntry(certificateResponse);
+    }
+
+    public static CertificateCacheEntry missing() {
+        return MISSING;
+    }
+
+    /**
+     * @return true if no certificate carries the serial number.
+     */
+    public boolean isMissing() {
+        return certificateResponse == null;
+    }
+
+    public CertificateResponse getCertificateResponse() {
+        return certificateResponse;
+    }
+}
@@ -21,6 +21,9 @@ package org.wso2.carbon.certificate.mgt.core.cache;
 
 import org.wso2.carbon.certificate.mgt.core.dto.CertificateResponse;
 
+import java.util.Collection;
+import java.util.Map;
+
 /**
  * This interface for caching the certificates.
  */
@@ -29,11 +32,70 @@ public interface CertificateCacheManager {
 
     void addCertificateBySerial(String serialNumber, CertificateResponse certificate) ;
 
+    /**
+     * Caches a certificate of the current tenant read from the database, unless a certificate was removed since the
+     * given cache version was taken.
+     *
+     * @param cacheVersion value of {@link #getCacheVersion()} taken before the certificate was read.
+     */
+    void addCertificateBySerial(String serialNumber, CertificateResponse certificate, long cacheVersion);
+
+    /**
+     * Remembers for a short time that no certificate of the current tenant carries the serial number.
+     */
+    void addMissingCertificateBySerial(String serialNumber);
+
+    /**
+     * Remembers for a short time that no certificate of the current tenant carries the serial number, unless a
+     * certificate was removed since the given cache version was taken.
+     *
+     * @param cacheVersion value of {@link #getCacheVersion()} taken before the serial number was looked up.
+     */
+    void addMissingCertificateBySerial(String serialNumber, long cacheVersion);
+
+    /**
+     * @return a version which changes whenever a certificate is removed from the cache of this node, including the
+     * removals made by the other nodes of the cluster.
+     */
+    long getCacheVersion();
+
+    /**
+     * Removes the certificate of the serial number from the cache of every node of the cluster.
+     */
+
+    void removeCertificateBySerial(String serialNumber);
+
     void addCertificateByCN(String commonName, CertificateResponse certificate) ;
 
     CertificateResponse getCertificateBySerial(String serialNumber) ;
 
+    /**
+     * @return the cache entry of the serial number, which may denote a missing certificate, or null if the serial
+     * number is not cached.
+     */
+    CertificateCacheEntry getCertificateEntryBySerial(String serialNumber);
+
+    /**
+     * @return cache entries of the cached serial numbers, keyed by serial number.
+     */
+    Map<String, CertificateCacheEntry> getCertificateEntriesBySerial(Collection<String> serialNumbers);
+
     CertificateResponse getCertificateByCN(String commonName) ;
 
-}
+    /**
+     * @return the common name resolved from the distinguished name before, or null if it is not cached.
+     */
+    String getCommonNameByDN(String distinguishedName);
+
+    void addCommonNameByDN(String distinguishedName, String commonName);
+
+    long getCacheHitCount();
 
+    long getCacheMissCount();
+
+    /**
+     * @return number of lookups served by an entry of a missing certificate.
+     */
+    long getNegativeCacheHitCount();
+
+}
@@ -19,27 +19,57 @@
 
 package org.wso2.carbon.certificate.mgt.core.cache.impl;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.certificate.mgt.core.cache.CertificateCacheEntry;
 import org.wso2.carbon.certificate.mgt.core.cache.CertificateCacheManager;
 import org.wso2.carbon.certificate.mgt.core.dto.CertificateResponse;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.device.mgt.common.cache.BoundedExpiringCache;
 import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
 import org.wso2.carbon.device.mgt.core.config.DeviceManagementConfig;
+import org.wso2.carbon.device.mgt.core.config.cache.CertificateCacheConfiguration;
 
 import javax.cache.Cache;
-import javax.cache.CacheConfiguration;
-import javax.cache.CacheManager;
 import javax.cache.Caching;
+import javax.cache.event.CacheEntryCreatedListener;
+import javax.cache.event.CacheEntryEvent;
+import javax.cache.event.CacheEntryListenerException;
+import javax.cache.event.CacheEntryUpdatedListener;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Implementation of CertificateCacheManager. Certificates are cached in memory of the node, so that the lookups do not
+ * deserialize them. Serial numbers which are not found are cached for a short time as well. Entries are scoped to the
+ * tenant of the caller. Removals are applied locally and are also written to a distributed invalidation cache, whose
+ * entry listener removes the entry on every node of the cluster, so that a revoked certificate is not served by any
+ * node.
+ */
 public class CertificateCacheManagerImpl implements CertificateCacheManager {
 
+    private static final Log log = LogFactory.getLog(CertificateCacheManagerImpl.class);
+
     public static final String CERTIFICATE_CACHE_MANAGER = "CERTIFICATE_CACHE_MANAGER";
-    public static final String CERTIFICATE_CACHE = "CERTIFICATE_CACHE";
-    private static boolean isCertificateCacheInitialized = false;
-    private static String SERIAL_PRE = "S_";
-    private static String COMMON_NAME_PRE = "C_";
+    public static final String CERTIFICATE_INVALIDATION_CACHE = "CERTIFICATE_INVALIDATION_CACHE";
+    private static final String SERIAL_PRE = "S_";
+    private static final String COMMON_NAME_PRE = "C_";
+    private static final String DISTINGUISHED_NAME_PRE = "D_";
 
     private static CertificateCacheManager certificateCacheManager;
 
+    private volatile BoundedExpiringCache<String, CertificateCacheEntry> cachedEntries;
+    private volatile BoundedExpiringCache<String, String> commonNames;
+    private final Set<Integer> observedTenants = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong negativeHitCount = new AtomicLong();
 
     private CertificateCacheManagerImpl() {
     }
@@ -57,76 +87,257 @@ public class CertificateCacheManagerImpl implements CertificateCacheManager {
 
     @Override
     public void addCertificateBySerial(String serialNumber, CertificateResponse certificate) {
-        CertificateCacheManagerImpl.getCertificateCache().put(SERIAL_PRE + serialNumber, certificate);
+        CertificateCacheConfiguration cacheConfig = getCacheConfiguration();
+        if (cacheConfig != null) {
+            this.getCache(cacheConfig).put(getSerialKey(serialNumber), CertificateCacheEntry.of(certificate),
+                    TimeUnit.SECONDS.toMillis(cacheConfig.getExpiryTime()));
+        }
+    }
+
+    @Override
+    public void addCertificateBySerial(String serialNumber, CertificateResponse certificate, long cacheVersion) {
+        CertificateCacheConfiguration cacheConfig = getCacheConfiguration();
+        if (cacheConfig != null) {
+            this.getCache(cacheConfig).putIfNotInvalidated(getSerialKey(serialNumber),
+                    CertificateCacheEntry.of(certificate), cacheVersion,
+                    TimeUnit.SECONDS.toMillis(cacheConfig.getExpiryTime()));
+        }
+    }
+
+    @Override
+    public void addMissingCertificateBySerial(String serialNumber) {
+        CertificateCacheConfiguration cacheConfig = getCacheConfiguration();
+        if (cacheConfig != null && cacheConfig.getNegativeExpiryTime() > 0) {
+            this.getCache(cacheConfig).put(getSerialKey(serialNumber), CertificateCacheEntry.missing(),
+                    TimeUnit.SECONDS.toMillis(cacheConfig.getNegativeExpiryTime()));
+        }
+    }
+
+    @Override
+    public void addMissingCertificateBySerial(String serialNumber, long cacheVersion) {
+        CertificateCacheConfiguration cacheConfig = getCacheConfiguration();
+        if (cacheConfig != null && cacheConfig.getNegativeExpiryTime() > 0) {
+            this.getCache(cacheConfig).putIfNotInvalidated(getSerialKey(serialNumber),
+                    CertificateCacheEntry.missing(), cacheVersion,
+                    TimeUnit.SECONDS.toMillis(cacheConfig.getNegativeExpiryTime()));
+        }
+    }
+
+    @Override
+    public long getCacheVersion() {
+        CertificateCacheConfiguration cacheConfig = getCacheConfiguration();
+        return cacheConfig != null ? this.getCache(cacheConfig).getVersion() : 0;
+    }
+
+    @Override
+    public void removeCertificateBySerial(String serialNumber) {
+        String key = getSerialKey(serialNumber);
+        this.invalidateLocally(key);
+        CertificateCacheConfiguration cacheConfig = getCacheConfiguration();
+        if (cacheConfig == null) {
+            return;
+        }
+        try {
+            // A new value on every invalidation, so that the other nodes are notified even if the key was invalidated
+            // before.
+            this.getInvalidationCache().put(key, System.nanoTime());
+        } catch (RuntimeException e) {
+            log.warn("Unable to publish the invalidation of the certificate '" + serialNumber + "' to the cluster. " +
+                    "The entries of the other nodes expire within " + cacheConfig.getExpiryTime() + " seconds.", e);
+        }
     }
 
     @Override
     public void addCertificateByCN(String commonName, CertificateResponse certificate) {
-        CertificateCacheManagerImpl.getCertificateCache().put(COMMON_NAME_PRE + commonName, certificate);
+        CertificateCacheConfiguration cacheConfig = getCacheConfiguration();
+        if (cacheConfig != null) {
+            this.getCache(cacheConfig).put(getCommonNameKey(commonName), CertificateCacheEntry.of(certificate),
+                    TimeUnit.SECONDS.toMillis(cacheConfig.getExpiryTime()));
+        }
     }
 
     @Override
     public CertificateResponse getCertificateBySerial(String serialNumber) {
-        return CertificateCacheManagerImpl.getCertificateCache().get(SERIAL_PRE + serialNumber);
+        CertificateCacheEntry entry = this.getCertificateEntryBySerial(serialNumber);
+        return entry != null ? entry.getCertificateResponse() : null;
+    }
+
+    @Override
+    public CertificateCacheEntry getCertificateEntryBySerial(String serialNumber) {
+        return this.get(getSerialKey(serialNumber));
+    }
+
+    @Override
+    public Map<String, CertificateCacheEntry> getCertificateEntriesBySerial(Collection<String> serialNumbers) {
+        Map<String, CertificateCacheEntry> entries = new HashMap<>();
+        for (String serialNumber : serialNumbers) {
+            CertificateCacheEntry entry = this.get(getSerialKey(serialNumber));
+            if (entry != null) {
+                entries.put(serialNumber, entry);
+            }
+        }
+        return entries;
     }
 
     @Override
     public CertificateResponse getCertificateByCN(String commonName) {
-        return CertificateCacheManagerImpl.getCertificateCache().get(COMMON_NAME_PRE + commonName);
+        CertificateCacheEntry entry = this.get(getCommonNameKey(commonName));
+        return entry != null ? entry.getCertificateResponse() : null;
     }
 
+    @Override
+    public String getCommonNameByDN(String distinguishedName) {
+        BoundedExpiringCache<String, String> lCommonNames = commonNames;
+        if (lCommonNames == null || getCacheConfiguration() == null) {
+            return null;
+        }
+        return lCommonNames.get(DISTINGUISHED_NAME_PRE + distinguishedName);
+    }
 
-    private static CacheManager getCacheManager() {
-        return Caching.getCacheManagerFactory().getCacheManager(CertificateCacheManagerImpl.CERTIFICATE_CACHE_MANAGER);
+    @Override
+    public void addCommonNameByDN(String distinguishedName, String commonName) {
+        CertificateCacheConfiguration cacheConfig = getCacheConfiguration();
+        if (cacheConfig == null) {
+            return;
+        }
+        if (commonNames == null) {
+            synchronized (this) {
+                if (commonNames == null) {
+                    // The common name of a distinguished name never changes, hence neither tenant scoping nor
+                    // invalidation is needed.
+                    commonNames = new BoundedExpiringCache<>(getCapacity(cacheConfig), TimeUnit.SECONDS.toMillis(
+                            cacheConfig.getExpiryTime()));
+                }
+            }
+        }
+        commonNames.put(DISTINGUISHED_NAME_PRE + distinguishedName, commonName);
     }
 
-    public static Cache<String, CertificateResponse> getCertificateCache() {
-        DeviceManagementConfig config = DeviceConfigurationManager.getInstance().getDeviceManagementConfig();
-        CacheManager manager = getCacheManager();
-        Cache<String, CertificateResponse> certificateCache = null;
-        if (config.getDeviceCacheConfiguration().isEnabled()) {
-            if (!isCertificateCacheInitialized) {
-                initializeCertificateCache();
+    @Override
+    public long getCacheHitCount() {
+        return hitCount.get();
+    }
+
+    @Override
+    public long getCacheMissCount() {
+        return missCount.get();
+    }
+
+    @Override
+    public long getNegativeCacheHitCount() {
+        return negativeHitCount.get();
+    }
+
+    private CertificateCacheEntry get(String key) {
+        CertificateCacheConfiguration cacheConfig = getCacheConfiguration();
+        if (cacheConfig == null) {
+            return null;
+        }
+        CertificateCacheEntry entry = this.getCache(cacheConfig).get(key);
+        if (entry == null) {
+            missCount.incrementAndGet();
+        } else if (entry.isMissing()) {
+            negativeHitCount.incrementAndGet();
+        } else {
+            hitCount.incrementAndGet();
+        }
+        return entry;
+    }
+
+    private void invalidateLocally(String key) {
+        BoundedExpiringCache<String, CertificateCacheEntry> lCachedEntries = cachedEntries;
+        if (lCachedEntries != null) {
+            lCachedEntries.remove(key);
+        }
+    }
+
+    /**
+     * @return the node local cache, for whose tenant the invalidations of the cluster are observed before it is used.
+     */
+    private BoundedExpiringCache<String, CertificateCacheEntry> getCache(CertificateCacheConfiguration cacheConfig) {
+        if (cachedEntries == null) {
+            synchronized (this) {
+                if (cachedEntries == null) {
+                    cachedEntries = new BoundedExpiringCache<>(getCapacity(cacheConfig), TimeUnit.SECONDS.toMillis(
+                            cacheConfig.getExpiryTime()));
+                }
             }
-            if (manager != null) {
-                certificateCache = manager.<String, CertificateResponse>getCache(CertificateCacheManagerImpl.CERTIFICATE_CACHE);
-            } else {
-                certificateCache = Caching.getCacheManager(CertificateCacheManagerImpl.CERTIFICATE_CACHE_MANAGER).
-                        <String, CertificateResponse>getCache(CertificateCacheManagerImpl.CERTIFICATE_CACHE);
+        }
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        if (!observedTenants.contains(tenantId)) {
+            try {
+                this.getInvalidationCache();
+            } catch (RuntimeException e) {
+                // Not retried, the entries of the tenant expire within the expiry time instead.
+                observedTenants.add(tenantId);
+                log.warn("Unable to observe the certificate invalidations of the cluster for tenant " + tenantId +
+                        ". The entries removed by the other nodes expire within " + cacheConfig.getExpiryTime() +
+                        " seconds.", e);
             }
         }
-        return certificateCache;
+        return cachedEntries;
     }
 
-    public static void initializeCertificateCache() {
-        DeviceManagementConfig config = DeviceConfigurationManager.getInstance().getDeviceManagementConfig();
-        int certificateCacheExpiry = config.getCertificateCacheConfiguration().getExpiryTime();
-        CacheManager manager = getCacheManager();
-        if (config.getCertificateCacheConfiguration().isEnabled()) {
-            if (!isCertificateCacheInitialized) {
-                isCertificateCacheInitialized = true;
-                if (manager != null) {
-                    if (certificateCacheExpiry > 0) {
-                        manager.<String, CertificateResponse>createCacheBuilder(CertificateCacheManagerImpl.CERTIFICATE_CACHE).
-                                setExpiry(CacheConfiguration.ExpiryType.MODIFIED, new CacheConfiguration.Duration(TimeUnit.SECONDS,
-                                        certificateCacheExpiry)).setExpiry(CacheConfiguration.ExpiryType.ACCESSED, new CacheConfiguration.
-                                Duration(TimeUnit.SECONDS, certificateCacheExpiry)).setStoreByValue(true).build();
-                    } else {
-                        manager.<String, CertificateResponse>getCache(CertificateCacheManagerImpl.CERTIFICATE_CACHE);
-                    }
-                } else {
-                    if (certificateCacheExpiry > 0) {
-                        Caching.getCacheManager().
-                                <String, CertificateResponse>createCacheBuilder(CertificateCacheManagerImpl.CERTIFICATE_CACHE).
-                                setExpiry(CacheConfiguration.ExpiryType.MODIFIED, new CacheConfiguration.Duration(TimeUnit.SECONDS,
-                                        certificateCacheExpiry)).setExpiry(CacheConfiguration.ExpiryType.ACCESSED, new CacheConfiguration.
-                                Duration(TimeUnit.SECONDS, certificateCacheExpiry)).setStoreByValue(true).build();
-                    } else {
-                        Caching.getCacheManager().<String, CertificateResponse>getCache(CertificateCacheManagerImpl.CERTIFICATE_CACHE);
-                    }
+    /**
+     * @return the distributed invalidation cache of the current tenant, for which the entry listener of this node
+     * is registered on first use.
+     */
+    private Cache<String, Long> getInvalidationCache() {
+        Cache<String, Long> invalidationCache = Caching.getCacheManagerFactory()
+                .getCacheManager(CERTIFICATE_CACHE_MANAGER).getCache(CERTIFICATE_INVALIDATION_CACHE);
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        if (!observedTenants.contains(tenantId)) {
+            synchronized (observedTenants) {
+                if (observedTenants.add(tenantId)) {
+                    invalidationCache.registerCacheEntryListener(new InvalidationListener());
                 }
             }
         }
+        return invalidationCache;
+    }
+
+    private static int getCapacity(CertificateCacheConfiguration cacheConfig) {
+        return cacheConfig.getCapacity() > 0 ? cacheConfig.getCapacity() :
+                CertificateCacheConfiguration.DEFAULT_CAPACITY;
     }
-}
 
+    /**
+     * @return configuration of the certificate cache, or null if the certificate cache is disabled.
+     */
+    private static CertificateCacheConfiguration getCacheConfiguration() {
+        DeviceManagementConfig config = DeviceConfigurationManager.getInstance().getDeviceManagementConfig();
+        if (config == null || config.getCertificateCacheConfiguration() == null ||
+                !config.getCertificateCacheConfiguration().isEnabled()) {
+            return null;
+        }
+        return config.getCertificateCacheConfiguration();
+    }
+
+    private static String getSerialKey(String serialNumber) {
+        return SERIAL_PRE + PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId() + "_" + serialNumber;
+    }
+
+    private static String getCommonNameKey(String commonName) {
+        return COMMON_NAME_PRE + PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId() + "_" +
+                commonName;
+    }
+
+    /**
+     * Applies the invalidations written to the distributed invalidation cache by any node of the cluster.
+     */
+    private class InvalidationListener implements CacheEntryCreatedListener<String, Long>,
+            CacheEntryUpdatedListener<String, Long> {
+
+        @Override
+        public void entryCreated(CacheEntryEvent<? extends String, ? extends Long> event)
+                throws CacheEntryListenerException {
+            invalidateLocally(event.getKey());
+        }
+
+        @Override
+        public void entryUpdated(CacheEntryEvent<? extends String, ? extends Long> event)
+                throws CacheEntryListenerException {
+            invalidateLocally(event.getKey());
+        }
+    }
+}
@@ -51,6 +51,18 @@ public interface CertificateDAO {
      */
     CertificateResponse retrieveCertificate(String serialNumber) throws CertificateManagementDAOException;
 
+    /**
+     * Obtains the certificates stored in the database against the given serial numbers, with as few queries as
+     * possible.
+     *
+     * @param serialNumbers Serial numbers of the certificates.
+     * @return representations of the certificates found. Serial numbers without a certificate are left out.
+     * @throws CertificateManagementDAOException
+     *
+     */
+    List<CertificateResponse> retrieveCertificates(List<String> serialNumbers)
+            throws CertificateManagementDAOException;
+
     /**
      * Get all the certificates in a paginated manner.
      *
@@ -44,6 +44,7 @@ import java.util.List;
 public abstract class AbstractCertificateDAOImpl implements CertificateDAO{
 
     private static final Log log = LogFactory.getLog(GenericCertificateDAOImpl.class);
+    private static final int MAX_SERIAL_NUMBERS_PER_QUERY = 500;
 
     @Override
     public void addCertificate(List<Certificate> certificates)
@@ -119,6 +120,52 @@ public abstract class AbstractCertificateDAOImpl implements CertificateDAO{
         return certificateResponse;
     }
 
+    @Override
+    public List<CertificateResponse> retrieveCertificates(List<String> serialNumbers)
+            throws CertificateManagementDAOException {
+        List<CertificateResponse> certificates = new ArrayList<>();
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        for (int from = 0; from < serialNumbers.size(); from += MAX_SERIAL_NUMBERS_PER_QUERY) {
+            List<String> batch = serialNumbers.subList(from,
+                    Math.min(from + MAX_SERIAL_NUMBERS_PER_QUERY, serialNumbers.size()));
+            PreparedStatement stmt = null;
+            ResultSet resultSet = null;
+            try {
+                Connection conn = this.getConnection();
+                StringBuilder query = new StringBuilder("SELECT CERTIFICATE, SERIAL_NUMBER, TENANT_ID, USERNAME FROM "
+                        + "DM_DEVICE_CERTIFICATE WHERE TENANT_ID = ? AND SERIAL_NUMBER IN (");
+                for (int i = 0; i < batch.size(); i++) {
+                    query.append(i == 0 ? "?" : ", ?");
+                }
+                query.append(")");
+                stmt = conn.prepareStatement(query.toString());
+                int index = 1;
+                stmt.setInt(index++, tenantId);
+                for (String serialNumber : batch) {
+                    stmt.setString(index++, serialNumber);
+                }
+                resultSet = stmt.executeQuery();
+                while (resultSet.next()) {
+                    CertificateResponse certificateResponse = new CertificateResponse();
+                    byte[] certificateBytes = resultSet.getBytes("CERTIFICATE");
+                    certificateResponse.setCertificate(certificateBytes);
+                    certificateResponse.setSerialNumber(resultSet.getString("SERIAL_NUMBER"));
+                    certificateResponse.setTenantId(resultSet.getInt("TENANT_ID"));
+                    certificateResponse.setUsername(resultSet.getString("USERNAME"));
+                    CertificateGenerator.extractCertificateDetails(certificateBytes, certificateResponse);
+                    certificates.add(certificateResponse);
+                }
+            } catch (SQLException e) {
+                String errorMsg = "Unable to read the certificates of " + serialNumbers.size() + " serial numbers";
+                log.error(errorMsg, e);
+                throw new CertificateManagementDAOException(errorMsg, e);
+            } finally {
+                CertificateManagementDAOUtil.cleanupResources(stmt, resultSet);
+            }
+        }
+        return certificates;
+    }
+
     @Override
     public List<CertificateResponse> searchCertificate(String serialNumber)
             throws CertificateManagementDAOException {
@@ -48,6 +48,8 @@ import org.jscep.message.*;
 import org.jscep.transaction.FailInfo;
 import org.jscep.transaction.Nonce;
 import org.jscep.transaction.TransactionId;
+import org.wso2.carbon.certificate.mgt.core.cache.CertificateCacheManager;
+import org.wso2.carbon.certificate.mgt.core.cache.impl.CertificateCacheManagerImpl;
 import org.wso2.carbon.certificate.mgt.core.dao.CertificateDAO;
 import org.wso2.carbon.certificate.mgt.core.dao.CertificateManagementDAOException;
 import org.wso2.carbon.certificate.mgt.core.dao.CertificateManagementDAOFactory;
@@ -323,6 +325,12 @@ public class CertificateGenerator {
         CertificateResponse lookUpCertificate = null;
         KeyStoreReader keyStoreReader = new KeyStoreReader();
         if (distinguishedName != null && !distinguishedName.isEmpty()) {
+            // The same distinguished name is sent with every request of a device, hence its common name is cached.
+            CertificateCacheManager cacheManager = CertificateCacheManagerImpl.getInstance();
+            String commonName = cacheManager.getCommonNameByDN(distinguishedName);
+            if (commonName != null) {
+                return keyStoreReader.getCertificateBySerial(commonName);
+            }
             LdapName ldapName;
             try {
                 ldapName = new LdapName(distinguishedName);
@@ -333,8 +341,9 @@ public class CertificateGenerator {
             for (Rdn relativeDistinuguishedNames : ldapName.getRdns()) {
                 if (relativeDistinuguishedNames.getType().equalsIgnoreCase("CN")) {
                     System.err.println("CN is: " + relativeDistinuguishedNames.getValue());
-                    lookUpCertificate = keyStoreReader
-                            .getCertificateBySerial(String.valueOf(relativeDistinuguishedNames.getValue()));
+                    commonName = String.valueOf(relativeDistinuguishedNames.getValue());
+                    cacheManager.addCommonNameByDN(distinguishedName, commonName);
+                    lookUpCertificate = keyStoreReader.getCertificateBySerial(commonName);
                     break;
                 }
             }
@@ -633,6 +642,15 @@ public class CertificateGenerator {
             CertificateManagementDAOFactory.beginTransaction();
             certificateDAO.addCertificate(certificate);
             CertificateManagementDAOFactory.commitTransaction();
+            // Drops the entries which remember the serial numbers as not carrying a certificate.
+            CertificateCacheManager cacheManager = CertificateCacheManagerImpl.getInstance();
+            for (org.wso2.carbon.certificate.mgt.core.bean.Certificate savedCertificate : certificate) {
+                String serialNumber = savedCertificate.getSerial();
+                if (serialNumber == null || serialNumber.isEmpty()) {
+                    serialNumber = String.valueOf(savedCertificate.getCertificate().getSerialNumber());
+                }
+                cacheManager.removeCertificateBySerial(serialNumber);
+            }
         } catch (CertificateManagementDAOException e) {
             String errorMsg = "Error occurred when saving the generated certificate";
             CertificateManagementDAOFactory.rollbackTransaction();
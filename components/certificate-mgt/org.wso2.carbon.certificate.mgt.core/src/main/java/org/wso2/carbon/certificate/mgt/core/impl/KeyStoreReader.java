@@ -19,6 +19,7 @@ package org.wso2.carbon.certificate.mgt.core.impl;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.certificate.mgt.core.cache.CertificateCacheEntry;
 import org.wso2.carbon.certificate.mgt.core.cache.CertificateCacheManager;
 import org.wso2.carbon.certificate.mgt.core.cache.impl.CertificateCacheManagerImpl;
 import org.wso2.carbon.certificate.mgt.core.config.CertificateConfigurationManager;
@@ -31,6 +32,7 @@ import org.wso2.carbon.certificate.mgt.core.exception.CertificateManagementExcep
 import org.wso2.carbon.certificate.mgt.core.exception.KeystoreException;
 import org.wso2.carbon.certificate.mgt.core.util.Serializer;
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
@@ -41,11 +43,24 @@ import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class KeyStoreReader {
 
     private static final Log log = LogFactory.getLog(KeyStoreReader.class);
 
+    /**
+     * Certificate keystore and the CA and RA material read from it. The keystore is read from disk only when the file
+     * has been modified since it was last read.
+     */
+    private static volatile KeyStoreMaterial keyStoreMaterial;
+
     private CertificateDAO certDao;
 
     public KeyStoreReader() {
@@ -118,23 +133,55 @@ public class KeyStoreReader {
             } catch (IOException e) {
                 log.error("Error closing KeyStore output stream", e);
             }
+            // The modified time of the file may not change within its resolution, hence dropped explicitly.
+            clearKeyStoreCache();
         }
     }
 
 
     KeyStore loadCertificateKeyStore() throws KeystoreException {
-        KeyStore keyStore = null;
+        return getKeyStoreMaterial().keyStore;
+    }
+
+    /**
+     * Drops the cached keystore, so that it is read from disk on the next access.
+     */
+    static void clearKeyStoreCache() {
+        synchronized (KeyStoreReader.class) {
+            keyStoreMaterial = null;
+        }
+    }
+
+    private KeyStoreMaterial getKeyStoreMaterial() throws KeystoreException {
+        CertificateKeystoreConfig certificateKeystoreConfig;
         try {
-            CertificateKeystoreConfig certificateKeystoreConfig = CertificateConfigurationManager.getInstance().
-                    getCertificateKeyStoreConfig();
-            keyStore = loadKeyStore(certificateKeystoreConfig.getCertificateKeystoreType(),
-                    certificateKeystoreConfig.getCertificateKeystoreLocation(),
-                    certificateKeystoreConfig.getCertificateKeystorePassword());
+            certificateKeystoreConfig = CertificateConfigurationManager.getInstance().getCertificateKeyStoreConfig();
         } catch (CertificateManagementException e) {
             String errorMsg = "Unable to find KeyStore configuration in certificate-mgt.config file.";
             throw new KeystoreException(errorMsg, e);
         }
-        return keyStore;
+        String location = certificateKeystoreConfig.getCertificateKeystoreLocation();
+        // Taken before reading the file, hence a change made while reading is picked up by the next access.
+        File keyStoreFile = new File(location);
+        long lastModified = keyStoreFile.lastModified();
+        long length = keyStoreFile.length();
+
+        KeyStoreMaterial material = keyStoreMaterial;
+        if (material == null || !material.isCurrent(location, lastModified, length)) {
+            synchronized (KeyStoreReader.class) {
+                material = keyStoreMaterial;
+                if (material == null || !material.isCurrent(location, lastModified, length)) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Loading certificate KeyStore from " + location);
+                    }
+                    KeyStore keyStore = loadKeyStore(certificateKeystoreConfig.getCertificateKeystoreType(), location,
+                            certificateKeystoreConfig.getCertificateKeystorePassword());
+                    material = new KeyStoreMaterial(location, lastModified, length, keyStore);
+                    keyStoreMaterial = material;
+                }
+            }
+        }
+        return material;
     }
 
     void saveCertificateKeyStore(KeyStore keyStore) throws KeystoreException {
@@ -150,7 +197,11 @@ public class KeyStoreReader {
     }
 
     public Certificate getCACertificate() throws KeystoreException {
-        KeyStore keystore = loadCertificateKeyStore();
+        KeyStoreMaterial material = getKeyStoreMaterial();
+        if (material.caCertificate != null) {
+            return material.caCertificate;
+        }
+        KeyStore keystore = material.keyStore;
         Certificate caCertificate;
         try {
             CertificateKeystoreConfig certificateKeystoreConfig = CertificateConfigurationManager.getInstance().
@@ -167,12 +218,16 @@ public class KeyStoreReader {
         if (caCertificate == null) {
             throw new KeystoreException("CA certificate not found in KeyStore");
         }
-
+        material.caCertificate = caCertificate;
         return caCertificate;
     }
 
     PrivateKey getCAPrivateKey() throws KeystoreException {
-        KeyStore keyStore = loadCertificateKeyStore();
+        KeyStoreMaterial material = getKeyStoreMaterial();
+        if (material.caPrivateKey != null) {
+            return material.caPrivateKey;
+        }
+        KeyStore keyStore = material.keyStore;
         PrivateKey caPrivateKey;
         try {
             CertificateKeystoreConfig certificateKeystoreConfig = CertificateConfigurationManager.getInstance().
@@ -197,12 +252,16 @@ public class KeyStoreReader {
         if (caPrivateKey == null) {
             throw new KeystoreException("CA private key not found in KeyStore");
         }
-
+        material.caPrivateKey = caPrivateKey;
         return caPrivateKey;
     }
 
     public Certificate getRACertificate() throws KeystoreException {
-        KeyStore keystore = loadCertificateKeyStore();
+        KeyStoreMaterial material = getKeyStoreMaterial();
+        if (material.raCertificate != null) {
+            return material.raCertificate;
+        }
+        KeyStore keystore = material.keyStore;
         Certificate raCertificate;
         try {
             CertificateKeystoreConfig certificateKeystoreConfig = CertificateConfigurationManager.getInstance().
@@ -219,7 +278,7 @@ public class KeyStoreReader {
         if (raCertificate == null) {
             throw new KeystoreException("RA certificate not found in KeyStore");
         }
-
+        material.raCertificate = raCertificate;
         return raCertificate;
     }
 
@@ -247,7 +306,11 @@ public class KeyStoreReader {
     }
 
     public PrivateKey getRAPrivateKey() throws KeystoreException {
-        KeyStore keystore = loadCertificateKeyStore();
+        KeyStoreMaterial material = getKeyStoreMaterial();
+        if (material.raPrivateKey != null) {
+            return material.raPrivateKey;
+        }
+        KeyStore keystore = material.keyStore;
         PrivateKey raPrivateKey;
         try {
             CertificateKeystoreConfig certificateKeystoreConfig = CertificateConfigurationManager.getInstance().
@@ -271,44 +334,143 @@ public class KeyStoreReader {
         if (raPrivateKey == null) {
             throw new KeystoreException("RA private key not found in KeyStore");
         }
-
+        material.raPrivateKey = raPrivateKey;
         return raPrivateKey;
     }
 
     public CertificateResponse getCertificateBySerial(String serialNumber) throws KeystoreException {
-        CertificateResponse certificateResponse = null;
+        CertificateCacheManager cacheManager = CertificateCacheManagerImpl.getInstance();
+        CertificateCacheEntry cacheEntry = cacheManager.getCertificateEntryBySerial(serialNumber);
+        if (cacheEntry != null) {
+            // Null if the serial number is known not to carry a certificate.
+            return cacheEntry.getCertificateResponse();
+        }
+        // Taken before the read, so that a certificate removed while it is read is not cached afterwards.
+        long cacheVersion = cacheManager.getCacheVersion();
+        CertificateResponse certificateResponse;
         try {
-            CertificateCacheManager cacheManager = CertificateCacheManagerImpl.getInstance();
-            certificateResponse = cacheManager.getCertificateBySerial(serialNumber);
-            if (certificateResponse == null) {
-                try {
-                    CertificateManagementDAOFactory.openConnection();
-                    certificateResponse = certDao.retrieveCertificate(serialNumber);
-                } catch (SQLException e) {
-                    String errorMsg = "Error when making a connection to the database.";
-                    throw new KeystoreException(errorMsg, e);
-                } finally {
-                    CertificateManagementDAOFactory.closeConnection();
-                }
-                if (certificateResponse != null && certificateResponse.getCertificate() != null) {
-                    Certificate certificate = (Certificate) Serializer.deserialize(certificateResponse.getCertificate());
-                    if (certificate instanceof X509Certificate) {
-                        X509Certificate x509cert = (X509Certificate) certificate;
-                        String commonName = CertificateGenerator.getCommonName(x509cert);
-                        certificateResponse.setCommonName(commonName);
-                        cacheManager.addCertificateBySerial(serialNumber, certificateResponse);
-                    }
-                }
-            }
+            CertificateManagementDAOFactory.openConnection();
+            certificateResponse = certDao.retrieveCertificate(serialNumber);
+        } catch (SQLException e) {
+            String errorMsg = "Error when making a connection to the database.";
+            throw new KeystoreException(errorMsg, e);
         } catch (CertificateManagementDAOException e) {
             String errorMsg = "Error when retrieving certificate from the the database for the serial number: " +
                     serialNumber;
             throw new KeystoreException(errorMsg, e);
+        } finally {
+            CertificateManagementDAOFactory.closeConnection();
+        }
+        if (certificateResponse == null) {
+            cacheManager.addMissingCertificateBySerial(serialNumber, cacheVersion);
+        } else {
+            this.cacheCertificate(cacheManager, serialNumber, certificateResponse, cacheVersion);
+        }
+        return certificateResponse;
+    }
+
+    /**
+     * Looks up the certificates of the given serial numbers, from the certificate cache where possible and with a
+     * single database round trip for the rest.
+     *
+     * @param serialNumbers serial numbers of the certificates.
+     * @return certificates keyed by serial number. Serial numbers without a certificate are left out.
+     * @throws KeystoreException if the certificates could not be retrieved.
+     */
+    public Map<String, CertificateResponse> getCertificatesBySerial(Collection<String> serialNumbers)
+            throws KeystoreException {
+        Map<String, CertificateResponse> certificates = new HashMap<>();
+        CertificateCacheManager cacheManager = CertificateCacheManagerImpl.getInstance();
+        Map<String, CertificateCacheEntry> cacheEntries = cacheManager.getCertificateEntriesBySerial(serialNumbers);
+        Set<String> uncachedSerialNumbers = new LinkedHashSet<>();
+        for (String serialNumber : serialNumbers) {
+            CertificateCacheEntry cacheEntry = cacheEntries.get(serialNumber);
+            if (cacheEntry == null) {
+                uncachedSerialNumbers.add(serialNumber);
+            } else if (!cacheEntry.isMissing()) {
+                certificates.put(serialNumber, cacheEntry.getCertificateResponse());
+            }
+        }
+        if (uncachedSerialNumbers.isEmpty()) {
+            return certificates;
+        }
+
+        long cacheVersion = cacheManager.getCacheVersion();
+        List<CertificateResponse> certificateResponses;
+        try {
+            CertificateManagementDAOFactory.openConnection();
+            certificateResponses = certDao.retrieveCertificates(new ArrayList<>(uncachedSerialNumbers));
+        } catch (SQLException e) {
+            String errorMsg = "Error when making a connection to the database.";
+            throw new KeystoreException(errorMsg, e);
+        } catch (CertificateManagementDAOException e) {
+            String errorMsg = "Error when retrieving the certificates of " + uncachedSerialNumbers.size() +
+                    " serial numbers from the database";
+            throw new KeystoreException(errorMsg, e);
+        } finally {
+            CertificateManagementDAOFactory.closeConnection();
+        }
+        for (CertificateResponse certificateResponse : certificateResponses) {
+            String serialNumber = certificateResponse.getSerialNumber();
+            uncachedSerialNumbers.remove(serialNumber);
+            this.cacheCertificate(cacheManager, serialNumber, certificateResponse, cacheVersion);
+            certificates.put(serialNumber, certificateResponse);
+        }
+        for (String serialNumber : uncachedSerialNumbers) {
+            cacheManager.addMissingCertificateBySerial(serialNumber, cacheVersion);
+        }
+        return certificates;
+    }
 
+    /**
+     * Sets the common name of an X509 certificate retrieved from the database and caches it, so that it is not
+     * deserialized again while it is served from the cache. Cached certificates are shared, hence must not be modified
+     * afterwards.
+     */
+    private void cacheCertificate(CertificateCacheManager cacheManager, String serialNumber,
+                                  CertificateResponse certificateResponse, long cacheVersion)
+            throws KeystoreException {
+        if (certificateResponse.getCertificate() == null) {
+            return;
+        }
+        try {
+            Certificate certificate = (Certificate) Serializer.deserialize(certificateResponse.getCertificate());
+            if (certificate instanceof X509Certificate) {
+                X509Certificate x509cert = (X509Certificate) certificate;
+                String commonName = CertificateGenerator.getCommonName(x509cert);
+                certificateResponse.setCommonName(commonName);
+                cacheManager.addCertificateBySerial(serialNumber, certificateResponse, cacheVersion);
+            }
         } catch (ClassNotFoundException | IOException e) {
             String errorMsg = "Error when de-serializing saved certificate.";
             throw new KeystoreException(errorMsg, e);
         }
-        return certificateResponse;
+    }
+
+    /**
+     * Keystore read from a given state of the keystore file, along with the CA and RA material resolved from it.
+     * The material is resolved on first use; resolving it twice on a race is harmless.
+     */
+    private static class KeyStoreMaterial {
+
+        private final String location;
+        private final long lastModified;
+        private final long length;
+        private final KeyStore keyStore;
+        private volatile Certificate caCertificate;
+        private volatile PrivateKey caPrivateKey;
+        private volatile Certificate raCertificate;
+        private volatile PrivateKey raPrivateKey;
+
+        private KeyStoreMaterial(String location, long lastModified, long length, KeyStore keyStore) {
+            this.location = location;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.keyStore = keyStore;
+        }
+
+        private boolean isCurrent(String location, long lastModified, long length) {
+            return this.location.equals(location) && this.lastModified == lastModified && this.length == length;
+        }
     }
 }
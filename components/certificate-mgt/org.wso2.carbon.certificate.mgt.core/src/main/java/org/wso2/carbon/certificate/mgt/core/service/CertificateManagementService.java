@@ -27,7 +27,9 @@ import java.io.InputStream;
 import java.security.PrivateKey;
 import java.security.cert.Certificate;
 import java.security.cert.X509Certificate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface CertificateManagementService {
 
@@ -64,6 +66,14 @@ public interface CertificateManagementService {
 
     CertificateResponse getCertificateBySerial(String serial) throws KeystoreException;
 
+    /**
+     * @param serials serial numbers of the certificates.
+     * @return certificates of the current tenant keyed by serial number. Serial numbers without a certificate are
+     * left out.
+     * @throws KeystoreException if the certificates could not be retrieved.
+     */
+    Map<String, CertificateResponse> getCertificatesBySerial(Collection<String> serials) throws KeystoreException;
+
     void saveCertificate(List<org.wso2.carbon.certificate.mgt.core.bean.Certificate> certificate)
             throws KeystoreException;
 
@@ -20,6 +20,7 @@ package org.wso2.carbon.certificate.mgt.core.service;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.bouncycastle.pkcs.PKCS10CertificationRequest;
+import org.wso2.carbon.certificate.mgt.core.cache.impl.CertificateCacheManagerImpl;
 import org.wso2.carbon.certificate.mgt.core.dao.CertificateDAO;
 import org.wso2.carbon.certificate.mgt.core.dao.CertificateManagementDAOException;
 import org.wso2.carbon.certificate.mgt.core.dao.CertificateManagementDAOFactory;
@@ -38,7 +39,9 @@ import java.security.PrivateKey;
 import java.security.cert.Certificate;
 import java.security.cert.X509Certificate;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public class CertificateManagementServiceImpl implements CertificateManagementService {
 
@@ -126,6 +129,12 @@ public class CertificateManagementServiceImpl implements CertificateManagementSe
         return keyStoreReader.getCertificateBySerial(serial);
     }
 
+    @Override
+    public Map<String, CertificateResponse> getCertificatesBySerial(Collection<String> serials)
+            throws KeystoreException {
+        return keyStoreReader.getCertificatesBySerial(serials);
+    }
+
     public void saveCertificate(List<org.wso2.carbon.certificate.mgt.core.bean.Certificate> certificate)
             throws KeystoreException {
         certificateGenerator.saveCertInKeyStore(certificate);
@@ -180,6 +189,7 @@ public class CertificateManagementServiceImpl implements CertificateManagementSe
             CertificateDAO certificateDAO = CertificateManagementDAOFactory.getCertificateDAO();
             boolean status = certificateDAO.removeCertificate(serialNumber);
             CertificateManagementDAOFactory.commitTransaction();
+            CertificateCacheManagerImpl.getInstance().removeCertificateBySerial(serialNumber);
             return status;
         } catch (TransactionManagementException e) {
             String msg = "Error occurred while removing certificate carrying serial number '" + serialNumber + "'";
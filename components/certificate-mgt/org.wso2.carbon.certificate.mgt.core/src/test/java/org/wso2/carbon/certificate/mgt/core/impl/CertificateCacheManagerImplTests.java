@@ -20,9 +20,16 @@ package org.wso2.carbon.certificate.mgt.core.impl;
 
 import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.certificate.mgt.core.cache.CertificateCacheEntry;
 import org.wso2.carbon.certificate.mgt.core.cache.CertificateCacheManager;
 import org.wso2.carbon.certificate.mgt.core.common.BaseDeviceManagementCertificateTest;
 import org.wso2.carbon.certificate.mgt.core.dao.CertificateManagementDAOFactory;
+import org.wso2.carbon.certificate.mgt.core.dto.CertificateResponse;
+import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
+
+import java.util.Arrays;
+import java.util.Map;
 
 /**
  * This class tests CertificateCache manager methods
@@ -36,8 +43,62 @@ public class CertificateCacheManagerImplTests extends BaseDeviceManagementCertif
     public void init() throws Exception {
         initDataSource();
         CertificateManagementDAOFactory.init(this.getDataSource());
+        DeviceConfigurationManager.getInstance().initConfig();
         manager = org.wso2.carbon.certificate.mgt.core.cache.impl.CertificateCacheManagerImpl.getInstance();
         Assert.assertNotNull(manager);
     }
 
+    @Test(description = "Tests caching of certificates and of serial numbers without a certificate")
+    public void testCertificateCache() {
+        CertificateResponse certificate = new CertificateResponse();
+        certificate.setSerialNumber("cache-test-1");
+        long hitCount = manager.getCacheHitCount();
+        long missCount = manager.getCacheMissCount();
+        long negativeHitCount = manager.getNegativeCacheHitCount();
+
+        Assert.assertNull(manager.getCertificateEntryBySerial("cache-test-1"));
+        manager.addCertificateBySerial("cache-test-1", certificate);
+        manager.addMissingCertificateBySerial("cache-test-2");
+        Assert.assertSame(manager.getCertificateBySerial("cache-test-1"), certificate);
+        Assert.assertTrue(manager.getCertificateEntryBySerial("cache-test-2").isMissing());
+        Assert.assertNull(manager.getCertificateBySerial("cache-test-2"));
+
+        Map<String, CertificateCacheEntry> entries = manager.getCertificateEntriesBySerial(
+                Arrays.asList("cache-test-1", "cache-test-2", "cache-test-3"));
+        Assert.assertEquals(entries.size(), 2);
+        Assert.assertSame(entries.get("cache-test-1").getCertificateResponse(), certificate);
+        Assert.assertTrue(entries.get("cache-test-2").isMissing());
+
+        Assert.assertEquals(manager.getCacheHitCount() - hitCount, 2);
+        Assert.assertEquals(manager.getCacheMissCount() - missCount, 2);
+        Assert.assertEquals(manager.getNegativeCacheHitCount() - negativeHitCount, 3);
+
+        manager.removeCertificateBySerial("cache-test-1");
+        Assert.assertNull(manager.getCertificateEntryBySerial("cache-test-1"));
+    }
+
+    @Test(description = "Tests that a certificate read before it is removed is not cached")
+    public void testStaleCertificateIsNotCached() {
+        CertificateResponse certificate = new CertificateResponse();
+        certificate.setSerialNumber("cache-test-4");
+        long cacheVersion = manager.getCacheVersion();
+        manager.removeCertificateBySerial("cache-test-4");
+        manager.addCertificateBySerial("cache-test-4", certificate, cacheVersion);
+        manager.addMissingCertificateBySerial("cache-test-5", cacheVersion);
+        Assert.assertNull(manager.getCertificateEntryBySerial("cache-test-4"), "Removed certificate is cached");
+        Assert.assertNull(manager.getCertificateEntryBySerial("cache-test-5"), "Stale missing entry is cached");
+
+        manager.addCertificateBySerial("cache-test-4", certificate, manager.getCacheVersion());
+        Assert.assertSame(manager.getCertificateBySerial("cache-test-4"), certificate);
+        manager.removeCertificateBySerial("cache-test-4");
+    }
+
+    @Test(description = "Tests caching of the common names of distinguished names")
+    public void testCommonNameByDN() {
+        String distinguishedName = "CN=cache-test-6,OU=Test,O=WSO2";
+        Assert.assertNull(manager.getCommonNameByDN(distinguishedName));
+        manager.addCommonNameByDN(distinguishedName, "cache-test-6");
+        Assert.assertEquals(manager.getCommonNameByDN(distinguishedName), "cache-test-6");
+    }
+
 }
@@ -30,6 +30,8 @@ import org.bouncycastle.pkcs.PKCS10CertificationRequest;
 import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
+import org.wso2.carbon.certificate.mgt.core.cache.CertificateCacheManager;
+import org.wso2.carbon.certificate.mgt.core.cache.impl.CertificateCacheManagerImpl;
 import org.wso2.carbon.certificate.mgt.core.common.BaseDeviceManagementCertificateTest;
 import org.wso2.carbon.certificate.mgt.core.dao.CertificateManagementDAOFactory;
 import org.wso2.carbon.certificate.mgt.core.dto.CAStatus;
@@ -54,7 +56,9 @@ import java.security.PrivateKey;
 import java.security.Security;
 import java.security.cert.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Test cases for for CertificateManagementServiceImpl class methods.
@@ -165,6 +169,25 @@ public class CertificateManagementServiceImplTests extends BaseDeviceManagementC
         log.info("GetCertificateBySerial Test Successful");
     }
 
+    @Test(description = "This test case tests retrieval of certificates by serial numbers, including unknown ones",
+            dependsOnMethods = "testGetCertificateBySerial")
+    public void testGetCertificatesBySerial() throws KeystoreException {
+        X509Certificate x509Certificate = managementService.generateX509Certificate();
+        String serialNumber = x509Certificate.getSerialNumber().toString();
+        List<String> serialNumbers = Arrays.asList(serialNumber, "unknown-serial-number");
+        Map<String, CertificateResponse> certificates = managementService.getCertificatesBySerial(serialNumbers);
+        Assert.assertEquals(certificates.size(), 1);
+        Assert.assertEquals(certificates.get(serialNumber).getSerialNumber(), serialNumber);
+        Assert.assertNotNull(certificates.get(serialNumber).getCommonName());
+
+        CertificateCacheManager cacheManager = CertificateCacheManagerImpl.getInstance();
+        long negativeHitCount = cacheManager.getNegativeCacheHitCount();
+        Assert.assertNull(managementService.getCertificateBySerial("unknown-serial-number"));
+        Assert.assertEquals(cacheManager.getNegativeCacheHitCount() - negativeHitCount, 1);
+        Assert.assertEquals(managementService.getCertificatesBySerial(serialNumbers).size(), 1);
+        log.info("GetCertificatesBySerial Test Successful");
+    }
+
     @Test(description = "This test case tests retrieval of a Certificate from the keystore from the Alias")
     public void testGetCertificateByAlias() throws KeystoreException, DeviceManagementException {
         X509Certificate x509Certificate = null;
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.certificate.mgt.core.impl;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.certificate.mgt.core.config.CertificateConfigurationManager;
+import org.wso2.carbon.certificate.mgt.core.exception.CertificateManagementException;
+import org.wso2.carbon.certificate.mgt.core.exception.KeystoreException;
+
+import java.io.File;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+
+/**
+ * Test cases for the keystore cache of {@link KeyStoreReader}.
+ */
+public class KeyStoreReaderTests {
+
+    private static final Log log = LogFactory.getLog(KeyStoreReaderTests.class);
+    private static final int ITERATIONS = 50;
+
+    @Test(description = "This test case tests that the keystore material is read once and shared by the readers")
+    public void testCachedKeyStoreMaterial() throws KeystoreException {
+        KeyStoreReader.clearKeyStoreCache();
+        KeyStoreReader keyStoreReader = new KeyStoreReader();
+        KeyStore keyStore = keyStoreReader.loadCertificateKeyStore();
+        Assert.assertSame(new KeyStoreReader().loadCertificateKeyStore(), keyStore);
+        Assert.assertSame(new KeyStoreReader().getCACertificate(), keyStoreReader.getCACertificate());
+        Assert.assertSame(new KeyStoreReader().getCAPrivateKey(), keyStoreReader.getCAPrivateKey());
+        Assert.assertSame(new KeyStoreReader().getRACertificate(), keyStoreReader.getRACertificate());
+        Assert.assertSame(new KeyStoreReader().getRAPrivateKey(), keyStoreReader.getRAPrivateKey());
+    }
+
+    @Test(description = "This test case tests that the keystore is read again once the keystore file changes",
+            dependsOnMethods = "testCachedKeyStoreMaterial")
+    public void testReloadOnKeyStoreChange() throws KeystoreException, CertificateManagementException,
+            KeyStoreException {
+        KeyStoreReader keyStoreReader = new KeyStoreReader();
+        KeyStore keyStore = keyStoreReader.loadCertificateKeyStore();
+        File keyStoreFile = new File(CertificateConfigurationManager.getInstance().getCertificateKeyStoreConfig()
+                .getCertificateKeystoreLocation());
+        Assert.assertTrue(keyStoreFile.setLastModified(keyStoreFile.lastModified() + 1000));
+
+        KeyStore reloadedKeyStore = keyStoreReader.loadCertificateKeyStore();
+        Assert.assertNotSame(reloadedKeyStore, keyStore);
+        Assert.assertEquals(keyStoreReader.getCACertificate(), keyStore.getCertificate(CertificateConfigurationManager
+                .getInstance().getCertificateKeyStoreConfig().getCACertAlias()));
+        Assert.assertSame(keyStoreReader.loadCertificateKeyStore(), reloadedKeyStore);
+    }
+
+    @Test(description = "This test case compares the cost of resolving the CA and RA material with and without the "
+            + "keystore cache", dependsOnMethods = "testReloadOnKeyStoreChange")
+    public void testKeyStoreAccessCost() throws KeystoreException {
+        KeyStoreReader keyStoreReader = new KeyStoreReader();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            KeyStoreReader.clearKeyStoreCache();
+            this.resolveMaterial(keyStoreReader);
+        }
+        long uncachedTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            this.resolveMaterial(keyStoreReader);
+        }
+        long cachedTime = System.nanoTime() - start;
+
+        log.info("Average time to resolve the CA and RA material: " + (uncachedTime / ITERATIONS / 1000) +
+                "us without the keystore cache, " + (cachedTime / ITERATIONS / 1000) + "us with the keystore cache");
+        Assert.assertTrue(cachedTime < uncachedTime);
+    }
+
+    private void resolveMaterial(KeyStoreReader keyStoreReader) throws KeystoreException {
+        Assert.assertNotNull(keyStoreReader.getCACertificate());
+        Assert.assertNotNull(keyStoreReader.getCAPrivateKey());
+        Assert.assertNotNull(keyStoreReader.getRACertificate());
+        Assert.assertNotNull(keyStoreReader.getRAPrivateKey());
+    }
+
+}
@@ -18,34 +18,50 @@
  */
 package org.wso2.carbon.device.mgt.extensions.push.notification.provider.fcm;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonPrimitive;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
 import org.wso2.carbon.device.mgt.common.DeviceManagementException;
+import org.wso2.carbon.device.mgt.common.cache.BoundedExpiringCache;
+import org.wso2.carbon.device.mgt.common.push.notification.BatchNotificationStrategy;
 import org.wso2.carbon.device.mgt.common.push.notification.NotificationContext;
-import org.wso2.carbon.device.mgt.common.push.notification.NotificationStrategy;
 import org.wso2.carbon.device.mgt.common.push.notification.PushNotificationConfig;
 import org.wso2.carbon.device.mgt.common.push.notification.PushNotificationExecutionFailedException;
 import org.wso2.carbon.device.mgt.extensions.push.notification.provider.fcm.internal.FCMDataHolder;
+import org.wso2.carbon.device.mgt.extensions.push.notification.provider.fcm.util.FCMResponse;
+import org.wso2.carbon.device.mgt.extensions.push.notification.provider.fcm.util.FCMSender;
 
-import java.io.IOException;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
-public class FCMNotificationStrategy implements NotificationStrategy {
+public class FCMNotificationStrategy implements BatchNotificationStrategy {
 
+    private static final Log log = LogFactory.getLog(FCMNotificationStrategy.class);
     private static final String FCM_TOKEN = "FCM_TOKEN";
     private static final String FCM_ENDPOINT = "https://fcm.googleapis.com/fcm/send";
     private static final String FCM_API_KEY = "fcmAPIKey";
-    private static final int TIME_TO_LIVE = 60;
-    private static final int HTTP_STATUS_CODE_OK = 200;
+    private static final String FCM_ENDPOINT_PROPERTY = "fcmEndpoint";
+    private static final int TOKEN_CACHE_CAPACITY = 100000;
+    private static final long TOKEN_CACHE_EXPIRY = 15 * 60 * 1000;
     private final PushNotificationConfig config;
+    private final FCMSender fcmSender;
+    // Saves reading the device type properties every time a device is woken up. Tokens expire so that a token
+    // refreshed by the device is picked up eventually, and the ones reported as invalid by FCM are removed right away.
+    private final BoundedExpiringCache<String, String> tokenCache =
+            new BoundedExpiringCache<>(TOKEN_CACHE_CAPACITY, TOKEN_CACHE_EXPIRY);
 
     public FCMNotificationStrategy(PushNotificationConfig config) {
         this.config = config;
+        String endpoint = config.getProperty(FCM_ENDPOINT_PROPERTY);
+        if (endpoint == null || endpoint.isEmpty()) {
+            endpoint = FCM_ENDPOINT;
+        }
+        this.fcmSender = new FCMSender(endpoint, config.getProperty(FCM_API_KEY));
     }
 
     @Override
@@ -55,14 +71,9 @@ public class FCMNotificationStrategy implements NotificationStrategy {
 
     @Override
     public void execute(NotificationContext ctx) throws PushNotificationExecutionFailedException {
-        try {
-            Device device =
-                    FCMDataHolder.getInstance().getDeviceManagementProviderService().getDeviceWithTypeProperties(ctx.getDeviceId());
-            this.sendWakeUpCall(ctx.getOperation().getCode(), device);
-        } catch (DeviceManagementException e) {
-            throw new PushNotificationExecutionFailedException("Error occurred while retrieving device information", e);
-        } catch (IOException e) {
-            throw new PushNotificationExecutionFailedException("Error occurred while sending push notification", e);
+        if (!this.executeBatch(Collections.singletonList(ctx)).isEmpty()) {
+            throw new PushNotificationExecutionFailedException("Push notification sending failed for the device '" +
+                    ctx.getDeviceId().getId() + "'");
         }
     }
 
@@ -73,56 +84,114 @@ public class FCMNotificationStrategy implements NotificationStrategy {
 
     @Override
     public void undeploy() {
-
+        tokenCache.clear();
     }
 
-    private void sendWakeUpCall(String message,
-                                Device device) throws IOException, PushNotificationExecutionFailedException {
-        OutputStream os = null;
-        byte[] bytes = getFCMRequest(message, getFCMToken(device.getProperties())).getBytes();
-
-        HttpURLConnection conn = null;
-        try {
-            conn = (HttpURLConnection) new URL(FCM_ENDPOINT).openConnection();
-            conn.setRequestProperty("Content-Type", "application/json");
-            conn.setRequestProperty("Authorization", "key=" + config.getProperty(FCM_API_KEY));
-            conn.setRequestMethod("POST");
-            conn.setDoOutput(true);
-            os = conn.getOutputStream();
-            os.write(bytes);
-        } finally {
-            if (os != null) {
-                os.close();
+    @Override
+    public List<NotificationContext> executeBatch(List<NotificationContext> contexts)
+            throws PushNotificationExecutionFailedException {
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        List<NotificationContext> failedContexts = new ArrayList<>();
+        // Devices are grouped by the message and then by the token, so that each message is sent once per token.
+        Map<String, Map<String, List<NotificationContext>>> contextsByMessage = new LinkedHashMap<>();
+        for (NotificationContext ctx : contexts) {
+            String fcmToken;
+            try {
+                fcmToken = this.getFCMToken(tenantId, ctx.getDeviceId());
+            } catch (DeviceManagementException e) {
+                log.error("Error occurred while retrieving device information of the device '" +
+                        ctx.getDeviceId().getId() + "'", e);
+                failedContexts.add(ctx);
+                continue;
+            }
+            if (fcmToken == null) {
+                log.warn("FCM token is not available for the device '" + ctx.getDeviceId().getId() + "'");
+                failedContexts.add(ctx);
+                continue;
+            }
+            String message = ctx.getOperation() == null ? null : ctx.getOperation().getCode();
+            Map<String, List<NotificationContext>> contextsByToken = contextsByMessage.get(message);
+            if (contextsByToken == null) {
+                contextsByToken = new LinkedHashMap<>();
+                contextsByMessage.put(message, contextsByToken);
+            }
+            List<NotificationContext> tokenContexts = contextsByToken.get(fcmToken);
+            if (tokenContexts == null) {
+                tokenContexts = new ArrayList<>(1);
+                contextsByToken.put(fcmToken, tokenContexts);
+            }
+            tokenContexts.add(ctx);
+        }
+
+        PushNotificationExecutionFailedException sendingError = null;
+        for (Map.Entry<String, Map<String, List<NotificationContext>>> entry : contextsByMessage.entrySet()) {
+            Map<String, List<NotificationContext>> contextsByToken = entry.getValue();
+            List<String> fcmTokens = new ArrayList<>(contextsByToken.keySet());
+            for (int i = 0; i < fcmTokens.size(); i += FCMSender.MAX_REGISTRATION_IDS_PER_REQUEST) {
+                List<String> registrationIds = fcmTokens.subList(i,
+                        Math.min(i + FCMSender.MAX_REGISTRATION_IDS_PER_REQUEST, fcmTokens.size()));
+                try {
+                    FCMResponse response = fcmSender.send(entry.getKey(), registrationIds);
+                    this.processResponse(tenantId, response, contextsByToken, failedContexts);
+                } catch (PushNotificationExecutionFailedException e) {
+                    log.error("Error occurred while sending push notifications to " + registrationIds.size() +
+                            " devices", e);
+                    sendingError = e;
+                    for (String registrationId : registrationIds) {
+                        failedContexts.addAll(contextsByToken.get(registrationId));
+                    }
+                }
             }
         }
-        int status = conn.getResponseCode();
-        if (status != HTTP_STATUS_CODE_OK) {
-            throw new PushNotificationExecutionFailedException("Push notification sending failed with the HTTP " +
-                    "error code '" + status + "'");
+        if (sendingError != null && failedContexts.size() == contexts.size()) {
+            throw sendingError;
         }
+        return failedContexts;
     }
 
-    private static String getFCMRequest(String message, String registrationId) {
-        JsonObject fcmRequest = new JsonObject();
-        fcmRequest.addProperty("delay_while_idle", false);
-        fcmRequest.addProperty("time_to_live", TIME_TO_LIVE);
-
-        //Add message to FCM request
-        JsonObject data = new JsonObject();
-        if (message != null && !message.isEmpty()) {
-            data.addProperty("data", message);
-            fcmRequest.add("data", data);
+    private void processResponse(int tenantId, FCMResponse response,
+                                 Map<String, List<NotificationContext>> contextsByToken,
+                                 List<NotificationContext> failedContexts) {
+        for (String invalidToken : response.getInvalidTokens()) {
+            // Dropped from the cache, so that the token stored by the device is read again on the next attempt.
+            for (NotificationContext ctx : contextsByToken.get(invalidToken)) {
+                tokenCache.remove(getCacheKey(tenantId, ctx.getDeviceId()));
+                failedContexts.add(ctx);
+            }
+        }
+        for (String failedToken : response.getFailedTokens()) {
+            failedContexts.addAll(contextsByToken.get(failedToken));
         }
+        for (Map.Entry<String, String> canonicalToken : response.getCanonicalTokens().entrySet()) {
+            for (NotificationContext ctx : contextsByToken.get(canonicalToken.getKey())) {
+                tokenCache.put(getCacheKey(tenantId, ctx.getDeviceId()), canonicalToken.getValue());
+            }
+        }
+    }
 
-        //Set device reg-id
-        JsonArray regIds = new JsonArray();
-        regIds.add(new JsonPrimitive(registrationId));
+    private String getFCMToken(int tenantId, DeviceIdentifier deviceId) throws DeviceManagementException {
+        String cacheKey = getCacheKey(tenantId, deviceId);
+        String fcmToken = tokenCache.get(cacheKey);
+        if (fcmToken == null) {
+            long cacheVersion = tokenCache.getVersion();
+            Device device = FCMDataHolder.getInstance().getDeviceManagementProviderService()
+                    .getDeviceWithTypeProperties(deviceId);
+            fcmToken = getFCMToken(device.getProperties());
+            if (fcmToken != null) {
+                tokenCache.putIfNotInvalidated(cacheKey, fcmToken, cacheVersion);
+            }
+        }
+        return fcmToken;
+    }
 
-        fcmRequest.add("registration_ids", regIds);
-        return fcmRequest.toString();
+    private static String getCacheKey(int tenantId, DeviceIdentifier deviceId) {
+        return tenantId + "_" + deviceId.getType() + "_" + deviceId.getId();
     }
 
     private static String getFCMToken(List<Device.Property> properties) {
+        if (properties == null) {
+            return null;
+        }
         String fcmToken = null;
         for (Device.Property property : properties) {
             if (FCM_TOKEN.equals(property.getName())) {
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.extensions.push.notification.provider.fcm.util;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Outcome of sending a message to a set of registration tokens. Tokens which are neither invalid nor failed were
+ * accepted by FCM.
+ */
+public class FCMResponse {
+
+    private final Set<String> invalidTokens = new HashSet<>();
+    private final Set<String> failedTokens = new HashSet<>();
+    private final Map<String, String> canonicalTokens = new HashMap<>();
+
+    /**
+     * @return tokens which FCM reported as not registered or invalid, which should not be used again.
+     */
+    public Set<String> getInvalidTokens() {
+        return invalidTokens;
+    }
+
+    /**
+     * @return tokens the message could not be delivered to, which may succeed when sent later.
+     */
+    public Set<String> getFailedTokens() {
+        return failedTokens;
+    }
+
+    /**
+     * @return tokens replaced by a newer token of the same device, mapped to the newer token.
+     */
+    public Map<String, String> getCanonicalTokens() {
+        return canonicalTokens;
+    }
+
+    void addInvalidToken(String token) {
+        invalidTokens.add(token);
+    }
+
+    void addFailedToken(String token) {
+        failedTokens.add(token);
+    }
+
+    void addCanonicalToken(String token, String canonicalToken) {
+        canonicalTokens.put(token, canonicalToken);
+    }
+
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.extensions.push.notification.provider.fcm.util;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.device.mgt.common.push.notification.PushNotificationExecutionFailedException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Sends messages to FCM over its HTTP endpoint, addressing up to {@link #MAX_REGISTRATION_IDS_PER_REQUEST} tokens
+ * with a single multicast request.
+ *
+ * Responses are read fully, so that the underlying connections are kept alive and reused from the keep-alive cache
+ * of the JVM instead of doing a handshake per request. Requests rejected as unavailable, and tokens FCM reports as
+ * temporarily unavailable, are retried with an exponential backoff. A Retry-After header holds back all the requests
+ * of the sender until the given time, and the tokens are reported as failed when that is too far away to wait for.
+ */
+public class FCMSender {
+
+    public static final int MAX_REGISTRATION_IDS_PER_REQUEST = 1000;
+
+    private static final Log log = LogFactory.getLog(FCMSender.class);
+    private static final int TIME_TO_LIVE = 60;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long INITIAL_BACKOFF = 1000;
+    private static final long MAX_RETRY_DELAY = 30000;
+    private static final int CONNECT_TIMEOUT = 10000;
+    private static final int READ_TIMEOUT = 30000;
+    private static final int HTTP_STATUS_CODE_OK = 200;
+    private static final int HTTP_STATUS_CODE_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_STATUS_CODE_INTERNAL_SERVER_ERROR = 500;
+    private static final String RETRY_AFTER_HEADER = "Retry-After";
+    private static final String HTTP_DATE_FORMAT = "EEE, dd MMM yyyy HH:mm:ss zzz";
+    private static final String ERROR_UNAVAILABLE = "Unavailable";
+    private static final String ERROR_INTERNAL_SERVER_ERROR = "InternalServerError";
+    private static final String ERROR_NOT_REGISTERED = "NotRegistered";
+    private static final String ERROR_INVALID_REGISTRATION = "InvalidRegistration";
+    private static final String ERROR_MISMATCH_SENDER_ID = "MismatchSenderId";
+
+    private final String endpoint;
+    private final String apiKey;
+    private volatile long retryAfterTime;
+
+    public FCMSender(String endpoint, String apiKey) {
+        this.endpoint = endpoint;
+        this.apiKey = apiKey;
+    }
+
+    /**
+     * @param message          message to be sent, or null to send a wake up call without data.
+     * @param registrationIds  tokens to send the message to, at most {@link #MAX_REGISTRATION_IDS_PER_REQUEST}.
+     * @return outcome of the tokens.
+     * @throws PushNotificationExecutionFailedException if FCM rejects the request itself, e.g. due to an invalid key.
+     */
+    public FCMResponse send(String message, List<String> registrationIds)
+            throws PushNotificationExecutionFailedException {
+        if (registrationIds.size() > MAX_REGISTRATION_IDS_PER_REQUEST) {
+            throw new IllegalArgumentException("At most " + MAX_REGISTRATION_IDS_PER_REQUEST + " registration ids " +
+                    "can be addressed by a request, found " + registrationIds.size());
+        }
+        FCMResponse response = new FCMResponse();
+        List<String> pendingIds = registrationIds;
+        for (int attempt = 1; !pendingIds.isEmpty(); attempt++) {
+            long backoff = attempt == 1 ? 0 : INITIAL_BACKOFF << (attempt - 2);
+            if (attempt > MAX_ATTEMPTS || !this.awaitRetry(backoff)) {
+                for (String registrationId : pendingIds) {
+                    response.addFailedToken(registrationId);
+                }
+                break;
+            }
+            pendingIds = this.post(message, pendingIds, response);
+        }
+        return response;
+    }
+
+    /**
+     * Waits for the given backoff, or until the time set by the last Retry-After header, whichever is later.
+     *
+     * @return false if the wait is too long, or has been interrupted.
+     */
+    private boolean awaitRetry(long backoff) {
+        long delay = Math.max(backoff, retryAfterTime - System.currentTimeMillis());
+        if (delay <= 0) {
+            return true;
+        }
+        if (delay > MAX_RETRY_DELAY) {
+            if (log.isDebugEnabled()) {
+                log.debug("Not retrying FCM request as it has to be held back for " + delay + " ms");
+            }
+            return false;
+        }
+        try {
+            Thread.sleep(delay);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * @return tokens the message should be sent to again.
+     */
+    private List<String> post(String message, List<String> registrationIds, FCMResponse response)
+            throws PushNotificationExecutionFailedException {
+        byte[] bytes = getFCMRequest(message, registrationIds).getBytes(StandardCharsets.UTF_8);
+        HttpURLConnection conn = null;
+        try {
+            conn = (HttpURLConnection) new URL(endpoint).openConnection();
+            conn.setConnectTimeout(CONNECT_TIMEOUT);
+            conn.setReadTimeout(READ_TIMEOUT);
+            conn.setRequestProperty("Content-Type", "application/json");
+            conn.setRequestProperty("Authorization", "key=" + apiKey);
+            conn.setRequestMethod("POST");
+            conn.setDoOutput(true);
+            conn.setFixedLengthStreamingMode(bytes.length);
+            try (OutputStream os = conn.getOutputStream()) {
+                os.write(bytes);
+            }
+            int status = conn.getResponseCode();
+            this.setRetryAfter(conn.getHeaderField(RETRY_AFTER_HEADER));
+            if (status == HTTP_STATUS_CODE_OK) {
+                return this.processResults(read(conn.getInputStream()), registrationIds, response);
+            }
+            // The error body is drained as well, otherwise the connection can not be reused.
+            read(conn.getErrorStream());
+            if (status >= HTTP_STATUS_CODE_INTERNAL_SERVER_ERROR || status == HTTP_STATUS_CODE_TOO_MANY_REQUESTS) {
+                if (log.isDebugEnabled()) {
+                    log.debug("FCM request to " + registrationIds.size() + " devices failed with the HTTP error " +
+                            "code '" + status + "', hence retrying");
+                }
+                return registrationIds;
+            }
+            throw new PushNotificationExecutionFailedException("Push notification sending failed with the HTTP " +
+                    "error code '" + status + "'");
+        } catch (IOException e) {
+            log.warn("Error occurred while sending FCM request to " + registrationIds.size() + " devices, hence " +
+                    "retrying : " + e.getMessage());
+            if (conn != null) {
+                try {
+                    read(conn.getErrorStream());
+                } catch (IOException ignored) {
+                    // Nothing to drain, the connection is not reused.
+                }
+            }
+            return registrationIds;
+        }
+    }
+
+    private List<String> processResults(String body, List<String> registrationIds, FCMResponse response) {
+        List<String> retryIds = new ArrayList<>();
+        JsonArray results = null;
+        try {
+            JsonElement fcmResponse = new JsonParser().parse(body);
+            if (fcmResponse.isJsonObject() && fcmResponse.getAsJsonObject().has("results")) {
+                results = fcmResponse.getAsJsonObject().getAsJsonArray("results");
+            }
+        } catch (JsonParseException | IllegalStateException e) {
+            log.warn("Error occurred while parsing FCM response : " + e.getMessage());
+        }
+        if (results == null || results.size() != registrationIds.size()) {
+            // The request has been accepted, hence the tokens are considered to be delivered.
+            if (log.isDebugEnabled()) {
+                log.debug("FCM response does not carry the results of " + registrationIds.size() + " tokens");
+            }
+            return retryIds;
+        }
+        for (int i = 0; i < registrationIds.size(); i++) {
+            String registrationId = registrationIds.get(i);
+            JsonObject result = results.get(i).getAsJsonObject();
+            if (result.has("error")) {
+                String error = result.get("error").getAsString();
+                if (ERROR_UNAVAILABLE.equals(error) || ERROR_INTERNAL_SERVER_ERROR.equals(error)) {
+                    retryIds.add(registrationId);
+                } else if (ERROR_NOT_REGISTERED.equals(error) || ERROR_INVALID_REGISTRATION.equals(error) ||
+                        ERROR_MISMATCH_SENDER_ID.equals(error)) {
+                    response.addInvalidToken(registrationId);
+                } else {
+                    log.warn("FCM rejected a message with the error '" + error + "'");
+                    response.addFailedToken(registrationId);
+                }
+            } else if (result.has("registration_id")) {
+                response.addCanonicalToken(registrationId, result.get("registration_id").getAsString());
+            }
+        }
+        return retryIds;
+    }
+
+    private void setRetryAfter(String retryAfter) {
+        if (retryAfter == null || retryAfter.isEmpty()) {
+            return;
+        }
+        long time;
+        try {
+            time = System.currentTimeMillis() + Long.parseLong(retryAfter.trim()) * 1000;
+        } catch (NumberFormatException e) {
+            try {
+                time = new SimpleDateFormat(HTTP_DATE_FORMAT, Locale.ENGLISH).parse(retryAfter.trim()).getTime();
+            } catch (ParseException ex) {
+                log.warn("Ignoring invalid Retry-After header '" + retryAfter + "' of FCM response");
+                return;
+            }
+        }
+        if (time > retryAfterTime) {
+            retryAfterTime = time;
+        }
+    }
+
+    private static String read(InputStream inputStream) throws IOException {
+        if (inputStream == null) {
+            return "";
+        }
+        try (InputStream is = inputStream) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int length;
+            while ((length = is.read(buffer)) != -1) {
+                out.write(buffer, 0, length);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String getFCMRequest(String message, List<String> registrationIds) {
+        JsonObject fcmRequest = new JsonObject();
+        fcmRequest.addProperty("delay_while_idle", false);
+        fcmRequest.addProperty("time_to_live", TIME_TO_LIVE);
+
+        //Add message to FCM request
+        JsonObject data = new JsonObject();
+        if (message != null && !message.isEmpty()) {
+            data.addProperty("data", message);
+            fcmRequest.add("data", data);
+        }
+
+        //Set device reg-ids
+        JsonArray regIds = new JsonArray();
+        for (String registrationId : registrationIds) {
+            regIds.add(new JsonPrimitive(registrationId));
+        }
+        fcmRequest.add("registration_ids", regIds);
+        return fcmRequest.toString();
+    }
+
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.extensions.push.notification.provider.fcm;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
+import org.wso2.carbon.device.mgt.common.push.notification.NotificationContext;
+import org.wso2.carbon.device.mgt.common.push.notification.PushNotificationConfig;
+import org.wso2.carbon.device.mgt.common.push.notification.PushNotificationExecutionFailedException;
+import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
+import org.wso2.carbon.device.mgt.extensions.push.notification.provider.fcm.internal.FCMDataHolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for {@link FCMNotificationStrategy}, which send the notifications to a local stub of the FCM endpoint.
+ */
+public class FCMNotificationStrategyTest {
+
+    private static final String DEVICE_TYPE = "android";
+    private static final String FCM_TOKEN = "FCM_TOKEN";
+    private static final String INVALID_DEVICE_PREFIX = "invalid-";
+    private static final String NO_TOKEN_DEVICE_PREFIX = "no-token-";
+
+    private final List<Integer> requestSizes = Collections.synchronizedList(new ArrayList<Integer>());
+    private final ConcurrentMap<String, AtomicInteger> deviceLookups = new ConcurrentHashMap<>();
+    private final AtomicInteger unavailableResponses = new AtomicInteger();
+    private HttpServer fcmServer;
+    private FCMNotificationStrategy fcmNotificationStrategy;
+    private Operation operation;
+
+    @BeforeClass
+    public void init() throws Exception {
+        if (System.getProperty("carbon.home") == null) {
+            File file = new File("src/test/resources");
+            if (file.exists()) {
+                System.setProperty("carbon.home", file.getAbsolutePath());
+            }
+        }
+        PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(
+                org.wso2.carbon.base.MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+        PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(
+                org.wso2.carbon.base.MultitenantConstants.SUPER_TENANT_ID);
+
+        fcmServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        fcmServer.createContext("/fcm/send", new FCMStubHandler());
+        fcmServer.start();
+
+        DeviceManagementProviderService deviceManagementProviderService =
+                Mockito.mock(DeviceManagementProviderService.class);
+        Mockito.doAnswer(new Answer<Device>() {
+            @Override
+            public Device answer(InvocationOnMock invocation) {
+                DeviceIdentifier deviceIdentifier = (DeviceIdentifier) invocation.getArguments()[0];
+                return createDevice(deviceIdentifier.getId());
+            }
+        }).when(deviceManagementProviderService).getDeviceWithTypeProperties(Mockito.any(DeviceIdentifier.class));
+        FCMDataHolder.getInstance().setDeviceManagementProviderService(deviceManagementProviderService);
+
+        Map<String, String> properties = new HashMap<>();
+        properties.put("fcmAPIKey", "SampleAPIKey");
+        properties.put("fcmEndpoint", "http://127.0.0.1:" + fcmServer.getAddress().getPort() + "/fcm/send");
+        fcmNotificationStrategy = new FCMNotificationStrategy(new PushNotificationConfig("FCM", true, properties));
+
+        operation = new Operation();
+        operation.setId(1);
+        operation.setCode("SampleCode");
+        operation.setType(Operation.Type.COMMAND);
+    }
+
+    @AfterClass
+    public void cleanup() {
+        if (fcmServer != null) {
+            fcmServer.stop(0);
+        }
+    }
+
+    @Test(description = "Testing that the devices are notified with multicast requests of at most 1000 tokens")
+    public void testMulticastRequests() throws PushNotificationExecutionFailedException {
+        requestSizes.clear();
+        List<NotificationContext> failedContexts = fcmNotificationStrategy.executeBatch(
+                this.createContexts("device-", 2500));
+        Assert.assertTrue(failedContexts.isEmpty(), "Notifications failed to be sent");
+        Assert.assertEquals(requestSizes, Arrays.asList(1000, 1000, 500), "Unexpected FCM requests");
+        Assert.assertEquals(deviceLookups.get("device-0").get(), 1);
+    }
+
+    @Test(dependsOnMethods = "testMulticastRequests", description = "Testing that the FCM tokens are served from " +
+            "the cache")
+    public void testCachedTokens() throws PushNotificationExecutionFailedException {
+        List<NotificationContext> failedContexts = fcmNotificationStrategy.executeBatch(
+                this.createContexts("device-", 2500));
+        Assert.assertTrue(failedContexts.isEmpty(), "Notifications failed to be sent");
+        Assert.assertEquals(deviceLookups.get("device-0").get(), 1, "FCM token has not been cached");
+        Assert.assertEquals(deviceLookups.get("device-2499").get(), 1, "FCM token has not been cached");
+    }
+
+    @Test(description = "Testing that the devices of invalid tokens are reported as failed and their tokens dropped")
+    public void testInvalidTokens() throws PushNotificationExecutionFailedException {
+        List<NotificationContext> contexts = this.createContexts(INVALID_DEVICE_PREFIX, 2);
+        contexts.addAll(this.createContexts("valid-", 1));
+        List<NotificationContext> failedContexts = fcmNotificationStrategy.executeBatch(contexts);
+        Assert.assertEquals(failedContexts.size(), 2, "Devices of invalid tokens are not reported as failed");
+        Assert.assertTrue(failedContexts.contains(contexts.get(0)));
+        Assert.assertTrue(failedContexts.contains(contexts.get(1)));
+
+        fcmNotificationStrategy.executeBatch(contexts);
+        Assert.assertEquals(deviceLookups.get(INVALID_DEVICE_PREFIX + "0").get(), 2, "Invalid token has been " +
+                "served from the cache");
+        Assert.assertEquals(deviceLookups.get("valid-0").get(), 1, "Valid token has not been cached");
+    }
+
+    @Test(description = "Testing that a request rejected with a Retry-After header is retried after the given time")
+    public void testRetryAfter() throws PushNotificationExecutionFailedException {
+        requestSizes.clear();
+        unavailableResponses.set(1);
+        long startTime = System.currentTimeMillis();
+        List<NotificationContext> failedContexts = fcmNotificationStrategy.executeBatch(
+                this.createContexts("retry-", 10));
+        long elapsedTime = System.currentTimeMillis() - startTime;
+        Assert.assertTrue(failedContexts.isEmpty(), "Notifications failed to be sent after retrying");
+        Assert.assertEquals(requestSizes, Arrays.asList(10, 10), "Request has not been retried");
+        Assert.assertTrue(elapsedTime >= 1000, "Request has been retried before the Retry-After time, after " +
+                elapsedTime + " ms");
+    }
+
+    @Test(description = "Testing execute method with a device which has no FCM token",
+            expectedExceptions = PushNotificationExecutionFailedException.class)
+    public void testExecuteWithoutToken() throws PushNotificationExecutionFailedException {
+        fcmNotificationStrategy.execute(this.createContexts(NO_TOKEN_DEVICE_PREFIX, 1).get(0));
+    }
+
+    private List<NotificationContext> createContexts(String prefix, int count) {
+        List<NotificationContext> contexts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            contexts.add(new NotificationContext(new DeviceIdentifier(prefix + i, DEVICE_TYPE), operation));
+        }
+        return contexts;
+    }
+
+    private Device createDevice(String deviceId) {
+        AtomicInteger lookups = deviceLookups.get(deviceId);
+        if (lookups == null) {
+            deviceLookups.putIfAbsent(deviceId, new AtomicInteger());
+            lookups = deviceLookups.get(deviceId);
+        }
+        lookups.incrementAndGet();
+
+        Device device = new Device();
+        device.setDeviceIdentifier(deviceId);
+        device.setType(DEVICE_TYPE);
+        List<Device.Property> properties = new ArrayList<>();
+        if (!deviceId.startsWith(NO_TOKEN_DEVICE_PREFIX)) {
+            Device.Property property = new Device.Property();
+            property.setName(FCM_TOKEN);
+            property.setValue(deviceId.startsWith(INVALID_DEVICE_PREFIX) ? deviceId : "token-" + deviceId);
+            properties.add(property);
+        }
+        device.setProperties(properties);
+        return device;
+    }
+
+    /**
+     * Responds to the FCM requests the way FCM does, reporting the tokens of the invalid devices as not registered.
+     */
+    private class FCMStubHandler implements HttpHandler {
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            JsonArray registrationIds = new JsonParser().parse(read(exchange.getRequestBody())).getAsJsonObject()
+                    .getAsJsonArray("registration_ids");
+            requestSizes.add(registrationIds.size());
+            if (unavailableResponses.get() > 0) {
+                unavailableResponses.decrementAndGet();
+                exchange.getResponseHeaders().add("Retry-After", "1");
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+            JsonArray results = new JsonArray();
+            for (int i = 0; i < registrationIds.size(); i++) {
+                JsonObject result = new JsonObject();
+                if (registrationIds.get(i).getAsString().startsWith(INVALID_DEVICE_PREFIX)) {
+                    result.addProperty("error", "NotRegistered");
+                } else {
+                    result.addProperty("message_id", "0:" + i);
+                }
+                results.add(result);
+            }
+            JsonObject response = new JsonObject();
+            response.add("results", results);
+            byte[] bytes = response.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        }
+
+        private String read(InputStream inputStream) throws IOException {
+            try (InputStream is = inputStream) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                byte[] buffer = new byte[4096];
+                int length;
+                while ((length = is.read(buffer)) != -1) {
+                    out.write(buffer, 0, length);
+                }
+                return new String(out.toByteArray(), StandardCharsets.UTF_8);
+            }
+        }
+    }
+
+}
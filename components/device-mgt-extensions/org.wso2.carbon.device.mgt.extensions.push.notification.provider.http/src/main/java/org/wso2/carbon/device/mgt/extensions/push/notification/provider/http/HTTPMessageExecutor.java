@@ -8,11 +8,16 @@ import org.apache.commons.httpclient.methods.PostMethod;
 import org.apache.commons.httpclient.methods.StringRequestEntity;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.wso2.carbon.device.mgt.common.InvalidConfigurationException;
 import org.wso2.carbon.device.mgt.common.push.notification.NotificationContext;
 
+import java.io.IOException;
 import java.net.UnknownHostException;
+import java.util.List;
 
+/**
+ * Posts push notifications to the configured endpoint. A single notification is posted as a JSON object, and a batch
+ * of notifications as a JSON array of them.
+ */
 public class HTTPMessageExecutor implements Runnable {
 
     private String url;
@@ -22,14 +27,25 @@ public class HTTPMessageExecutor implements Runnable {
     private HttpClient httpClient;
     private static final String APPLIATION_JSON = "application/json";
     private static final String AUTHORIZATION_HEADER = "Authorization";
+    private static final int HTTP_STATUS_CODE_MULTIPLE_CHOICES = 300;
     private static final Log log = LogFactory.getLog(HTTPMessageExecutor.class);
 
     public HTTPMessageExecutor(NotificationContext notificationContext, String authorizationHeader, String url
             , HostConfiguration hostConfiguration, HttpClient httpClient) {
+        this(authorizationHeader, url, hostConfiguration, httpClient, new Gson().toJson(notificationContext));
+    }
+
+    public HTTPMessageExecutor(List<NotificationContext> notificationContexts, String authorizationHeader,
+                               String url, HostConfiguration hostConfiguration, HttpClient httpClient) {
+        this(authorizationHeader, url, hostConfiguration, httpClient, notificationContexts.size() == 1 ?
+                new Gson().toJson(notificationContexts.get(0)) : new Gson().toJson(notificationContexts));
+    }
+
+    private HTTPMessageExecutor(String authorizationHeader, String url, HostConfiguration hostConfiguration,
+                                HttpClient httpClient, String payload) {
         this.url = url;
         this.authorizationHeader = authorizationHeader;
-        Gson gson = new Gson();
-        this.payload = gson.toJson(notificationContext);
+        this.payload = payload;
         this.hostConfiguration = hostConfiguration;
         this.httpClient = httpClient;
     }
@@ -68,27 +84,41 @@ public class HTTPMessageExecutor implements Runnable {
 
     @Override
     public void run() {
+        this.send();
+    }
+
+    /**
+     * Posts the payload to the endpoint. Failures are logged rather than thrown, as this may run in the thread which
+     * queued the notifications.
+     *
+     * @return true if the endpoint accepted the payload.
+     */
+    public boolean send() {
         EntityEnclosingMethod method = null;
 
         try {
             method = new PostMethod(this.getUrl());
             method.setRequestEntity(new StringRequestEntity(this.getPayload(), APPLIATION_JSON, "UTF-8"));
-            if (authorizationHeader != null && authorizationHeader.isEmpty()) {
+            if (authorizationHeader != null && !authorizationHeader.isEmpty()) {
                 method.setRequestHeader(AUTHORIZATION_HEADER, authorizationHeader);
             }
 
-            this.getHttpClient().executeMethod(hostConfiguration, method);
-
+            int status = this.getHttpClient().executeMethod(hostConfiguration, method);
+            if (status >= HTTP_STATUS_CODE_MULTIPLE_CHOICES) {
+                log.error("Push Notification message dropped " + url + ", endpoint responded with the HTTP status " +
+                        "code '" + status + "'");
+                return false;
+            }
+            return true;
         } catch (UnknownHostException e) {
+            log.error("Push Notification message dropped, invalid host: " + url, e);
+        } catch (IOException | RuntimeException e) {
             log.error("Push Notification message dropped " + url, e);
-            throw new InvalidConfigurationException("invalid host: url", e);
-        } catch (Throwable e) {
-            log.error("Push Notification message dropped ", e);
-            throw new InvalidConfigurationException("Push Notification message dropped, " + e.getMessage(), e);
         } finally {
             if (method != null) {
                 method.releaseConnection();
             }
         }
+        return false;
     }
 }
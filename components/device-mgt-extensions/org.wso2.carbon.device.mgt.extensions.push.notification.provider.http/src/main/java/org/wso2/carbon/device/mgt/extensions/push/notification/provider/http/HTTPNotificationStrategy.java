@@ -20,32 +20,88 @@ package org.wso2.carbon.device.mgt.extensions.push.notification.provider.http;
 
 import org.apache.commons.httpclient.HostConfiguration;
 import org.apache.commons.httpclient.HttpClient;
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
+import org.apache.commons.httpclient.params.HttpConnectionManagerParams;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.device.mgt.common.InvalidConfigurationException;
+import org.wso2.carbon.device.mgt.common.push.notification.BatchNotificationStrategy;
 import org.wso2.carbon.device.mgt.common.push.notification.NotificationContext;
-import org.wso2.carbon.device.mgt.common.push.notification.NotificationStrategy;
 import org.wso2.carbon.device.mgt.common.push.notification.PushNotificationConfig;
 import org.wso2.carbon.device.mgt.common.push.notification.PushNotificationExecutionFailedException;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
-public class HTTPNotificationStrategy implements NotificationStrategy {
+/**
+ * Posts push notifications to an HTTP endpoint. Each strategy owns a worker pool with a bounded queue and a pool of
+ * HTTP connections to the endpoint, sized by the optional 'poolSize', 'queueSize' and 'maxConnections' properties.
+ *
+ * When the queue is full the notifications are posted by the calling thread, which slows down the producers, unless
+ * the 'rejectionPolicy' property is set to 'reject' in which case they are reported as failed to be retried later.
+ * Setting the 'batchSize' property above one posts up to that many notifications together as a JSON array, which the
+ * endpoint has to accept.
+ *
+ * {@link #executeBatch(List)} waits for the posts of the batch and returns the notifications which were not accepted
+ * by the endpoint, so that they are retried. {@link #execute(NotificationContext)} only queues the notification, hence
+ * its delivery is best-effort and a failed post is only logged and counted.
+ *
+ * The statistics of each strategy are exposed over JMX under {@link #OBJECT_NAME_PREFIX} followed by its id.
+ */
+public class HTTPNotificationStrategy implements BatchNotificationStrategy, HTTPNotificationStrategyMBean {
 
     private static final Log log = LogFactory.getLog(HTTPNotificationStrategy.class);
+    public static final String OBJECT_NAME_PREFIX = "org.wso2.carbon.device.mgt:type=HTTPPushNotification,id=";
     private final PushNotificationConfig config;
     private static final String URL_PROPERTY = "url";
     private static final String AUTHORIZATION_HEADER_PROPERTY = "authorization";
+    private static final String POOL_SIZE_PROPERTY = "poolSize";
+    private static final String QUEUE_SIZE_PROPERTY = "queueSize";
+    private static final String MAX_CONNECTIONS_PROPERTY = "maxConnections";
+    private static final String BATCH_SIZE_PROPERTY = "batchSize";
+    private static final String REJECTION_POLICY_PROPERTY = "rejectionPolicy";
+    private static final String REJECTION_POLICY_REJECT = "reject";
+    private static final int DEFAULT_POOL_SIZE = 4;
+    private static final int DEFAULT_QUEUE_SIZE = 10000;
+    private static final int DEFAULT_BATCH_SIZE = 1;
+    private static final int CONNECTION_TIMEOUT = 10000;
+    private static final int SOCKET_TIMEOUT = 30000;
+    private static final long WORKER_KEEP_ALIVE_SECONDS = 60;
+    private static final AtomicInteger strategyCount = new AtomicInteger();
     private String endpoint;
-    private static ExecutorService executorService;
+    private final ThreadPoolExecutor executorService;
+    private final int strategyId;
+    private final MultiThreadedHttpConnectionManager connectionManager;
     private HttpClient httpClient = null;
     private HostConfiguration hostConfiguration;
     private String authorizationHeaderValue;
     private String uri;
+    private final int batchSize;
+    private final boolean rejectWhenFull;
+
+    private final AtomicInteger pendingNotifications = new AtomicInteger();
+    private final AtomicLong sentNotifications = new AtomicLong();
+    private final AtomicLong failedNotifications = new AtomicLong();
+    private final AtomicLong rejectedNotifications = new AtomicLong();
+    private final AtomicLong totalLatency = new AtomicLong();
 
     public HTTPNotificationStrategy(PushNotificationConfig config) {
         this.config = config;
@@ -62,11 +118,32 @@ public class HTTPNotificationStrategy implements NotificationStrategy {
             hostConfiguration = new HostConfiguration();
             hostConfiguration.setHost(url.getHost(), url.getPort(), url.getProtocol());
             this.authorizationHeaderValue = config.getProperties().get(AUTHORIZATION_HEADER_PROPERTY);
-            executorService = Executors.newFixedThreadPool(1);
-            httpClient = new HttpClient();
         } catch (MalformedURLException e) {
             throw new InvalidConfigurationException("Property - 'url' is malformed.", e);
         }
+        int poolSize = this.getIntProperty(POOL_SIZE_PROPERTY, DEFAULT_POOL_SIZE);
+        int queueSize = this.getIntProperty(QUEUE_SIZE_PROPERTY, DEFAULT_QUEUE_SIZE);
+        this.batchSize = this.getIntProperty(BATCH_SIZE_PROPERTY, DEFAULT_BATCH_SIZE);
+        this.rejectWhenFull = REJECTION_POLICY_REJECT.equalsIgnoreCase(
+                config.getProperties().get(REJECTION_POLICY_PROPERTY));
+
+        // Connections are shared by the workers and the calling threads which post when the queue is full.
+        HttpConnectionManagerParams params = new HttpConnectionManagerParams();
+        int maxConnections = this.getIntProperty(MAX_CONNECTIONS_PROPERTY, poolSize * 2);
+        params.setDefaultMaxConnectionsPerHost(maxConnections);
+        params.setMaxTotalConnections(maxConnections);
+        params.setConnectionTimeout(CONNECTION_TIMEOUT);
+        params.setSoTimeout(SOCKET_TIMEOUT);
+        connectionManager = new MultiThreadedHttpConnectionManager();
+        connectionManager.setParams(params);
+        httpClient = new HttpClient(connectionManager);
+
+        strategyId = strategyCount.incrementAndGet();
+        executorService = new ThreadPoolExecutor(poolSize, poolSize, WORKER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(queueSize), new WorkerThreadFactory(strategyId),
+                new ThreadPoolExecutor.AbortPolicy());
+        executorService.allowCoreThreadTimeOut(true);
+        this.registerStatistics();
     }
 
     @Override
@@ -74,16 +151,134 @@ public class HTTPNotificationStrategy implements NotificationStrategy {
 
     }
 
+    /**
+     * Queues the notification to be posted. The delivery is best-effort, a failed post is only logged and counted.
+     *
+     * @throws PushNotificationExecutionFailedException if the notification has been rejected as the queue is full.
+     */
     @Override
     public void execute(NotificationContext ctx) throws PushNotificationExecutionFailedException {
+        if (this.submit(Collections.singletonList(ctx)) == null) {
+            throw new PushNotificationExecutionFailedException("Failed to publish to external endpoint url: " +
+                    endpoint + ", as the push notification queue is full");
+        }
+    }
+
+    /**
+     * Posts the notifications on the workers of this strategy and waits for the posts, so that the notifications
+     * which were rejected or not accepted by the endpoint are returned to be retried.
+     */
+    @Override
+    public List<NotificationContext> executeBatch(List<NotificationContext> contexts)
+            throws PushNotificationExecutionFailedException {
+        List<NotificationContext> failedContexts = new ArrayList<>();
+        List<List<NotificationContext>> submittedBatches = new ArrayList<>();
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int from = 0; from < contexts.size(); from += batchSize) {
+            List<NotificationContext> batch = contexts.subList(from, Math.min(from + batchSize, contexts.size()));
+            Future<Boolean> result = this.submit(batch);
+            if (result == null) {
+                failedContexts.addAll(batch);
+            } else {
+                submittedBatches.add(batch);
+                results.add(result);
+            }
+        }
+        for (int i = 0; i < results.size(); i++) {
+            try {
+                if (!results.get(i).get()) {
+                    failedContexts.addAll(submittedBatches.get(i));
+                }
+            } catch (InterruptedException e) {
+                // The batches which are not waited for are reported as failed, hence they may be delivered twice.
+                Thread.currentThread().interrupt();
+                failedContexts.addAll(submittedBatches.get(i));
+            } catch (ExecutionException e) {
+                log.error("Failed to publish " + submittedBatches.get(i).size() + " notifications to external " +
+                        "endpoint url: " + endpoint, e.getCause());
+                failedContexts.addAll(submittedBatches.get(i));
+            }
+        }
+        if (!failedContexts.isEmpty() && failedContexts.size() == contexts.size()) {
+            throw new PushNotificationExecutionFailedException("Failed to publish " + contexts.size() +
+                    " notifications to external endpoint url: " + endpoint);
+        }
+        return failedContexts;
+    }
+
+    /**
+     * @return result of posting the notifications, which is true if the endpoint accepted them, or null if the
+     * notifications have been rejected as the queue is full.
+     */
+    private Future<Boolean> submit(List<NotificationContext> contexts) {
+        final HTTPMessageExecutor messageExecutor = new HTTPMessageExecutor(contexts, authorizationHeaderValue, uri,
+                hostConfiguration, httpClient);
+        final int size = contexts.size();
+        final long queuedTime = System.currentTimeMillis();
+        FutureTask<Boolean> task = new FutureTask<>(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                try {
+                    boolean sent = messageExecutor.send();
+                    if (sent) {
+                        sentNotifications.addAndGet(size);
+                    } else {
+                        failedNotifications.addAndGet(size);
+                    }
+                    totalLatency.addAndGet((System.currentTimeMillis() - queuedTime) * size);
+                    return sent;
+                } finally {
+                    pendingNotifications.addAndGet(-size);
+                }
+            }
+        });
+        pendingNotifications.addAndGet(size);
         try {
-            executorService.submit(new HTTPMessageExecutor(ctx, authorizationHeaderValue, uri, hostConfiguration
-                    , httpClient));
+            executorService.execute(task);
+            return task;
         } catch (RejectedExecutionException e) {
-            log.error("Failed to publish to external endpoint url: " + endpoint, e);
+            rejectedNotifications.addAndGet(size);
+            if (rejectWhenFull || executorService.isShutdown()) {
+                pendingNotifications.addAndGet(-size);
+                log.error("Failed to publish to external endpoint url: " + endpoint + ", as the push notification " +
+                        "queue is full");
+                return null;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Push notification queue of external endpoint url: " + endpoint + " is full, hence " +
+                        "publishing " + size + " notifications in the calling thread.");
+            }
+            task.run();
+            return task;
         }
     }
 
+    @Override
+    public int getQueueDepth() {
+        return pendingNotifications.get();
+    }
+
+    @Override
+    public long getSentCount() {
+        return sentNotifications.get();
+    }
+
+    @Override
+    public long getFailedCount() {
+        return failedNotifications.get();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejectedNotifications.get();
+    }
+
+    @Override
+    public long getAverageLatency() {
+        long attempted = sentNotifications.get() + failedNotifications.get();
+        return attempted == 0 ? 0 : totalLatency.get() / attempted;
+    }
+
     @Override
     public NotificationContext buildContext() {
         return null;
@@ -92,6 +287,8 @@ public class HTTPNotificationStrategy implements NotificationStrategy {
     @Override
     public void undeploy() {
         executorService.shutdown();
+        connectionManager.shutdown();
+        this.unregisterStatistics();
     }
 
     @Override
@@ -99,5 +296,65 @@ public class HTTPNotificationStrategy implements NotificationStrategy {
         return config;
     }
 
-}
+    /**
+     * Registers the statistics of this strategy with the platform MBean server. Failures are logged, since the
+     * notifications are sent regardless of the statistics being exposed.
+     */
+    private void registerStatistics() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+                    new ObjectName(OBJECT_NAME_PREFIX + strategyId));
+        } catch (JMException e) {
+            log.warn("Unable to register the statistics of the push notifications to external endpoint url: " +
+                    endpoint, e);
+        }
+    }
+
+    private void unregisterStatistics() {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME_PREFIX + strategyId);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            log.warn("Unable to unregister the statistics of the push notifications to external endpoint url: " +
+                    endpoint, e);
+        }
+    }
 
+    private int getIntProperty(String name, int defaultValue) {
+        String value = config.getProperties().get(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            int intValue = Integer.parseInt(value.trim());
+            if (intValue > 0) {
+                return intValue;
+            }
+        } catch (NumberFormatException e) {
+            // Falls through to the error below.
+        }
+        throw new InvalidConfigurationException("Property - '" + name + "' should be a positive integer");
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+
+        private final int strategyId;
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        WorkerThreadFactory(int strategyId) {
+            this.strategyId = strategyId;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "http-push-notification-" + strategyId + "-" +
+                    threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
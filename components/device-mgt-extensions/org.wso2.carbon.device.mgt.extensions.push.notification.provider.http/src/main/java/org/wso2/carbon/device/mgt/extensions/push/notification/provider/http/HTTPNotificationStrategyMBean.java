@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.extensions.push.notification.provider.http;
+
+/**
+ * Management interface through which the statistics of an HTTP notification strategy are exposed over JMX.
+ */
+public interface HTTPNotificationStrategyMBean {
+
+    /**
+     * @return number of notifications which are queued or being posted.
+     */
+    int getQueueDepth();
+
+    /**
+     * @return number of notifications which were accepted by the endpoint.
+     */
+    long getSentCount();
+
+    /**
+     * @return number of notifications which could not be posted or were not accepted by the endpoint.
+     */
+    long getFailedCount();
+
+    /**
+     * @return number of notifications which found the queue full, either posted by the calling thread or rejected.
+     */
+    long getRejectedCount();
+
+    /**
+     * @return average time in milliseconds from queueing a notification until it has been posted.
+     */
+    long getAverageLatency();
+
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.extensions.push.notification.provider.http;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.common.InvalidConfigurationException;
+import org.wso2.carbon.device.mgt.common.push.notification.NotificationContext;
+import org.wso2.carbon.device.mgt.common.push.notification.PushNotificationConfig;
+import org.wso2.carbon.device.mgt.common.push.notification.PushNotificationExecutionFailedException;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for {@link HTTPNotificationStrategy}, which post the notifications to a local endpoint.
+ */
+public class HTTPNotificationStrategyTest {
+
+    private final LinkedBlockingQueue<JsonElement> payloads = new LinkedBlockingQueue<>();
+    private volatile CountDownLatch responseLatch = new CountDownLatch(0);
+    private HttpServer server;
+    private String url;
+    private String failingUrl;
+
+    @BeforeClass
+    public void init() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/notifications", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                payloads.add(new JsonParser().parse(read(exchange.getRequestBody())));
+                try {
+                    responseLatch.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                exchange.sendResponseHeaders(200, -1);
+                exchange.close();
+            }
+        });
+        server.createContext("/failing", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                read(exchange.getRequestBody());
+                exchange.sendResponseHeaders(500, -1);
+                exchange.close();
+            }
+        });
+        // Requests are handled in parallel, so that a blocked request does not hold back the others.
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/notifications";
+        failingUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/failing";
+    }
+
+    @AfterClass
+    public void cleanup() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test(description = "Testing that notifications are posted one by one by default")
+    public void testExecute() throws Exception {
+        payloads.clear();
+        HTTPNotificationStrategy strategy = new HTTPNotificationStrategy(this.createConfig(null));
+        try {
+            strategy.execute(this.createContexts(1).get(0));
+            JsonElement payload = payloads.poll(10, TimeUnit.SECONDS);
+            Assert.assertNotNull(payload, "Notification has not been posted");
+            Assert.assertTrue(payload.isJsonObject(), "Single notification is not posted as a JSON object");
+            this.awaitQueue(strategy);
+            Assert.assertEquals(strategy.getSentCount(), 1);
+            Assert.assertEquals(strategy.getFailedCount(), 0);
+        } finally {
+            strategy.undeploy();
+        }
+    }
+
+    @Test(description = "Testing that notifications are posted in batches when a batch size is configured")
+    public void testExecuteBatch() throws Exception {
+        payloads.clear();
+        Map<String, String> properties = new HashMap<>();
+        properties.put("batchSize", "4");
+        HTTPNotificationStrategy strategy = new HTTPNotificationStrategy(this.createConfig(properties));
+        try {
+            List<NotificationContext> failedContexts = strategy.executeBatch(this.createContexts(10));
+            Assert.assertTrue(failedContexts.isEmpty(), "Notifications have been rejected");
+            // The batches have been posted by the time the results are returned.
+            Assert.assertEquals(strategy.getQueueDepth(), 0, "Notifications are still pending");
+            Assert.assertEquals(strategy.getSentCount(), 10);
+            int posted = 0;
+            for (int i = 0; i < 3; i++) {
+                JsonElement payload = payloads.poll(10, TimeUnit.SECONDS);
+                Assert.assertNotNull(payload, "Batch has not been posted");
+                Assert.assertTrue(payload.isJsonArray(), "Batch is not posted as a JSON array");
+                posted += payload.getAsJsonArray().size();
+            }
+            Assert.assertEquals(posted, 10);
+        } finally {
+            strategy.undeploy();
+        }
+    }
+
+    @Test(description = "Testing that notifications are reported as failed when the queue is full and the " +
+            "rejection policy is set to reject")
+    public void testRejectWhenQueueIsFull() throws Exception {
+        payloads.clear();
+        Map<String, String> properties = new HashMap<>();
+        properties.put("poolSize", "1");
+        properties.put("queueSize", "1");
+        properties.put("rejectionPolicy", "reject");
+        final HTTPNotificationStrategy strategy = new HTTPNotificationStrategy(this.createConfig(properties));
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        responseLatch = new CountDownLatch(1);
+        try {
+            final List<NotificationContext> contexts = this.createContexts(3);
+            strategy.execute(contexts.get(0));
+            // Waits until the worker is busy with the first notification, so that the second one is queued.
+            Assert.assertNotNull(payloads.poll(10, TimeUnit.SECONDS), "Notification has not been posted");
+            Future<List<NotificationContext>> result = caller.submit(new Callable<List<NotificationContext>>() {
+                @Override
+                public List<NotificationContext> call() throws Exception {
+                    return strategy.executeBatch(contexts.subList(1, 3));
+                }
+            });
+            for (int i = 0; i < 100 && strategy.getRejectedCount() == 0; i++) {
+                Thread.sleep(100);
+            }
+            Assert.assertEquals(strategy.getRejectedCount(), 1);
+            Assert.assertEquals(strategy.getQueueDepth(), 2);
+            Assert.assertFalse(result.isDone(), "Results are returned before the queued notification is posted");
+            responseLatch.countDown();
+            List<NotificationContext> failedContexts = result.get(10, TimeUnit.SECONDS);
+            Assert.assertEquals(failedContexts.size(), 1, "Notification has not been rejected");
+            Assert.assertSame(failedContexts.get(0), contexts.get(2));
+        } finally {
+            responseLatch.countDown();
+            caller.shutdown();
+            this.awaitQueue(strategy);
+            payloads.clear();
+            strategy.undeploy();
+        }
+    }
+
+    @Test(description = "Testing that the notifications which are not accepted by the endpoint are reported as failed")
+    public void testFailedDelivery() throws Exception {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("batchSize", "2");
+        PushNotificationConfig config = this.createConfig(properties);
+        config.getProperties().put("url", failingUrl);
+        HTTPNotificationStrategy strategy = new HTTPNotificationStrategy(config);
+        try {
+            strategy.executeBatch(this.createContexts(3));
+            Assert.fail("Notifications are not reported as failed");
+        } catch (PushNotificationExecutionFailedException e) {
+            Assert.assertEquals(strategy.getFailedCount(), 3);
+            Assert.assertEquals(strategy.getSentCount(), 0);
+        } finally {
+            strategy.undeploy();
+        }
+    }
+
+    @Test(description = "Testing that the statistics of a strategy are exposed over JMX while it is deployed")
+    public void testStatisticsMBean() throws Exception {
+        payloads.clear();
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName query = new ObjectName(HTTPNotificationStrategy.OBJECT_NAME_PREFIX + "*");
+        HTTPNotificationStrategy strategy = new HTTPNotificationStrategy(this.createConfig(null));
+        try {
+            strategy.executeBatch(this.createContexts(1));
+            Assert.assertEquals(mBeanServer.queryNames(query, null).size(), 1);
+            ObjectName objectName = mBeanServer.queryNames(query, null).iterator().next();
+            Assert.assertEquals(mBeanServer.getAttribute(objectName, "SentCount"), 1L);
+            Assert.assertEquals(mBeanServer.getAttribute(objectName, "QueueDepth"), 0);
+        } finally {
+            strategy.undeploy();
+            payloads.clear();
+        }
+        Assert.assertTrue(mBeanServer.queryNames(query, null).isEmpty(), "Statistics are still registered");
+    }
+
+    @Test(description = "Testing that an invalid pool size is reported as a configuration error",
+            expectedExceptions = InvalidConfigurationException.class)
+    public void testInvalidPoolSize() {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("poolSize", "0");
+        new HTTPNotificationStrategy(this.createConfig(properties));
+    }
+
+    private PushNotificationConfig createConfig(Map<String, String> properties) {
+        Map<String, String> configProperties = new HashMap<>();
+        if (properties != null) {
+            configProperties.putAll(properties);
+        }
+        configProperties.put("url", url);
+        return new PushNotificationConfig("HTTP", true, configProperties);
+    }
+
+    private List<NotificationContext> createContexts(int count) {
+        List<NotificationContext> contexts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            contexts.add(new NotificationContext(new DeviceIdentifier("device-" + i, "android")));
+        }
+        return contexts;
+    }
+
+    private void awaitQueue(HTTPNotificationStrategy strategy) throws InterruptedException {
+        for (int i = 0; i < 100 && strategy.getQueueDepth() > 0; i++) {
+            Thread.sleep(100);
+        }
+        Assert.assertEquals(strategy.getQueueDepth(), 0, "Notifications are still pending");
+    }
+
+    private static String read(InputStream inputStream) throws IOException {
+        try (InputStream is = inputStream) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int length;
+            while ((length = is.read(buffer)) != -1) {
+                out.write(buffer, 0, length);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.extensions.push.notification.provider.mqtt;
+
+import org.wso2.carbon.device.mgt.extensions.push.notification.provider.mqtt.internal.MQTTDataHolder;
+import org.wso2.carbon.device.mgt.extensions.push.notification.provider.mqtt.internal.util.MQTTAdapterConstants;
+import org.wso2.carbon.event.output.adapter.core.MessageType;
+import org.wso2.carbon.event.output.adapter.core.OutputEventAdapterConfiguration;
+import org.wso2.carbon.event.output.adapter.core.OutputEventAdapterService;
+import org.wso2.carbon.event.output.adapter.core.exception.OutputEventAdapterException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of the MQTT output event adapters of the tenants a device type shared with all tenants publishes for. The
+ * adapter of a tenant is looked up, and created if it does not exist, only the first time the tenant publishes, after
+ * which its name is served from the registry without going to the output event adapter service.
+ */
+public class MQTTAdapterRegistry {
+
+    private static final Object lockObj = new Object();
+
+    private final ConcurrentMap<String, String> adapterNames = new ConcurrentHashMap<>();
+
+    /**
+     * @param tenantDomain domain of the tenant.
+     * @return name of the MQTT output event adapter of the tenant.
+     * @throws OutputEventAdapterException if the adapter does not exist and could not be created.
+     */
+    public String getAdapterName(String tenantDomain) throws OutputEventAdapterException {
+        String key = tenantDomain.toLowerCase();
+        String adapterName = adapterNames.get(key);
+        if (adapterName == null) {
+            adapterName = MQTTAdapterConstants.MQTT_ADAPTER_NAME_PREFIX + key;
+            OutputEventAdapterConfiguration adapterConfig = new OutputEventAdapterConfiguration();
+            adapterConfig.setType(MQTTAdapterConstants.MQTT_ADAPTER_TYPE);
+            adapterConfig.setMessageFormat(MessageType.TEXT);
+            adapterConfig.setName(adapterName);
+            adapterConfig.setStaticProperties(new HashMap<String, String>());
+            createAdapter(adapterConfig);
+            adapterNames.putIfAbsent(key, adapterName);
+        }
+        return adapterName;
+    }
+
+    /**
+     * @return names of the adapters in the registry against the tenant domains.
+     */
+    public Map<String, String> getAdapterNames() {
+        return new HashMap<>(adapterNames);
+    }
+
+    public void clear() {
+        adapterNames.clear();
+    }
+
+    /**
+     * Creates the given adapter unless an adapter of the same name exists already. The output event adapter service
+     * only reports a missing adapter by failing to look it up, hence this is kept off the publishing path.
+     */
+    static void createAdapter(OutputEventAdapterConfiguration adapterConfig) throws OutputEventAdapterException {
+        OutputEventAdapterService outputEventAdapterService = MQTTDataHolder.getInstance()
+                .getOutputEventAdapterService();
+        synchronized (lockObj) {
+            try {
+                outputEventAdapterService.isPolled(adapterConfig.getName());
+            } catch (OutputEventAdapterException e) {
+                //event adapter not created
+                outputEventAdapterService.create(adapterConfig);
+            }
+        }
+    }
+
+}
@@ -21,10 +21,11 @@ package org.wso2.carbon.device.mgt.extensions.push.notification.provider.mqtt;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
 import org.wso2.carbon.device.mgt.common.InvalidConfigurationException;
 import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
+import org.wso2.carbon.device.mgt.common.push.notification.BatchNotificationStrategy;
 import org.wso2.carbon.device.mgt.common.push.notification.NotificationContext;
-import org.wso2.carbon.device.mgt.common.push.notification.NotificationStrategy;
 import org.wso2.carbon.device.mgt.common.push.notification.PushNotificationConfig;
 import org.wso2.carbon.device.mgt.common.push.notification.PushNotificationExecutionFailedException;
 import org.wso2.carbon.device.mgt.core.operation.mgt.ProfileOperation;
@@ -35,19 +36,43 @@ import org.wso2.carbon.event.output.adapter.core.OutputEventAdapterConfiguration
 import org.wso2.carbon.event.output.adapter.core.exception.OutputEventAdapterException;
 import org.wso2.carbon.device.mgt.core.operation.mgt.PolicyOperation;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
-public class MQTTNotificationStrategy implements NotificationStrategy {
+/**
+ * Publishes push notifications to the devices over MQTT output event adapters. The topics and payloads of an operation
+ * are worked out once per batch, and only the device specific topic prefix is built per device.
+ *
+ * The statistics of each strategy are exposed over JMX under {@link #OBJECT_NAME_PREFIX} followed by its id.
+ */
+public class MQTTNotificationStrategy implements BatchNotificationStrategy, MQTTNotificationStrategyMBean {
 
+    public static final String OBJECT_NAME_PREFIX = "org.wso2.carbon.device.mgt:type=MQTTPushNotification,id=";
     private static final String MQTT_ADAPTER_TOPIC = "mqtt.adapter.topic";
+    private static final AtomicInteger strategyCount = new AtomicInteger();
     private String mqttAdapterName;
     private static final Log log = LogFactory.getLog(MQTTNotificationStrategy.class);
     private final PushNotificationConfig config;
     private final String providerTenantDomain;
-    private static final Object lockObj = new Object();
+    private final MQTTAdapterRegistry adapterRegistry = new MQTTAdapterRegistry();
+    private final int strategyId = strategyCount.incrementAndGet();
+
+    private final AtomicLong publishedMessages = new AtomicLong();
+    private final AtomicLong failedNotifications = new AtomicLong();
+    private final AtomicLong totalPublishLatency = new AtomicLong();
+    private final ConcurrentMap<String, AtomicLong> publishedMessagesByTenant = new ConcurrentHashMap<>();
 
     public MQTTNotificationStrategy(PushNotificationConfig config) {
         this.config = config;
@@ -73,25 +98,19 @@ public class MQTTNotificationStrategy implements NotificationStrategy {
             configProperties.put(MQTTAdapterConstants.MQTT_ADAPTER_PROPERTY_MESSAGE_QOS,
                                  config.getProperty(MQTTAdapterConstants.MQTT_ADAPTER_PROPERTY_MESSAGE_QOS));
         } else {
-            mqttAdapterName = "mqtt.adapter." + PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain()
-                    .toLowerCase();
+            mqttAdapterName = MQTTAdapterConstants.MQTT_ADAPTER_NAME_PREFIX + PrivilegedCarbonContext
+                    .getThreadLocalCarbonContext().getTenantDomain().toLowerCase();
         }
         adapterConfig.setName(mqttAdapterName);
         adapterConfig.setStaticProperties(configProperties);
         try {
-            synchronized (lockObj) {
-                try {
-                    MQTTDataHolder.getInstance().getOutputEventAdapterService().isPolled(mqttAdapterName);
-                } catch (OutputEventAdapterException e) {
-                    //event adapter not created
-                    MQTTDataHolder.getInstance().getOutputEventAdapterService().create(adapterConfig);
-                }
-            }
+            MQTTAdapterRegistry.createAdapter(adapterConfig);
         } catch (OutputEventAdapterException e) {
             throw new InvalidConfigurationException("Error occurred while initializing MQTT output event adapter", e);
         }
         providerTenantDomain = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain()
                 .toLowerCase();
+        this.registerStatistics();
     }
 
     @Override
@@ -101,79 +120,136 @@ public class MQTTNotificationStrategy implements NotificationStrategy {
 
     @Override
     public void execute(NotificationContext ctx) throws PushNotificationExecutionFailedException {
-        String adapterName = mqttAdapterName;
-        String tenantDomain = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain(true);
-        if (!providerTenantDomain.equals(tenantDomain)) {
-            //this is to handle the device type shared with all tenant mode.
+        if (!this.executeBatch(Collections.singletonList(ctx)).isEmpty()) {
+            throw new PushNotificationExecutionFailedException("Error occurred while publishing push notification " +
+                    "to the device '" + ctx.getDeviceId().getId() + "'");
+        }
+    }
 
-            adapterName = "mqtt.adapter." + PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain()
-                    .toLowerCase();
+    @Override
+    public List<NotificationContext> executeBatch(List<NotificationContext> contexts)
+            throws PushNotificationExecutionFailedException {
+        String tenantDomain = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain(true);
+        String adapterName = this.getAdapterName(tenantDomain);
+        List<NotificationContext> failedContexts = new ArrayList<>();
+        Operation operation = null;
+        List<OperationMessage> messages = null;
+        boolean topicPublished = false;
+        for (NotificationContext ctx : contexts) {
             try {
-                MQTTDataHolder.getInstance().getOutputEventAdapterService().isPolled(adapterName);
-            } catch (OutputEventAdapterException e) {
-                //event adapter not created
-                synchronized (lockObj) {
-                    OutputEventAdapterConfiguration adapterConfig = new OutputEventAdapterConfiguration();
-                    adapterConfig.setType(MQTTAdapterConstants.MQTT_ADAPTER_TYPE);
-                    adapterConfig.setMessageFormat(MessageType.TEXT);
-                    adapterConfig.setName(adapterName);
-                    Map<String, String> configProperties = new HashMap<String, String>();
-                    adapterConfig.setStaticProperties(configProperties);
-                    try {
-                        MQTTDataHolder.getInstance().getOutputEventAdapterService().create(adapterConfig);
-                    } catch (OutputEventAdapterException e1) {
-                        throw new PushNotificationExecutionFailedException
-                                ("Error occurred while initializing MQTT output event adapter for shared tenant: "
-                                         + tenantDomain, e);
+                if (ctx.getOperation() != operation) {
+                    operation = ctx.getOperation();
+                    messages = this.getMessages(operation);
+                    topicPublished = false;
+                }
+                if (messages == null) {
+                    // The operation carries its own topic which is not device specific, hence published only once.
+                    if (!topicPublished) {
+                        this.publish(adapterName, tenantDomain, (String) operation.getProperties()
+                                .get(MQTT_ADAPTER_TOPIC), operation.getPayLoad());
+                        topicPublished = true;
                     }
+                    continue;
                 }
+                String topicPrefix = this.getTopicPrefix(tenantDomain, ctx.getDeviceId());
+                for (OperationMessage message : messages) {
+                    this.publish(adapterName, tenantDomain, topicPrefix + message.topicSuffix, message.payload);
+                }
+            } catch (RuntimeException e) {
+                log.error("Error occurred while publishing push notification to the device '" +
+                        ctx.getDeviceId().getId() + "'", e);
+                failedContexts.add(ctx);
             }
+        }
+        failedNotifications.addAndGet(failedContexts.size());
+        return failedContexts;
+    }
 
+    private String getAdapterName(String tenantDomain) throws PushNotificationExecutionFailedException {
+        if (providerTenantDomain.equals(tenantDomain)) {
+            return mqttAdapterName;
         }
+        //this is to handle the device type shared with all tenant mode.
+        try {
+            return adapterRegistry.getAdapterName(tenantDomain);
+        } catch (OutputEventAdapterException e) {
+            throw new PushNotificationExecutionFailedException("Error occurred while initializing MQTT output event " +
+                    "adapter for shared tenant: " + tenantDomain, e);
+        }
+    }
 
-        Operation operation = ctx.getOperation();
+    /**
+     * @return topic suffixes and payloads of the operation, or null if the operation carries its own topic.
+     */
+    private List<OperationMessage> getMessages(Operation operation) {
         Properties properties = operation.getProperties();
         if (properties != null && properties.get(MQTT_ADAPTER_TOPIC) != null) {
-            Map<String, String> dynamicProperties = new HashMap<>();
-            dynamicProperties.put("topic", (String) properties.get(MQTT_ADAPTER_TOPIC));
-            MQTTDataHolder.getInstance().getOutputEventAdapterService().publish(adapterName, dynamicProperties,
-                    operation.getPayLoad());
+            return null;
+        }
+        List<OperationMessage> messages = new ArrayList<>();
+        if (PolicyOperation.POLICY_OPERATION_CODE.equals(operation.getCode())) {
+            PolicyOperation policyOperation = (PolicyOperation) operation;
+            for (ProfileOperation profileOperation : policyOperation.getProfileOperations()) {
+                messages.add(new OperationMessage("/operation/" + profileOperation.getType().toString()
+                        .toLowerCase() + "/" + profileOperation.getCode().toLowerCase(),
+                        profileOperation.getPayLoad()));
+            }
         } else {
-            if (PolicyOperation.POLICY_OPERATION_CODE.equals(operation.getCode())) {
-                PolicyOperation policyOperation = (PolicyOperation) operation;
-                List<ProfileOperation> profileOperations = policyOperation.getProfileOperations();
-                String deviceType = ctx.getDeviceId().getType();
-                String deviceId = ctx.getDeviceId().getId();
-                for (ProfileOperation profileOperation : profileOperations) {
-                    Map<String, String> dynamicProperties = new HashMap<>();
-                    String topic = tenantDomain + "/"
-                            + deviceType + "/" + deviceId + "/operation/" + profileOperation.getType()
-                            .toString().toLowerCase() + "/" + profileOperation.getCode().toLowerCase();
-                    dynamicProperties.put("topic", topic);
-                    MQTTDataHolder.getInstance().getOutputEventAdapterService().publish(adapterName, dynamicProperties,
-                            profileOperation.getPayLoad());
-                }
-
+            Object payload;
+            if ("command".equals(operation.getType().toString().toLowerCase())) {
+                payload = operation.getCode();
             } else {
-                Map<String, String> dynamicProperties = new HashMap<>();
-                String topic = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain(true) + "/"
-                        + ctx.getDeviceId().getType() + "/" + ctx.getDeviceId().getId() + "/operation/"
-                        + operation.getType().toString().toLowerCase() + "/" + operation.getCode() + "/" + operation.getId();
-                dynamicProperties.put("topic", topic);
-                Object payload;
-                if ("command".equals(operation.getType().toString().toLowerCase())) {
-                    payload = operation.getCode();
-                } else {
-                    payload = operation.getPayLoad();
-                }
-                MQTTDataHolder.getInstance().getOutputEventAdapterService().publish(adapterName, dynamicProperties,
-                                                                                    payload);
-
+                payload = operation.getPayLoad();
             }
+            messages.add(new OperationMessage("/operation/" + operation.getType().toString().toLowerCase() + "/" +
+                    operation.getCode() + "/" + operation.getId(), payload));
+        }
+        return messages;
+    }
+
+    private String getTopicPrefix(String tenantDomain, DeviceIdentifier deviceId) {
+        return new StringBuilder(tenantDomain.length() + deviceId.getType().length() + deviceId.getId().length() + 2)
+                .append(tenantDomain).append('/').append(deviceId.getType()).append('/').append(deviceId.getId())
+                .toString();
+    }
+
+    private void publish(String adapterName, String tenantDomain, String topic, Object payload) {
+        long startTime = System.nanoTime();
+        MQTTDataHolder.getInstance().getOutputEventAdapterService().publish(adapterName,
+                Collections.singletonMap(MQTTAdapterConstants.MQTT_ADAPTER_DYNAMIC_PROPERTY_TOPIC, topic), payload);
+        totalPublishLatency.addAndGet(System.nanoTime() - startTime);
+        publishedMessages.incrementAndGet();
+        AtomicLong tenantMessages = publishedMessagesByTenant.get(tenantDomain);
+        if (tenantMessages == null) {
+            publishedMessagesByTenant.putIfAbsent(tenantDomain, new AtomicLong());
+            tenantMessages = publishedMessagesByTenant.get(tenantDomain);
+        }
+        tenantMessages.incrementAndGet();
+    }
+
+    @Override
+    public long getPublishedCount() {
+        return publishedMessages.get();
+    }
 
+    @Override
+    public Map<String, Long> getPublishedCountByTenant() {
+        Map<String, Long> publishedCounts = new HashMap<>();
+        for (Map.Entry<String, AtomicLong> entry : publishedMessagesByTenant.entrySet()) {
+            publishedCounts.put(entry.getKey(), entry.getValue().get());
         }
+        return publishedCounts;
+    }
 
+    @Override
+    public long getFailedCount() {
+        return failedNotifications.get();
+    }
 
+    @Override
+    public long getAveragePublishLatency() {
+        long published = publishedMessages.get();
+        return published == 0 ? 0 : totalPublishLatency.get() / published / 1000;
     }
 
     @Override
@@ -184,6 +260,8 @@ public class MQTTNotificationStrategy implements NotificationStrategy {
     @Override
     public void undeploy() {
         MQTTDataHolder.getInstance().getOutputEventAdapterService().destroy(mqttAdapterName);
+        adapterRegistry.clear();
+        this.unregisterStatistics();
     }
 
     @Override
@@ -191,5 +269,42 @@ public class MQTTNotificationStrategy implements NotificationStrategy {
         return config;
     }
 
-}
+    /**
+     * Registers the statistics of this strategy with the platform MBean server. Failures are logged, since the
+     * notifications are published regardless of the statistics being exposed.
+     */
+    private void registerStatistics() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+                    new ObjectName(OBJECT_NAME_PREFIX + strategyId));
+        } catch (JMException e) {
+            log.warn("Unable to register the statistics of the MQTT push notifications of adapter: " +
+                    mqttAdapterName, e);
+        }
+    }
+
+    private void unregisterStatistics() {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME_PREFIX + strategyId);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            log.warn("Unable to unregister the statistics of the MQTT push notifications of adapter: " +
+                    mqttAdapterName, e);
+        }
+    }
 
+    private static class OperationMessage {
+
+        private final String topicSuffix;
+        private final Object payload;
+
+        OperationMessage(String topicSuffix, Object payload) {
+            this.topicSuffix = topicSuffix;
+            this.payload = payload;
+        }
+    }
+
+}
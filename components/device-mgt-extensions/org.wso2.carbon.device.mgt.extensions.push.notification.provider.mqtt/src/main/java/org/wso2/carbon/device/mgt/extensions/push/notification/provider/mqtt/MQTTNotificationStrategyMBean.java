@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.extensions.push.notification.provider.mqtt;
+
+import java.util.Map;
+
+/**
+ * Management interface through which the statistics of an MQTT notification strategy are exposed over JMX.
+ */
+public interface MQTTNotificationStrategyMBean {
+
+    /**
+     * @return number of messages handed over to the output event adapters.
+     */
+    long getPublishedCount();
+
+    /**
+     * @return number of messages handed over to the output event adapters, against the tenant domain.
+     */
+    Map<String, Long> getPublishedCountByTenant();
+
+    /**
+     * @return number of notifications which could not be published.
+     */
+    long getFailedCount();
+
+    /**
+     * @return average time in microseconds taken to hand over a message to the output event adapter.
+     */
+    long getAveragePublishLatency();
+
+}
@@ -36,14 +36,19 @@ import org.wso2.carbon.event.output.adapter.core.internal.CarbonOutputEventAdapt
 import org.wso2.carbon.registry.core.exceptions.RegistryException;
 import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
 import static org.wso2.carbon.device.mgt.core.operation.mgt.PolicyOperation.POLICY_OPERATION_CODE;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import java.io.File;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 /*
     Unit tests for MQTTNotificationStrategy class
@@ -173,4 +178,71 @@ public class MQTTNotificationStrategyTest {
         providerTenantDomain.set(mqttNotificationStrategy, "SampleTenantDomain");
         mqttNotificationStrategy.execute(notificationContext);
     }
+
+    @Test(dependsOnMethods = {"testExecutePolicyOperation"}, description = "testing execute batch method with a " +
+            "policy operation fanned out to several devices")
+    public void testExecuteBatch() throws PushNotificationExecutionFailedException {
+        PolicyOperation policyOperation = new PolicyOperation();
+        policyOperation.setCode(POLICY_OPERATION_CODE);
+        List<ProfileOperation> profileOperations = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            ProfileOperation profileOperation = new ProfileOperation();
+            profileOperation.setCode("SampleCode" + i);
+            profileOperations.add(profileOperation);
+        }
+        policyOperation.setProfileOperations(profileOperations);
+        List<NotificationContext> contexts = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            contexts.add(new NotificationContext(new DeviceIdentifier("device" + i, "SampleDeviceType"),
+                    policyOperation));
+        }
+        long publishedCount = mqttNotificationStrategy.getPublishedCount();
+        List<NotificationContext> failedContexts = mqttNotificationStrategy.executeBatch(contexts);
+        Assert.assertTrue(failedContexts.isEmpty(), "Push notifications failed to be published");
+        Assert.assertEquals(mqttNotificationStrategy.getPublishedCount() - publishedCount, 6, "Each profile " +
+                "operation is not published to each device");
+
+        Properties properties = new Properties();
+        properties.setProperty(MQTT_ADAPTER_TOPIC, "SampleTopic");
+        Operation topicOperation = new Operation();
+        topicOperation.setCode("SampleCode");
+        topicOperation.setType(Operation.Type.CONFIG);
+        topicOperation.setProperties(properties);
+        contexts.clear();
+        for (int i = 0; i < 3; i++) {
+            contexts.add(new NotificationContext(new DeviceIdentifier("device" + i, "SampleDeviceType"),
+                    topicOperation));
+        }
+        publishedCount = mqttNotificationStrategy.getPublishedCount();
+        mqttNotificationStrategy.executeBatch(contexts);
+        Assert.assertEquals(mqttNotificationStrategy.getPublishedCount() - publishedCount, 1, "Operation with its " +
+                "own topic is published more than once");
+        Assert.assertFalse(mqttNotificationStrategy.getPublishedCountByTenant().isEmpty(), "Published messages " +
+                "are not counted per tenant");
+    }
+
+    @Test(dependsOnMethods = {"getNotificationStrategy"}, description = "testing that the statistics of a strategy " +
+            "are exposed over JMX while it is deployed")
+    public void testStatisticsMBean() throws Exception {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName query = new ObjectName(MQTTNotificationStrategy.OBJECT_NAME_PREFIX + "*");
+        Set<ObjectName> existingNames = mBeanServer.queryNames(query, null);
+        MQTTNotificationStrategy strategy = new MQTTNotificationStrategy(pushNotificationConfig);
+        Set<ObjectName> names = mBeanServer.queryNames(query, null);
+        names.removeAll(existingNames);
+        Assert.assertEquals(names.size(), 1, "Statistics of the strategy are not registered");
+        ObjectName objectName = names.iterator().next();
+        Operation commandOperation = new Operation();
+        commandOperation.setType(Operation.Type.COMMAND);
+        commandOperation.setCode("SampleCode");
+        try {
+            strategy.executeBatch(Collections.singletonList(new NotificationContext(
+                    new DeviceIdentifier("device0", "SampleDeviceType"), commandOperation)));
+            Assert.assertEquals(mBeanServer.getAttribute(objectName, "PublishedCount"), 1L);
+            Assert.assertEquals(mBeanServer.getAttribute(objectName, "FailedCount"), 0L);
+        } finally {
+            strategy.undeploy();
+        }
+        Assert.assertFalse(mBeanServer.isRegistered(objectName), "Statistics are still registered");
+    }
 }
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.analytics.data.publisher;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.databridge.agent.DataPublisher;
+import org.wso2.carbon.databridge.commons.Event;
+import org.wso2.carbon.device.mgt.analytics.data.publisher.exception.DataPublisherConfigurationException;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands events over to the data publisher asynchronously. Events are held in a bounded buffer, and a single worker
+ * thread drains them in batches, so that the tenant flow is started once per batch rather than once per event.
+ */
+public class AsyncEventPublisher {
+
+    private static final Log log = LogFactory.getLog(AsyncEventPublisher.class);
+    private static final long POLL_TIMEOUT_MILLIS = 1000;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5000;
+
+    private final BlockingQueue<Event> buffer;
+    private final int batchSize;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    private final AtomicLong acceptedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong publishedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    public AsyncEventPublisher(int bufferSize, int batchSize) {
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.batchSize = batchSize;
+        this.worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        }, "device-analytics-event-publisher");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * @param events events to be published.
+     * @return number of events accepted, from the beginning of the list. The rest are rejected as the buffer is full.
+     */
+    public int offer(List<Event> events) {
+        int accepted = 0;
+        if (running) {
+            for (Event event : events) {
+                if (!buffer.offer(event)) {
+                    break;
+                }
+                accepted++;
+            }
+        }
+        acceptedCount.addAndGet(accepted);
+        int rejected = events.size() - accepted;
+        if (rejected > 0) {
+            rejectedCount.addAndGet(rejected);
+            if (log.isDebugEnabled()) {
+                log.debug("Event buffer is full, hence " + rejected + " events are rejected");
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * Stops accepting events, and waits for the buffered events to be handed over to the data publisher.
+     */
+    public void shutdown() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(SHUTDOWN_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!buffer.isEmpty()) {
+            log.warn(buffer.size() + " buffered events are dropped while shutting down the event publisher");
+        }
+    }
+
+    public int getQueueDepth() {
+        return buffer.size();
+    }
+
+    public long getAcceptedCount() {
+        return acceptedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public long getPublishedCount() {
+        return publishedCount.get();
+    }
+
+    /**
+     * @return number of accepted events which the data publisher did not take, e.g. as analytics is disabled.
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    private void drain() {
+        List<Event> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                Event event = buffer.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (event != null) {
+                    batch.add(event);
+                    buffer.drainTo(batch, batchSize - 1);
+                    this.publish(batch);
+                }
+            } catch (InterruptedException e) {
+                // Interrupted on shutdown. The remaining events are published before the loop exits.
+            } catch (RuntimeException e) {
+                // Keeps the worker alive, so that a single bad event does not stop the publishing.
+                log.error("Error occurred while publishing a batch of " + batch.size() + " events", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void publish(List<Event> batch) {
+        PrivilegedCarbonContext.startTenantFlow();
+        PrivilegedCarbonContext.getThreadLocalCarbonContext()
+                .setTenantDomain(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME, true);
+        try {
+            DataPublisher dataPublisher = DeviceDataPublisher.getInstance().getDataPublisher();
+            if (dataPublisher == null) {
+                droppedCount.addAndGet(batch.size());
+                return;
+            }
+            for (Event event : batch) {
+                if (dataPublisher.tryPublish(event)) {
+                    publishedCount.incrementAndGet();
+                } else {
+                    droppedCount.incrementAndGet();
+                }
+            }
+        } catch (DataPublisherConfigurationException e) {
+            droppedCount.addAndGet(batch.size());
+            log.error("Error occurred while retrieving the data publisher, hence " + batch.size() +
+                    " events are dropped", e);
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+    }
+
+}
@@ -42,9 +42,13 @@ public class AnalyticsConfiguration {
     private String adminUsername;
     private String adminPassword;
     private boolean enable;
+    private int eventBufferSize = DEFAULT_EVENT_BUFFER_SIZE;
+    private int eventBatchSize = DEFAULT_EVENT_BATCH_SIZE;
 
     private static AnalyticsConfiguration config;
 
+    private static final int DEFAULT_EVENT_BUFFER_SIZE = 10000;
+    private static final int DEFAULT_EVENT_BATCH_SIZE = 500;
     private static final Log log = LogFactory.getLog(AnalyticsConfiguration.class);
     private static final String DEVICE_ANALYTICS_CONFIG_PATH =
             CarbonUtils.getEtcCarbonConfigDirPath() + File.separator + "device-analytics-config.xml";
@@ -97,6 +101,30 @@ public class AnalyticsConfiguration {
         this.enable = status;
     }
 
+    /**
+     * @return maximum number of events held in memory while they are waiting to be published asynchronously.
+     */
+    @XmlElement(name = "EventBufferSize")
+    public int getEventBufferSize() {
+        return eventBufferSize;
+    }
+
+    public void setEventBufferSize(int eventBufferSize) {
+        this.eventBufferSize = eventBufferSize;
+    }
+
+    /**
+     * @return maximum number of events handed over to the data publisher at once.
+     */
+    @XmlElement(name = "EventBatchSize")
+    public int getEventBatchSize() {
+        return eventBatchSize;
+    }
+
+    public void setEventBatchSize(int eventBatchSize) {
+        this.eventBatchSize = eventBatchSize;
+    }
+
     public static void init() throws DataPublisherConfigurationException {
         init(AnalyticsConfiguration.DEVICE_ANALYTICS_CONFIG_PATH);
     }
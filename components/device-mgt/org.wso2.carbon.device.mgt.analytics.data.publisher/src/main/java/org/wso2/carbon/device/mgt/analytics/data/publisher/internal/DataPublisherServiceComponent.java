@@ -34,6 +34,7 @@ import org.wso2.carbon.device.mgt.analytics.data.publisher.service.EventsPublish
 public class DataPublisherServiceComponent {
 
     private ServiceRegistration analyticsServiceRef;
+    private EventsPublisherServiceImpl eventsPublisherService;
     private static Log log = LogFactory.getLog(DataPublisherServiceComponent.class);
 
     protected void activate(ComponentContext componentCtx) {
@@ -43,8 +44,9 @@ public class DataPublisherServiceComponent {
             }
             AnalyticsConfiguration.init();
             BundleContext bundleCtx = componentCtx.getBundleContext();
+            this.eventsPublisherService = new EventsPublisherServiceImpl();
             this.analyticsServiceRef =
-                    bundleCtx.registerService(EventsPublisherService.class, new EventsPublisherServiceImpl(), null);
+                    bundleCtx.registerService(EventsPublisherService.class, eventsPublisherService, null);
             if (log.isDebugEnabled()) {
                 log.debug("Device management analytics bundle has been successfully initialized");
             }
@@ -60,6 +62,9 @@ public class DataPublisherServiceComponent {
         if (analyticsServiceRef != null) {
             analyticsServiceRef.unregister();
         }
+        if (eventsPublisherService != null) {
+            eventsPublisherService.shutdown();
+        }
         if (log.isDebugEnabled()) {
             log.debug("Device analytics bundle has been successfully deactivated");
         }
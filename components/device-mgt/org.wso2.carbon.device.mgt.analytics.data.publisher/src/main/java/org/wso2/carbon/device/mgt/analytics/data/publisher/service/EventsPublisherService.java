@@ -20,6 +20,8 @@ package org.wso2.carbon.device.mgt.analytics.data.publisher.service;
 
 import org.wso2.carbon.device.mgt.analytics.data.publisher.exception.DataPublisherConfigurationException;
 
+import java.util.List;
+
 /**
  * This service can be used to publish and retreive data from the Analytics Server.
  */
@@ -38,4 +40,21 @@ public interface EventsPublisherService {
     boolean publishEvent(String streamName, String version, Object[] metaDataArray, Object[] correlationDataArray,
                          Object[] payloadDataArray) throws DataPublisherConfigurationException;
 
+    /**
+     * This is used to publish a batch of events of a stream to DAS. The events are buffered and handed over to the
+     * data publisher asynchronously.
+     * @param streamName is the name of the stream that the data needs to pushed
+     * @param version is the version of the stream
+     * @param metaDataArrays - meta data of each event
+     * @param payloadDataArrays - payload data of each event, in the same order as the meta data
+     * @param timestamps - time each event occurred at, in the same order as the meta data. The current time is used
+     *                   for the events without a timestamp, or for all of the events if this is null.
+     * @return number of events accepted, from the beginning of the batch. Events are not accepted when analytics is
+     * disabled or the event buffer is full.
+     * @throws DataPublisherConfigurationException
+     */
+    int publishEvents(String streamName, String version, List<Object[]> metaDataArrays,
+                      List<Object[]> payloadDataArrays, List<Long> timestamps)
+            throws DataPublisherConfigurationException;
+
 }
@@ -23,17 +23,29 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.databridge.agent.DataPublisher;
+import org.wso2.carbon.databridge.commons.Event;
 import org.wso2.carbon.databridge.commons.utils.DataBridgeCommonsUtils;
+import org.wso2.carbon.device.mgt.analytics.data.publisher.AsyncEventPublisher;
 import org.wso2.carbon.device.mgt.analytics.data.publisher.DeviceDataPublisher;
+import org.wso2.carbon.device.mgt.analytics.data.publisher.config.AnalyticsConfiguration;
 import org.wso2.carbon.device.mgt.analytics.data.publisher.exception.DataPublisherConfigurationException;
 import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * This is the implementation of Osgi Service which can be used to publish and retireved
  * event/records.
  */
 public class EventsPublisherServiceImpl implements EventsPublisherService {
 	private static Log log = LogFactory.getLog(EventsPublisherServiceImpl.class);
+	// Stream ids by version and stream name, as the same few streams are published to for every event.
+	private static final ConcurrentMap<String, ConcurrentMap<String, String>> streamIds = new ConcurrentHashMap<>();
+
+	private volatile AsyncEventPublisher asyncEventPublisher;
 
 	/**
 	 * @param streamName           is the name of the stream that the data needs to pushed
@@ -63,7 +75,7 @@ public class EventsPublisherServiceImpl implements EventsPublisherService {
         try {
             DataPublisher dataPublisher = DeviceDataPublisher.getInstance().getDataPublisher();
             if (dataPublisher != null) {
-                String streamId = DataBridgeCommonsUtils.generateStreamId(streamName, version);
+                String streamId = getStreamId(streamName, version);
                 return dataPublisher.tryPublish(streamId, System.currentTimeMillis(), metaDataArray,
                                                 correlationDataArray,
                                                 payloadDataArray);
@@ -74,4 +86,103 @@ public class EventsPublisherServiceImpl implements EventsPublisherService {
             PrivilegedCarbonContext.endTenantFlow();
         }
     }
+
+	/**
+	 * @param streamName        is the name of the stream that the data needs to pushed
+	 * @param version           is the version of the stream
+	 * @param metaDataArrays    - meta data of each event
+	 * @param payloadDataArrays - payload data of each event, in the same order as the meta data
+	 * @param timestamps        - time each event occurred at, or null to use the current time
+	 * @return number of events accepted to be published
+	 * @throws DataPublisherConfigurationException
+	 */
+	@Override
+	public int publishEvents(String streamName, String version, List<Object[]> metaDataArrays,
+							 List<Object[]> payloadDataArrays, List<Long> timestamps)
+			throws DataPublisherConfigurationException {
+        if (metaDataArrays.size() != payloadDataArrays.size()) {
+            throw new DataPublisherConfigurationException("Meta data and payload data should be given for each " +
+                    "event");
+        }
+        if (timestamps != null && timestamps.size() != metaDataArrays.size()) {
+            throw new DataPublisherConfigurationException("Timestamps should be given for each event");
+        }
+        String tenantDomain = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain();
+        boolean superTenant = tenantDomain.equals(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+        String streamId = getStreamId(streamName, version);
+        long currentTime = System.currentTimeMillis();
+        List<Event> events = new ArrayList<>(metaDataArrays.size());
+        for (int i = 0; i < metaDataArrays.size(); i++) {
+            Object[] metaDataArray = metaDataArrays.get(i);
+            if (!superTenant) {
+                if (metaDataArray == null || metaDataArray.length == 0) {
+                    throw new DataPublisherConfigurationException("meta data[0] should have the device Id field");
+                }
+                metaDataArray[0] = tenantDomain + "@" + metaDataArray[0];
+            }
+            Long timestamp = timestamps == null ? null : timestamps.get(i);
+            events.add(new Event(streamId, timestamp == null ? currentTime : timestamp, metaDataArray, null,
+                    payloadDataArrays.get(i)));
+        }
+
+        // The data publisher is resolved here as well, so that configuration errors are reported to the caller
+        // rather than to the publishing thread.
+        PrivilegedCarbonContext.startTenantFlow();
+        PrivilegedCarbonContext.getThreadLocalCarbonContext()
+                .setTenantDomain(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME, true);
+        try {
+            if (DeviceDataPublisher.getInstance().getDataPublisher() == null) {
+                return 0;
+            }
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+        return getAsyncEventPublisher().offer(events);
+    }
+
+	/**
+	 * Stops the asynchronous event publishing, after handing over the buffered events to the data publisher.
+	 */
+	public void shutdown() {
+        AsyncEventPublisher publisher = asyncEventPublisher;
+        if (publisher != null) {
+            publisher.shutdown();
+        }
+    }
+
+	/**
+	 * @return the asynchronous publisher of the batches of events, which is created on first use.
+	 */
+	public AsyncEventPublisher getAsyncEventPublisher() {
+        AsyncEventPublisher publisher = asyncEventPublisher;
+        if (publisher == null) {
+            synchronized (this) {
+                publisher = asyncEventPublisher;
+                if (publisher == null) {
+                    AnalyticsConfiguration analyticsConfig = AnalyticsConfiguration.getInstance();
+                    publisher = new AsyncEventPublisher(analyticsConfig.getEventBufferSize(),
+                            analyticsConfig.getEventBatchSize());
+                    asyncEventPublisher = publisher;
+                }
+            }
+        }
+        return publisher;
+    }
+
+    private static String getStreamId(String streamName, String version) {
+        ConcurrentMap<String, String> versionStreamIds = streamIds.get(version);
+        if (versionStreamIds == null) {
+            versionStreamIds = new ConcurrentHashMap<>();
+            ConcurrentMap<String, String> existing = streamIds.putIfAbsent(version, versionStreamIds);
+            if (existing != null) {
+                versionStreamIds = existing;
+            }
+        }
+        String streamId = versionStreamIds.get(streamName);
+        if (streamId == null) {
+            streamId = DataBridgeCommonsUtils.generateStreamId(streamName, version);
+            versionStreamIds.putIfAbsent(streamName, streamId);
+        }
+        return streamId;
+    }
 }
\ No newline at end of file
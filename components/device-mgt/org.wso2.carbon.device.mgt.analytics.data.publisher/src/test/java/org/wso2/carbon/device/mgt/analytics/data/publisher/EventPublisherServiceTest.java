@@ -30,6 +30,9 @@ import org.wso2.carbon.device.mgt.analytics.data.publisher.service.EventsPublish
 import org.wso2.carbon.device.mgt.analytics.data.publisher.service.EventsPublisherServiceImpl;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * This test class will test the methods that are exposed from {@link EventsPublisherService}
@@ -91,8 +94,52 @@ public class EventPublisherServiceTest extends BaseAnalyticsDataPublisherTest {
         publishAsTenant(new Object[0]);
     }
 
+    @Test(description = "Publish a batch of events as tenant", dependsOnMethods = "publishAsTenant")
+    public void publishEventsAsTenant() throws DataPublisherConfigurationException, InterruptedException {
+        List<Object[]> metaData = new ArrayList<>();
+        List<Object[]> payloadData = new ArrayList<>();
+        List<Long> timestamps = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            metaData.add(getEventProps());
+            payloadData.add(getEventProps());
+            timestamps.add(i % 2 == 0 ? System.currentTimeMillis() : null);
+        }
+        PrivilegedCarbonContext.startTenantFlow();
+        PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(TENANT_DOMAIN, true);
+        try {
+            int accepted = this.eventsPublisherService.publishEvents(STREAM_NAME, "1.0.0", metaData, payloadData,
+                    timestamps);
+            Assert.assertEquals(accepted, 10);
+            Assert.assertEquals(metaData.get(0)[0], TENANT_DOMAIN + "@123");
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+        AsyncEventPublisher asyncEventPublisher =
+                ((EventsPublisherServiceImpl) this.eventsPublisherService).getAsyncEventPublisher();
+        for (int i = 0; i < 50 && asyncEventPublisher.getQueueDepth() > 0; i++) {
+            Thread.sleep(100);
+        }
+        Assert.assertEquals(asyncEventPublisher.getQueueDepth(), 0);
+        Assert.assertEquals(asyncEventPublisher.getAcceptedCount(), 10);
+    }
+
+    @Test(description = "Publish a batch of events with missing payload data", dependsOnMethods = "publishAsTenant",
+            expectedExceptions = DataPublisherConfigurationException.class)
+    public void publishEventsWithMissingPayloadData() throws DataPublisherConfigurationException {
+        this.eventsPublisherService.publishEvents(STREAM_NAME, "1.0.0", Collections.singletonList(getEventProps()),
+                Collections.<Object[]>emptyList(), null);
+    }
+
+    @Test(description = "Publish a batch of events with missing timestamps", dependsOnMethods = "publishAsTenant",
+            expectedExceptions = DataPublisherConfigurationException.class)
+    public void publishEventsWithMissingTimestamps() throws DataPublisherConfigurationException {
+        this.eventsPublisherService.publishEvents(STREAM_NAME, "1.0.0", Collections.singletonList(getEventProps()),
+                Collections.singletonList(getEventProps()), Collections.<Long>emptyList());
+    }
+
     @Test(description = "Publishing with invalid data publisher config",
-            dependsOnMethods = {"publishAsTenantWithEmptyMetaData", "publishAsTenantWithNoMetaData"},
+            dependsOnMethods = {"publishAsTenantWithEmptyMetaData", "publishAsTenantWithNoMetaData",
+                    "publishEventsAsTenant"},
             expectedExceptions = DataPublisherConfigurationException.class)
     public void publishWithDataEndpointConfigException() throws DataPublisherConfigurationException,
             NoSuchFieldException, IllegalAccessException {
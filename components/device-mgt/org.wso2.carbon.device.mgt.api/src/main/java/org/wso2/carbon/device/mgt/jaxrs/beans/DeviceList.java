@@ -28,6 +28,7 @@ import java.util.List;
 public class DeviceList extends BasePaginatedResult {
 
     private List<Device> devices = new ArrayList<>();
+    private String next;
 
     @ApiModelProperty(value = "List of devices returned")
     @JsonProperty("devices")
@@ -39,6 +40,17 @@ public class DeviceList extends BasePaginatedResult {
         this.devices = devices;
     }
 
+    @ApiModelProperty(value = "Continuation token to be given as the cursor to retrieve the next page of devices. Null "
+            + "on the last page.")
+    @JsonProperty("next")
+    public String getNext() {
+        return next;
+    }
+
+    public void setNext(String next) {
+        this.next = next;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.jaxrs.beans.analytics;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This holds a batch of events received from a single device.
+ */
+@ApiModel(value = "DeviceEvents", description = "Batch of events received from a single device.")
+public class DeviceEvents {
+
+    @ApiModelProperty(name = "deviceId", value = "Identifier of the device which sent the events.", required = true)
+    @JsonProperty("deviceId")
+    private String deviceId;
+
+    @ApiModelProperty(name = "events", value = "Payload of each event, by attribute name.", required = true)
+    @JsonProperty("events")
+    private List<Map<String, Object>> events = new ArrayList<>();
+
+    @ApiModelProperty(name = "timestamps", value = "Time each event occurred at, in milliseconds since the epoch, in "
+            + "the same order as the events. The time the events are received at is used if this is not given.")
+    @JsonProperty("timestamps")
+    private List<Long> timestamps;
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    public void setDeviceId(String deviceId) {
+        this.deviceId = deviceId;
+    }
+
+    public List<Map<String, Object>> getEvents() {
+        return events;
+    }
+
+    public void setEvents(List<Map<String, Object>> events) {
+        this.events = events;
+    }
+
+    public List<Long> getTimestamps() {
+        return timestamps;
+    }
+
+    public void setTimestamps(List<Long> timestamps) {
+        this.timestamps = timestamps;
+    }
+
+}
@@ -18,10 +18,12 @@
  */
 package org.wso2.carbon.device.mgt.jaxrs.beans.analytics;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.annotations.ApiModelProperty;
 import org.wso2.carbon.device.mgt.common.Device;
 import org.wso2.carbon.device.mgt.jaxrs.beans.BasePaginatedResult;
+import org.wso2.carbon.device.mgt.jaxrs.util.EventPayloadConverter;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -32,6 +34,7 @@ import java.util.List;
 public class EventAttributeList {
 
     private List<Attribute> attributes = new ArrayList<>();
+    private transient EventPayloadConverter payloadConverter;
 
     @ApiModelProperty(value = "List of Event Attributes")
     @JsonProperty("attributes")
@@ -41,6 +44,22 @@ public class EventAttributeList {
 
     public void setList(List<Attribute> attributes) {
         this.attributes = attributes;
+        this.payloadConverter = null;
+    }
+
+    /**
+     * @return converter of the event payloads to the attributes, which is built once and reused while this list is
+     * cached.
+     */
+    @ApiModelProperty(hidden = true)
+    @JsonIgnore
+    public EventPayloadConverter getPayloadConverter() {
+        EventPayloadConverter converter = payloadConverter;
+        if (converter == null) {
+            converter = new EventPayloadConverter(attributes);
+            payloadConverter = converter;
+        }
+        return converter;
     }
 
 }
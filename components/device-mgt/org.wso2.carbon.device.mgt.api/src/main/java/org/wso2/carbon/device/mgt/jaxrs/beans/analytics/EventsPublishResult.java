@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.jaxrs.beans.analytics;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+/**
+ * This holds the number of events of a batch which are accepted to be published.
+ */
+@ApiModel(value = "EventsPublishResult", description = "Number of events of a batch which are accepted to be "
+        + "published.")
+public class EventsPublishResult {
+
+    @ApiModelProperty(name = "accepted", value = "Number of events accepted, counted from the first event of the "
+            + "first device in the batch. Only the events after these should be sent again.", required = true)
+    @JsonProperty("accepted")
+    private int accepted;
+
+    @ApiModelProperty(name = "total", value = "Number of events in the batch.", required = true)
+    @JsonProperty("total")
+    private int total;
+
+    public EventsPublishResult() {
+    }
+
+    public EventsPublishResult(int accepted, int total) {
+        this.accepted = accepted;
+        this.total = total;
+    }
+
+    public int getAccepted() {
+        return accepted;
+    }
+
+    public void setAccepted(int accepted) {
+        this.accepted = accepted;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+}
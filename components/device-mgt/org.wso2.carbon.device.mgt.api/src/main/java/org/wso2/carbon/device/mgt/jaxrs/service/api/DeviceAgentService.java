@@ -35,6 +35,8 @@ import org.wso2.carbon.device.mgt.common.Device;
 import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
 import org.wso2.carbon.device.mgt.jaxrs.beans.ErrorResponse;
 import org.wso2.carbon.device.mgt.jaxrs.beans.OperationList;
+import org.wso2.carbon.device.mgt.jaxrs.beans.analytics.DeviceEvents;
+import org.wso2.carbon.device.mgt.jaxrs.beans.analytics.EventsPublishResult;
 import org.wso2.carbon.device.mgt.jaxrs.util.Constants;
 
 import javax.validation.Valid;
@@ -374,6 +376,64 @@ public interface DeviceAgentService {
                     value = "deviceId of the device")
             @PathParam("deviceId") String deviceId);
 
+    @POST
+    @Path("/events/publish/batch/{type}")
+    @ApiOperation(
+            produces = MediaType.APPLICATION_JSON,
+            consumes = MediaType.APPLICATION_JSON,
+            httpMethod = "POST",
+            value = "Publishing a batch of Events",
+            notes = "Publish batches of events received by the device clients of a device type to the WSO2 Data " +
+                    "Analytics Server (DAS) using this API. The events are published asynchronously. If only a " +
+                    "part of the events are accepted, only the events after the accepted ones should be sent again.",
+            tags = "Device Agent Management",
+            extensions = {
+                    @Extension(properties = {
+                            @ExtensionProperty(name = Constants.SCOPE, value = "perm:device:publish-event")
+                    })
+            }
+    )
+    @ApiResponses(
+            value = {
+                    @ApiResponse(code = 202, message = "Accepted. \n Successfully accepted the events to be published",
+                            response = EventsPublishResult.class,
+                            responseHeaders = {
+                                    @ResponseHeader(
+                                            name = "Content-Type",
+                                            description = "The content type of the body")
+                            }),
+                    @ApiResponse(
+                            code = 400,
+                            message = "Bad Request. \n Invalid request or validation error."),
+                    @ApiResponse(
+                            code = 401,
+                            message = "Unauthorized. \n The user does not have permission to access one of the " +
+                                    "devices."),
+                    @ApiResponse(
+                            code = 415,
+                            message = "Unsupported media type. \n The format of the requested entity was not supported."),
+                    @ApiResponse(
+                            code = 500,
+                            message = "Internal Server Error. \n " +
+                                    "Server error occurred while publishing events."),
+                    @ApiResponse(
+                            code = 503,
+                            message = "Service Unavailable. \n " +
+                                    "Only a part of the events are accepted, as the event buffer is full. The " +
+                                    "number of accepted events is returned.",
+                            response = EventsPublishResult.class)
+            })
+    Response publishEvents(
+            @ApiParam(
+                    name = "deviceEvents",
+                    value = "Events of each device to be published on DAS.")
+            @Valid
+            List<DeviceEvents> deviceEvents,
+            @ApiParam(
+                    name = "type",
+                    value = "name of the device type")
+            @PathParam("type") String type);
+
     @GET
     @Path("/pending/operations/{type}/{id}")
     @ApiOperation(
@@ -429,7 +489,15 @@ public interface DeviceAgentService {
     Response getPendingOperations(@ApiParam(name = "type", value = "The device type, such as ios, android or windows.", required = true)
                                   @PathParam("type") String type,
                                   @ApiParam(name = "id", value = "The device id.", required = true)
-                                  @PathParam("id") String deviceId);
+                                  @PathParam("id") String deviceId,
+                                  @ApiParam(name = "lastOperationId", value = "Id of the last operation received " +
+                                          "by the device. Only the operations created after it are returned.",
+                                          required = false, defaultValue = "0")
+                                  @QueryParam("lastOperationId") int lastOperationId,
+                                  @ApiParam(name = "limit", value = "Maximum number of operations to be returned. " +
+                                          "All the pending operations are returned if not provided.",
+                                          required = false, defaultValue = "0")
+                                  @QueryParam("limit") int limit);
 
     @GET
     @Path("/next-pending/operation/{type}/{id}")
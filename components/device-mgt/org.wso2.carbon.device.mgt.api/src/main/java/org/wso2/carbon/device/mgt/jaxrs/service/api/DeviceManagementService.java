@@ -50,6 +50,7 @@ import javax.validation.Valid;
 import javax.validation.constraints.Size;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
@@ -297,7 +298,23 @@ public interface DeviceManagementService {
                     required = false,
                     defaultValue = "5")
             @QueryParam("limit")
-            int limit);
+            int limit,
+            @ApiParam(
+                    name = "cursor",
+                    value = "The continuation token returned as next with the previous page. When given, the page "
+                            + "starts right after the previous page and the offset is not used.",
+                    required = false)
+            @QueryParam("cursor")
+            String cursor,
+            @ApiParam(
+                    name = "requireCount",
+                    value = "Boolean flag indicating whether to count the total number of matching devices. When "
+                            + "false, the count of the response is -1.",
+                    required = false,
+                    defaultValue = "true")
+            @QueryParam("requireCount")
+            @DefaultValue("true")
+            boolean requireCount);
 
     @GET
     @ApiOperation(
@@ -34,6 +34,7 @@ import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
 import org.wso2.carbon.device.mgt.common.InvalidConfigurationException;
 import org.wso2.carbon.device.mgt.common.authorization.DeviceAccessAuthorizationException;
 import org.wso2.carbon.device.mgt.common.authorization.DeviceAccessAuthorizationService;
+import org.wso2.carbon.device.mgt.common.authorization.DeviceAuthorizationResult;
 import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
 import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManagementException;
 import org.wso2.carbon.device.mgt.common.policy.mgt.monitor.ComplianceFeature;
@@ -44,10 +45,13 @@ import org.wso2.carbon.device.mgt.jaxrs.beans.ErrorResponse;
 import org.wso2.carbon.device.mgt.jaxrs.beans.OperationList;
 import org.wso2.carbon.device.mgt.jaxrs.beans.analytics.Attribute;
 import org.wso2.carbon.device.mgt.jaxrs.beans.analytics.AttributeType;
+import org.wso2.carbon.device.mgt.jaxrs.beans.analytics.DeviceEvents;
 import org.wso2.carbon.device.mgt.jaxrs.beans.analytics.EventAttributeList;
+import org.wso2.carbon.device.mgt.jaxrs.beans.analytics.EventsPublishResult;
 import org.wso2.carbon.device.mgt.jaxrs.service.api.DeviceAgentService;
 import org.wso2.carbon.device.mgt.jaxrs.util.Constants;
 import org.wso2.carbon.device.mgt.jaxrs.util.DeviceMgtAPIUtils;
+import org.wso2.carbon.device.mgt.jaxrs.util.EventPayloadConverter;
 import org.wso2.carbon.event.stream.stub.EventStreamAdminServiceStub;
 import org.wso2.carbon.event.stream.stub.types.EventStreamAttributeDto;
 import org.wso2.carbon.event.stream.stub.types.EventStreamDefinitionDto;
@@ -217,7 +221,6 @@ public class DeviceAgentServiceImpl implements DeviceAgentService {
             , @PathParam("deviceId") String deviceId) {
 
         String tenantDomain = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain();
-        EventStreamAdminServiceStub eventStreamAdminServiceStub = null;
         try {
             if (payload == null) {
                 String msg = "invalid payload structure";
@@ -234,46 +237,20 @@ public class DeviceAgentServiceImpl implements DeviceAgentService {
             metaData[0] = deviceId;
             EventAttributeList eventAttributeList = DeviceMgtAPIUtils.getDynamicEventCache().get(type);
             if (eventAttributeList == null) {
-                String streamName = DeviceMgtAPIUtils.getStreamDefinition(type, tenantDomain);
-                eventStreamAdminServiceStub = DeviceMgtAPIUtils.getEventStreamAdminServiceStub();
-                EventStreamDefinitionDto eventStreamDefinitionDto = eventStreamAdminServiceStub.getStreamDefinitionDto(
-                        streamName + ":" + Constants.DEFAULT_STREAM_VERSION);
-                if (eventStreamDefinitionDto == null) {
+                eventAttributeList = this.getEventAttributeList(type, tenantDomain);
+                if (eventAttributeList == null) {
                     return Response.status(Response.Status.BAD_REQUEST).build();
-                } else {
-                    EventStreamAttributeDto[] eventStreamAttributeDtos = eventStreamDefinitionDto.getPayloadData();
-                    List<Attribute> attributes = new ArrayList<>();
-                    for (EventStreamAttributeDto eventStreamAttributeDto : eventStreamAttributeDtos) {
-                        attributes.add(new Attribute(eventStreamAttributeDto.getAttributeName()
-                                , AttributeType.valueOf(eventStreamAttributeDto.getAttributeType().toUpperCase())));
-
-                    }
-                    if (payload.size() != attributes.size()) {
-                        String msg = "Payload does not match with the stream definition";
-                        return Response.status(Response.Status.BAD_REQUEST).entity(msg).build();
-                    }
-                    eventAttributeList = new EventAttributeList();
-                    eventAttributeList.setList(attributes);
-                    DeviceMgtAPIUtils.getDynamicEventCache().put(type, eventAttributeList);
                 }
-            }
-            int i = 0;
-            Object[] payloadData = new Object[eventAttributeList.getList().size()];
-            for (Attribute attribute : eventAttributeList.getList()) {
-                if (attribute.getType() == AttributeType.INT) {
-                    payloadData[i] = ((Double) payload.get(attribute.getName())).intValue();
-                } else if (attribute.getType() == AttributeType.LONG) {
-                    payloadData[i] = ((Double) payload.get(attribute.getName())).longValue();
-                } else {
-                    payloadData[i] = payload.get(attribute.getName());
+                if (payload.size() != eventAttributeList.getList().size()) {
+                    String msg = "Payload does not match with the stream definition";
+                    return Response.status(Response.Status.BAD_REQUEST).entity(msg).build();
                 }
-                i++;
+                DeviceMgtAPIUtils.getDynamicEventCache().put(type, eventAttributeList);
             }
+            Object[] payloadData = eventAttributeList.getPayloadConverter().convert(payload);
 
             if (DeviceMgtAPIUtils.getEventPublisherService().publishEvent(DeviceMgtAPIUtils.getStreamDefinition(type
-                    , PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain())
-                    , Constants.DEFAULT_STREAM_VERSION, metaData
-                    , null, payloadData)) {
+                    , tenantDomain), Constants.DEFAULT_STREAM_VERSION, metaData, null, payloadData)) {
                 return Response.status(Response.Status.OK).build();
             } else {
                 String msg = "Error occurred while publishing the event.";
@@ -299,14 +276,6 @@ public class DeviceAgentServiceImpl implements DeviceAgentService {
         } catch (UserStoreException e) {
             log.error("Failed to connect with the user store, tenantDomain: " + tenantDomain, e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
-        } finally {
-            if (eventStreamAdminServiceStub != null) {
-                try {
-                    eventStreamAdminServiceStub.cleanup();
-                } catch (AxisFault axisFault) {
-                    log.warn("Failed to clean eventStreamAdminServiceStub");
-                }
-            }
         }
     }
 
@@ -317,7 +286,6 @@ public class DeviceAgentServiceImpl implements DeviceAgentService {
             , @PathParam("deviceId") String deviceId) {
 
         String tenantDomain = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain();
-        EventStreamAdminServiceStub eventStreamAdminServiceStub = null;
         try {
             if (payload == null) {
                 String msg = "Invalid payload structure";
@@ -334,46 +302,20 @@ public class DeviceAgentServiceImpl implements DeviceAgentService {
             metaData[0] = deviceId;
             EventAttributeList eventAttributeList = DeviceMgtAPIUtils.getDynamicEventCache().get(type);
             if (eventAttributeList == null) {
-                String streamName = DeviceMgtAPIUtils.getStreamDefinition(type, tenantDomain);
-                eventStreamAdminServiceStub = DeviceMgtAPIUtils.getEventStreamAdminServiceStub();
-                EventStreamDefinitionDto eventStreamDefinitionDto = eventStreamAdminServiceStub.getStreamDefinitionDto(
-                        streamName + ":" + Constants.DEFAULT_STREAM_VERSION);
-                if (eventStreamDefinitionDto == null) {
+                eventAttributeList = this.getEventAttributeList(type, tenantDomain);
+                if (eventAttributeList == null) {
                     return Response.status(Response.Status.BAD_REQUEST).build();
-                } else {
-                    EventStreamAttributeDto[] eventStreamAttributeDtos = eventStreamDefinitionDto.getPayloadData();
-                    List<Attribute> attributes = new ArrayList<>();
-                    for (EventStreamAttributeDto eventStreamAttributeDto : eventStreamAttributeDtos) {
-                        attributes.add(new Attribute(eventStreamAttributeDto.getAttributeName()
-                                , AttributeType.valueOf(eventStreamAttributeDto.getAttributeType().toUpperCase())));
-
-                    }
-                    if (payload.size() != attributes.size()) {
-                        String msg = "Payload does not match with the stream definition";
-                        return Response.status(Response.Status.BAD_REQUEST).entity(msg).build();
-                    }
-                    eventAttributeList = new EventAttributeList();
-                    eventAttributeList.setList(attributes);
-                    DeviceMgtAPIUtils.getDynamicEventCache().put(type, eventAttributeList);
                 }
-            }
-            int i = 0;
-            Object[] payloadData = new Object[eventAttributeList.getList().size()];
-            for (Attribute attribute : eventAttributeList.getList()) {
-                if (attribute.getType() == AttributeType.INT) {
-                    payloadData[i] = ((Double) payload.get(i)).intValue();
-                } else if (attribute.getType() == AttributeType.LONG) {
-                    payloadData[i] = ((Double) payload.get(i)).longValue();
-                } else {
-                    payloadData[i] = payload.get(i);
+                if (payload.size() != eventAttributeList.getList().size()) {
+                    String msg = "Payload does not match with the stream definition";
+                    return Response.status(Response.Status.BAD_REQUEST).entity(msg).build();
                 }
-                i++;
+                DeviceMgtAPIUtils.getDynamicEventCache().put(type, eventAttributeList);
             }
+            Object[] payloadData = eventAttributeList.getPayloadConverter().convert(payload);
 
             if (DeviceMgtAPIUtils.getEventPublisherService().publishEvent(DeviceMgtAPIUtils.getStreamDefinition(type
-                    , PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain())
-                    , Constants.DEFAULT_STREAM_VERSION, metaData
-                    , null, payloadData)) {
+                    , tenantDomain), Constants.DEFAULT_STREAM_VERSION, metaData, null, payloadData)) {
                 return Response.status(Response.Status.OK).build();
             } else {
                 String msg = "Error occurred while publishing the event.";
@@ -399,20 +341,138 @@ public class DeviceAgentServiceImpl implements DeviceAgentService {
         } catch (UserStoreException e) {
             log.error("Failed to connect with the user store, tenantDomain: " + tenantDomain, e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
-        } finally {
-            if (eventStreamAdminServiceStub != null) {
-                try {
-                    eventStreamAdminServiceStub.cleanup();
-                } catch (AxisFault axisFault) {
-                    log.warn("Failed to clean eventStreamAdminServiceStub");
+        }
+    }
+
+    @POST
+    @Path("/events/publish/batch/{type}")
+    @Override
+    public Response publishEvents(@Valid List<DeviceEvents> deviceEvents, @PathParam("type") String type) {
+
+        String tenantDomain = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain();
+        if (deviceEvents == null || deviceEvents.isEmpty()) {
+            String msg = "Invalid payload structure";
+            return Response.status(Response.Status.BAD_REQUEST).entity(msg).build();
+        }
+        try {
+            List<DeviceIdentifier> deviceIdentifiers = new ArrayList<>(deviceEvents.size());
+            for (DeviceEvents events : deviceEvents) {
+                if (events == null || events.getDeviceId() == null || events.getEvents() == null) {
+                    String msg = "Invalid payload structure";
+                    return Response.status(Response.Status.BAD_REQUEST).entity(msg).build();
+                }
+                deviceIdentifiers.add(new DeviceIdentifier(events.getDeviceId(), type));
+            }
+            DeviceAuthorizationResult authorizationResult = DeviceMgtAPIUtils.getDeviceAccessAuthorizationService()
+                    .isUserAuthorized(deviceIdentifiers);
+            if (authorizationResult == null || !authorizationResult.getUnauthorizedDevices().isEmpty()) {
+                String msg = "Does not have permission to access the devices.";
+                return Response.status(Response.Status.UNAUTHORIZED).entity(msg).build();
+            }
+            EventAttributeList eventAttributeList = DeviceMgtAPIUtils.getDynamicEventCache().get(type);
+            if (eventAttributeList == null) {
+                eventAttributeList = this.getEventAttributeList(type, tenantDomain);
+                if (eventAttributeList == null) {
+                    return Response.status(Response.Status.BAD_REQUEST).build();
+                }
+                DeviceMgtAPIUtils.getDynamicEventCache().put(type, eventAttributeList);
+            }
+            EventPayloadConverter payloadConverter = eventAttributeList.getPayloadConverter();
+            List<Object[]> metaData = new ArrayList<>();
+            List<Object[]> payloadData = new ArrayList<>();
+            List<Long> timestamps = new ArrayList<>();
+            for (DeviceEvents events : deviceEvents) {
+                List<Long> eventTimestamps = events.getTimestamps();
+                if (eventTimestamps != null && eventTimestamps.size() != events.getEvents().size()) {
+                    String msg = "Timestamps should be given for each event of the device " + events.getDeviceId();
+                    return Response.status(Response.Status.BAD_REQUEST).entity(msg).build();
+                }
+                for (int i = 0; i < events.getEvents().size(); i++) {
+                    Map<String, Object> event = events.getEvents().get(i);
+                    if (event == null || event.size() != payloadConverter.size()) {
+                        String msg = "Payload does not match with the stream definition";
+                        return Response.status(Response.Status.BAD_REQUEST).entity(msg).build();
+                    }
+                    metaData.add(new Object[]{events.getDeviceId()});
+                    payloadData.add(payloadConverter.convert(event));
+                    timestamps.add(eventTimestamps == null ? null : eventTimestamps.get(i));
                 }
             }
+
+            int accepted = DeviceMgtAPIUtils.getEventPublisherService().publishEvents(
+                    DeviceMgtAPIUtils.getStreamDefinition(type, tenantDomain), Constants.DEFAULT_STREAM_VERSION,
+                    metaData, payloadData, timestamps);
+            EventsPublishResult result = new EventsPublishResult(accepted, payloadData.size());
+            if (accepted == payloadData.size()) {
+                return Response.status(Response.Status.ACCEPTED).entity(result).build();
+            } else if (accepted == 0) {
+                String msg = "Error occurred while publishing the events.";
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(msg).build();
+            } else {
+                // The accepted events are reported, so that the client sends only the rest of the events again.
+                return Response.status(Response.Status.SERVICE_UNAVAILABLE).entity(result).build();
+            }
+        } catch (DataPublisherConfigurationException e) {
+            String msg = "Error occurred while publishing the events.";
+            log.error(msg, e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(msg).build();
+        } catch (DeviceAccessAuthorizationException e) {
+            String msg = "Error occurred when checking for authorization";
+            log.error(msg, e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(msg).build();
+        } catch (AxisFault e) {
+            log.error("Failed to retrieve event definitions for tenantDomain:" + tenantDomain, e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
+        } catch (RemoteException e) {
+            log.error("Failed to connect with the remote services:" + tenantDomain, e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
+        } catch (JWTClientException e) {
+            log.error("Failed to generate jwt token for tenantDomain:" + tenantDomain, e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
+        } catch (UserStoreException e) {
+            log.error("Failed to connect with the user store, tenantDomain: " + tenantDomain, e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Retrieves the attributes of the event stream of the device type from DAS.
+     *
+     * @return attributes of the event stream, or null if the event stream is not defined.
+     */
+    private EventAttributeList getEventAttributeList(String type, String tenantDomain)
+            throws RemoteException, UserStoreException, JWTClientException {
+        EventStreamAdminServiceStub eventStreamAdminServiceStub = DeviceMgtAPIUtils.getEventStreamAdminServiceStub();
+        try {
+            String streamName = DeviceMgtAPIUtils.getStreamDefinition(type, tenantDomain);
+            EventStreamDefinitionDto eventStreamDefinitionDto = eventStreamAdminServiceStub.getStreamDefinitionDto(
+                    streamName + ":" + Constants.DEFAULT_STREAM_VERSION);
+            if (eventStreamDefinitionDto == null) {
+                return null;
+            }
+            EventStreamAttributeDto[] eventStreamAttributeDtos = eventStreamDefinitionDto.getPayloadData();
+            List<Attribute> attributes = new ArrayList<>();
+            for (EventStreamAttributeDto eventStreamAttributeDto : eventStreamAttributeDtos) {
+                attributes.add(new Attribute(eventStreamAttributeDto.getAttributeName()
+                        , AttributeType.valueOf(eventStreamAttributeDto.getAttributeType().toUpperCase())));
+            }
+            EventAttributeList eventAttributeList = new EventAttributeList();
+            eventAttributeList.setList(attributes);
+            return eventAttributeList;
+        } finally {
+            try {
+                eventStreamAdminServiceStub.cleanup();
+            } catch (AxisFault axisFault) {
+                log.warn("Failed to clean eventStreamAdminServiceStub");
+            }
         }
     }
 
     @GET
     @Path("/pending/operations/{type}/{id}")
-    public Response getPendingOperations(@PathParam("type") String type, @PathParam("id") String deviceId) {
+    public Response getPendingOperations(@PathParam("type") String type, @PathParam("id") String deviceId,
+                                         @QueryParam("lastOperationId") int lastOperationId,
+                                         @QueryParam("limit") int limit) {
         try {
             if (!DeviceMgtAPIUtils.getDeviceManagementService().getAvailableDeviceTypes().contains(type)) {
                 String errorMessage = "Device identifier list is empty";
@@ -425,8 +485,13 @@ public class DeviceAgentServiceImpl implements DeviceAgentService {
                 log.error(msg);
                 return Response.status(Response.Status.NO_CONTENT).entity(msg).build();
             }
-            List<? extends Operation> operations = DeviceMgtAPIUtils.getDeviceManagementService().getPendingOperations(
-                    deviceIdentifier);
+            List<? extends Operation> operations;
+            if (lastOperationId > 0 || limit > 0) {
+                operations = DeviceMgtAPIUtils.getDeviceManagementService().getPendingOperations(deviceIdentifier,
+                        lastOperationId, limit);
+            } else {
+                operations = DeviceMgtAPIUtils.getDeviceManagementService().getPendingOperations(deviceIdentifier);
+            }
             OperationList operationsList = new OperationList();
             operationsList.setList(operations);
             operationsList.setCount(operations.size());
@@ -70,6 +70,7 @@ import javax.validation.Valid;
 import javax.validation.constraints.Size;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
@@ -129,7 +130,9 @@ public class DeviceManagementServiceImpl implements DeviceManagementService {
             @HeaderParam("If-Modified-Since") String ifModifiedSince,
             @QueryParam("requireDeviceInfo") boolean requireDeviceInfo,
             @QueryParam("offset") int offset,
-            @QueryParam("limit") int limit) {
+            @QueryParam("limit") int limit,
+            @QueryParam("cursor") String cursor,
+            @QueryParam("requireCount") @DefaultValue("true") boolean requireCount) {
         try {
             if (!StringUtils.isEmpty(name) && !StringUtils.isEmpty(role)) {
                 return Response.status(Response.Status.BAD_REQUEST).entity(
@@ -151,6 +154,11 @@ public class DeviceManagementServiceImpl implements DeviceManagementService {
             PaginationResult result;
             DeviceList devices = new DeviceList();
 
+            if (cursor != null && !cursor.isEmpty()) {
+                request.setAfterEnrolmentId(DeviceMgtAPIUtils.getEnrolmentIdOfDeviceListCursor(cursor));
+            }
+            request.setCountRequired(requireCount);
+
             if (name != null && !name.isEmpty()) {
                 request.setDeviceName(name);
             }
@@ -255,6 +263,7 @@ public class DeviceManagementServiceImpl implements DeviceManagementService {
 
             devices.setList((List<Device>) result.getData());
             devices.setCount(result.getRecordsTotal());
+            devices.setNext(this.getNextDeviceListCursor(request, devices.getList()));
             return Response.status(Response.Status.OK).entity(devices).build();
         } catch (DeviceManagementException e) {
             String msg = "Error occurred while fetching all enrolled devices";
@@ -269,6 +278,22 @@ public class DeviceManagementServiceImpl implements DeviceManagementService {
         }
     }
 
+    /**
+     * Returns the continuation token of the page following the given one, which is keyed on the enrolment id of the
+     * last device. Devices of a role are not paginated, hence have no next page.
+     */
+    private String getNextDeviceListCursor(PaginationRequest request, List<Device> devices) {
+        if (!StringUtils.isEmpty(request.getOwnerRole()) || devices == null || devices.isEmpty() ||
+                devices.size() < request.getRowCount()) {
+            return null;
+        }
+        Device lastDevice = devices.get(devices.size() - 1);
+        if (lastDevice.getEnrolmentInfo() == null) {
+            return null;
+        }
+        return DeviceMgtAPIUtils.getDeviceListCursor(lastDevice.getEnrolmentInfo().getId());
+    }
+
     @GET
     @Override
     @Path("/user-devices")
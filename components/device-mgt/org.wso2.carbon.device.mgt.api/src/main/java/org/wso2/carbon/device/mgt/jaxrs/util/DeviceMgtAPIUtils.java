@@ -92,6 +92,7 @@ import java.security.KeyStore;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.UnrecoverableKeyException;
+import java.nio.charset.StandardCharsets;
 import java.security.cert.CertificateException;
 import java.util.ArrayList;
 import java.util.List;
@@ -119,6 +120,7 @@ public class DeviceMgtAPIUtils {
     private static final String SSLV3 = "SSLv3";
     private static final String EVENT_CACHE_MANAGER_NAME = "mqttAuthorizationCacheManager";
     private static final String EVENT_CACHE_NAME = "mqttAuthorizationCache";
+    private static final String DEVICE_LIST_CURSOR_PREFIX = "e:";
     public static final String DAS_ADMIN_SERVICE_EP = "https://" + DAS_HOST_NAME + ":" + DAS_PORT + "/services/";
     private static SSLContext sslContext;
 
@@ -210,7 +212,8 @@ public class DeviceMgtAPIUtils {
     }
 
     public static boolean isValidDeviceIdentifier(DeviceIdentifier deviceIdentifier) throws DeviceManagementException {
-        Device device = getDeviceManagementService().getDevice(deviceIdentifier);
+        // Only the enrolment of the device is checked, which is served from the device cache without the device info.
+        Device device = getDeviceManagementService().getDevice(deviceIdentifier, false);
         if (device == null || device.getDeviceIdentifier() == null ||
                 device.getDeviceIdentifier().isEmpty() || device.getEnrolmentInfo() == null) {
             return false;
@@ -705,4 +708,37 @@ public class DeviceMgtAPIUtils {
         }
         return false;
     }
+
+    /**
+     * Builds the continuation token of a device list page. The token is opaque to clients and is decoded with
+     * {@link #getEnrolmentIdOfDeviceListCursor(String)} to resume the listing after the given enrolment.
+     *
+     * @param enrolmentId id of the last enrolment of the page.
+     * @return continuation token of the next page.
+     */
+    public static String getDeviceListCursor(int enrolmentId) {
+        return Base64.encodeBase64URLSafeString((DEVICE_LIST_CURSOR_PREFIX + enrolmentId).getBytes(
+                StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor continuation token returned with a device list page.
+     * @return id of the enrolment after which the next page starts.
+     * @throws InputValidationException if the token is not a valid device list continuation token.
+     */
+    public static int getEnrolmentIdOfDeviceListCursor(String cursor) {
+        String decoded = new String(Base64.decodeBase64(cursor), StandardCharsets.UTF_8);
+        if (decoded.startsWith(DEVICE_LIST_CURSOR_PREFIX)) {
+            try {
+                int enrolmentId = Integer.parseInt(decoded.substring(DEVICE_LIST_CURSOR_PREFIX.length()));
+                if (enrolmentId > 0) {
+                    return enrolmentId;
+                }
+            } catch (NumberFormatException e) {
+                // Reported as an invalid token below.
+            }
+        }
+        throw new InputValidationException(new ErrorResponse.ErrorResponseBuilder().setCode(400l)
+                .setMessage("Request parameter cursor is not a valid continuation token.").build());
+    }
 }
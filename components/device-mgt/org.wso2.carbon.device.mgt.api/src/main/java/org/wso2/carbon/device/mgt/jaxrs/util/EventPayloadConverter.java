@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.jaxrs.util;
+
+import org.wso2.carbon.device.mgt.jaxrs.beans.analytics.Attribute;
+import org.wso2.carbon.device.mgt.jaxrs.beans.analytics.AttributeType;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts the payload of an event received from a device to the payload data of the event stream. The attribute
+ * names and types of the stream are resolved once, and numeric values are converted to the type of the attribute
+ * regardless of the type they are parsed into from the request.
+ */
+public class EventPayloadConverter {
+
+    private final String[] names;
+    private final AttributeType[] types;
+
+    public EventPayloadConverter(List<Attribute> attributes) {
+        this.names = new String[attributes.size()];
+        this.types = new AttributeType[attributes.size()];
+        for (int i = 0; i < names.length; i++) {
+            Attribute attribute = attributes.get(i);
+            names[i] = attribute.getName();
+            types[i] = attribute.getType();
+        }
+    }
+
+    /**
+     * @return number of attributes in the payload of the event stream.
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * @param payload attribute values of the event, by attribute name.
+     * @return payload data in the order of the attributes of the event stream.
+     */
+    public Object[] convert(Map<String, Object> payload) {
+        Object[] payloadData = new Object[names.length];
+        for (int i = 0; i < names.length; i++) {
+            payloadData[i] = convert(types[i], payload.get(names[i]));
+        }
+        return payloadData;
+    }
+
+    /**
+     * @param payload attribute values of the event, in the order of the attributes of the event stream.
+     * @return payload data of the event stream.
+     */
+    public Object[] convert(List<Object> payload) {
+        Object[] payloadData = new Object[names.length];
+        for (int i = 0; i < names.length; i++) {
+            payloadData[i] = convert(types[i], payload.get(i));
+        }
+        return payloadData;
+    }
+
+    private static Object convert(AttributeType type, Object value) {
+        if (!(value instanceof Number)) {
+            return value;
+        }
+        Number number = (Number) value;
+        switch (type) {
+            case INT:
+                return number.intValue();
+            case LONG:
+                return number.longValue();
+            case FLOAT:
+                return number.floatValue();
+            case DOUBLE:
+                return number.doubleValue();
+            default:
+                return value;
+        }
+    }
+
+}
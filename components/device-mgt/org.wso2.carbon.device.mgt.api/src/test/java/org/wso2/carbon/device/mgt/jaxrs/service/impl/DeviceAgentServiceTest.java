@@ -20,6 +20,7 @@ package org.wso2.carbon.device.mgt.jaxrs.service.impl;
 import org.apache.axis2.AxisFault;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PowerMockIgnore;
@@ -42,12 +43,15 @@ import org.wso2.carbon.device.mgt.common.DeviceManagementException;
 import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
 import org.wso2.carbon.device.mgt.common.authorization.DeviceAccessAuthorizationException;
 import org.wso2.carbon.device.mgt.common.authorization.DeviceAccessAuthorizationService;
+import org.wso2.carbon.device.mgt.common.authorization.DeviceAuthorizationResult;
 import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
 import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManagementException;
 import org.wso2.carbon.device.mgt.common.policy.mgt.monitor.PolicyComplianceException;
 import org.wso2.carbon.device.mgt.core.authorization.DeviceAccessAuthorizationServiceImpl;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderServiceImpl;
+import org.wso2.carbon.device.mgt.jaxrs.beans.analytics.DeviceEvents;
+import org.wso2.carbon.device.mgt.jaxrs.beans.analytics.EventsPublishResult;
 import org.wso2.carbon.device.mgt.jaxrs.service.api.DeviceAgentService;
 import org.wso2.carbon.device.mgt.jaxrs.service.api.admin.DeviceTypeManagementAdminService;
 import org.wso2.carbon.device.mgt.jaxrs.service.impl.util.DeviceMgtAPITestHelper;
@@ -65,6 +69,8 @@ import javax.cache.CacheManager;
 import javax.ws.rs.core.Response;
 import java.rmi.RemoteException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -731,6 +737,98 @@ public class DeviceAgentServiceTest {
                 "The response status should be 500");
     }
 
+    @Test(description = "Test publishing a batch of events of multiple devices.")
+    @SuppressWarnings("unchecked")
+    public void testPublishEventBatch() throws DeviceAccessAuthorizationException, RemoteException,
+            DataPublisherConfigurationException {
+        PowerMockito.stub(PowerMockito.method(PrivilegedCarbonContext.class, "getThreadLocalCarbonContext"))
+                .toReturn(this.privilegedCarbonContext);
+        Mockito.when(this.privilegedCarbonContext.getTenantDomain()).thenReturn(TENANT_DOMAIN);
+        PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class,
+                "getDeviceAccessAuthorizationService")).toReturn(this.deviceAccessAuthorizationService);
+        Mockito.when(this.deviceAccessAuthorizationService.isUserAuthorized(Mockito.anyListOf(DeviceIdentifier.class)))
+                .thenReturn(new DeviceAuthorizationResult());
+        PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class, "getEventStreamAdminServiceStub"))
+                .toReturn(this.eventStreamAdminServiceStub);
+        EventStreamAttributeDto eventStreamAttributeDto = Mockito.mock(EventStreamAttributeDto.class);
+        Mockito.when(eventStreamAttributeDto.getAttributeName()).thenReturn("temperature");
+        Mockito.when(eventStreamAttributeDto.getAttributeType()).thenReturn("int");
+        EventStreamDefinitionDto eventStreamDefinitionDto = Mockito.mock(EventStreamDefinitionDto.class);
+        Mockito.when(eventStreamDefinitionDto.getPayloadData())
+                .thenReturn(new EventStreamAttributeDto[]{eventStreamAttributeDto});
+        Mockito.when(this.eventStreamAdminServiceStub.getStreamDefinitionDto(Mockito.anyString()))
+                .thenReturn(eventStreamDefinitionDto);
+        EventsPublisherService eventPublisherService = Mockito.mock(EventsPublisherServiceImpl.class);
+        PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class, "getEventPublisherService"))
+                .toReturn(eventPublisherService);
+        Mockito.when(eventPublisherService.publishEvents(Mockito.anyString(), Mockito.anyString(), Mockito.anyList(),
+                Mockito.anyList(), Mockito.anyListOf(Long.class))).thenReturn(3, 1);
+        CacheImpl cache = Mockito.mock(CacheImpl.class);
+        PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class, "getDynamicEventCache"))
+                .toReturn(cache);
+
+        List<DeviceEvents> deviceEvents = new ArrayList<>();
+        deviceEvents.add(this.createDeviceEvents("device1", 21.0, 22.0));
+        deviceEvents.add(this.createDeviceEvents("device2", 23.0));
+        deviceEvents.get(0).setTimestamps(Arrays.asList(1000L, 2000L));
+        Response response = this.deviceAgentService.publishEvents(deviceEvents, TEST_DEVICE_TYPE);
+        Assert.assertNotNull(response, "Response should not be null");
+        Assert.assertEquals(response.getStatus(), Response.Status.ACCEPTED.getStatusCode(),
+                "The response status should be 202");
+
+        ArgumentCaptor<List> metaData = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List> payloadData = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List> timestamps = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(eventPublisherService).publishEvents(Mockito.anyString(), Mockito.anyString(),
+                metaData.capture(), payloadData.capture(), timestamps.capture());
+        Assert.assertEquals(((Object[]) metaData.getValue().get(2))[0], "device2");
+        Assert.assertEquals(((Object[]) payloadData.getValue().get(1))[0], 22,
+                "Numeric values should be converted to the type of the attribute");
+        Assert.assertEquals(timestamps.getValue(), Arrays.asList(1000L, 2000L, null),
+                "The timestamp of each event should be passed on, and none for the events without one");
+
+        Response response2 = this.deviceAgentService.publishEvents(deviceEvents, TEST_DEVICE_TYPE);
+        Assert.assertEquals(response2.getStatus(), Response.Status.SERVICE_UNAVAILABLE.getStatusCode(),
+                "The response status should be 503 as only a part of the events are accepted");
+        EventsPublishResult result = (EventsPublishResult) response2.getEntity();
+        Assert.assertEquals(result.getAccepted(), 1, "The number of accepted events should be returned");
+        Assert.assertEquals(result.getTotal(), 3);
+
+        deviceEvents.get(1).setTimestamps(Collections.<Long>emptyList());
+        Response response3 = this.deviceAgentService.publishEvents(deviceEvents, TEST_DEVICE_TYPE);
+        Assert.assertEquals(response3.getStatus(), Response.Status.BAD_REQUEST.getStatusCode(),
+                "The response status should be 400 as a timestamp is not given for each event");
+        Mockito.reset(this.deviceAccessAuthorizationService);
+        Mockito.reset(this.eventStreamAdminServiceStub);
+    }
+
+    @Test(description = "Test publishing a batch of events when one of the devices is not accessible.")
+    public void testPublishEventBatchWithoutDeviceAccess() throws DeviceAccessAuthorizationException {
+        PowerMockito.stub(PowerMockito.method(PrivilegedCarbonContext.class, "getThreadLocalCarbonContext"))
+                .toReturn(this.privilegedCarbonContext);
+        Mockito.when(this.privilegedCarbonContext.getTenantDomain()).thenReturn(TENANT_DOMAIN);
+        PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class,
+                "getDeviceAccessAuthorizationService")).toReturn(this.deviceAccessAuthorizationService);
+        DeviceAuthorizationResult authorizationResult = new DeviceAuthorizationResult();
+        authorizationResult.addUnauthorizedDevice(new DeviceIdentifier("device2", TEST_DEVICE_TYPE));
+        Mockito.when(this.deviceAccessAuthorizationService.isUserAuthorized(Mockito.anyListOf(DeviceIdentifier.class)))
+                .thenReturn(authorizationResult);
+
+        List<DeviceEvents> deviceEvents = new ArrayList<>();
+        deviceEvents.add(this.createDeviceEvents("device1", 21.0));
+        deviceEvents.add(this.createDeviceEvents("device2", 23.0));
+        Response response = this.deviceAgentService.publishEvents(deviceEvents, TEST_DEVICE_TYPE);
+        Assert.assertNotNull(response, "Response should not be null");
+        Assert.assertEquals(response.getStatus(), Response.Status.UNAUTHORIZED.getStatusCode(),
+                "The response status should be 401");
+
+        Response response2 = this.deviceAgentService.publishEvents(Collections.<DeviceEvents>emptyList(),
+                TEST_DEVICE_TYPE);
+        Assert.assertEquals(response2.getStatus(), Response.Status.BAD_REQUEST.getStatusCode(),
+                "The response status should be 400");
+        Mockito.reset(this.deviceAccessAuthorizationService);
+    }
+
     @Test(description = "Test the get pending operation method which return empty device type list.")
     public void testGetPendingOperationsWithNoDeviceType() throws DeviceManagementException {
         PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class, "getDeviceManagementService"))
@@ -738,7 +836,7 @@ public class DeviceAgentServiceTest {
         Mockito.when(this.deviceManagementProviderService.getAvailableDeviceTypes())
                 .thenReturn(new ArrayList<String>() {
                 });
-        Response response = this.deviceAgentService.getPendingOperations(TEST_DEVICE_TYPE, TEST_DEVICE_IDENTIFIER);
+        Response response = this.deviceAgentService.getPendingOperations(TEST_DEVICE_TYPE, TEST_DEVICE_IDENTIFIER, 0, 0);
         Assert.assertNotNull(response, "Response should not be null");
         Assert.assertEquals(response.getStatus(), Response.Status.BAD_REQUEST.getStatusCode(),
                 "The response status should be 400");
@@ -756,7 +854,7 @@ public class DeviceAgentServiceTest {
 
         Mockito.when(this.deviceManagementProviderService.getAvailableDeviceTypes())
                 .thenReturn(deviceTypes);
-        Response response = this.deviceAgentService.getPendingOperations(TEST_DEVICE_TYPE, TEST_DEVICE_IDENTIFIER);
+        Response response = this.deviceAgentService.getPendingOperations(TEST_DEVICE_TYPE, TEST_DEVICE_IDENTIFIER, 0, 0);
         Assert.assertNotNull(response, "Response should not be null");
         Assert.assertEquals(response.getStatus(), Response.Status.NO_CONTENT.getStatusCode(),
                 "The response status should be 204");
@@ -774,7 +872,7 @@ public class DeviceAgentServiceTest {
 
         Mockito.when(this.deviceManagementProviderService.getAvailableDeviceTypes())
                 .thenReturn(deviceTypes);
-        Response response = this.deviceAgentService.getPendingOperations(TEST_DEVICE_TYPE, TEST_DEVICE_IDENTIFIER);
+        Response response = this.deviceAgentService.getPendingOperations(TEST_DEVICE_TYPE, TEST_DEVICE_IDENTIFIER, 0, 0);
         Assert.assertNotNull(response, "Response should not be null");
         Assert.assertNotNull(response.getEntity(), "Response entity should not be null.");
         Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode(),
@@ -795,7 +893,7 @@ public class DeviceAgentServiceTest {
                 .thenReturn(deviceTypes);
         Mockito.when(this.deviceManagementProviderService.getPendingOperations(Mockito.any())).thenThrow(new
                 OperationManagementException());
-        Response response = this.deviceAgentService.getPendingOperations(TEST_DEVICE_TYPE, TEST_DEVICE_IDENTIFIER);
+        Response response = this.deviceAgentService.getPendingOperations(TEST_DEVICE_TYPE, TEST_DEVICE_IDENTIFIER, 0, 0);
         Assert.assertNotNull(response, "Response should not be null");
         Assert.assertNotNull(response.getEntity(), "Response entity should not be null.");
         Assert.assertEquals(response.getStatus(), Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(),
@@ -812,7 +910,7 @@ public class DeviceAgentServiceTest {
         Mockito.when(this.deviceManagementProviderService.getAvailableDeviceTypes())
                 .thenThrow(new DeviceManagementException());
 
-        Response response = this.deviceAgentService.getPendingOperations(TEST_DEVICE_TYPE, TEST_DEVICE_IDENTIFIER);
+        Response response = this.deviceAgentService.getPendingOperations(TEST_DEVICE_TYPE, TEST_DEVICE_IDENTIFIER, 0, 0);
         Assert.assertNotNull(response, "Response should not be null");
         Assert.assertNotNull(response.getEntity(), "Response entity should not be null.");
         Assert.assertEquals(response.getStatus(), Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(),
@@ -1166,4 +1264,15 @@ public class DeviceAgentServiceTest {
                 "The response status should be 500");
         Mockito.reset(this.deviceManagementProviderService);
     }
+
+    private DeviceEvents createDeviceEvents(String deviceId, double... temperatures) {
+        DeviceEvents deviceEvents = new DeviceEvents();
+        deviceEvents.setDeviceId(deviceId);
+        for (double temperature : temperatures) {
+            Map<String, Object> event = new HashMap<>();
+            event.put("temperature", temperature);
+            deviceEvents.getEvents().add(event);
+        }
+        return deviceEvents;
+    }
 }
@@ -50,6 +50,7 @@ import org.wso2.carbon.device.mgt.core.search.mgt.impl.SearchManagerServiceImpl;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderServiceImpl;
 import org.wso2.carbon.device.mgt.jaxrs.service.api.DeviceManagementService;
+import org.wso2.carbon.device.mgt.jaxrs.service.impl.util.InputValidationException;
 import org.wso2.carbon.device.mgt.jaxrs.util.DeviceMgtAPIUtils;
 import org.wso2.carbon.policy.mgt.common.PolicyManagementException;
 import org.wso2.carbon.policy.mgt.core.PolicyManagerService;
@@ -145,7 +146,7 @@ public class DeviceManagementServiceImplTest {
                 .toReturn(this.deviceAccessAuthorizationService);
         Response response = this.deviceManagementService
                 .getDevices(TEST_DEVICE_NAME, TEST_DEVICE_TYPE, DEFAULT_USERNAME, null, DEFAULT_ROLE, DEFAULT_OWNERSHIP,
-                        DEFAULT_STATUS, 1, null, null, false, 10, 5);
+                        DEFAULT_STATUS, 1, null, null, false, 10, 5, null, true);
         Assert.assertEquals(response.getStatus(), Response.Status.BAD_REQUEST.getStatusCode());
     }
 
@@ -162,22 +163,52 @@ public class DeviceManagementServiceImplTest {
 
         Response response = this.deviceManagementService
                 .getDevices(null, TEST_DEVICE_TYPE, DEFAULT_USERNAME, null, DEFAULT_ROLE, DEFAULT_OWNERSHIP,
-                        DEFAULT_STATUS, 1, null, null, false, 10, 5);
+                        DEFAULT_STATUS, 1, null, null, false, 10, 5, null, true);
         Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode());
         response = this.deviceManagementService
                 .getDevices(TEST_DEVICE_NAME, TEST_DEVICE_TYPE, DEFAULT_USERNAME, null, null, DEFAULT_OWNERSHIP,
-                        DEFAULT_STATUS, 1, null, null, false, 10, 5);
+                        DEFAULT_STATUS, 1, null, null, false, 10, 5, null, true);
         Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode());
         response = this.deviceManagementService
                 .getDevices(TEST_DEVICE_NAME, TEST_DEVICE_TYPE, null, null, null, DEFAULT_OWNERSHIP,
-                        DEFAULT_STATUS, 1, null, null, false, 10, 5);
+                        DEFAULT_STATUS, 1, null, null, false, 10, 5, null, true);
         Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode());
         response = this.deviceManagementService
                 .getDevices(TEST_DEVICE_NAME, TEST_DEVICE_TYPE, null, null, null, DEFAULT_OWNERSHIP,
-                        DEFAULT_STATUS, 1, null, null, true, 10, 5);
+                        DEFAULT_STATUS, 1, null, null, true, 10, 5, null, true);
         Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode());
     }
 
+    @Test(description = "Testing get devices with a continuation token and without counting the devices.")
+    public void testGetDevicesWithCursor() {
+        PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class, "getDeviceManagementService"))
+                .toReturn(this.deviceManagementProviderService);
+        PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class, "getDeviceAccessAuthorizationService"))
+                .toReturn(this.deviceAccessAuthorizationService);
+        PowerMockito.stub(PowerMockito.method(MultitenantUtils.class, "getTenantAwareUsername"))
+                .toReturn(TENANT_AWARE_USERNAME);
+        PowerMockito.stub(PowerMockito.method(CarbonContext.class, "getThreadLocalCarbonContext"))
+                .toReturn(Mockito.mock(CarbonContext.class, Mockito.RETURNS_MOCKS));
+
+        String cursor = DeviceMgtAPIUtils.getDeviceListCursor(25);
+        Assert.assertEquals(DeviceMgtAPIUtils.getEnrolmentIdOfDeviceListCursor(cursor), 25);
+        Response response = this.deviceManagementService
+                .getDevices(null, TEST_DEVICE_TYPE, DEFAULT_USERNAME, null, null, DEFAULT_OWNERSHIP,
+                        DEFAULT_STATUS, 1, null, null, false, 0, 5, cursor, false);
+        Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode());
+    }
+
+    @Test(description = "Testing get devices with an invalid continuation token.",
+            expectedExceptions = InputValidationException.class)
+    public void testGetDevicesWithInvalidCursor() {
+        PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class, "getDeviceManagementService"))
+                .toReturn(this.deviceManagementProviderService);
+        PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class, "getDeviceAccessAuthorizationService"))
+                .toReturn(this.deviceAccessAuthorizationService);
+        this.deviceManagementService.getDevices(null, TEST_DEVICE_TYPE, DEFAULT_USERNAME, null, null,
+                DEFAULT_OWNERSHIP, DEFAULT_STATUS, 1, null, null, false, 0, 5, "invalid", true);
+    }
+
     @Test(description = "Testing get devices when DeviceAccessAuthorizationService is not available")
     public void testGetDevicesWithErroneousDeviceAccessAuthorizationService() {
         PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class, "getDeviceManagementService"))
@@ -186,7 +217,7 @@ public class DeviceManagementServiceImplTest {
                 .toReturn(null);
         Response response = this.deviceManagementService
                 .getDevices(null, TEST_DEVICE_TYPE, DEFAULT_USERNAME, null, DEFAULT_ROLE, DEFAULT_OWNERSHIP,
-                        DEFAULT_STATUS, 1, null, null, false, 10, 5);
+                        DEFAULT_STATUS, 1, null, null, false, 10, 5, null, true);
         Assert.assertEquals(response.getStatus(), Response.Status.INTERNAL_SERVER_ERROR.getStatusCode());
     }
 
@@ -204,11 +235,11 @@ public class DeviceManagementServiceImplTest {
 
         Response response = this.deviceManagementService
                 .getDevices(null, TEST_DEVICE_TYPE, DEFAULT_USERNAME, null, DEFAULT_ROLE, DEFAULT_OWNERSHIP,
-                        DEFAULT_STATUS, 1, null, null, false, 10, 5);
+                        DEFAULT_STATUS, 1, null, null, false, 10, 5, null, true);
         Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode());
         response = this.deviceManagementService
                 .getDevices(null, TEST_DEVICE_TYPE, null, DEFAULT_USERNAME, DEFAULT_ROLE, DEFAULT_OWNERSHIP,
-                        DEFAULT_STATUS, 1, null, null, false, 10, 5);
+                        DEFAULT_STATUS, 1, null, null, false, 10, 5, null, true);
         Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode());
     }
 
@@ -228,7 +259,7 @@ public class DeviceManagementServiceImplTest {
 
         Response response = this.deviceManagementService
                 .getDevices(null, TEST_DEVICE_TYPE, "newuser", null, DEFAULT_ROLE, DEFAULT_OWNERSHIP, DEFAULT_STATUS, 1,
-                        null, null, false, 10, 5);
+                        null, null, false, 10, 5, null, true);
         Assert.assertEquals(response.getStatus(), Response.Status.UNAUTHORIZED.getStatusCode());
         Mockito.reset(this.deviceAccessAuthorizationService);
     }
@@ -247,15 +278,15 @@ public class DeviceManagementServiceImplTest {
 
         Response response = this.deviceManagementService
                 .getDevices(null, TEST_DEVICE_TYPE, DEFAULT_USERNAME, null, DEFAULT_ROLE, DEFAULT_OWNERSHIP,
-                        DEFAULT_STATUS, 1, null, ifModifiedSince, false, 10, 5);
+                        DEFAULT_STATUS, 1, null, ifModifiedSince, false, 10, 5, null, true);
         Assert.assertEquals(response.getStatus(), Response.Status.NOT_MODIFIED.getStatusCode());
         response = this.deviceManagementService
                 .getDevices(null, TEST_DEVICE_TYPE, DEFAULT_USERNAME, null, DEFAULT_ROLE, DEFAULT_OWNERSHIP,
-                        DEFAULT_STATUS, 1, null, ifModifiedSince, true, 10, 5);
+                        DEFAULT_STATUS, 1, null, ifModifiedSince, true, 10, 5, null, true);
         Assert.assertEquals(response.getStatus(), Response.Status.NOT_MODIFIED.getStatusCode());
         response = this.deviceManagementService
                 .getDevices(null, TEST_DEVICE_TYPE, DEFAULT_USERNAME, null, DEFAULT_ROLE, DEFAULT_OWNERSHIP,
-                        DEFAULT_STATUS, 1, null, "ErrorModifiedSince", false, 10, 5);
+                        DEFAULT_STATUS, 1, null, "ErrorModifiedSince", false, 10, 5, null, true);
         Assert.assertEquals(response.getStatus(), Response.Status.BAD_REQUEST.getStatusCode());
     }
 
@@ -273,15 +304,15 @@ public class DeviceManagementServiceImplTest {
 
         Response response = this.deviceManagementService
                 .getDevices(null, TEST_DEVICE_TYPE, DEFAULT_USERNAME, null, DEFAULT_ROLE, DEFAULT_OWNERSHIP,
-                        DEFAULT_STATUS, 1, since, null, false, 10, 5);
+                        DEFAULT_STATUS, 1, since, null, false, 10, 5, null, true);
         Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode());
         response = this.deviceManagementService
                 .getDevices(null, TEST_DEVICE_TYPE, DEFAULT_USERNAME, null, DEFAULT_ROLE, DEFAULT_OWNERSHIP,
-                        DEFAULT_STATUS, 1, since, null, true, 10, 5);
+                        DEFAULT_STATUS, 1, since, null, true, 10, 5, null, true);
         Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode());
         response = this.deviceManagementService
                 .getDevices(null, TEST_DEVICE_TYPE, DEFAULT_USERNAME, null, DEFAULT_ROLE, DEFAULT_OWNERSHIP,
-                        DEFAULT_STATUS, 1, "ErrorSince", null, false, 10, 5);
+                        DEFAULT_STATUS, 1, "ErrorSince", null, false, 10, 5, null, true);
         Assert.assertEquals(response.getStatus(), Response.Status.BAD_REQUEST.getStatusCode());
     }
 
@@ -301,7 +332,7 @@ public class DeviceManagementServiceImplTest {
 
         Response response = this.deviceManagementService
                 .getDevices(null, TEST_DEVICE_TYPE, DEFAULT_USERNAME, null, DEFAULT_ROLE, DEFAULT_OWNERSHIP,
-                        DEFAULT_STATUS, 1, null, null, false, 10, 5);
+                        DEFAULT_STATUS, 1, null, null, false, 10, 5, null, true);
         Assert.assertEquals(response.getStatus(), Response.Status.INTERNAL_SERVER_ERROR.getStatusCode());
         Mockito.reset(this.deviceManagementProviderService);
     }
@@ -321,7 +352,7 @@ public class DeviceManagementServiceImplTest {
 
         Response response = this.deviceManagementService
                 .getDevices(null, TEST_DEVICE_TYPE, DEFAULT_USERNAME, null, DEFAULT_ROLE, DEFAULT_OWNERSHIP,
-                        DEFAULT_STATUS, 1, null, null, false, 10, 5);
+                        DEFAULT_STATUS, 1, null, null, false, 10, 5, null, true);
         Assert.assertEquals(response.getStatus(), Response.Status.INTERNAL_SERVER_ERROR.getStatusCode());
         Mockito.reset(this.deviceAccessAuthorizationService);
     }
@@ -36,6 +36,8 @@ public class PaginationRequest {
     private String ownership;
     private String ownerRole;
     private Date since;
+    private int afterEnrolmentId;
+    private boolean countRequired = true;
 
     public PaginationRequest(int start, int rowCount) {
         this.startIndex = start;
@@ -130,11 +132,37 @@ public class PaginationRequest {
         this.ownerPattern = ownerPattern;
     }
 
+    public int getAfterEnrolmentId() {
+        return afterEnrolmentId;
+    }
+
+    /**
+     * Sets the position of keyset pagination. When set, the page starts right after the enrolment with the given id
+     * and the start index is not used, hence deep pages do not scan the rows of the preceding pages.
+     *
+     * @param afterEnrolmentId id of the last enrolment of the previous page, or 0 to use the start index.
+     */
+    public void setAfterEnrolmentId(int afterEnrolmentId) {
+        this.afterEnrolmentId = afterEnrolmentId;
+    }
+
+    public boolean isCountRequired() {
+        return countRequired;
+    }
+
+    /**
+     * @param countRequired whether the total number of matching records is to be counted. When not required, the
+     *                      records total of the result is -1.
+     */
+    public void setCountRequired(boolean countRequired) {
+        this.countRequired = countRequired;
+    }
+
     @Override
     public String toString() {
         return "Device type '" + this.deviceType + "' Device Name '" + this.deviceName + "' row count: " + this.rowCount
                 + " Owner role '" + this.ownerRole + "' owner pattern '" + this.ownerPattern + "' ownership "
                 + this.ownership + "' Status '" + this.status + "' owner '" + this.owner + "' groupId: " + this.groupId
-                + " start index: " + this.startIndex;
+                + " start index: " + this.startIndex + " after enrolment: " + this.afterEnrolmentId;
     }
 }
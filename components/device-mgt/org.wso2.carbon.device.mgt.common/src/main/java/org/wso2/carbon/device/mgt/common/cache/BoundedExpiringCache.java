@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.common.cache;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Node local cache with a bounded size, whose entries expire after a fixed time since they were cached. Reads are
+ * lock free. Once the capacity is exceeded the expired entries are swept, followed by arbitrary entries until a tenth
+ * of the capacity is free again.
+ *
+ * Values loaded from a source which may be changed concurrently can be cached with
+ * {@link #putIfNotInvalidated(Object, Object, long)}, which drops the value if an entry was removed after the load
+ * began, instead of caching a value which was read before the removal.
+ *
+ * @param <K> type of the keys.
+ * @param <V> type of the cached values, which are shared by the callers and hence must not be modified once cached.
+ */
+public class BoundedExpiringCache<K, V> {
+
+    private final ConcurrentMap<K, CachedValue<V>> cachedValues = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong version = new AtomicLong();
+    private final int capacity;
+    private final long expiryTimeMillis;
+
+    /**
+     * @param capacity         maximum number of entries to be cached.
+     * @param expiryTimeMillis time an entry is served from the cache, in milliseconds. Entries never expire if it is
+     *                         zero or negative.
+     */
+    public BoundedExpiringCache(int capacity, long expiryTimeMillis) {
+        this.capacity = capacity;
+        this.expiryTimeMillis = expiryTimeMillis;
+    }
+
+    public V get(K key) {
+        CachedValue<V> cachedValue = cachedValues.get(key);
+        if (cachedValue == null) {
+            return null;
+        }
+        if (cachedValue.isExpired(System.currentTimeMillis())) {
+            if (cachedValues.remove(key, cachedValue)) {
+                evictionCount.incrementAndGet();
+            }
+            return null;
+        }
+        return cachedValue.value;
+    }
+
+    public void put(K key, V value) {
+        this.put(key, value, expiryTimeMillis);
+    }
+
+    /**
+     * Caches an entry with an expiry time of its own.
+     *
+     * @param expiryTimeMillis time the entry is served from the cache, in milliseconds. The entry never expires if
+     *                         it is zero or negative.
+     */
+    public void put(K key, V value, long expiryTimeMillis) {
+        cachedValues.put(key, new CachedValue<>(value, expiryTimeMillis));
+        if (cachedValues.size() > capacity) {
+            this.evict();
+        }
+    }
+
+    /**
+     * Caches a value loaded after the given version was taken, unless an entry was removed in the meantime, or a live
+     * entry is already cached for the key, which is at least as recent as the loaded value.
+     *
+     * @param version value of {@link #getVersion()} taken before the value was loaded.
+     * @return true if the value is cached.
+     */
+    public boolean putIfNotInvalidated(K key, V value, long version) {
+        return this.putIfNotInvalidated(key, value, version, expiryTimeMillis);
+    }
+
+    /**
+     * Caches a loaded value as {@link #putIfNotInvalidated(Object, Object, long)} does, with an expiry time of its
+     * own.
+     *
+     * @param expiryTimeMillis time the entry is served from the cache, in milliseconds. The entry never expires if
+     *                         it is zero or negative.
+     */
+    public boolean putIfNotInvalidated(K key, V value, long version, long expiryTimeMillis) {
+        if (version != this.version.get()) {
+            return false;
+        }
+        CachedValue<V> cachedValue = new CachedValue<>(value, expiryTimeMillis);
+        CachedValue<V> existingValue = cachedValues.putIfAbsent(key, cachedValue);
+        if (existingValue != null && (!existingValue.isExpired(System.currentTimeMillis()) ||
+                !cachedValues.replace(key, existingValue, cachedValue))) {
+            return false;
+        }
+        // The version is moved before an entry is removed, so that a removal which raced with the put is seen here,
+        // unless it removes the value put above itself.
+        if (version != this.version.get()) {
+            cachedValues.remove(key, cachedValue);
+            return false;
+        }
+        if (cachedValues.size() > capacity) {
+            this.evict();
+        }
+        return true;
+    }
+
+    /**
+     * @return a version which changes whenever an entry is removed or the cache is cleared. Expiry and eviction do not
+     * change it.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    public void remove(K key) {
+        version.incrementAndGet();
+        cachedValues.remove(key);
+    }
+
+    public void clear() {
+        version.incrementAndGet();
+        cachedValues.clear();
+    }
+
+    /**
+     * @return read only view of the cached keys, including the ones which have expired but are not evicted yet.
+     */
+    public Set<K> keys() {
+        return Collections.unmodifiableSet(cachedValues.keySet());
+    }
+
+    public int size() {
+        return cachedValues.size();
+    }
+
+    /**
+     * @return number of entries evicted due to expiry or capacity, excluding the ones removed.
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    private void evict() {
+        // A single sweep at a time is enough, the other writers go ahead without waiting for it.
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            Iterator<Map.Entry<K, CachedValue<V>>> iterator = cachedValues.entrySet().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().getValue().isExpired(now)) {
+                    iterator.remove();
+                    evictionCount.incrementAndGet();
+                }
+            }
+            int target = capacity - capacity / 10;
+            iterator = cachedValues.entrySet().iterator();
+            while (cachedValues.size() > target && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+                evictionCount.incrementAndGet();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private static class CachedValue<V> {
+
+        private final V value;
+        private final long expiryTime;
+
+        CachedValue(V value, long expiryTimeMillis) {
+            this.value = value;
+            this.expiryTime = expiryTimeMillis > 0 ? System.currentTimeMillis() + expiryTimeMillis : Long.MAX_VALUE;
+        }
+
+        boolean isExpired(long now) {
+            return expiryTime < now;
+        }
+    }
+
+}
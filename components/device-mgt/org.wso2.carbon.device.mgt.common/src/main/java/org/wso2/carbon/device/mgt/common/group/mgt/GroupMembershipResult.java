@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.common.group.mgt;
+
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents the outcome of adding devices to or removing devices from a group, for each of the given devices.
+ */
+public class GroupMembershipResult {
+
+    private List<DeviceIdentifier> updatedDevices = new ArrayList<>();
+    private List<DeviceIdentifier> unchangedDevices = new ArrayList<>();
+    private List<DeviceIdentifier> notFoundDevices = new ArrayList<>();
+
+    /**
+     * @return devices which are added to or removed from the group.
+     */
+    public List<DeviceIdentifier> getUpdatedDevices() {
+        return updatedDevices;
+    }
+
+    public void addUpdatedDevice(DeviceIdentifier deviceIdentifier) {
+        updatedDevices.add(deviceIdentifier);
+    }
+
+    /**
+     * @return devices which were already in the group when added, or were not in the group when removed.
+     */
+    public List<DeviceIdentifier> getUnchangedDevices() {
+        return unchangedDevices;
+    }
+
+    public void addUnchangedDevice(DeviceIdentifier deviceIdentifier) {
+        unchangedDevices.add(deviceIdentifier);
+    }
+
+    /**
+     * @return devices which are not enrolled in the tenant.
+     */
+    public List<DeviceIdentifier> getNotFoundDevices() {
+        return notFoundDevices;
+    }
+
+    public void addNotFoundDevice(DeviceIdentifier deviceIdentifier) {
+        notFoundDevices.add(deviceIdentifier);
+    }
+}
@@ -76,6 +76,19 @@ public interface OperationManager {
      */
     List<? extends Operation> getPendingOperations(DeviceIdentifier deviceId) throws OperationManagementException;
 
+    /**
+     * Method to retrieve a page of the available operations to a device, in the order they were created.
+     *
+     * @param deviceId        DeviceIdentifier of the device
+     * @param lastOperationId Id of the last operation already received by the device, 0 to start from the first.
+     * @param limit           Maximum number of operations to be returned, 0 for all.
+     * @return A List of pending operations.
+     * @throws OperationManagementException If some unusual behaviour is observed while fetching the
+     *                                      operation list.
+     */
+    List<? extends Operation> getPendingOperations(DeviceIdentifier deviceId, int lastOperationId, int limit)
+            throws OperationManagementException;
+
     Operation getNextPendingOperation(DeviceIdentifier deviceId) throws OperationManagementException;
 
     void updateOperation(DeviceIdentifier deviceId, Operation operation) throws OperationManagementException;
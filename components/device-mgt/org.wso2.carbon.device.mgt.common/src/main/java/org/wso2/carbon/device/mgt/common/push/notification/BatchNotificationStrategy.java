@@ -0,0 +1,40 @@
+/*
+ *   Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.wso2.carbon.device.mgt.common.push.notification;
+
+import java.util.List;
+
+/**
+ * Notification strategies which are able to deliver a set of notifications at once implement this interface. The
+ * push notification dispatcher hands over whole batches to such strategies instead of calling
+ * {@link #execute(NotificationContext)} once per device.
+ */
+public interface BatchNotificationStrategy extends NotificationStrategy {
+
+    /**
+     * Sends the given notifications.
+     *
+     * @param contexts notifications to be sent.
+     * @return notifications which could not be delivered. An empty list is returned when all were delivered.
+     * @throws PushNotificationExecutionFailedException if none of the notifications could be delivered.
+     */
+    List<NotificationContext> executeBatch(List<NotificationContext> contexts)
+            throws PushNotificationExecutionFailedException;
+
+}
@@ -24,6 +24,8 @@ public final class DeviceManagementConstants {
 
     public static final String DM_CACHE_MANAGER = "DM_CACHE_MANAGER";
     public static final String DEVICE_CACHE = "DEVICE_CACHE";
+    public static final String GROUP_AUTHORIZATION_INVALIDATION_CACHE = "GROUP_AUTHORIZATION_INVALIDATION_CACHE";
+    public static final String APPLICATION_INVENTORY_CACHE = "APPLICATION_INVENTORY_CACHE";
 
     public static final class Common {
         private Common() {
@@ -97,6 +99,11 @@ public final class DeviceManagementConstants {
         public static final int DEFAULT_SCHEDULER_TASK_INITIAL_DELAY = 60000;
         public static final int DEFAULT_BATCH_DELAY_MILLS = 60000;
         public static final int DEFAULT_BATCH_SIZE = 1000;
+        public static final int DEFAULT_SCHEDULER_TASK_PARALLELISM = 4;
+        public static final int DEFAULT_SCHEDULER_GRACE_PERIOD_MILLS = 60000;
+        public static final int DEFAULT_DISPATCHER_WORKER_COUNT = 4;
+        public static final int DEFAULT_DISPATCHER_QUEUE_SIZE = 1000;
+        public static final int DEFAULT_DISPATCHER_BATCH_SIZE = 100;
     }
 
 }
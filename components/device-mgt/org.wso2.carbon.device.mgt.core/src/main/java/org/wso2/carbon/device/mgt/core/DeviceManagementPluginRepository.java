@@ -35,6 +35,7 @@ import org.wso2.carbon.device.mgt.common.push.notification.PushNotificationProvi
 import org.wso2.carbon.device.mgt.common.spi.DeviceManagementService;
 import org.wso2.carbon.device.mgt.common.type.mgt.DeviceTypeDefinitionProvider;
 import org.wso2.carbon.device.mgt.common.type.mgt.DeviceTypeMetaDefinition;
+import org.wso2.carbon.device.mgt.core.cache.impl.DeviceTypeRegistry;
 import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
 import org.wso2.carbon.device.mgt.core.config.DeviceManagementConfig;
 import org.wso2.carbon.device.mgt.core.dto.DeviceType;
@@ -121,6 +122,7 @@ public class DeviceManagementPluginRepository implements DeviceManagerStartupLis
                 DeviceTypeServiceIdentifier deviceTypeIdentifier = new DeviceTypeServiceIdentifier(deviceType, tenantId);
                 providers.put(deviceTypeIdentifier, deviceManagementServiceHolder);
             }
+            DeviceTypeRegistry.invalidate();
         }
     }
 
@@ -142,6 +144,7 @@ public class DeviceManagementPluginRepository implements DeviceManagerStartupLis
             pullNotificationSubscriber.clean();
         }
         providers.remove(deviceTypeIdentifier);
+        DeviceTypeRegistry.invalidate();
         unregisterPushNotificationStrategy(deviceTypeIdentifier);
         unregisterMonitoringTask(provider);
         if (deviceManagementConfig != null && deviceManagementConfig.getDeviceStatusTaskConfig().isEnabled()) {
@@ -155,6 +158,7 @@ public class DeviceManagementPluginRepository implements DeviceManagerStartupLis
         OperationManager operationManager = operationManagerRepository.getOperationManager(
                 deviceTypeIdentifier);
         if (operationManager != null) {
+            this.shutdownNotificationDispatcher(operationManager);
             NotificationStrategy notificationStrategy = operationManager.getNotificationStrategy();
             if (notificationStrategy != null) {
                 notificationStrategy.undeploy();
@@ -163,6 +167,13 @@ public class DeviceManagementPluginRepository implements DeviceManagerStartupLis
         }
     }
 
+    private void shutdownNotificationDispatcher(OperationManager operationManager) {
+        if (operationManager instanceof OperationManagerImpl &&
+                ((OperationManagerImpl) operationManager).getNotificationDispatcher() != null) {
+            ((OperationManagerImpl) operationManager).getNotificationDispatcher().shutdown();
+        }
+    }
+
     public DeviceManagementService getDeviceManagementService(String type, int tenantId) {
         //Priority need to be given to the tenant before public.
         DeviceTypeServiceIdentifier deviceTypeIdentifier = new DeviceTypeServiceIdentifier(type, tenantId);
@@ -262,6 +273,8 @@ public class DeviceManagementPluginRepository implements DeviceManagerStartupLis
                 deviceTypeIdentifier = new DeviceTypeServiceIdentifier(deviceManagementService.getType(), tenantId);
             }
 
+            OperationManager existingOperationManager = operationManagerRepository.getOperationManager(
+                    deviceTypeIdentifier);
             if (pushNoteConfig != null) {
                 PushNotificationProvider provider = DeviceManagementDataHolder.getInstance()
                         .getPushNotificationProviderRepository().getProvider(pushNoteConfig.getType());
@@ -277,6 +290,10 @@ public class DeviceManagementPluginRepository implements DeviceManagerStartupLis
                 operationManagerRepository.addOperationManager(deviceTypeIdentifier,
                         new OperationManagerImpl(deviceTypeIdentifier.getDeviceType()));
             }
+            // The replaced dispatcher sends the notifications already queued, but takes no new ones.
+            if (existingOperationManager != null) {
+                this.shutdownNotificationDispatcher(existingOperationManager);
+            }
         } finally {
             PrivilegedCarbonContext.endTenantFlow();
         }
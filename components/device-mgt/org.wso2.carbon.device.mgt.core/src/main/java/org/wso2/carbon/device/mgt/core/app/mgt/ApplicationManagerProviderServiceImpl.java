@@ -18,6 +18,7 @@
 
 package org.wso2.carbon.device.mgt.core.app.mgt;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -34,6 +35,8 @@ import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
 import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManagementException;
 import org.wso2.carbon.device.mgt.core.DeviceManagementConstants;
 import org.wso2.carbon.device.mgt.core.app.mgt.config.AppManagementConfig;
+import org.wso2.carbon.device.mgt.core.cache.ApplicationInventoryCacheManager;
+import org.wso2.carbon.device.mgt.core.cache.impl.ApplicationInventoryCacheManagerImpl;
 import org.wso2.carbon.device.mgt.core.dao.ApplicationDAO;
 import org.wso2.carbon.device.mgt.core.dao.ApplicationMappingDAO;
 import org.wso2.carbon.device.mgt.core.dao.DeviceDAO;
@@ -43,7 +46,17 @@ import org.wso2.carbon.device.mgt.core.internal.DeviceManagementDataHolder;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Implements Application Manager interface
@@ -201,65 +214,91 @@ public class ApplicationManagerProviderServiceImpl implements ApplicationManagem
         if (log.isDebugEnabled()) {
             log.debug("Updating application list for device: " + deviceIdentifier.toString());
         }
-        List<Application> installedAppList = getApplicationListForDevice(deviceIdentifier);
+        Device device;
         try {
-            Device device = DeviceManagementDataHolder.getInstance().getDeviceManagementProvider().getDevice(deviceIdentifier,
+            device = DeviceManagementDataHolder.getInstance().getDeviceManagementProvider().getDevice(deviceIdentifier,
                     false);
-            int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        } catch (DeviceManagementException e) {
+            String msg = "Error occurred obtaining the device object for device " + deviceIdentifier.toString();
+            log.error(msg, e);
+            throw new ApplicationManagementException(msg, e);
+        }
+        if (device == null) {
+            String msg = "Device " + deviceIdentifier.toString() + " is not found";
+            log.error(msg);
+            throw new ApplicationManagementException(msg);
+        }
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+
+        // Applications are told apart by identifier and version, hence the reported list is keyed by both.
+        Map<String, Application> reportedApps = new LinkedHashMap<>();
+        for (Application application : applications) {
+            // Adding N/A if application doesn't have a version. Also truncating the application version,
+            // if length of the version is greater than maximum allowed length.
+            if (application.getVersion() == null) {
+                application.setVersion("N/A");
+            } else if (application.getVersion().length() >
+                       DeviceManagementConstants.OperationAttributes.APPLIST_VERSION_MAX_LENGTH) {
+                application.setVersion(StringUtils.abbreviate(application.getVersion(),
+                        DeviceManagementConstants.OperationAttributes.APPLIST_VERSION_MAX_LENGTH));
+            }
+            reportedApps.put(getApplicationKey(application), application);
+        }
+        ApplicationInventoryCacheManager cacheManager = ApplicationInventoryCacheManagerImpl.getInstance();
+        String fingerprint = getInventoryFingerprint(reportedApps.keySet());
+        if (fingerprint.equals(cacheManager.getInventoryFingerprint(device.getId()))) {
+            if (log.isDebugEnabled()) {
+                log.debug("Application list of device " + deviceIdentifier.toString() + " is unchanged");
+            }
+            return;
+        }
 
+        try {
+            DeviceManagementDAOFactory.beginTransaction();
+            List<Application> installedAppList = applicationDAO.getInstalledApplications(device.getId());
             if (log.isDebugEnabled()) {
                 log.debug("Number of apps installed:" + installedAppList.size());
             }
-            List<Application> appsToAdd = new ArrayList<>();
-            List<Integer> appIdsToRemove = new ArrayList<>(installedAppList.size());
-
+            Set<String> installedAppKeys = new HashSet<>();
+            List<Integer> appIdsToRemove = new ArrayList<>();
             for (Application installedApp : installedAppList) {
-                if (!applications.contains(installedApp)) {
+                String key = getApplicationKey(installedApp);
+                installedAppKeys.add(key);
+                if (!reportedApps.containsKey(key)) {
                     if (log.isDebugEnabled()) {
                         log.debug("Remove app Id:" + installedApp.getId());
                     }
                     appIdsToRemove.add(installedApp.getId());
                 }
             }
-            DeviceManagementDAOFactory.beginTransaction();
-            applicationMappingDAO.removeApplicationMapping(device.getId(), appIdsToRemove, tenantId);
-            Application installedApp;
-            List<Integer> applicationIds = new ArrayList<>();
-
-            for (Application application : applications) {
-                // Adding N/A if application doesn't have a version. Also truncating the application version,
-                // if length of the version is greater than maximum allowed length.
-                if (application.getVersion() == null) {
-                    application.setVersion("N/A");
-                } else if (application.getVersion().length() >
-                           DeviceManagementConstants.OperationAttributes.APPLIST_VERSION_MAX_LENGTH) {
-                    application.setVersion(StringUtils.abbreviate(application.getVersion(),
-                            DeviceManagementConstants.OperationAttributes.APPLIST_VERSION_MAX_LENGTH));
+            List<Application> newApps = new ArrayList<>();
+            for (Map.Entry<String, Application> entry : reportedApps.entrySet()) {
+                if (!installedAppKeys.contains(entry.getKey())) {
+                    newApps.add(entry.getValue());
                 }
-                if (!installedAppList.contains(application)) {
-                    installedApp = applicationDAO.getApplication(application.getApplicationIdentifier(),
-                            application.getVersion(), tenantId);
-                    if (installedApp == null) {
-                        appsToAdd.add(application);
-                    } else {
-                        applicationIds.add(installedApp.getId());
-                    }
-                }
-            }
-            if (log.isDebugEnabled()) {
-                log.debug("num of apps add:" + appsToAdd.size());
             }
-            applicationIds.addAll(applicationDAO.addApplications(appsToAdd, tenantId));
+            List<Integer> applicationIds = this.getApplicationIds(newApps, tenantId, cacheManager);
 
             if (log.isDebugEnabled()) {
                 log.debug("num of app Ids:" + applicationIds.size());
-            }
-            applicationMappingDAO.addApplicationMappings(device.getId(), applicationIds, tenantId);
-
-            if (log.isDebugEnabled()) {
                 log.debug("num of remove app Ids:" + appIdsToRemove.size());
             }
+            if (!appIdsToRemove.isEmpty()) {
+                applicationMappingDAO.removeApplicationMapping(device.getId(), appIdsToRemove, tenantId);
+            }
+            if (!applicationIds.isEmpty()) {
+                applicationMappingDAO.addApplicationMappings(device.getId(), applicationIds, tenantId);
+            }
             DeviceManagementDAOFactory.commitTransaction();
+
+            // Cached only once committed, as the ids of applications added within a rolled back transaction are void.
+            for (Application application : newApps) {
+                if (application.getId() > 0) {
+                    cacheManager.addApplicationId(application.getApplicationIdentifier(), application.getVersion(),
+                            application.getId());
+                }
+            }
+            cacheManager.addInventoryFingerprint(device.getId(), fingerprint);
         } catch (DeviceManagementDAOException e) {
             DeviceManagementDAOFactory.rollbackTransaction();
             String msg = "Error occurred saving application list of the device " + deviceIdentifier.toString();
@@ -270,10 +309,6 @@ public class ApplicationManagerProviderServiceImpl implements ApplicationManagem
                          + deviceIdentifier.toString();
             log.error(msg, e);
             throw new ApplicationManagementException(msg, e);
-        } catch (DeviceManagementException e) {
-            String msg = "Error occurred obtaining the device object for device " + deviceIdentifier.toString();
-            log.error(msg, e);
-            throw new ApplicationManagementException(msg, e);
         } catch (Exception e) {
             String msg = "Exception occurred saving application list of the device " + deviceIdentifier.toString();
             log.error(msg, e);
@@ -283,6 +318,90 @@ public class ApplicationManagerProviderServiceImpl implements ApplicationManagem
         }
     }
 
+    /**
+     * Resolves the ids of the given applications, first from the cache, then with one query per batch of identifiers,
+     * and adds the applications which do not exist yet. The resolved id is set to each of the applications.
+     */
+    private List<Integer> getApplicationIds(List<Application> applications, int tenantId,
+                                            ApplicationInventoryCacheManager cacheManager)
+            throws DeviceManagementDAOException {
+        List<Integer> applicationIds = new ArrayList<>(applications.size());
+        Map<String, Application> unresolvedApps = new LinkedHashMap<>();
+        for (Application application : applications) {
+            Integer applicationId = cacheManager.getApplicationId(application.getApplicationIdentifier(),
+                    application.getVersion());
+            if (applicationId != null) {
+                application.setId(applicationId);
+                applicationIds.add(applicationId);
+            } else {
+                unresolvedApps.put(getApplicationKey(application), application);
+            }
+        }
+        if (!unresolvedApps.isEmpty()) {
+            Set<String> identifiers = new LinkedHashSet<>();
+            for (Application application : unresolvedApps.values()) {
+                identifiers.add(application.getApplicationIdentifier());
+            }
+            // The identifiers are compared by the collation of the database, which may ignore case. Hence rows which
+            // only differ in case from a reported application are matched to it, unless the exact row exists as well.
+            Map<String, Application> existingApps = new HashMap<>();
+            Map<String, Application> existingAppsIgnoringCase = new HashMap<>();
+            for (Application existingApp : applicationDAO.getApplicationVersions(new ArrayList<>(identifiers),
+                    tenantId)) {
+                existingApps.put(getApplicationKey(existingApp), existingApp);
+                existingAppsIgnoringCase.put(getApplicationKey(existingApp).toLowerCase(Locale.ENGLISH), existingApp);
+            }
+            Iterator<Map.Entry<String, Application>> unresolvedEntries = unresolvedApps.entrySet().iterator();
+            while (unresolvedEntries.hasNext()) {
+                Map.Entry<String, Application> entry = unresolvedEntries.next();
+                Application existingApp = existingApps.get(entry.getKey());
+                if (existingApp == null) {
+                    existingApp = existingAppsIgnoringCase.get(entry.getKey().toLowerCase(Locale.ENGLISH));
+                }
+                if (existingApp != null) {
+                    entry.getValue().setId(existingApp.getId());
+                    applicationIds.add(existingApp.getId());
+                    unresolvedEntries.remove();
+                }
+            }
+        }
+        if (!unresolvedApps.isEmpty()) {
+            List<Application> appsToAdd = new ArrayList<>(unresolvedApps.values());
+            if (log.isDebugEnabled()) {
+                log.debug("num of apps add:" + appsToAdd.size());
+            }
+            List<Integer> addedAppIds = applicationDAO.addApplications(appsToAdd, tenantId);
+            applicationIds.addAll(addedAppIds);
+            if (addedAppIds.size() == appsToAdd.size()) {
+                for (int i = 0; i < appsToAdd.size(); i++) {
+                    appsToAdd.get(i).setId(addedAppIds.get(i));
+                }
+            }
+        }
+        return applicationIds;
+    }
+
+    /**
+     * @return key of an application by its identifier and version, which tell applications apart.
+     */
+    private static String getApplicationKey(Application application) {
+        String identifier = application.getApplicationIdentifier();
+        return (identifier == null ? -1 : identifier.length()) + ":" + identifier + ":" + application.getVersion();
+    }
+
+    /**
+     * @return a digest of the given application keys, which does not depend on the order of the keys.
+     */
+    private static String getInventoryFingerprint(Collection<String> applicationKeys) {
+        List<String> sortedKeys = new ArrayList<>(applicationKeys);
+        Collections.sort(sortedKeys);
+        StringBuilder inventory = new StringBuilder();
+        for (String key : sortedKeys) {
+            inventory.append(key).append('\n');
+        }
+        return DigestUtils.sha256Hex(inventory.toString());
+    }
+
     @Override
     public List<Application> getApplicationListForDevice(DeviceIdentifier deviceId)
             throws ApplicationManagementException {
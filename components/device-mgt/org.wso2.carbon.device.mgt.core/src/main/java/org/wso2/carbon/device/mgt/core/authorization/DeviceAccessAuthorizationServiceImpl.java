@@ -31,12 +31,18 @@ import org.wso2.carbon.device.mgt.common.group.mgt.DeviceGroup;
 import org.wso2.carbon.device.mgt.common.group.mgt.GroupManagementException;
 import org.wso2.carbon.device.mgt.common.permission.mgt.Permission;
 import org.wso2.carbon.device.mgt.common.permission.mgt.PermissionManagementException;
+import org.wso2.carbon.device.mgt.core.dto.DeviceAccessInfo;
 import org.wso2.carbon.device.mgt.core.internal.DeviceManagementDataHolder;
 import org.wso2.carbon.device.mgt.core.permission.mgt.PermissionUtils;
 import org.wso2.carbon.user.api.UserRealm;
 import org.wso2.carbon.user.api.UserStoreException;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 
 /**
@@ -128,34 +134,35 @@ public class DeviceAccessAuthorizationServiceImpl implements DeviceAccessAuthori
             deviceAuthorizationResult.setAuthorizedDevices(deviceIdentifiers);
             return deviceAuthorizationResult;
         }
+        PermissionSnapshot permissionSnapshot = new PermissionSnapshot(username, groupPermissions);
+        Map<String, List<DeviceIdentifier>> deviceIdentifiersByType = new LinkedHashMap<>();
         for (DeviceIdentifier deviceIdentifier : deviceIdentifiers) {
-            //check for admin and ownership permissions
-            if (isDeviceOwner(deviceIdentifier, username)) {
-                deviceAuthorizationResult.addAuthorizedDevice(deviceIdentifier);
-            } else {
-                try {
-                    if (groupPermissions == null || groupPermissions.length == 0) {
-                        deviceAuthorizationResult.setUnauthorizedDevices(deviceIdentifiers);
-                        return deviceAuthorizationResult;
-                    }
-                    //check for group permissions
-                    boolean isAuthorized = true;
-                    for (String groupPermission : groupPermissions) {
-                        if (!isAuthorizedViaGroup(username, deviceIdentifier, groupPermission)) {
-                            //if at least one failed, authorizations fails and break the loop
-                            isAuthorized = false;
-                            break;
-                        }
-                    }
-                    if (isAuthorized) {
-                        deviceAuthorizationResult.addAuthorizedDevice(deviceIdentifier);
-                    } else {
-                        deviceAuthorizationResult.addUnauthorizedDevice(deviceIdentifier);
-                    }
-                } catch (GroupManagementException | UserStoreException e) {
-                    throw new DeviceAccessAuthorizationException("Unable to authorize the access to device : " +
-                                                                 deviceIdentifier.getId() + " for the user : " +
-                                                                 username, e);
+            List<DeviceIdentifier> typeDeviceIdentifiers = deviceIdentifiersByType.get(deviceIdentifier.getType());
+            if (typeDeviceIdentifiers == null) {
+                typeDeviceIdentifiers = new ArrayList<>();
+                deviceIdentifiersByType.put(deviceIdentifier.getType(), typeDeviceIdentifiers);
+            }
+            typeDeviceIdentifiers.add(deviceIdentifier);
+        }
+        for (Map.Entry<String, List<DeviceIdentifier>> entry : deviceIdentifiersByType.entrySet()) {
+            List<String> identifiers = new ArrayList<>(entry.getValue().size());
+            for (DeviceIdentifier deviceIdentifier : entry.getValue()) {
+                identifiers.add(deviceIdentifier.getId());
+            }
+            Map<String, DeviceAccessInfo> accessInfo;
+            try {
+                accessInfo = DeviceManagementDataHolder.getInstance().getDeviceManagementProvider()
+                        .getDeviceAccessInfo(entry.getKey(), identifiers);
+            } catch (DeviceManagementException e) {
+                throw new DeviceAccessAuthorizationException("Unable to authorize the access to '" +
+                                                             entry.getKey() + "' devices for the user : " +
+                                                             username, e);
+            }
+            for (DeviceIdentifier deviceIdentifier : entry.getValue()) {
+                if (permissionSnapshot.isAuthorized(accessInfo.get(deviceIdentifier.getId()))) {
+                    deviceAuthorizationResult.addAuthorizedDevice(deviceIdentifier);
+                } else {
+                    deviceAuthorizationResult.addUnauthorizedDevice(deviceIdentifier);
                 }
             }
         }
@@ -193,24 +200,33 @@ public class DeviceAccessAuthorizationServiceImpl implements DeviceAccessAuthori
 
     private boolean isAuthorizedViaGroup(String username, DeviceIdentifier deviceIdentifier, String groupPermission)
             throws GroupManagementException, UserStoreException {
-        List<DeviceGroup> authorizedGroups =
-                DeviceManagementDataHolder.getInstance().getGroupManagementProviderService()
-                        .getGroups(username, groupPermission);
         List<DeviceGroup> groupsWithDevice =
                 DeviceManagementDataHolder.getInstance().getGroupManagementProviderService()
                         .getGroups(deviceIdentifier);
-        for (DeviceGroup group : authorizedGroups) {
-            Iterator<DeviceGroup> groupsWithDeviceIterator = groupsWithDevice.iterator();
-            while (groupsWithDeviceIterator.hasNext()) {
-                DeviceGroup deviceGroup = groupsWithDeviceIterator.next();
-                if (deviceGroup.getGroupId() == group.getGroupId()) {
-                    return true;
-                }
+        if (groupsWithDevice.isEmpty()) {
+            return false;
+        }
+        Set<Integer> authorizedGroupIds = getAuthorizedGroupIds(username, groupPermission);
+        for (DeviceGroup deviceGroup : groupsWithDevice) {
+            if (authorizedGroupIds.contains(deviceGroup.getGroupId())) {
+                return true;
             }
         }
         return false;
     }
 
+    private static Set<Integer> getAuthorizedGroupIds(String username, String groupPermission)
+            throws GroupManagementException {
+        List<DeviceGroup> authorizedGroups =
+                DeviceManagementDataHolder.getInstance().getGroupManagementProviderService()
+                        .getGroups(username, groupPermission);
+        Set<Integer> authorizedGroupIds = new HashSet<>();
+        for (DeviceGroup group : authorizedGroups) {
+            authorizedGroupIds.add(group.getGroupId());
+        }
+        return authorizedGroupIds;
+    }
+
     private boolean isDeviceOwner(DeviceIdentifier deviceIdentifier, String username)
             throws DeviceAccessAuthorizationException {
         //Check for device ownership. If the user is the owner of the device we allow the access.
@@ -262,6 +278,53 @@ public class DeviceAccessAuthorizationServiceImpl implements DeviceAccessAuthori
         return PermissionUtils.putPermission(permission);
     }
 
+    /**
+     * Permissions of a user resolved once for a request, against which the access to any number of devices is
+     * authorized without going back to the user store or the group management service.
+     */
+    private static final class PermissionSnapshot {
+
+        private final String username;
+        private final List<Set<Integer>> permittedGroupIds = new ArrayList<>();
+
+        PermissionSnapshot(String username, String[] groupPermissions) throws DeviceAccessAuthorizationException {
+            this.username = username;
+            if (groupPermissions == null) {
+                return;
+            }
+            try {
+                for (String groupPermission : groupPermissions) {
+                    permittedGroupIds.add(getAuthorizedGroupIds(username, groupPermission));
+                }
+            } catch (GroupManagementException e) {
+                throw new DeviceAccessAuthorizationException("Unable to retrieve the groups permitted to the user : " +
+                                                             username, e);
+            }
+        }
+
+        /**
+         * A device is authorized if the user owns it, or if it belongs to a permitted group for every one of the
+         * requested group permissions.
+         */
+        boolean isAuthorized(DeviceAccessInfo accessInfo) {
+            if (accessInfo == null) {
+                return false;
+            }
+            if (username.equals(accessInfo.getOwner())) {
+                return true;
+            }
+            if (permittedGroupIds.isEmpty()) {
+                return false;
+            }
+            for (Set<Integer> groupIds : permittedGroupIds) {
+                if (Collections.disjoint(groupIds, accessInfo.getGroupIds())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
     public static final class PermissionMethod {
         public static final String READ = "read";
         public static final String WRITE = "write";
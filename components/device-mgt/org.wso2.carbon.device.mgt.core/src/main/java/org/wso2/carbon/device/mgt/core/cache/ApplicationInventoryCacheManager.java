@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.cache;
+
+/**
+ * This defines the contract of the cache used to synchronize the application lists reported by devices. It holds the
+ * fingerprint of the application list last saved for each device, so that identical reports can be skipped, and the
+ * ids of the applications of each tenant, which never change once the applications are added. Entries are scoped to
+ * the tenant of the caller.
+ */
+public interface ApplicationInventoryCacheManager {
+
+    /**
+     * @param deviceId id of the device.
+     * @return fingerprint of the application list last saved for the device, or null if it is not cached.
+     */
+    String getInventoryFingerprint(int deviceId);
+
+    void addInventoryFingerprint(int deviceId, String fingerprint);
+
+    void removeInventoryFingerprint(int deviceId);
+
+    /**
+     * @param identifier identifier of the application.
+     * @param version    version of the application.
+     * @return id of the application, or null if it is not cached.
+     */
+    Integer getApplicationId(String identifier, String version);
+
+    void addApplicationId(String identifier, String version, int applicationId);
+
+}
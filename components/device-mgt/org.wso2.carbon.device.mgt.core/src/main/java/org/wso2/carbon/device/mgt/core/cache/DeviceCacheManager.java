@@ -21,7 +21,9 @@ package org.wso2.carbon.device.mgt.core.cache;
 import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
 import org.wso2.carbon.device.mgt.common.Device;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This defines the contract to be implemented by DeviceCacheManager which holds the necessary functionalities to
@@ -38,6 +40,15 @@ public interface DeviceCacheManager {
      */
     void addDeviceToCache(DeviceIdentifier deviceIdentifier, Device device, int tenantId);
 
+    /**
+     * Adds a list of device objects to the device-cache, replacing the ones already cached. Copies of the devices
+     * are cached, hence the given devices may be modified afterwards.
+     * @param devices - Device objects to be added.
+     * @param tenantId - Owning tenant of the devices.
+     *
+     */
+    void addDevicesToCache(List<Device> devices, int tenantId);
+
     /**
      * Removes a device object from device-cache.
      * @param deviceIdentifier - DeviceIdentifier of the device to be removed.
@@ -70,4 +81,30 @@ public interface DeviceCacheManager {
      *
      */
     Device getDeviceFromCache(DeviceIdentifier deviceIdentifier, int tenantId);
+
+    /**
+     * Fetches a set of device objects from device-cache, with a single lookup of the distributed cache for the
+     * devices which are not in the near-cache.
+     * @param deviceIdentifiers - DeviceIdentifiers of the devices to be fetched.
+     * @param tenantId - Owning tenant of the devices.
+     * @return Device objects found in the cache, by the given DeviceIdentifier objects. Devices which are not cached
+     * are not included.
+     *
+     */
+    Map<DeviceIdentifier, Device> getDevicesFromCache(Collection<DeviceIdentifier> deviceIdentifiers, int tenantId);
+
+    /**
+     * @return number of device lookups served from the device-cache.
+     */
+    long getCacheHitCount();
+
+    /**
+     * @return number of device lookups which were not found in the device-cache.
+     */
+    long getCacheMissCount();
+
+    /**
+     * @return number of devices evicted from the near-cache due to expiry or capacity.
+     */
+    long getCacheEvictionCount();
 }
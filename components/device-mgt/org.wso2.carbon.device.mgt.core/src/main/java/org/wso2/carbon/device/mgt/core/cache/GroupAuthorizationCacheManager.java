@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.cache;
+
+import java.util.List;
+
+/**
+ * This defines the contract of the cache which holds the roles of users, the roles a group is shared with and the
+ * permission decisions of roles, which are needed to resolve the groups a user is permitted to access. Entries are
+ * scoped to the tenant of the caller.
+ */
+public interface GroupAuthorizationCacheManager {
+
+    /**
+     * @param username username of the user.
+     * @return the roles of the user, or null if they are not cached.
+     */
+    String[] getUserRoles(String username);
+
+    void addUserRoles(String username, String[] roles);
+
+    /**
+     * Caches the roles of a user, unless an entry was invalidated after the given version was taken.
+     * @param version value of {@link #getVersion()} taken before the roles were loaded.
+     */
+    void addUserRoles(String username, String[] roles, long version);
+
+    /**
+     * @param groupId id of the group.
+     * @return the roles the group is shared with, or null if they are not cached.
+     */
+    List<String> getGroupRoles(int groupId);
+
+    void addGroupRoles(int groupId, List<String> roles);
+
+    /**
+     * Caches the roles of a group, unless an entry was invalidated after the given version was taken.
+     * @param version value of {@link #getVersion()} taken before the roles were loaded.
+     */
+    void addGroupRoles(int groupId, List<String> roles, long version);
+
+    /**
+     * @param role       name of the role.
+     * @param permission permission to be checked.
+     * @return whether the role is authorized for the permission, or null if the decision is not cached.
+     */
+    Boolean isRoleAuthorized(String role, String permission);
+
+    void addRoleAuthorization(String role, String permission, boolean authorized);
+
+    /**
+     * Caches an authorization decision, unless an entry was invalidated after the given version was taken.
+     * @param version value of {@link #getVersion()} taken before the decision was made.
+     */
+    void addRoleAuthorization(String role, String permission, boolean authorized, long version);
+
+    /**
+     * @return a version which changes whenever an entry is invalidated. Taken before the values to be cached are
+     * loaded, so that values loaded before a concurrent invalidation are not cached.
+     */
+    long getVersion();
+
+    /**
+     * Removes the cached roles of a group, on this node and on the other nodes of the cluster.
+     * @param groupId id of the group.
+     */
+    void invalidateGroup(int groupId);
+
+    /**
+     * Removes the cached roles of a user, on this node and on the other nodes of the cluster.
+     * @param username username of the user.
+     */
+    void invalidateUser(String username);
+
+    /**
+     * Removes all the cached entries of the current tenant, on this node and on the other nodes of the cluster.
+     */
+    void invalidateTenant();
+
+    long getCacheHitCount();
+
+    long getCacheMissCount();
+
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.cache.impl;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.caching.impl.CacheImpl;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.device.mgt.common.cache.BoundedExpiringCache;
+import org.wso2.carbon.device.mgt.core.DeviceManagementConstants;
+import org.wso2.carbon.device.mgt.core.cache.ApplicationInventoryCacheManager;
+import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
+import org.wso2.carbon.device.mgt.core.config.DeviceManagementConfig;
+import org.wso2.carbon.device.mgt.core.config.cache.ApplicationInventoryCacheConfiguration;
+
+import javax.cache.Cache;
+import javax.cache.CacheConfiguration;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of ApplicationInventoryCacheManager. Fingerprints are kept in a distributed cache, as the
+ * application list of a device may be saved by any node of the cluster. Application ids are kept in memory of the
+ * node, since an id never changes once the application is added.
+ */
+public class ApplicationInventoryCacheManagerImpl implements ApplicationInventoryCacheManager {
+
+    private static final Log log = LogFactory.getLog(ApplicationInventoryCacheManagerImpl.class);
+
+    private static final String SEPARATOR = "|";
+
+    private static volatile ApplicationInventoryCacheManagerImpl applicationInventoryCacheManager;
+    private static volatile boolean isFingerprintCacheInitialized = false;
+
+    private volatile BoundedExpiringCache<String, Integer> applicationIds;
+
+    private ApplicationInventoryCacheManagerImpl() {
+    }
+
+    public static ApplicationInventoryCacheManager getInstance() {
+        if (applicationInventoryCacheManager == null) {
+            synchronized (ApplicationInventoryCacheManagerImpl.class) {
+                if (applicationInventoryCacheManager == null) {
+                    applicationInventoryCacheManager = new ApplicationInventoryCacheManagerImpl();
+                }
+            }
+        }
+        return applicationInventoryCacheManager;
+    }
+
+    @Override
+    public String getInventoryFingerprint(int deviceId) {
+        ApplicationInventoryCacheConfiguration cacheConfig = getCacheConfiguration();
+        if (cacheConfig == null) {
+            return null;
+        }
+        return this.getFingerprintCache(cacheConfig).get(deviceId);
+    }
+
+    @Override
+    public void addInventoryFingerprint(int deviceId, String fingerprint) {
+        ApplicationInventoryCacheConfiguration cacheConfig = getCacheConfiguration();
+        if (cacheConfig == null) {
+            return;
+        }
+        this.getFingerprintCache(cacheConfig).put(deviceId, fingerprint);
+    }
+
+    @Override
+    public void removeInventoryFingerprint(int deviceId) {
+        ApplicationInventoryCacheConfiguration cacheConfig = getCacheConfiguration();
+        if (cacheConfig == null) {
+            return;
+        }
+        this.getFingerprintCache(cacheConfig).remove(deviceId);
+    }
+
+    @Override
+    public Integer getApplicationId(String identifier, String version) {
+        ApplicationInventoryCacheConfiguration cacheConfig = getCacheConfiguration();
+        if (cacheConfig == null) {
+            return null;
+        }
+        return this.getApplicationIdCache(cacheConfig).get(getApplicationKey(identifier, version));
+    }
+
+    @Override
+    public void addApplicationId(String identifier, String version, int applicationId) {
+        ApplicationInventoryCacheConfiguration cacheConfig = getCacheConfiguration();
+        if (cacheConfig == null) {
+            return;
+        }
+        this.getApplicationIdCache(cacheConfig).put(getApplicationKey(identifier, version), applicationId);
+    }
+
+    private BoundedExpiringCache<String, Integer> getApplicationIdCache(
+            ApplicationInventoryCacheConfiguration cacheConfig) {
+        if (applicationIds == null) {
+            synchronized (this) {
+                if (applicationIds == null) {
+                    int capacity = cacheConfig.getCapacity() > 0 ? cacheConfig.getCapacity() :
+                            ApplicationInventoryCacheConfiguration.DEFAULT_CAPACITY;
+                    // Ids are never changed once the application is added, hence they do not expire.
+                    applicationIds = new BoundedExpiringCache<>(capacity, 0);
+                }
+            }
+        }
+        return applicationIds;
+    }
+
+    private Cache<Integer, String> getFingerprintCache(ApplicationInventoryCacheConfiguration cacheConfig) {
+        CacheManager manager = Caching.getCacheManagerFactory()
+                .getCacheManager(DeviceManagementConstants.DM_CACHE_MANAGER);
+        if (!isFingerprintCacheInitialized) {
+            synchronized (ApplicationInventoryCacheManagerImpl.class) {
+                if (!isFingerprintCacheInitialized) {
+                    int expiryTime = cacheConfig.getExpiryTime() > 0 ? cacheConfig.getExpiryTime() :
+                            ApplicationInventoryCacheConfiguration.DEFAULT_EXPIRY_TIME;
+                    manager.<Integer, String>createCacheBuilder(DeviceManagementConstants.APPLICATION_INVENTORY_CACHE)
+                            .setExpiry(CacheConfiguration.ExpiryType.MODIFIED, new CacheConfiguration.Duration(
+                                    TimeUnit.SECONDS, expiryTime)).setStoreByValue(true).build();
+                    if (cacheConfig.getCapacity() > 0) {
+                        ((CacheImpl) (manager.<Integer, String>getCache(
+                                DeviceManagementConstants.APPLICATION_INVENTORY_CACHE)))
+                                .setCapacity(cacheConfig.getCapacity());
+                    }
+                    isFingerprintCacheInitialized = true;
+                    if (log.isDebugEnabled()) {
+                        log.debug("Application inventory cache initialized with expiry time " + expiryTime + "s");
+                    }
+                }
+            }
+        }
+        return manager.getCache(DeviceManagementConstants.APPLICATION_INVENTORY_CACHE);
+    }
+
+    /**
+     * @return configuration of the application inventory cache, or null if the cache is disabled.
+     */
+    private static ApplicationInventoryCacheConfiguration getCacheConfiguration() {
+        DeviceManagementConfig config = DeviceConfigurationManager.getInstance().getDeviceManagementConfig();
+        if (config == null || config.getApplicationInventoryCacheConfiguration() == null ||
+                !config.getApplicationInventoryCacheConfiguration().isEnabled()) {
+            return null;
+        }
+        return config.getApplicationInventoryCacheConfiguration();
+    }
+
+    private static String getApplicationKey(String identifier, String version) {
+        // The length of the identifier keeps the keys unambiguous when the identifier contains the separator.
+        return PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId() + SEPARATOR +
+                (identifier == null ? -1 : identifier.length()) + SEPARATOR + identifier + SEPARATOR + version;
+    }
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.cache.impl;
+
+import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.common.cache.BoundedExpiringCache;
+import org.wso2.carbon.device.mgt.core.cache.DeviceCacheKey;
+
+import javax.cache.event.CacheEntryEvent;
+import javax.cache.event.CacheEntryExpiredListener;
+import javax.cache.event.CacheEntryListenerException;
+import javax.cache.event.CacheEntryRemovedListener;
+import javax.cache.event.CacheEntryUpdatedListener;
+
+/**
+ * Invalidates the devices of the near-cache when they are updated, removed or expired in the distributed device
+ * cache, including the invalidations received from the other nodes of the cluster.
+ */
+public class DeviceCacheInvalidationListener implements CacheEntryUpdatedListener<DeviceCacheKey, Device>,
+        CacheEntryRemovedListener<DeviceCacheKey, Device>, CacheEntryExpiredListener<DeviceCacheKey, Device> {
+
+    private final BoundedExpiringCache<DeviceCacheKey, Device> nearCache;
+
+    public DeviceCacheInvalidationListener(BoundedExpiringCache<DeviceCacheKey, Device> nearCache) {
+        this.nearCache = nearCache;
+    }
+
+    @Override
+    public void entryUpdated(CacheEntryEvent<? extends DeviceCacheKey, ? extends Device> event)
+            throws CacheEntryListenerException {
+        nearCache.remove(event.getKey());
+    }
+
+    @Override
+    public void entryRemoved(CacheEntryEvent<? extends DeviceCacheKey, ? extends Device> event)
+            throws CacheEntryListenerException {
+        nearCache.remove(event.getKey());
+    }
+
+    @Override
+    public void entryExpired(CacheEntryEvent<? extends DeviceCacheKey, ? extends Device> event)
+            throws CacheEntryListenerException {
+        nearCache.remove(event.getKey());
+    }
+
+}
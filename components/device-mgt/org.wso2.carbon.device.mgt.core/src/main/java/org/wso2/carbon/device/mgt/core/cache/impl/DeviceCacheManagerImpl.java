@@ -22,21 +22,43 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.device.mgt.common.Device;
 import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
+import org.wso2.carbon.device.mgt.common.cache.BoundedExpiringCache;
 import org.wso2.carbon.device.mgt.core.cache.DeviceCacheKey;
 import org.wso2.carbon.device.mgt.core.cache.DeviceCacheManager;
+import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
+import org.wso2.carbon.device.mgt.core.config.cache.DeviceCacheConfiguration;
 import org.wso2.carbon.device.mgt.core.util.DeviceManagerUtil;
 
 import javax.cache.Cache;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Implementation of DeviceCacheManager.
+ * Implementation of DeviceCacheManager. Devices are cached in the distributed device cache, with a near-cache in
+ * front of it on each node, which is invalidated by the changes made to the distributed cache. The near-cache is
+ * only filled by the reads, and it holds and hands out copies of the devices, as the distributed cache stores them
+ * by value.
  */
 public class DeviceCacheManagerImpl implements DeviceCacheManager {
 
     private static final Log log = LogFactory.getLog(DeviceCacheManagerImpl.class);
 
     private static DeviceCacheManagerImpl deviceCacheManager;
+    private static volatile BoundedExpiringCache<DeviceCacheKey, Device> nearCache;
+    private static volatile boolean isNearCacheInitialized;
+    private static final Set<Cache<DeviceCacheKey, Device>> observedCaches =
+            Collections.newSetFromMap(new ConcurrentHashMap<Cache<DeviceCacheKey, Device>, Boolean>());
+    private static final AtomicLong hitCount = new AtomicLong();
+    private static final AtomicLong missCount = new AtomicLong();
 
     private DeviceCacheManagerImpl() {
     }
@@ -54,35 +76,58 @@ public class DeviceCacheManagerImpl implements DeviceCacheManager {
 
     @Override
     public void addDeviceToCache(DeviceIdentifier deviceIdentifier, Device device, int tenantId) {
-        Cache<DeviceCacheKey, Device> lCache = DeviceManagerUtil.getDeviceCache();
+        Cache<DeviceCacheKey, Device> lCache = this.getDeviceCache();
         if (lCache != null) {
             DeviceCacheKey cacheKey = getCacheKey(deviceIdentifier, tenantId);
-            if (lCache.containsKey(cacheKey)) {
-                this.updateDeviceInCache(deviceIdentifier, device, tenantId);
-            } else {
-                lCache.put(cacheKey, device);
+            lCache.put(cacheKey, device);
+            BoundedExpiringCache<DeviceCacheKey, Device> lNearCache = nearCache;
+            if (lNearCache != null) {
+                lNearCache.remove(cacheKey);
+            }
+        }
+    }
+
+    @Override
+    public void addDevicesToCache(List<Device> devices, int tenantId) {
+        Cache<DeviceCacheKey, Device> lCache = this.getDeviceCache();
+        if (lCache != null && !devices.isEmpty()) {
+            Map<DeviceCacheKey, Device> cacheEntries = new HashMap<>();
+            for (Device device : devices) {
+                cacheEntries.put(new DeviceCacheKey(device.getDeviceIdentifier(), device.getType(), tenantId),
+                        copyOf(device));
+            }
+            lCache.putAll(cacheEntries);
+            BoundedExpiringCache<DeviceCacheKey, Device> lNearCache = nearCache;
+            if (lNearCache != null) {
+                for (DeviceCacheKey cacheKey : cacheEntries.keySet()) {
+                    lNearCache.remove(cacheKey);
+                }
             }
         }
     }
 
     @Override
     public void removeDeviceFromCache(DeviceIdentifier deviceIdentifier, int tenantId) {
-        Cache<DeviceCacheKey, Device> lCache = DeviceManagerUtil.getDeviceCache();
+        Cache<DeviceCacheKey, Device> lCache = this.getDeviceCache();
         if (lCache != null) {
             DeviceCacheKey cacheKey = getCacheKey(deviceIdentifier, tenantId);
-            if (lCache.containsKey(cacheKey)) {
-                lCache.remove(cacheKey);
+            lCache.remove(cacheKey);
+            BoundedExpiringCache<DeviceCacheKey, Device> lNearCache = nearCache;
+            if (lNearCache != null) {
+                lNearCache.remove(cacheKey);
             }
         }
     }
 
     @Override
     public void removeDevicesFromCache(List<DeviceCacheKey> deviceList) {
-        Cache<DeviceCacheKey, Device> lCache = DeviceManagerUtil.getDeviceCache();
+        Cache<DeviceCacheKey, Device> lCache = this.getDeviceCache();
         if (lCache != null) {
+            BoundedExpiringCache<DeviceCacheKey, Device> lNearCache = nearCache;
             for (DeviceCacheKey cacheKey : deviceList) {
-                if (lCache.containsKey(cacheKey)) {
-                    lCache.remove(cacheKey);
+                lCache.remove(cacheKey);
+                if (lNearCache != null) {
+                    lNearCache.remove(cacheKey);
                 }
             }
         }
@@ -90,30 +135,192 @@ public class DeviceCacheManagerImpl implements DeviceCacheManager {
 
     @Override
     public void updateDeviceInCache(DeviceIdentifier deviceIdentifier, Device device, int tenantId) {
-        Cache<DeviceCacheKey, Device> lCache = DeviceManagerUtil.getDeviceCache();
+        Cache<DeviceCacheKey, Device> lCache = this.getDeviceCache();
         if (lCache != null) {
             DeviceCacheKey cacheKey = getCacheKey(deviceIdentifier, tenantId);
-            if (lCache.containsKey(cacheKey)) {
-                lCache.replace(cacheKey, device);
+            lCache.replace(cacheKey, device);
+            BoundedExpiringCache<DeviceCacheKey, Device> lNearCache = nearCache;
+            if (lNearCache != null) {
+                lNearCache.remove(cacheKey);
             }
         }
     }
 
     @Override
     public Device getDeviceFromCache(DeviceIdentifier deviceIdentifier, int tenantId) {
-        Cache<DeviceCacheKey, Device> lCache = DeviceManagerUtil.getDeviceCache();
+        Cache<DeviceCacheKey, Device> lCache = this.getDeviceCache();
         if (lCache != null) {
-            return lCache.get(getCacheKey(deviceIdentifier, tenantId));
+            DeviceCacheKey cacheKey = getCacheKey(deviceIdentifier, tenantId);
+            BoundedExpiringCache<DeviceCacheKey, Device> lNearCache = nearCache;
+            Device device = lNearCache != null ? lNearCache.get(cacheKey) : null;
+            if (device != null) {
+                hitCount.incrementAndGet();
+                return copyOf(device);
+            }
+            // Taken before the read, so that a device invalidated while it is read is not cached in the near-cache.
+            long nearCacheVersion = lNearCache != null ? lNearCache.getVersion() : 0;
+            device = lCache.get(cacheKey);
+            if (device == null) {
+                missCount.incrementAndGet();
+                return null;
+            }
+            hitCount.incrementAndGet();
+            if (lNearCache != null) {
+                lNearCache.putIfNotInvalidated(cacheKey, copyOf(device), nearCacheVersion);
+            }
+            return device;
         }
         return null;
     }
 
+    @Override
+    public Map<DeviceIdentifier, Device> getDevicesFromCache(Collection<DeviceIdentifier> deviceIdentifiers,
+                                                             int tenantId) {
+        Map<DeviceIdentifier, Device> devices = new HashMap<>();
+        Cache<DeviceCacheKey, Device> lCache = this.getDeviceCache();
+        if (lCache == null || deviceIdentifiers.isEmpty()) {
+            return devices;
+        }
+        BoundedExpiringCache<DeviceCacheKey, Device> lNearCache = nearCache;
+        Map<DeviceCacheKey, List<DeviceIdentifier>> missedKeys = new HashMap<>();
+        for (DeviceIdentifier deviceIdentifier : deviceIdentifiers) {
+            DeviceCacheKey cacheKey = getCacheKey(deviceIdentifier, tenantId);
+            Device device = lNearCache != null ? lNearCache.get(cacheKey) : null;
+            if (device != null) {
+                hitCount.incrementAndGet();
+                devices.put(deviceIdentifier, copyOf(device));
+            } else {
+                List<DeviceIdentifier> keyIdentifiers = missedKeys.get(cacheKey);
+                if (keyIdentifiers == null) {
+                    keyIdentifiers = new ArrayList<>(1);
+                    missedKeys.put(cacheKey, keyIdentifiers);
+                }
+                keyIdentifiers.add(deviceIdentifier);
+            }
+        }
+        if (missedKeys.isEmpty()) {
+            return devices;
+        }
+        // Taken before the read, so that a device invalidated while it is read is not cached in the near-cache.
+        long nearCacheVersion = lNearCache != null ? lNearCache.getVersion() : 0;
+        Map<DeviceCacheKey, Device> cachedDevices = lCache.getAll(missedKeys.keySet());
+        for (Map.Entry<DeviceCacheKey, List<DeviceIdentifier>> missedKey : missedKeys.entrySet()) {
+            Device device = cachedDevices != null ? cachedDevices.get(missedKey.getKey()) : null;
+            for (DeviceIdentifier deviceIdentifier : missedKey.getValue()) {
+                if (device == null) {
+                    missCount.incrementAndGet();
+                } else {
+                    hitCount.incrementAndGet();
+                    devices.put(deviceIdentifier, device);
+                }
+            }
+            if (device != null && lNearCache != null) {
+                lNearCache.putIfNotInvalidated(missedKey.getKey(), copyOf(device), nearCacheVersion);
+            }
+        }
+        return devices;
+    }
+
+    @Override
+    public long getCacheHitCount() {
+        return hitCount.get();
+    }
+
+    @Override
+    public long getCacheMissCount() {
+        return missCount.get();
+    }
+
+    @Override
+    public long getCacheEvictionCount() {
+        BoundedExpiringCache<DeviceCacheKey, Device> lNearCache = nearCache;
+        return lNearCache != null ? lNearCache.getEvictionCount() : 0;
+    }
+
+    /**
+     * @return number of devices held in the near-cache of this node.
+     */
+    public int getNearCacheSize() {
+        BoundedExpiringCache<DeviceCacheKey, Device> lNearCache = nearCache;
+        return lNearCache != null ? lNearCache.size() : 0;
+    }
+
+    /**
+     * @return the distributed device cache of the current tenant, or null if the device cache is disabled. The
+     * near-cache is registered for the invalidations of the cache on first use.
+     */
+    private Cache<DeviceCacheKey, Device> getDeviceCache() {
+        Cache<DeviceCacheKey, Device> lCache = DeviceManagerUtil.getDeviceCache();
+        if (lCache != null) {
+            BoundedExpiringCache<DeviceCacheKey, Device> lNearCache = getNearCache();
+            if (lNearCache != null && observedCaches.add(lCache)) {
+                lCache.registerCacheEntryListener(new DeviceCacheInvalidationListener(lNearCache));
+            }
+        }
+        return lCache;
+    }
+
+    private static BoundedExpiringCache<DeviceCacheKey, Device> getNearCache() {
+        if (!isNearCacheInitialized) {
+            synchronized (DeviceCacheManagerImpl.class) {
+                if (!isNearCacheInitialized) {
+                    DeviceCacheConfiguration cacheConfig = DeviceConfigurationManager.getInstance()
+                            .getDeviceManagementConfig().getDeviceCacheConfiguration();
+                    if (cacheConfig.isNearCacheEnabled()) {
+                        int capacity = cacheConfig.getNearCacheCapacity();
+                        if (capacity <= 0) {
+                            capacity = DeviceCacheConfiguration.DEFAULT_NEAR_CACHE_CAPACITY;
+                        }
+                        int expiryTime = cacheConfig.getNearCacheExpiryTime();
+                        if (expiryTime <= 0) {
+                            expiryTime = DeviceCacheConfiguration.DEFAULT_NEAR_CACHE_EXPIRY_TIME;
+                        }
+                        nearCache = new BoundedExpiringCache<>(capacity, TimeUnit.SECONDS.toMillis(expiryTime));
+                        if (log.isDebugEnabled()) {
+                            log.debug("Device near-cache initialized with capacity " + capacity +
+                                    " and expiry time " + expiryTime + " seconds");
+                        }
+                    }
+                    isNearCacheInitialized = true;
+                }
+            }
+        }
+        return nearCache;
+    }
+
+    /**
+     * @return a copy of the given device, which the caller is free to modify without affecting the near-cache.
+     */
+    private static Device copyOf(Device device) {
+        Device copy = new Device();
+        copy.setId(device.getId());
+        copy.setName(device.getName());
+        copy.setType(device.getType());
+        copy.setDescription(device.getDescription());
+        copy.setDeviceIdentifier(device.getDeviceIdentifier());
+        EnrolmentInfo enrolmentInfo = device.getEnrolmentInfo();
+        if (enrolmentInfo != null) {
+            EnrolmentInfo enrolmentInfoCopy = new EnrolmentInfo(enrolmentInfo.getOwner(),
+                    enrolmentInfo.getOwnership(), enrolmentInfo.getStatus());
+            enrolmentInfoCopy.setId(enrolmentInfo.getId());
+            enrolmentInfoCopy.setDateOfEnrolment(enrolmentInfo.getDateOfEnrolment());
+            enrolmentInfoCopy.setDateOfLastUpdate(enrolmentInfo.getDateOfLastUpdate());
+            copy.setEnrolmentInfo(enrolmentInfoCopy);
+        }
+        if (device.getFeatures() != null) {
+            copy.setFeatures(new ArrayList<>(device.getFeatures()));
+        }
+        if (device.getProperties() != null) {
+            copy.setProperties(new ArrayList<>(device.getProperties()));
+        }
+        copy.setDeviceInfo(device.getDeviceInfo());
+        if (device.getApplications() != null) {
+            copy.setApplications(new ArrayList<>(device.getApplications()));
+        }
+        return copy;
+    }
 
     private DeviceCacheKey getCacheKey(DeviceIdentifier deviceIdentifier, int tenantId) {
-        DeviceCacheKey deviceCacheKey = new DeviceCacheKey();
-        deviceCacheKey.setDeviceId(deviceIdentifier.getId());
-        deviceCacheKey.setDeviceType(deviceIdentifier.getType());
-        deviceCacheKey.setTenantId(tenantId);
-        return deviceCacheKey;
+        return new DeviceCacheKey(deviceIdentifier.getId(), deviceIdentifier.getType(), tenantId);
     }
-}
\ No newline at end of file
+}
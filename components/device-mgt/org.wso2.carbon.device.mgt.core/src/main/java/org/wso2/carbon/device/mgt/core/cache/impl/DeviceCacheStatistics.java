@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.cache.impl;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Exposes the statistics of the device cache of this node over JMX, under {@link #OBJECT_NAME}.
+ */
+public class DeviceCacheStatistics implements DeviceCacheStatisticsMBean {
+
+    private static final Log log = LogFactory.getLog(DeviceCacheStatistics.class);
+
+    public static final String OBJECT_NAME = "org.wso2.carbon.device.mgt:type=DeviceCache";
+
+    private final DeviceCacheManagerImpl deviceCacheManager;
+
+    public DeviceCacheStatistics(DeviceCacheManagerImpl deviceCacheManager) {
+        this.deviceCacheManager = deviceCacheManager;
+    }
+
+    @Override
+    public long getHitCount() {
+        return deviceCacheManager.getCacheHitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+        return deviceCacheManager.getCacheMissCount();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return deviceCacheManager.getCacheEvictionCount();
+    }
+
+    @Override
+    public int getNearCacheSize() {
+        return deviceCacheManager.getNearCacheSize();
+    }
+
+    /**
+     * Registers the statistics of the device cache with the platform MBean server, replacing the ones registered
+     * before. Failures are logged, since the device cache works regardless of its statistics being exposed.
+     */
+    public static void register() {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+            mBeanServer.registerMBean(new DeviceCacheStatistics(DeviceCacheManagerImpl.getInstance()), objectName);
+        } catch (JMException e) {
+            log.warn("Unable to register the device cache statistics under '" + OBJECT_NAME + "'", e);
+        }
+    }
+
+    public static void unregister() {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            log.warn("Unable to unregister the device cache statistics under '" + OBJECT_NAME + "'", e);
+        }
+    }
+
+}
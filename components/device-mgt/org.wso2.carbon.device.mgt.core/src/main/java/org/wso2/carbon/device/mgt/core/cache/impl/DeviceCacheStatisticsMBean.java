@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.cache.impl;
+
+/**
+ * Management interface through which the statistics of the device cache are exposed over JMX.
+ */
+public interface DeviceCacheStatisticsMBean {
+
+    /**
+     * @return number of device lookups served from the device-cache.
+     */
+    long getHitCount();
+
+    /**
+     * @return number of device lookups which were not found in the device-cache.
+     */
+    long getMissCount();
+
+    /**
+     * @return number of devices evicted from the near-cache due to expiry or capacity.
+     */
+    long getEvictionCount();
+
+    /**
+     * @return number of devices held in the near-cache of this node.
+     */
+    int getNearCacheSize();
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.cache.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Node local registry of the device types available to each tenant. The device types of all the tenants are
+ * invalidated whenever a device type or a device management plugin is registered or unregistered on this node, as
+ * a shared device type is available to every tenant. Entries also expire after a short time, so that the device
+ * types defined through the other nodes of a cluster are picked up as well.
+ */
+public final class DeviceTypeRegistry {
+
+    private static final long EXPIRY_TIME_MILLIS = 60000L;
+    private static final ConcurrentMap<Integer, AvailableDeviceTypes> availableDeviceTypes =
+            new ConcurrentHashMap<>();
+    private static volatile long version;
+
+    private DeviceTypeRegistry() {
+    }
+
+    /**
+     * @param tenantId id of the tenant.
+     * @return the device types available to the tenant, or null if they are not known.
+     */
+    public static List<String> getAvailableDeviceTypes(int tenantId) {
+        AvailableDeviceTypes deviceTypes = availableDeviceTypes.get(tenantId);
+        if (deviceTypes == null || deviceTypes.version != version ||
+                deviceTypes.expiryTime < System.currentTimeMillis()) {
+            return null;
+        }
+        return deviceTypes.names;
+    }
+
+    /**
+     * Returns the version of the registry, which has to be read before the device types are loaded and handed over
+     * to {@link #setAvailableDeviceTypes(int, List, long)}, so that device types loaded before an invalidation are
+     * never served afterwards.
+     */
+    public static long getVersion() {
+        return version;
+    }
+
+    public static void setAvailableDeviceTypes(int tenantId, List<String> deviceTypes, long loadedVersion) {
+        availableDeviceTypes.put(tenantId, new AvailableDeviceTypes(deviceTypes, loadedVersion,
+                System.currentTimeMillis() + EXPIRY_TIME_MILLIS));
+    }
+
+    public static synchronized void invalidate() {
+        version++;
+        availableDeviceTypes.clear();
+    }
+
+    private static class AvailableDeviceTypes {
+
+        private final List<String> names;
+        private final long version;
+        private final long expiryTime;
+
+        private AvailableDeviceTypes(List<String> names, long version, long expiryTime) {
+            this.names = Collections.unmodifiableList(new ArrayList<>(names));
+            this.version = version;
+            this.expiryTime = expiryTime;
+        }
+    }
+
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.cache.impl;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.device.mgt.common.cache.BoundedExpiringCache;
+import org.wso2.carbon.device.mgt.core.DeviceManagementConstants;
+import org.wso2.carbon.device.mgt.core.cache.GroupAuthorizationCacheManager;
+import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
+import org.wso2.carbon.device.mgt.core.config.DeviceManagementConfig;
+import org.wso2.carbon.device.mgt.core.config.cache.GroupAuthorizationCacheConfiguration;
+
+import javax.cache.Cache;
+import javax.cache.Caching;
+import javax.cache.event.CacheEntryCreatedListener;
+import javax.cache.event.CacheEntryEvent;
+import javax.cache.event.CacheEntryListenerException;
+import javax.cache.event.CacheEntryUpdatedListener;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementation of GroupAuthorizationCacheManager. Entries are kept in memory of the node and expire after the
+ * configured time. Invalidations are applied locally and are also written to a distributed invalidation cache, whose
+ * entry listener removes the invalidated entries on every node of the cluster.
+ */
+public class GroupAuthorizationCacheManagerImpl implements GroupAuthorizationCacheManager {
+
+    private static final Log log = LogFactory.getLog(GroupAuthorizationCacheManagerImpl.class);
+
+    private static final String USER_PRE = "U|";
+    private static final String GROUP_PRE = "G|";
+    private static final String PERMISSION_PRE = "P|";
+    private static final String SEPARATOR = "|";
+
+    private static volatile GroupAuthorizationCacheManagerImpl groupAuthorizationCacheManager;
+
+    private volatile BoundedExpiringCache<String, Object> cachedEntries;
+    private final Set<Integer> observedTenants = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    private GroupAuthorizationCacheManagerImpl() {
+    }
+
+    public static GroupAuthorizationCacheManager getInstance() {
+        if (groupAuthorizationCacheManager == null) {
+            synchronized (GroupAuthorizationCacheManagerImpl.class) {
+                if (groupAuthorizationCacheManager == null) {
+                    groupAuthorizationCacheManager = new GroupAuthorizationCacheManagerImpl();
+                }
+            }
+        }
+        return groupAuthorizationCacheManager;
+    }
+
+    @Override
+    public String[] getUserRoles(String username) {
+        String[] roles = (String[]) this.get(getTenantPrefix() + USER_PRE + username);
+        return roles != null ? roles.clone() : null;
+    }
+
+    @Override
+    public void addUserRoles(String username, String[] roles) {
+        this.put(getTenantPrefix() + USER_PRE + username, roles.clone());
+    }
+
+    @Override
+    public void addUserRoles(String username, String[] roles, long version) {
+        this.put(getTenantPrefix() + USER_PRE + username, roles.clone(), version);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<String> getGroupRoles(int groupId) {
+        List<String> roles = (List<String>) this.get(getTenantPrefix() + GROUP_PRE + groupId);
+        // Callers are free to modify the returned list, hence a copy is handed out.
+        return roles != null ? new ArrayList<>(roles) : null;
+    }
+
+    @Override
+    public void addGroupRoles(int groupId, List<String> roles) {
+        this.put(getTenantPrefix() + GROUP_PRE + groupId, new ArrayList<>(roles));
+    }
+
+    @Override
+    public void addGroupRoles(int groupId, List<String> roles, long version) {
+        this.put(getTenantPrefix() + GROUP_PRE + groupId, new ArrayList<>(roles), version);
+    }
+
+    @Override
+    public Boolean isRoleAuthorized(String role, String permission) {
+        return (Boolean) this.get(getTenantPrefix() + PERMISSION_PRE + role + SEPARATOR + permission);
+    }
+
+    @Override
+    public void addRoleAuthorization(String role, String permission, boolean authorized) {
+        this.put(getTenantPrefix() + PERMISSION_PRE + role + SEPARATOR + permission, authorized);
+    }
+
+    @Override
+    public void addRoleAuthorization(String role, String permission, boolean authorized, long version) {
+        this.put(getTenantPrefix() + PERMISSION_PRE + role + SEPARATOR + permission, authorized, version);
+    }
+
+    @Override
+    public long getVersion() {
+        GroupAuthorizationCacheConfiguration cacheConfig = getCacheConfiguration();
+        return cacheConfig != null ? this.getCache(cacheConfig).getVersion() : 0;
+    }
+
+    @Override
+    public void invalidateGroup(int groupId) {
+        this.invalidate(getTenantPrefix() + GROUP_PRE + groupId);
+    }
+
+    @Override
+    public void invalidateUser(String username) {
+        this.invalidate(getTenantPrefix() + USER_PRE + username);
+    }
+
+    @Override
+    public void invalidateTenant() {
+        this.invalidate(getTenantPrefix());
+    }
+
+    @Override
+    public long getCacheHitCount() {
+        return hitCount.get();
+    }
+
+    @Override
+    public long getCacheMissCount() {
+        return missCount.get();
+    }
+
+    private Object get(String key) {
+        GroupAuthorizationCacheConfiguration cacheConfig = getCacheConfiguration();
+        if (cacheConfig == null) {
+            return null;
+        }
+        Object value = this.getCache(cacheConfig).get(key);
+        if (value == null) {
+            missCount.incrementAndGet();
+        } else {
+            hitCount.incrementAndGet();
+        }
+        return value;
+    }
+
+    private void put(String key, Object value) {
+        GroupAuthorizationCacheConfiguration cacheConfig = getCacheConfiguration();
+        if (cacheConfig != null) {
+            this.getCache(cacheConfig).put(key, value);
+        }
+    }
+
+    private void put(String key, Object value, long version) {
+        GroupAuthorizationCacheConfiguration cacheConfig = getCacheConfiguration();
+        if (cacheConfig != null) {
+            this.getCache(cacheConfig).putIfNotInvalidated(key, value, version);
+        }
+    }
+
+    private void invalidate(String key) {
+        this.invalidateLocally(key);
+        if (getCacheConfiguration() == null) {
+            return;
+        }
+        try {
+            Cache<String, Long> invalidationCache = this.getInvalidationCache();
+            // A new value on every invalidation, so that the other nodes are notified even if the key was invalidated
+            // before.
+            invalidationCache.put(key, System.nanoTime());
+        } catch (RuntimeException e) {
+            log.warn("Unable to publish the invalidation of '" + key + "' to the cluster. The entries of the other " +
+                    "nodes expire within " + getCacheConfiguration().getExpiryTime() + " seconds.", e);
+        }
+    }
+
+    /**
+     * Removes the entry with the given key, or all the entries of a tenant if the key is a tenant prefix.
+     */
+    private void invalidateLocally(String key) {
+        BoundedExpiringCache<String, Object> lCachedEntries = cachedEntries;
+        if (lCachedEntries == null) {
+            return;
+        }
+        if (!key.endsWith(SEPARATOR)) {
+            lCachedEntries.remove(key);
+            return;
+        }
+        for (String cachedKey : lCachedEntries.keys()) {
+            if (cachedKey.startsWith(key)) {
+                lCachedEntries.remove(cachedKey);
+            }
+        }
+    }
+
+    /**
+     * @return the distributed invalidation cache of the current tenant, for which the entry listener of this node
+     * is registered on first use.
+     */
+    private Cache<String, Long> getInvalidationCache() {
+        Cache<String, Long> invalidationCache = Caching.getCacheManagerFactory()
+                .getCacheManager(DeviceManagementConstants.DM_CACHE_MANAGER)
+                .getCache(DeviceManagementConstants.GROUP_AUTHORIZATION_INVALIDATION_CACHE);
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        if (!observedTenants.contains(tenantId)) {
+            synchronized (observedTenants) {
+                if (observedTenants.add(tenantId)) {
+                    invalidationCache.registerCacheEntryListener(new InvalidationListener());
+                }
+            }
+        }
+        return invalidationCache;
+    }
+
+    private BoundedExpiringCache<String, Object> getCache(GroupAuthorizationCacheConfiguration cacheConfig) {
+        if (cachedEntries == null) {
+            synchronized (this) {
+                if (cachedEntries == null) {
+                    int capacity = cacheConfig.getCapacity() > 0 ? cacheConfig.getCapacity() :
+                            GroupAuthorizationCacheConfiguration.DEFAULT_CAPACITY;
+                    int expiryTime = cacheConfig.getExpiryTime() > 0 ? cacheConfig.getExpiryTime() :
+                            GroupAuthorizationCacheConfiguration.DEFAULT_EXPIRY_TIME;
+                    cachedEntries = new BoundedExpiringCache<>(capacity, TimeUnit.SECONDS.toMillis(expiryTime));
+                }
+            }
+        }
+        // The invalidations of the other nodes are observed from the first use of the tenant, as entries cached
+        // before the first invalidation of this node would otherwise miss them.
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        if (!observedTenants.contains(tenantId)) {
+            try {
+                this.getInvalidationCache();
+            } catch (RuntimeException e) {
+                // Not retried, the entries of the tenant expire within the expiry time instead.
+                observedTenants.add(tenantId);
+                log.warn("Unable to observe the group authorization invalidations of the cluster for tenant " +
+                        tenantId + ". The entries invalidated by the other nodes expire within " +
+                        cacheConfig.getExpiryTime() + " seconds.", e);
+            }
+        }
+        return cachedEntries;
+    }
+
+    /**
+     * @return configuration of the group authorization cache, or null if the cache is disabled.
+     */
+    private static GroupAuthorizationCacheConfiguration getCacheConfiguration() {
+        DeviceManagementConfig config = DeviceConfigurationManager.getInstance().getDeviceManagementConfig();
+        if (config == null || config.getGroupAuthorizationCacheConfiguration() == null ||
+                !config.getGroupAuthorizationCacheConfiguration().isEnabled()) {
+            return null;
+        }
+        return config.getGroupAuthorizationCacheConfiguration();
+    }
+
+    private static String getTenantPrefix() {
+        return PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId() + SEPARATOR;
+    }
+
+    /**
+     * Applies the invalidations written to the distributed invalidation cache by any node of the cluster.
+     */
+    private class InvalidationListener implements CacheEntryCreatedListener<String, Long>,
+            CacheEntryUpdatedListener<String, Long> {
+
+        @Override
+        public void entryCreated(CacheEntryEvent<? extends String, ? extends Long> event)
+                throws CacheEntryListenerException {
+            invalidateLocally(event.getKey());
+        }
+
+        @Override
+        public void entryUpdated(CacheEntryEvent<? extends String, ? extends Long> event)
+                throws CacheEntryListenerException {
+            invalidateLocally(event.getKey());
+        }
+    }
+}
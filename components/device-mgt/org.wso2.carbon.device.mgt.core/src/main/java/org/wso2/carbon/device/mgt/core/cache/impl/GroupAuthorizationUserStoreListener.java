@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.cache.impl;
+
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.device.mgt.core.cache.GroupAuthorizationCacheManager;
+import org.wso2.carbon.user.core.UserStoreException;
+import org.wso2.carbon.user.core.UserStoreManager;
+import org.wso2.carbon.user.core.common.AbstractUserOperationEventListener;
+import org.wso2.carbon.user.core.util.UserCoreUtil;
+
+/**
+ * Invalidates the group authorization cache when the roles of users are changed through the user store, so that the
+ * groups a user is permitted to access follow the role changes without waiting for the entries to expire. Changes to
+ * the permissions of a role are not notified through the user store, hence cached permission decisions are only
+ * refreshed when they expire.
+ */
+public class GroupAuthorizationUserStoreListener extends AbstractUserOperationEventListener {
+
+    private static final int EXECUTION_ORDER_ID = 9001;
+
+    @Override
+    public int getExecutionOrderId() {
+        return EXECUTION_ORDER_ID;
+    }
+
+    @Override
+    public boolean doPostUpdateRoleListOfUser(String userName, String[] deletedRoles, String[] newRoles,
+                                              UserStoreManager userStoreManager) throws UserStoreException {
+        this.invalidateUsers(userStoreManager, userName);
+        return true;
+    }
+
+    @Override
+    public boolean doPostUpdateUserListOfRole(String roleName, String[] deletedUsers, String[] newUsers,
+                                              UserStoreManager userStoreManager) throws UserStoreException {
+        if (deletedUsers != null) {
+            this.invalidateUsers(userStoreManager, deletedUsers);
+        }
+        if (newUsers != null) {
+            this.invalidateUsers(userStoreManager, newUsers);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean doPostDeleteUser(String userName, UserStoreManager userStoreManager) throws UserStoreException {
+        this.invalidateUsers(userStoreManager, userName);
+        return true;
+    }
+
+    @Override
+    public boolean doPostDeleteRole(String roleName, UserStoreManager userStoreManager) throws UserStoreException {
+        // The role is cached in the roles of its users, of the groups shared with it and in its permission decisions.
+        this.invalidateTenant(userStoreManager);
+        return true;
+    }
+
+    @Override
+    public boolean doPostUpdateRoleName(String roleName, String newRoleName, UserStoreManager userStoreManager)
+            throws UserStoreException {
+        this.invalidateTenant(userStoreManager);
+        return true;
+    }
+
+    private void invalidateUsers(UserStoreManager userStoreManager, String... userNames) throws UserStoreException {
+        // Users of secondary user stores are notified without their domain, while they are cached with it.
+        String domainName = UserCoreUtil.getDomainName(userStoreManager.getRealmConfiguration());
+        GroupAuthorizationCacheManager cacheManager = GroupAuthorizationCacheManagerImpl.getInstance();
+        try {
+            PrivilegedCarbonContext.startTenantFlow();
+            PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(userStoreManager.getTenantId(), true);
+            for (String userName : userNames) {
+                cacheManager.invalidateUser(userName);
+                if (domainName != null) {
+                    String qualifiedName = UserCoreUtil.addDomainToName(userName, domainName);
+                    if (!qualifiedName.equals(userName)) {
+                        cacheManager.invalidateUser(qualifiedName);
+                    }
+                }
+            }
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+    }
+
+    private void invalidateTenant(UserStoreManager userStoreManager) throws UserStoreException {
+        try {
+            PrivilegedCarbonContext.startTenantFlow();
+            PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(userStoreManager.getTenantId(), true);
+            GroupAuthorizationCacheManagerImpl.getInstance().invalidateTenant();
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+    }
+
+}
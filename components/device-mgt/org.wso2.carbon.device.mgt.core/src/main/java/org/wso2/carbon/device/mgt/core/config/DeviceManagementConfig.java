@@ -17,10 +17,13 @@
  */
 package org.wso2.carbon.device.mgt.core.config;
 
+import org.wso2.carbon.device.mgt.core.config.cache.ApplicationInventoryCacheConfiguration;
 import org.wso2.carbon.device.mgt.core.config.cache.CertificateCacheConfiguration;
 import org.wso2.carbon.device.mgt.core.config.geo.location.GeoLocationConfiguration;
 import org.wso2.carbon.device.mgt.core.config.cache.DeviceCacheConfiguration;
+import org.wso2.carbon.device.mgt.core.config.cache.GroupAuthorizationCacheConfiguration;
 import org.wso2.carbon.device.mgt.core.config.identity.IdentityConfigurations;
+import org.wso2.carbon.device.mgt.core.config.operation.OperationConfiguration;
 import org.wso2.carbon.device.mgt.core.config.pagination.PaginationConfiguration;
 import org.wso2.carbon.device.mgt.core.config.policy.PolicyConfiguration;
 import org.wso2.carbon.device.mgt.core.config.pull.notification.PullNotificationConfiguration;
@@ -45,9 +48,12 @@ public final class DeviceManagementConfig {
     private PaginationConfiguration paginationConfiguration;
     private PushNotificationConfiguration pushNotificationConfiguration;
     private PullNotificationConfiguration pullNotificationConfiguration;
+    private OperationConfiguration operationConfiguration;
     private DeviceStatusTaskConfig deviceStatusTaskConfig;
     private DeviceCacheConfiguration deviceCacheConfiguration;
     private CertificateCacheConfiguration certificateCacheConfiguration;
+    private GroupAuthorizationCacheConfiguration groupAuthorizationCacheConfiguration;
+    private ApplicationInventoryCacheConfiguration applicationInventoryCacheConfiguration;
     private GeoLocationConfiguration geoLocationConfiguration;
     private String defaultGroupsConfiguration;
 
@@ -115,6 +121,15 @@ public final class DeviceManagementConfig {
         this.pullNotificationConfiguration = pullNotificationConfiguration;
     }
 
+    @XmlElement(name = "OperationConfiguration")
+    public OperationConfiguration getOperationConfiguration() {
+        return operationConfiguration;
+    }
+
+    public void setOperationConfiguration(OperationConfiguration operationConfiguration) {
+        this.operationConfiguration = operationConfiguration;
+    }
+
     @XmlElement(name = "DeviceStatusTaskConfig", required = true)
     public DeviceStatusTaskConfig getDeviceStatusTaskConfig() {
         return deviceStatusTaskConfig;
@@ -142,6 +157,26 @@ public final class DeviceManagementConfig {
         this.certificateCacheConfiguration = certificateCacheConfiguration;
     }
 
+    @XmlElement(name = "GroupAuthorizationCacheConfiguration")
+    public GroupAuthorizationCacheConfiguration getGroupAuthorizationCacheConfiguration() {
+        return groupAuthorizationCacheConfiguration;
+    }
+
+    public void setGroupAuthorizationCacheConfiguration(
+            GroupAuthorizationCacheConfiguration groupAuthorizationCacheConfiguration) {
+        this.groupAuthorizationCacheConfiguration = groupAuthorizationCacheConfiguration;
+    }
+
+    @XmlElement(name = "ApplicationInventoryCacheConfiguration")
+    public ApplicationInventoryCacheConfiguration getApplicationInventoryCacheConfiguration() {
+        return applicationInventoryCacheConfiguration;
+    }
+
+    public void setApplicationInventoryCacheConfiguration(
+            ApplicationInventoryCacheConfiguration applicationInventoryCacheConfiguration) {
+        this.applicationInventoryCacheConfiguration = applicationInventoryCacheConfiguration;
+    }
+
     @XmlElement(name = "GeoLocationConfiguration", required = true)
     public GeoLocationConfiguration getGeoLocationConfiguration() {
         return geoLocationConfiguration;
@@ -24,8 +24,13 @@ import javax.xml.bind.annotation.XmlRootElement;
 @XmlRootElement(name = "CertificateCacheConfiguration")
 public class CertificateCacheConfiguration {
 
+    public static final int DEFAULT_CAPACITY = 10000;
+    public static final int DEFAULT_NEGATIVE_EXPIRY_TIME = 30;
+
     private boolean isEnabled;
     private int expiryTime;
+    private int capacity = DEFAULT_CAPACITY;
+    private int negativeExpiryTime = DEFAULT_NEGATIVE_EXPIRY_TIME;
 
     @XmlElement(name = "Enable", required = true)
     public boolean isEnabled() {
@@ -44,4 +49,29 @@ public class CertificateCacheConfiguration {
     public void setExpiryTime(int expiryTime) {
         this.expiryTime = expiryTime;
     }
+
+    /**
+     * Maximum number of certificates, including the ones known not to exist, kept in the cache of a node.
+     */
+    @XmlElement(name = "Capacity")
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Time in seconds a serial number which is not found in the certificate repository is remembered, so that
+     * repeated lookups of unknown or removed certificates are not sent to the database.
+     */
+    @XmlElement(name = "NegativeExpiryTime")
+    public int getNegativeExpiryTime() {
+        return negativeExpiryTime;
+    }
+
+    public void setNegativeExpiryTime(int negativeExpiryTime) {
+        this.negativeExpiryTime = negativeExpiryTime;
+    }
 }
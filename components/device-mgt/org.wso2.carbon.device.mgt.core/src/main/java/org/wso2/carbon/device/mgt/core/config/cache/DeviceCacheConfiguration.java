@@ -24,9 +24,15 @@ import javax.xml.bind.annotation.XmlRootElement;
 @XmlRootElement(name = "DeviceCacheConfiguration")
 public class DeviceCacheConfiguration {
 
+    public static final int DEFAULT_NEAR_CACHE_CAPACITY = 10000;
+    public static final int DEFAULT_NEAR_CACHE_EXPIRY_TIME = 30;
+
     private boolean isEnabled;
     private int expiryTime;
     private long capacity;
+    private boolean nearCacheEnabled = true;
+    private int nearCacheCapacity = DEFAULT_NEAR_CACHE_CAPACITY;
+    private int nearCacheExpiryTime = DEFAULT_NEAR_CACHE_EXPIRY_TIME;
 
     @XmlElement(name = "Enable", required = true)
     public boolean isEnabled() {
@@ -54,4 +60,41 @@ public class DeviceCacheConfiguration {
     public void setCapacity(long capacity) {
         this.capacity = capacity;
     }
+
+    /**
+     * Whether devices are kept in a local near-cache in front of the distributed device cache.
+     */
+    @XmlElement(name = "NearCacheEnabled")
+    public boolean isNearCacheEnabled() {
+        return nearCacheEnabled;
+    }
+
+    public void setNearCacheEnabled(boolean nearCacheEnabled) {
+        this.nearCacheEnabled = nearCacheEnabled;
+    }
+
+    /**
+     * Maximum number of devices kept in the near-cache of a node.
+     */
+    @XmlElement(name = "NearCacheCapacity")
+    public int getNearCacheCapacity() {
+        return nearCacheCapacity;
+    }
+
+    public void setNearCacheCapacity(int nearCacheCapacity) {
+        this.nearCacheCapacity = nearCacheCapacity;
+    }
+
+    /**
+     * Time in seconds a device is served from the near-cache. Bounds the staleness of a device on a node which missed
+     * the invalidation from the other nodes of the cluster.
+     */
+    @XmlElement(name = "NearCacheExpiryTime")
+    public int getNearCacheExpiryTime() {
+        return nearCacheExpiryTime;
+    }
+
+    public void setNearCacheExpiryTime(int nearCacheExpiryTime) {
+        this.nearCacheExpiryTime = nearCacheExpiryTime;
+    }
 }
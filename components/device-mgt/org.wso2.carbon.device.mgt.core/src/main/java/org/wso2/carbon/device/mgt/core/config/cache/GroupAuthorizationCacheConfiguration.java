@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.config.cache;
+
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+@XmlRootElement(name = "GroupAuthorizationCacheConfiguration")
+public class GroupAuthorizationCacheConfiguration {
+
+    public static final int DEFAULT_EXPIRY_TIME = 300;
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    private boolean isEnabled;
+    private int expiryTime = DEFAULT_EXPIRY_TIME;
+    private int capacity = DEFAULT_CAPACITY;
+
+    @XmlElement(name = "Enable", required = true)
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        isEnabled = enabled;
+    }
+
+    /**
+     * Time in seconds the roles of a user, the roles of a group and the permissions of a role are served from the
+     * cache. Bounds the staleness of role and permission changes made directly in the user store.
+     */
+    @XmlElement(name = "ExpiryTime")
+    public int getExpiryTime() {
+        return expiryTime;
+    }
+
+    public void setExpiryTime(int expiryTime) {
+        this.expiryTime = expiryTime;
+    }
+
+    /**
+     * Maximum number of entries kept in the cache of a node, across all tenants.
+     */
+    @XmlElement(name = "Capacity")
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+}
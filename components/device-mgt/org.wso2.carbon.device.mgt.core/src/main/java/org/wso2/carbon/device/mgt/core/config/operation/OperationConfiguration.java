@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.config.operation;
+
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * This class is for operation management related configurations.
+ */
+@XmlRootElement(name = "OperationConfiguration")
+public class OperationConfiguration {
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final int DEFAULT_PAYLOAD_MIGRATION_BATCH_SIZE = 200;
+
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private boolean payloadCodecEnabled = true;
+    private boolean payloadMigrationEnabled;
+    private int payloadMigrationBatchSize = DEFAULT_PAYLOAD_MIGRATION_BATCH_SIZE;
+
+    /**
+     * Number of enrolments resolved, marked and mapped per database round trip when an operation is added to a
+     * large set of devices. Kept below the bind variable limits of the supported database engines.
+     */
+    @XmlElement(name = "BatchSize")
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Whether operation payloads, responses and application properties are written in the versioned payload codec
+     * format. Disabled only while older nodes, which read the Java serialization format alone, share the database.
+     */
+    @XmlElement(name = "PayloadCodecEnabled")
+    public boolean isPayloadCodecEnabled() {
+        return payloadCodecEnabled;
+    }
+
+    public void setPayloadCodecEnabled(boolean payloadCodecEnabled) {
+        this.payloadCodecEnabled = payloadCodecEnabled;
+    }
+
+    /**
+     * Whether the payloads stored in the Java serialization format are re-encoded in the background at start up.
+     */
+    @XmlElement(name = "PayloadMigrationEnabled")
+    public boolean isPayloadMigrationEnabled() {
+        return payloadMigrationEnabled;
+    }
+
+    public void setPayloadMigrationEnabled(boolean payloadMigrationEnabled) {
+        this.payloadMigrationEnabled = payloadMigrationEnabled;
+    }
+
+    /**
+     * Number of rows re-encoded per transaction by the payload migration.
+     */
+    @XmlElement(name = "PayloadMigrationBatchSize")
+    public int getPayloadMigrationBatchSize() {
+        return payloadMigrationBatchSize;
+    }
+
+    public void setPayloadMigrationBatchSize(int payloadMigrationBatchSize) {
+        this.payloadMigrationBatchSize = payloadMigrationBatchSize;
+    }
+}
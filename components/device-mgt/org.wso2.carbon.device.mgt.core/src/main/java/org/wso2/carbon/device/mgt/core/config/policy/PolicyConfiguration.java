@@ -29,6 +29,10 @@ public class PolicyConfiguration {
     private String monitoringClass;
     private boolean monitoringEnable;
     private int monitoringFrequency;
+    private int monitoringBatchSize;
+    private int monitoringSlotCount;
+    private int monitoringTenantParallelism;
+    private long monitoringTenantTimeout;
     private int maxRetries;
     private int minRetriesToMarkUnreachable;
     private int minRetriesToMarkInactive;
@@ -89,6 +93,42 @@ public class PolicyConfiguration {
         this.monitoringFrequency = monitoringFrequency;
     }
 
+    @XmlElement(name = "MonitoringBatchSize")
+    public int getMonitoringBatchSize() {
+        return monitoringBatchSize;
+    }
+
+    public void setMonitoringBatchSize(int monitoringBatchSize) {
+        this.monitoringBatchSize = monitoringBatchSize;
+    }
+
+    @XmlElement(name = "MonitoringSlotCount")
+    public int getMonitoringSlotCount() {
+        return monitoringSlotCount;
+    }
+
+    public void setMonitoringSlotCount(int monitoringSlotCount) {
+        this.monitoringSlotCount = monitoringSlotCount;
+    }
+
+    @XmlElement(name = "MonitoringTenantParallelism")
+    public int getMonitoringTenantParallelism() {
+        return monitoringTenantParallelism;
+    }
+
+    public void setMonitoringTenantParallelism(int monitoringTenantParallelism) {
+        this.monitoringTenantParallelism = monitoringTenantParallelism;
+    }
+
+    @XmlElement(name = "MonitoringTenantTimeout")
+    public long getMonitoringTenantTimeout() {
+        return monitoringTenantTimeout;
+    }
+
+    public void setMonitoringTenantTimeout(long monitoringTenantTimeout) {
+        this.monitoringTenantTimeout = monitoringTenantTimeout;
+    }
+
     @XmlElementWrapper(name = "Platforms", required = true)
     @XmlElement(name = "Platform", required = true)
     public List<String> getPlatforms() {
@@ -32,6 +32,11 @@ public class PushNotificationConfiguration {
     private int schedulerBatchDelayMills;
     private int schedulerTaskInitialDelay;
     private boolean schedulerTaskEnabled;
+    private int schedulerTaskParallelism;
+    private int schedulerGracePeriodMills;
+    private int dispatcherWorkerCount;
+    private int dispatcherQueueSize;
+    private int dispatcherBatchSize;
     private List<String> pushNotificationProviders;
 
     @XmlElement(name = "SchedulerBatchSize", required = true)
@@ -70,6 +75,51 @@ public class PushNotificationConfiguration {
         this.schedulerTaskEnabled = schedulerTaskEnabled;
     }
 
+    @XmlElement(name = "SchedulerTaskParallelism")
+    public int getSchedulerTaskParallelism() {
+        return schedulerTaskParallelism;
+    }
+
+    public void setSchedulerTaskParallelism(int schedulerTaskParallelism) {
+        this.schedulerTaskParallelism = schedulerTaskParallelism;
+    }
+
+    @XmlElement(name = "SchedulerGracePeriodMills")
+    public int getSchedulerGracePeriodMills() {
+        return schedulerGracePeriodMills;
+    }
+
+    public void setSchedulerGracePeriodMills(int schedulerGracePeriodMills) {
+        this.schedulerGracePeriodMills = schedulerGracePeriodMills;
+    }
+
+    @XmlElement(name = "DispatcherWorkerCount")
+    public int getDispatcherWorkerCount() {
+        return dispatcherWorkerCount;
+    }
+
+    public void setDispatcherWorkerCount(int dispatcherWorkerCount) {
+        this.dispatcherWorkerCount = dispatcherWorkerCount;
+    }
+
+    @XmlElement(name = "DispatcherQueueSize")
+    public int getDispatcherQueueSize() {
+        return dispatcherQueueSize;
+    }
+
+    public void setDispatcherQueueSize(int dispatcherQueueSize) {
+        this.dispatcherQueueSize = dispatcherQueueSize;
+    }
+
+    @XmlElement(name = "DispatcherBatchSize")
+    public int getDispatcherBatchSize() {
+        return dispatcherBatchSize;
+    }
+
+    public void setDispatcherBatchSize(int dispatcherBatchSize) {
+        this.dispatcherBatchSize = dispatcherBatchSize;
+    }
+
     @XmlElementWrapper(name = "PushNotificationProviders", required = true)
     @XmlElement(name = "Provider", required = true)
     public List<String> getPushNotificationProviders() {
@@ -24,7 +24,10 @@ import javax.xml.bind.annotation.XmlRootElement;
 @XmlRootElement(name = "DeviceStatusTaskConfig")
 public class DeviceStatusTaskConfig {
 
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
     private boolean enabled;
+    private int batchSize = DEFAULT_BATCH_SIZE;
 
     @XmlElement(name = "Enable", required = true)
     public boolean isEnabled() {
@@ -35,4 +38,16 @@ public class DeviceStatusTaskConfig {
         this.enabled = enabled;
     }
 
+    /**
+     * Number of enrolments the status monitoring task evaluates and updates per database round trip.
+     */
+    @XmlElement(name = "BatchSize")
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
 }
\ No newline at end of file
@@ -21,6 +21,7 @@ package org.wso2.carbon.device.mgt.core.dao;
 import org.wso2.carbon.device.mgt.common.app.mgt.Application;
 
 import java.util.List;
+import java.util.Map;
 
 public interface ApplicationDAO {
 
@@ -34,5 +35,22 @@ public interface ApplicationDAO {
 
     Application getApplication(String identifier, String version,int tenantId) throws DeviceManagementDAOException;
 
+    /**
+     * @param identifiers identifiers of the applications.
+     * @param tenantId    tenant id.
+     * @return all the versions of the applications with the given identifiers. Only the id, identifier and version of
+     * the applications are loaded.
+     */
+    List<Application> getApplicationVersions(List<String> identifiers, int tenantId)
+            throws DeviceManagementDAOException;
+
     List<Application> getInstalledApplications(int deviceId) throws DeviceManagementDAOException;
+
+    /**
+     * @param deviceIds ids of the devices.
+     * @return the applications installed in each of the given devices, mapped by the device id. Devices without any
+     * installed application are left out.
+     */
+    Map<Integer, List<Application>> getInstalledApplications(List<Integer> deviceIds)
+            throws DeviceManagementDAOException;
 }
@@ -23,11 +23,13 @@ import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
 import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
 import org.wso2.carbon.device.mgt.common.EnrolmentInfo.Status;
 import org.wso2.carbon.device.mgt.common.PaginationRequest;
+import org.wso2.carbon.device.mgt.core.dto.DeviceAccessInfo;
 import org.wso2.carbon.device.mgt.core.dto.DeviceType;
 
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This class represents the key operations associated with persisting device related information.
@@ -193,7 +195,9 @@ public interface DeviceDAO {
     List<Device> getDevices(int tenantId) throws DeviceManagementDAOException;
 
     /**
-     * This method is used to retrieve the devices of a given tenant as a paginated result.
+     * This method is used to retrieve the devices of a given tenant as a paginated result. The devices are ordered by
+     * the enrolment id, and when the request carries the enrolment id after which to start, the page is fetched with
+     * keyset pagination instead of the start index.
      *
      * @param request  PaginationRequest object holding the data for pagination
      * @param tenantId tenant id.
@@ -361,6 +365,61 @@ public interface DeviceDAO {
      */
     EnrolmentInfo getActiveEnrolment(DeviceIdentifier deviceId, int tenantId) throws DeviceManagementDAOException;
 
+    /**
+     * This method is used to resolve the latest enrolment of a set of devices of the same type with a single query.
+     *
+     * @param type        device type name.
+     * @param identifiers device identifiers of the devices.
+     * @param tenantId    tenant id.
+     * @return returns a map of device identifier against the id of its latest enrolment. Devices that have no
+     * enrolment are not included.
+     * @throws DeviceManagementDAOException
+     */
+    Map<String, Integer> getEnrolmentIds(String type, List<String> identifiers, int tenantId)
+            throws DeviceManagementDAOException;
+
+    /**
+     * This method is used to retrieve a set of devices of the same type with a single query per batch of
+     * identifiers. Each device carries the enrolment which getDevice(DeviceIdentifier, int) resolves for it.
+     *
+     * @param type        device type name.
+     * @param identifiers device identifiers of the devices.
+     * @param tenantId    tenant id.
+     * @return returns a map of device identifier against the device. Devices that have no enrolment are not
+     * included.
+     * @throws DeviceManagementDAOException
+     */
+    Map<String, Device> getDevices(String type, List<String> identifiers, int tenantId)
+            throws DeviceManagementDAOException;
+
+    /**
+     * This method is used to retrieve the owner of the latest enrolment and the groups of a set of devices of the
+     * same type, which are the details needed to authorize the access to the devices.
+     *
+     * @param type        device type name.
+     * @param identifiers device identifiers of the devices.
+     * @param tenantId    tenant id.
+     * @return returns a map of device identifier against the access details of the device. Devices that have no
+     * enrolment are not included.
+     * @throws DeviceManagementDAOException
+     */
+    Map<String, DeviceAccessInfo> getDeviceAccessInfo(String type, List<String> identifiers, int tenantId)
+            throws DeviceManagementDAOException;
+
+    /**
+     * This method is used to resolve the ids of a set of devices of the same type with a single query per batch of
+     * identifiers.
+     *
+     * @param type        device type name.
+     * @param identifiers device identifiers of the devices.
+     * @param tenantId    tenant id.
+     * @return returns a map of device identifier against the id of the device. Devices that have no enrolment are
+     * not included.
+     * @throws DeviceManagementDAOException
+     */
+    Map<String, Integer> getDeviceIds(String type, List<String> identifiers, int tenantId)
+            throws DeviceManagementDAOException;
+
     /**
      * This method is used to retrieve devices of a given enrollment status.
      *
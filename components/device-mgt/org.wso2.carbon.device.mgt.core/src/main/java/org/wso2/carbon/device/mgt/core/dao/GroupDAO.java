@@ -23,6 +23,7 @@ import org.wso2.carbon.device.mgt.common.GroupPaginationRequest;
 import org.wso2.carbon.device.mgt.common.group.mgt.DeviceGroup;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * This interface represents the key operations associated with persisting group related information.
@@ -167,6 +168,38 @@ public interface GroupDAO {
     boolean isDeviceMappedToGroup(int groupId, int deviceId, int tenantId)
             throws GroupManagementDAOException;
 
+    /**
+     * Get the devices, out of the given ones, which belong to a Device Group.
+     *
+     * @param groupId of Device Group.
+     * @param deviceIds ids of the devices to be checked.
+     * @param tenantId of user's tenant.
+     * @return ids of the given devices which are mapped to the group.
+     * @throws GroupManagementDAOException
+     */
+    Set<Integer> getMappedDeviceIds(int groupId, List<Integer> deviceIds, int tenantId)
+            throws GroupManagementDAOException;
+
+    /**
+     * Add a set of devices to a given Device Group.
+     *
+     * @param groupId of Device Group.
+     * @param deviceIds ids of the devices, which are not yet mapped to the group.
+     * @param tenantId of user's tenant.
+     * @throws GroupManagementDAOException
+     */
+    void addDevices(int groupId, List<Integer> deviceIds, int tenantId) throws GroupManagementDAOException;
+
+    /**
+     * Remove a set of devices from a Device Group.
+     *
+     * @param groupId of Device Group.
+     * @param deviceIds ids of the devices.
+     * @param tenantId of user's tenant.
+     * @throws GroupManagementDAOException
+     */
+    void removeDevices(int groupId, List<Integer> deviceIds, int tenantId) throws GroupManagementDAOException;
+
     /**
      * Get count of devices in a Device Group.
      *
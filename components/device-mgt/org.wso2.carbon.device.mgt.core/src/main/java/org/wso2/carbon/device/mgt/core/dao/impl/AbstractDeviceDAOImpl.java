@@ -27,6 +27,7 @@ import org.wso2.carbon.device.mgt.core.dao.DeviceDAO;
 import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOException;
 import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOFactory;
 import org.wso2.carbon.device.mgt.core.dao.util.DeviceManagementDAOUtil;
+import org.wso2.carbon.device.mgt.core.dto.DeviceAccessInfo;
 import org.wso2.carbon.device.mgt.core.dto.DeviceType;
 
 import java.sql.Connection;
@@ -39,6 +40,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 public abstract class AbstractDeviceDAOImpl implements DeviceDAO {
 
@@ -941,6 +943,202 @@ public abstract class AbstractDeviceDAOImpl implements DeviceDAO {
         }
     }
 
+    @Override
+    public Map<String, Integer> getEnrolmentIds(String type, List<String> identifiers, int tenantId)
+            throws DeviceManagementDAOException {
+        Map<String, Integer> enrolmentIds = new HashMap<>();
+        if (identifiers.isEmpty()) {
+            return enrolmentIds;
+        }
+        Connection conn;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            conn = this.getConnection();
+            for (int from = 0; from < identifiers.size(); from += DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE) {
+                List<String> batch = identifiers.subList(from, Math.min(identifiers.size(),
+                        from + DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE));
+                // Rows of a device are ordered the same way as getDevice(DeviceIdentifier, int) orders enrolments,
+                // hence the first row of a device is the enrolment that method resolves. A re-enrolment may reuse
+                // an older enrolment row, so the latest enrolment is not necessarily the one with the highest id.
+                stmt = conn.prepareStatement("SELECT d.DEVICE_IDENTIFICATION, e.ID AS ENROLMENT_ID " +
+                        "FROM DM_DEVICE d, DM_DEVICE_TYPE t, DM_ENROLMENT e WHERE d.DEVICE_TYPE_ID = t.ID " +
+                        "AND e.DEVICE_ID = d.ID AND t.NAME = ? AND d.TENANT_ID = ? AND e.TENANT_ID = ? " +
+                        "AND d.DEVICE_IDENTIFICATION IN (" + DeviceManagementDAOUtil.getInClause(batch.size()) +
+                        ") ORDER BY d.DEVICE_IDENTIFICATION, e.DATE_OF_LAST_UPDATE DESC, e.STATUS ASC");
+                int index = 1;
+                stmt.setString(index++, type);
+                stmt.setInt(index++, tenantId);
+                stmt.setInt(index++, tenantId);
+                for (String identifier : batch) {
+                    stmt.setString(index++, identifier);
+                }
+                rs = stmt.executeQuery();
+                while (rs.next()) {
+                    String identifier = rs.getString("DEVICE_IDENTIFICATION");
+                    if (!enrolmentIds.containsKey(identifier)) {
+                        enrolmentIds.put(identifier, rs.getInt("ENROLMENT_ID"));
+                    }
+                }
+                DeviceManagementDAOUtil.cleanupResources(stmt, rs);
+                stmt = null;
+                rs = null;
+            }
+        } catch (SQLException e) {
+            throw new DeviceManagementDAOException("Error occurred while resolving the enrolments of '" + type +
+                    "' devices", e);
+        } finally {
+            DeviceManagementDAOUtil.cleanupResources(stmt, rs);
+        }
+        return enrolmentIds;
+    }
+
+    @Override
+    public Map<String, Device> getDevices(String type, List<String> identifiers, int tenantId)
+            throws DeviceManagementDAOException {
+        Map<String, Device> devices = new HashMap<>();
+        if (identifiers.isEmpty()) {
+            return devices;
+        }
+        Connection conn;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            conn = this.getConnection();
+            for (int from = 0; from < identifiers.size(); from += DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE) {
+                List<String> batch = identifiers.subList(from, Math.min(identifiers.size(),
+                        from + DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE));
+                // Ordered the same way as getEnrolmentIds, hence the first row of a device carries its enrolment.
+                stmt = conn.prepareStatement("SELECT d.ID AS DEVICE_ID, d.DESCRIPTION, d.NAME AS DEVICE_NAME, " +
+                        "t.NAME AS DEVICE_TYPE, d.DEVICE_IDENTIFICATION, e.OWNER, e.OWNERSHIP, e.STATUS, " +
+                        "e.DATE_OF_LAST_UPDATE, e.DATE_OF_ENROLMENT, e.ID AS ENROLMENT_ID " +
+                        "FROM DM_DEVICE d, DM_DEVICE_TYPE t, DM_ENROLMENT e WHERE d.DEVICE_TYPE_ID = t.ID " +
+                        "AND e.DEVICE_ID = d.ID AND t.NAME = ? AND d.TENANT_ID = ? AND e.TENANT_ID = ? " +
+                        "AND d.DEVICE_IDENTIFICATION IN (" + DeviceManagementDAOUtil.getInClause(batch.size()) +
+                        ") ORDER BY d.DEVICE_IDENTIFICATION, e.DATE_OF_LAST_UPDATE DESC, e.STATUS ASC");
+                int index = 1;
+                stmt.setString(index++, type);
+                stmt.setInt(index++, tenantId);
+                stmt.setInt(index++, tenantId);
+                for (String identifier : batch) {
+                    stmt.setString(index++, identifier);
+                }
+                rs = stmt.executeQuery();
+                while (rs.next()) {
+                    String identifier = rs.getString("DEVICE_IDENTIFICATION");
+                    if (!devices.containsKey(identifier)) {
+                        devices.put(identifier, DeviceManagementDAOUtil.loadDevice(rs));
+                    }
+                }
+                DeviceManagementDAOUtil.cleanupResources(stmt, rs);
+                stmt = null;
+                rs = null;
+            }
+        } catch (SQLException e) {
+            throw new DeviceManagementDAOException("Error occurred while retrieving the '" + type + "' devices", e);
+        } finally {
+            DeviceManagementDAOUtil.cleanupResources(stmt, rs);
+        }
+        return devices;
+    }
+
+    @Override
+    public Map<String, DeviceAccessInfo> getDeviceAccessInfo(String type, List<String> identifiers, int tenantId)
+            throws DeviceManagementDAOException {
+        Map<String, DeviceAccessInfo> accessInfo = new HashMap<>();
+        Connection conn;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            conn = this.getConnection();
+            for (int from = 0; from < identifiers.size(); from += DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE) {
+                List<String> batch = identifiers.subList(from, Math.min(identifiers.size(),
+                        from + DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE));
+                // Rows of a device are ordered the same way as getDevice(DeviceIdentifier, int) orders enrolments,
+                // hence the first row of a device carries the owner of the enrolment that method resolves.
+                stmt = conn.prepareStatement("SELECT d.DEVICE_IDENTIFICATION, e.OWNER, gm.GROUP_ID " +
+                        "FROM DM_DEVICE d INNER JOIN DM_DEVICE_TYPE t ON d.DEVICE_TYPE_ID = t.ID " +
+                        "INNER JOIN DM_ENROLMENT e ON e.DEVICE_ID = d.ID AND e.TENANT_ID = ? " +
+                        "LEFT OUTER JOIN DM_DEVICE_GROUP_MAP gm ON gm.DEVICE_ID = d.ID AND gm.TENANT_ID = ? " +
+                        "WHERE t.NAME = ? AND d.TENANT_ID = ? AND d.DEVICE_IDENTIFICATION IN (" +
+                        DeviceManagementDAOUtil.getInClause(batch.size()) + ") " +
+                        "ORDER BY d.DEVICE_IDENTIFICATION, e.DATE_OF_LAST_UPDATE DESC, e.STATUS ASC");
+                int index = 1;
+                stmt.setInt(index++, tenantId);
+                stmt.setInt(index++, tenantId);
+                stmt.setString(index++, type);
+                stmt.setInt(index++, tenantId);
+                for (String identifier : batch) {
+                    stmt.setString(index++, identifier);
+                }
+                rs = stmt.executeQuery();
+                while (rs.next()) {
+                    String identifier = rs.getString("DEVICE_IDENTIFICATION");
+                    DeviceAccessInfo deviceAccessInfo = accessInfo.get(identifier);
+                    if (deviceAccessInfo == null) {
+                        deviceAccessInfo = new DeviceAccessInfo();
+                        deviceAccessInfo.setOwner(rs.getString("OWNER"));
+                        accessInfo.put(identifier, deviceAccessInfo);
+                    }
+                    int groupId = rs.getInt("GROUP_ID");
+                    if (!rs.wasNull()) {
+                        deviceAccessInfo.addGroupId(groupId);
+                    }
+                }
+                DeviceManagementDAOUtil.cleanupResources(stmt, rs);
+                stmt = null;
+                rs = null;
+            }
+        } catch (SQLException e) {
+            throw new DeviceManagementDAOException("Error occurred while retrieving the access details of '" + type +
+                    "' devices", e);
+        } finally {
+            DeviceManagementDAOUtil.cleanupResources(stmt, rs);
+        }
+        return accessInfo;
+    }
+
+    @Override
+    public Map<String, Integer> getDeviceIds(String type, List<String> identifiers, int tenantId)
+            throws DeviceManagementDAOException {
+        Map<String, Integer> deviceIds = new HashMap<>();
+        Connection conn;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            conn = this.getConnection();
+            for (int from = 0; from < identifiers.size(); from += DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE) {
+                List<String> batch = identifiers.subList(from, Math.min(identifiers.size(),
+                        from + DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE));
+                stmt = conn.prepareStatement("SELECT d.ID, d.DEVICE_IDENTIFICATION FROM DM_DEVICE d " +
+                        "INNER JOIN DM_DEVICE_TYPE t ON d.DEVICE_TYPE_ID = t.ID WHERE t.NAME = ? AND " +
+                        "d.TENANT_ID = ? AND d.DEVICE_IDENTIFICATION IN (" +
+                        DeviceManagementDAOUtil.getInClause(batch.size()) + ") AND EXISTS (SELECT e.ID " +
+                        "FROM DM_ENROLMENT e WHERE e.DEVICE_ID = d.ID AND e.TENANT_ID = ?)");
+                int index = 1;
+                stmt.setString(index++, type);
+                stmt.setInt(index++, tenantId);
+                for (String identifier : batch) {
+                    stmt.setString(index++, identifier);
+                }
+                stmt.setInt(index, tenantId);
+                rs = stmt.executeQuery();
+                while (rs.next()) {
+                    deviceIds.put(rs.getString("DEVICE_IDENTIFICATION"), rs.getInt("ID"));
+                }
+                DeviceManagementDAOUtil.cleanupResources(stmt, rs);
+                stmt = null;
+                rs = null;
+            }
+        } catch (SQLException e) {
+            throw new DeviceManagementDAOException("Error occurred while resolving the ids of '" + type +
+                    "' devices", e);
+        } finally {
+            DeviceManagementDAOUtil.cleanupResources(stmt, rs);
+        }
+        return deviceIds;
+    }
+
     public List<Device> getDevicesByStatus(EnrolmentInfo.Status status, int tenantId)
             throws DeviceManagementDAOException {
         Connection conn;
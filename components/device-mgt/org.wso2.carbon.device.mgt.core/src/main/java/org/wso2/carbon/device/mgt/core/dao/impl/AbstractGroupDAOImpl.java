@@ -23,6 +23,7 @@ import org.wso2.carbon.device.mgt.common.group.mgt.DeviceGroup;
 import org.wso2.carbon.device.mgt.core.dao.GroupDAO;
 import org.wso2.carbon.device.mgt.core.dao.GroupManagementDAOException;
 import org.wso2.carbon.device.mgt.core.dao.GroupManagementDAOFactory;
+import org.wso2.carbon.device.mgt.core.dao.util.DeviceManagementDAOUtil;
 import org.wso2.carbon.device.mgt.core.dao.util.GroupManagementDAOUtil;
 
 import java.sql.Connection;
@@ -30,7 +31,9 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * This class represents implementation of GroupDAO
@@ -349,6 +352,95 @@ public abstract class AbstractGroupDAOImpl implements GroupDAO {
         }
     }
 
+    @Override
+    public Set<Integer> getMappedDeviceIds(int groupId, List<Integer> deviceIds, int tenantId)
+            throws GroupManagementDAOException {
+        Set<Integer> mappedDeviceIds = new HashSet<>();
+        PreparedStatement stmt = null;
+        ResultSet resultSet = null;
+        try {
+            Connection conn = GroupManagementDAOFactory.getConnection();
+            for (int from = 0; from < deviceIds.size(); from += DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE) {
+                List<Integer> ids = deviceIds.subList(from, Math.min(deviceIds.size(),
+                        from + DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE));
+                String sql = "SELECT DEVICE_ID FROM DM_DEVICE_GROUP_MAP WHERE GROUP_ID = ? AND TENANT_ID = ? AND " +
+                        "DEVICE_ID IN (" + DeviceManagementDAOUtil.getInClause(ids.size()) + ")";
+                stmt = conn.prepareStatement(sql);
+                int index = 1;
+                stmt.setInt(index++, groupId);
+                stmt.setInt(index++, tenantId);
+                for (Integer deviceId : ids) {
+                    stmt.setInt(index++, deviceId);
+                }
+                resultSet = stmt.executeQuery();
+                while (resultSet.next()) {
+                    mappedDeviceIds.add(resultSet.getInt("DEVICE_ID"));
+                }
+                GroupManagementDAOUtil.cleanupResources(stmt, resultSet);
+                stmt = null;
+                resultSet = null;
+            }
+        } catch (SQLException e) {
+            throw new GroupManagementDAOException("Error occurred while checking device mappings with group.", e);
+        } finally {
+            GroupManagementDAOUtil.cleanupResources(stmt, resultSet);
+        }
+        return mappedDeviceIds;
+    }
+
+    @Override
+    public void addDevices(int groupId, List<Integer> deviceIds, int tenantId) throws GroupManagementDAOException {
+        PreparedStatement stmt = null;
+        try {
+            Connection conn = GroupManagementDAOFactory.getConnection();
+            String sql = "INSERT INTO DM_DEVICE_GROUP_MAP(DEVICE_ID, GROUP_ID, TENANT_ID) VALUES (?, ?, ?)";
+            stmt = conn.prepareStatement(sql);
+            this.executeMappingBatches(stmt, groupId, deviceIds, tenantId);
+        } catch (SQLException e) {
+            throw new GroupManagementDAOException("Error occurred while adding devices to Group.", e);
+        } finally {
+            GroupManagementDAOUtil.cleanupResources(stmt, null);
+        }
+    }
+
+    @Override
+    public void removeDevices(int groupId, List<Integer> deviceIds, int tenantId)
+            throws GroupManagementDAOException {
+        PreparedStatement stmt = null;
+        try {
+            Connection conn = GroupManagementDAOFactory.getConnection();
+            String sql = "DELETE FROM DM_DEVICE_GROUP_MAP WHERE DEVICE_ID = ? AND GROUP_ID = ? AND TENANT_ID = ?";
+            stmt = conn.prepareStatement(sql);
+            this.executeMappingBatches(stmt, groupId, deviceIds, tenantId);
+        } catch (SQLException e) {
+            throw new GroupManagementDAOException("Error occurred while removing devices from Group.", e);
+        } finally {
+            GroupManagementDAOUtil.cleanupResources(stmt, null);
+        }
+    }
+
+    /**
+     * Executes a statement taking the device id, group id and tenant id as parameters for each of the devices, in
+     * batches of {@link DeviceManagementDAOUtil#MAX_IN_CLAUSE_SIZE} devices.
+     */
+    private void executeMappingBatches(PreparedStatement stmt, int groupId, List<Integer> deviceIds, int tenantId)
+            throws SQLException {
+        int batchSize = 0;
+        for (Integer deviceId : deviceIds) {
+            stmt.setInt(1, deviceId);
+            stmt.setInt(2, groupId);
+            stmt.setInt(3, tenantId);
+            stmt.addBatch();
+            if (++batchSize == DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE) {
+                stmt.executeBatch();
+                batchSize = 0;
+            }
+        }
+        if (batchSize > 0) {
+            stmt.executeBatch();
+        }
+    }
+
     @Override
     public int getDeviceCount(int groupId, int tenantId) throws GroupManagementDAOException {
         PreparedStatement stmt = null;
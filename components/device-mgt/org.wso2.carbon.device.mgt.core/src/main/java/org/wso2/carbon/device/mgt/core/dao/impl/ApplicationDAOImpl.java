@@ -25,11 +25,14 @@ import org.wso2.carbon.device.mgt.core.dao.ApplicationDAO;
 import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOException;
 import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOFactory;
 import org.wso2.carbon.device.mgt.core.dao.util.DeviceManagementDAOUtil;
+import org.wso2.carbon.device.mgt.core.dao.util.codec.PayloadCodecs;
 
-import java.io.*;
+import java.io.IOException;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 public class ApplicationDAOImpl implements ApplicationDAO {
@@ -41,8 +44,6 @@ public class ApplicationDAOImpl implements ApplicationDAO {
         Connection conn;
         PreparedStatement stmt = null;
         ResultSet rs = null;
-        ByteArrayOutputStream bao = null;
-        ObjectOutputStream oos = null;
         int applicationId = -1;
         try {
             conn = this.getConnection();
@@ -59,10 +60,7 @@ public class ApplicationDAOImpl implements ApplicationDAO {
             stmt.setString(7, application.getImageUrl());
             stmt.setInt(8, tenantId);
 
-            bao = new ByteArrayOutputStream();
-            oos = new ObjectOutputStream(bao);
-            oos.writeObject(application.getAppProperties());
-            stmt.setBytes(9, bao.toByteArray());
+            stmt.setBytes(9, PayloadCodecs.encode(application.getAppProperties()));
 
             stmt.setString(10, application.getApplicationIdentifier());
             stmt.setInt(11, application.getMemoryUsage());
@@ -80,20 +78,6 @@ public class ApplicationDAOImpl implements ApplicationDAO {
         } catch (IOException e) {
             throw new DeviceManagementDAOException("Error occurred while serializing application properties object", e);
         } finally {
-            if (bao != null) {
-                try {
-                    bao.close();
-                } catch (IOException e) {
-                    log.warn("Error occurred while closing ByteArrayOutputStream", e);
-                }
-            }
-            if (oos != null) {
-                try {
-                    oos.close();
-                } catch (IOException e) {
-                    log.warn("Error occurred while closing ObjectOutputStream", e);
-                }
-            }
             DeviceManagementDAOUtil.cleanupResources(stmt, rs);
         }
     }
@@ -104,8 +88,6 @@ public class ApplicationDAOImpl implements ApplicationDAO {
         Connection conn;
         PreparedStatement stmt = null;
         ResultSet rs;
-        ByteArrayOutputStream bao = null;
-        ObjectOutputStream oos = null;
         List<Integer> applicationIds = new ArrayList<>();
         try {
             conn = this.getConnection();
@@ -125,10 +107,7 @@ public class ApplicationDAOImpl implements ApplicationDAO {
                 stmt.setString(7, application.getImageUrl());
                 stmt.setInt(8, tenantId);
 
-                bao = new ByteArrayOutputStream();
-                oos = new ObjectOutputStream(bao);
-                oos.writeObject(application.getAppProperties());
-                stmt.setBytes(9, bao.toByteArray());
+                stmt.setBytes(9, PayloadCodecs.encode(application.getAppProperties()));
 
                 stmt.setString(10, application.getApplicationIdentifier());
                 stmt.setInt(11, application.getMemoryUsage());
@@ -146,20 +125,6 @@ public class ApplicationDAOImpl implements ApplicationDAO {
         } catch (IOException e) {
             throw new DeviceManagementDAOException("Error occurred while serializing application properties object", e);
         } finally {
-            if (bao != null) {
-                try {
-                    bao.close();
-                } catch (IOException e) {
-                    log.warn("Error occurred while closing ByteArrayOutputStream", e);
-                }
-            }
-            if (oos != null) {
-                try {
-                    oos.close();
-                } catch (IOException e) {
-                    log.warn("Error occurred while closing ObjectOutputStream", e);
-                }
-            }
             DeviceManagementDAOUtil.cleanupResources(stmt, null);
         }
     }
@@ -256,6 +221,46 @@ public class ApplicationDAOImpl implements ApplicationDAO {
         }
     }
 
+    @Override
+    public List<Application> getApplicationVersions(List<String> identifiers, int tenantId)
+            throws DeviceManagementDAOException {
+        List<Application> applications = new ArrayList<>();
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            Connection conn = this.getConnection();
+            for (int from = 0; from < identifiers.size(); from += DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE) {
+                List<String> ids = identifiers.subList(from, Math.min(identifiers.size(),
+                        from + DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE));
+                stmt = conn.prepareStatement("SELECT ID, APP_IDENTIFIER, VERSION FROM DM_APPLICATION WHERE " +
+                        "TENANT_ID = ? AND APP_IDENTIFIER IN (" + DeviceManagementDAOUtil.getInClause(ids.size()) +
+                        ")");
+                int index = 1;
+                stmt.setInt(index++, tenantId);
+                for (String identifier : ids) {
+                    stmt.setString(index++, identifier);
+                }
+                rs = stmt.executeQuery();
+                while (rs.next()) {
+                    Application application = new Application();
+                    application.setId(rs.getInt("ID"));
+                    application.setApplicationIdentifier(rs.getString("APP_IDENTIFIER"));
+                    application.setVersion(rs.getString("VERSION"));
+                    applications.add(application);
+                }
+                DeviceManagementDAOUtil.cleanupResources(stmt, rs);
+                stmt = null;
+                rs = null;
+            }
+        } catch (SQLException e) {
+            throw new DeviceManagementDAOException("Error occurred while retrieving the ids of " +
+                    identifiers.size() + " applications", e);
+        } finally {
+            DeviceManagementDAOUtil.cleanupResources(stmt, rs);
+        }
+        return applications;
+    }
+
     private Connection getConnection() throws SQLException {
         return DeviceManagementDAOFactory.getConnection();
     }
@@ -292,10 +297,50 @@ public class ApplicationDAOImpl implements ApplicationDAO {
         return applications;
     }
 
+    @Override
+    public Map<Integer, List<Application>> getInstalledApplications(List<Integer> deviceIds)
+            throws DeviceManagementDAOException {
+        Map<Integer, List<Application>> applications = new HashMap<>();
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            Connection conn = this.getConnection();
+            for (int from = 0; from < deviceIds.size(); from += DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE) {
+                List<Integer> ids = deviceIds.subList(from, Math.min(deviceIds.size(),
+                        from + DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE));
+                stmt = conn.prepareStatement("SELECT APPMAP.DEVICE_ID, app.ID, NAME, APP_IDENTIFIER, PLATFORM, " +
+                        "CATEGORY, VERSION, TYPE, LOCATION_URL, IMAGE_URL, APP_PROPERTIES, MEMORY_USAGE, IS_ACTIVE, " +
+                        "TENANT_ID FROM DM_APPLICATION app INNER JOIN DM_DEVICE_APPLICATION_MAPPING APPMAP " +
+                        "ON app.ID = APPMAP.APPLICATION_ID WHERE APPMAP.DEVICE_ID IN (" +
+                        DeviceManagementDAOUtil.getInClause(ids.size()) + ")");
+                int index = 1;
+                for (Integer deviceId : ids) {
+                    stmt.setInt(index++, deviceId);
+                }
+                rs = stmt.executeQuery();
+                while (rs.next()) {
+                    int deviceId = rs.getInt("DEVICE_ID");
+                    List<Application> deviceApplications = applications.get(deviceId);
+                    if (deviceApplications == null) {
+                        deviceApplications = new ArrayList<>();
+                        applications.put(deviceId, deviceApplications);
+                    }
+                    deviceApplications.add(loadApplication(rs));
+                }
+                DeviceManagementDAOUtil.cleanupResources(stmt, rs);
+                stmt = null;
+                rs = null;
+            }
+        } catch (SQLException e) {
+            throw new DeviceManagementDAOException("SQL Error occurred while retrieving the list of Applications " +
+                    "installed in " + deviceIds.size() + " devices", e);
+        } finally {
+            DeviceManagementDAOUtil.cleanupResources(stmt, rs);
+        }
+        return applications;
+    }
+
     private Application loadApplication(ResultSet rs) throws DeviceManagementDAOException {
-        ByteArrayInputStream bais;
-        ObjectInputStream ois;
-        Properties properties;
 
         Application application = new Application();
         try {
@@ -303,13 +348,9 @@ public class ApplicationDAOImpl implements ApplicationDAO {
             application.setName(rs.getString("NAME"));
             application.setType(rs.getString("TYPE"));
 
-            if (rs.getBytes("APP_PROPERTIES") != null) {
-                byte[] appProperties = rs.getBytes("APP_PROPERTIES");
-                bais = new ByteArrayInputStream(appProperties);
-
-                ois = new ObjectInputStream(bais);
-                properties = (Properties) ois.readObject();
-                application.setAppProperties(properties);
+            byte[] appProperties = rs.getBytes("APP_PROPERTIES");
+            if (appProperties != null) {
+                application.setAppProperties((Properties) PayloadCodecs.decode(appProperties));
             }
             application.setCategory(rs.getString("CATEGORY"));
             application.setImageUrl(rs.getString("IMAGE_URL"));
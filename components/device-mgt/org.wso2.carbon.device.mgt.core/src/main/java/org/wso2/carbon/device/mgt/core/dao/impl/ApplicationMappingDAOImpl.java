@@ -106,13 +106,14 @@ public class ApplicationMappingDAOImpl implements ApplicationMappingDAO {
                     "APPLICATION_ID = ? AND TENANT_ID = ?";
 
             conn = this.getConnection();
+            stmt = conn.prepareStatement(sql);
             for (int appId : appIdList) {
-                stmt = conn.prepareStatement(sql);
                 stmt.setInt(1, deviceId);
                 stmt.setInt(2, appId);
                 stmt.setInt(3, tenantId);
-                stmt.execute();
+                stmt.addBatch();
             }
+            stmt.executeBatch();
         } catch (SQLException e) {
             throw new DeviceManagementDAOException("Error occurred while removing device application mapping", e);
         } finally {
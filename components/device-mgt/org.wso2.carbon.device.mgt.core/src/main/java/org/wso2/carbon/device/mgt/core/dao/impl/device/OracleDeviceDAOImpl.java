@@ -62,6 +62,8 @@ public class OracleDeviceDAOImpl extends AbstractDeviceDAOImpl {
         boolean isStatusProvided = false;
         Date since = request.getSince();
         boolean isSinceProvided = false;
+        int afterEnrolmentId = request.getAfterEnrolmentId();
+        boolean isAfterEnrolmentIdProvided = false;
         try {
             conn = this.getConnection();
 
@@ -114,6 +116,11 @@ public class OracleDeviceDAOImpl extends AbstractDeviceDAOImpl {
                 sql = sql + " AND e.STATUS = ?";
                 isStatusProvided = true;
             }
+            //Add the query for keyset pagination
+            if (afterEnrolmentId > 0) {
+                sql = sql + " AND e.ID > ?";
+                isAfterEnrolmentIdProvided = true;
+            }
 
             sql = sql + " ORDER BY ENROLMENT_ID OFFSET ? ROWS FETCH NEXT ? ROWS ONLY";
 
@@ -142,7 +149,10 @@ public class OracleDeviceDAOImpl extends AbstractDeviceDAOImpl {
             if (isStatusProvided) {
                 stmt.setString(paramIdx++, status);
             }
-            stmt.setInt(paramIdx++, request.getStartIndex());
+            if (isAfterEnrolmentIdProvided) {
+                stmt.setInt(paramIdx++, afterEnrolmentId);
+            }
+            stmt.setInt(paramIdx++, isAfterEnrolmentIdProvided ? 0 : request.getStartIndex());
             stmt.setInt(paramIdx, request.getRowCount());
             rs = stmt.executeQuery();
             devices = new ArrayList<>();
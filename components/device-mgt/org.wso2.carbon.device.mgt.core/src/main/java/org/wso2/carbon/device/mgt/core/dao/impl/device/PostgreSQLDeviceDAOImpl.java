@@ -59,6 +59,8 @@ public class PostgreSQLDeviceDAOImpl extends AbstractDeviceDAOImpl {
         boolean isStatusProvided = false;
         Date since = request.getSince();
         boolean isSinceProvided = false;
+        int afterEnrolmentId = request.getAfterEnrolmentId();
+        boolean isAfterEnrolmentIdProvided = false;
         try {
             conn = this.getConnection();
             String sql = "SELECT d1.ID AS DEVICE_ID, d1.DESCRIPTION, d1.NAME AS DEVICE_NAME, d1.DEVICE_TYPE, " +
@@ -98,8 +100,13 @@ public class PostgreSQLDeviceDAOImpl extends AbstractDeviceDAOImpl {
                 sql = sql + " AND e.STATUS = ?";
                 isStatusProvided = true;
             }
+            //Add the query for keyset pagination
+            if (afterEnrolmentId > 0) {
+                sql = sql + " AND e.ID > ?";
+                isAfterEnrolmentIdProvided = true;
+            }
 
-            sql = sql + " LIMIT ? OFFSET ?";
+            sql = sql + " ORDER BY ENROLMENT_ID LIMIT ? OFFSET ?";
 
             stmt = conn.prepareStatement(sql);
             stmt.setInt(1, tenantId);
@@ -123,8 +130,11 @@ public class PostgreSQLDeviceDAOImpl extends AbstractDeviceDAOImpl {
             if (isStatusProvided) {
                 stmt.setString(paramIdx++, status);
             }
+            if (isAfterEnrolmentIdProvided) {
+                stmt.setInt(paramIdx++, afterEnrolmentId);
+            }
             stmt.setInt(paramIdx++, request.getRowCount());
-            stmt.setInt(paramIdx, request.getStartIndex());
+            stmt.setInt(paramIdx, isAfterEnrolmentIdProvided ? 0 : request.getStartIndex());
             rs = stmt.executeQuery();
             devices = new ArrayList<>();
             while (rs.next()) {
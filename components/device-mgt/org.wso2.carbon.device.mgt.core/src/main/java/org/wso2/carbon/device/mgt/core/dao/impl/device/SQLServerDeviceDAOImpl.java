@@ -59,6 +59,8 @@ public class SQLServerDeviceDAOImpl extends AbstractDeviceDAOImpl {
         boolean isStatusProvided = false;
         Date since = request.getSince();
         boolean isSinceProvided = false;
+        int afterEnrolmentId = request.getAfterEnrolmentId();
+        boolean isAfterEnrolmentIdProvided = false;
         try {
             conn = this.getConnection();
             String sql = "SELECT d1.ID AS DEVICE_ID, d1.DESCRIPTION, d1.NAME AS DEVICE_NAME, d1.DEVICE_TYPE, " +
@@ -111,6 +113,11 @@ public class SQLServerDeviceDAOImpl extends AbstractDeviceDAOImpl {
                 sql = sql + " AND e.STATUS = ?";
                 isStatusProvided = true;
             }
+            //Add the query for keyset pagination
+            if (afterEnrolmentId > 0) {
+                sql = sql + " AND e.ID > ?";
+                isAfterEnrolmentIdProvided = true;
+            }
 
             sql = sql + " ORDER BY ENROLMENT_ID OFFSET ? ROWS FETCH NEXT ? ROWS ONLY";
 
@@ -139,7 +146,10 @@ public class SQLServerDeviceDAOImpl extends AbstractDeviceDAOImpl {
             if (isStatusProvided) {
                 stmt.setString(paramIdx++, status);
             }
-            stmt.setInt(paramIdx++, request.getStartIndex());
+            if (isAfterEnrolmentIdProvided) {
+                stmt.setInt(paramIdx++, afterEnrolmentId);
+            }
+            stmt.setInt(paramIdx++, isAfterEnrolmentIdProvided ? 0 : request.getStartIndex());
             stmt.setInt(paramIdx, request.getRowCount());
             rs = stmt.executeQuery();
             devices = new ArrayList<>();
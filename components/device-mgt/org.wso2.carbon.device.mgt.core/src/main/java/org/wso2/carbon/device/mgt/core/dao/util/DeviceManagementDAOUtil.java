@@ -44,6 +44,12 @@ public final class DeviceManagementDAOUtil {
 
     private static final Log log = LogFactory.getLog(DeviceManagementDAOUtil.class);
 
+    /**
+     * Maximum number of values bound to a single IN clause, which keeps the queries within the parameter limits of
+     * all the supported databases.
+     */
+    public static final int MAX_IN_CLAUSE_SIZE = 500;
+
     public static void cleanupResources(Connection conn, PreparedStatement stmt, ResultSet rs) {
         if (rs != null) {
             try {
@@ -246,4 +252,16 @@ public final class DeviceManagementDAOUtil {
         return deviceInfo;
     }
 
+    /**
+     * @param size number of values.
+     * @return comma separated placeholders of an IN clause of the given size.
+     */
+    public static String getInClause(int size) {
+        StringBuilder inClause = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            inClause.append((size - 1 != i) ? "?," : "?");
+        }
+        return inClause.toString();
+    }
+
 }
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.dao.util.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Encodes any serializable payload with Java serialization, compressed with deflate. Used for the operations which
+ * the {@link OperationJsonCodec} cannot encode, as their payloads are arbitrary objects of the device types which
+ * cannot be restored from a schema-less encoding such as JSON. The class descriptors and field names, which make up
+ * most of a serialized operation, compress well.
+ */
+public class CompressedSerializationCodec implements PayloadCodec {
+
+    public static final byte ID = 3;
+    private static final int BUFFER_SIZE = 512;
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public boolean canEncode(Object payload) {
+        return payload instanceof Serializable;
+    }
+
+    @Override
+    public byte[] encode(Object payload) throws IOException {
+        ByteArrayOutputStream bao = new ByteArrayOutputStream(BUFFER_SIZE);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (ObjectOutputStream oos = new ObjectOutputStream(new DeflaterOutputStream(bao, deflater, BUFFER_SIZE))) {
+            oos.writeObject(payload);
+        } finally {
+            deflater.end();
+        }
+        return bao.toByteArray();
+    }
+
+    @Override
+    public Object decode(byte[] content, int offset) throws IOException, ClassNotFoundException {
+        Inflater inflater = new Inflater();
+        try (ObjectInputStream ois = new ObjectInputStream(new InflaterInputStream(
+                new ByteArrayInputStream(content, offset, content.length - offset), inflater, BUFFER_SIZE))) {
+            return ois.readObject();
+        } finally {
+            inflater.end();
+        }
+    }
+
+}
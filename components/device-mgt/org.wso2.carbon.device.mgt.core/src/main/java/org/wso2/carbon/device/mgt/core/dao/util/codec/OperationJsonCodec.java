@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.dao.util.codec;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.wso2.carbon.device.mgt.core.dto.operation.mgt.CommandOperation;
+import org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation;
+import org.wso2.carbon.device.mgt.core.dto.operation.mgt.ProfileOperation;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Encodes profile and command operations as a JSON object of their fields, as long as the payload and the response
+ * of the operation are strings, which is the case for the operations of most device types. Other operations are
+ * left to the {@link CompressedSerializationCodec}. Decoding does not depend on the class descriptors of the
+ * operation, so the encoded operations are both smaller and faster to read than serialized ones.
+ */
+public class OperationJsonCodec implements PayloadCodec {
+
+    public static final byte ID = 4;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final String TYPE = "type";
+    private static final String ID_FIELD = "id";
+    private static final String CODE = "code";
+    private static final String STATUS = "status";
+    private static final String ENABLED = "enabled";
+    private static final String CREATED_TIMESTAMP = "createdTimeStamp";
+    private static final String RECEIVED_TIMESTAMP = "receivedTimeStamp";
+    private static final String ACTIVITY_ID = "activityId";
+    private static final String PAYLOAD = "payload";
+    private static final String RESPONSE = "response";
+    private static final String PROPERTIES = "properties";
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public boolean canEncode(Object payload) {
+        // Subclasses may hold state which is not part of the schema, hence only the exact classes are encoded.
+        if (payload == null || (payload.getClass() != ProfileOperation.class &&
+                payload.getClass() != CommandOperation.class)) {
+            return false;
+        }
+        Operation operation = (Operation) payload;
+        if (operation instanceof ProfileOperation && !((ProfileOperation) operation).getConfigProperties().isEmpty()) {
+            return false;
+        }
+        return isString(operation.getPayLoad()) && isString(operation.getOperationResponse()) &&
+                isStringProperties(operation.getProperties());
+    }
+
+    @Override
+    public byte[] encode(Object payload) {
+        Operation operation = (Operation) payload;
+        JsonObject json = new JsonObject();
+        json.addProperty(TYPE, operation.getType().toString());
+        json.addProperty(ID_FIELD, operation.getId());
+        json.addProperty(ENABLED, operation.isEnabled());
+        addString(json, CODE, operation.getCode());
+        if (operation.getStatus() != null) {
+            json.addProperty(STATUS, operation.getStatus().toString());
+        }
+        addString(json, CREATED_TIMESTAMP, operation.getCreatedTimeStamp());
+        addString(json, RECEIVED_TIMESTAMP, operation.getReceivedTimeStamp());
+        addString(json, ACTIVITY_ID, operation.getActivityId());
+        addString(json, PAYLOAD, (String) operation.getPayLoad());
+        addString(json, RESPONSE, (String) operation.getOperationResponse());
+        if (operation.getProperties() != null) {
+            JsonObject properties = new JsonObject();
+            for (Map.Entry<Object, Object> entry : operation.getProperties().entrySet()) {
+                properties.addProperty((String) entry.getKey(), (String) entry.getValue());
+            }
+            json.add(PROPERTIES, properties);
+        }
+        return json.toString().getBytes(UTF_8);
+    }
+
+    @Override
+    public Object decode(byte[] content, int offset) throws IOException {
+        JsonObject json = new JsonParser().parse(new String(content, offset, content.length - offset, UTF_8))
+                .getAsJsonObject();
+        Operation operation;
+        String type = getString(json, TYPE);
+        if (Operation.Type.PROFILE.toString().equals(type)) {
+            operation = new ProfileOperation();
+        } else if (Operation.Type.COMMAND.toString().equals(type)) {
+            operation = new CommandOperation();
+        } else {
+            throw new IOException("Unsupported operation type '" + type + "' in the payload");
+        }
+        operation.setType(Operation.Type.valueOf(type));
+        operation.setId(json.get(ID_FIELD).getAsInt());
+        operation.setCode(getString(json, CODE));
+        String status = getString(json, STATUS);
+        if (status != null) {
+            operation.setStatus(Operation.Status.valueOf(status));
+        }
+        operation.setEnabled(json.get(ENABLED).getAsBoolean());
+        operation.setCreatedTimeStamp(getString(json, CREATED_TIMESTAMP));
+        operation.setReceivedTimeStamp(getString(json, RECEIVED_TIMESTAMP));
+        operation.setActivityId(getString(json, ACTIVITY_ID));
+        operation.setPayLoad(getString(json, PAYLOAD));
+        operation.setOperationResponse(getString(json, RESPONSE));
+        JsonElement properties = json.get(PROPERTIES);
+        if (properties != null && properties.isJsonObject()) {
+            Properties operationProperties = new Properties();
+            for (Map.Entry<String, JsonElement> entry : properties.getAsJsonObject().entrySet()) {
+                operationProperties.setProperty(entry.getKey(), entry.getValue().getAsString());
+            }
+            operation.setProperties(operationProperties);
+        }
+        return operation;
+    }
+
+    private static void addString(JsonObject json, String name, String value) {
+        // Null values are left out, as a missing member is read back as null
+        if (value != null) {
+            json.addProperty(name, value);
+        }
+    }
+
+    private static String getString(JsonObject json, String name) {
+        JsonElement element = json.get(name);
+        return element == null || element.isJsonNull() ? null : element.getAsString();
+    }
+
+    private static boolean isString(Object value) {
+        return value == null || value instanceof String;
+    }
+
+    private static boolean isStringProperties(Properties properties) {
+        if (properties != null) {
+            for (Map.Entry<Object, Object> entry : properties.entrySet()) {
+                if (!(entry.getKey() instanceof String) || !(entry.getValue() instanceof String)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.dao.util.codec;
+
+import java.io.IOException;
+
+/**
+ * Encodes the payloads persisted as binary columns, such as operation details, operation responses and application
+ * properties. Each codec is identified by a unique id, which is written in the header of the encoded payload so that
+ * the payload is decoded with the same codec, regardless of the codecs in use at the time of reading.
+ */
+public interface PayloadCodec {
+
+    /**
+     * @return id of the codec written in the payload header. Ids of the built in codecs are below 16.
+     */
+    byte getId();
+
+    /**
+     * @param payload payload to be encoded.
+     * @return true if the codec is able to encode the given payload.
+     */
+    boolean canEncode(Object payload);
+
+    byte[] encode(Object payload) throws IOException;
+
+    /**
+     * @param content encoded payload, including the header.
+     * @param offset  position of the first byte after the header.
+     */
+    Object decode(byte[] content, int offset) throws IOException, ClassNotFoundException;
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.dao.util.codec;
+
+import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
+import org.wso2.carbon.device.mgt.core.config.DeviceManagementConfig;
+import org.wso2.carbon.device.mgt.core.config.operation.OperationConfiguration;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Entry point for encoding and decoding the payloads persisted as binary columns.
+ *
+ * An encoded payload starts with a header of two magic bytes, the format version and the id of the codec used to
+ * encode it. Payloads written before the codecs were introduced are plain Java serialization streams, which are
+ * recognized by the stream magic and are still decoded through Java serialization.
+ *
+ * Codecs are selected in the order of registration, with the ones registered through {@link #register(PayloadCodec)}
+ * taking precedence over the built in codecs.
+ */
+public final class PayloadCodecs {
+
+    public static final byte MAGIC_0 = (byte) 0xDC;
+    public static final byte MAGIC_1 = (byte) 0x4D;
+    public static final byte VERSION = 1;
+    public static final int HEADER_LENGTH = 4;
+
+    private static final byte LEGACY_MAGIC_0 = (byte) 0xAC;
+    private static final byte LEGACY_MAGIC_1 = (byte) 0xED;
+
+    private static final List<PayloadCodec> codecs = new CopyOnWriteArrayList<>();
+    private static final Map<Byte, PayloadCodec> codecsById = new ConcurrentHashMap<>();
+
+    static {
+        register(new CompressedSerializationCodec());
+        register(new OperationJsonCodec());
+        register(new PropertiesCodec());
+        register(new StringCodec());
+    }
+
+    private PayloadCodecs() {
+    }
+
+    /**
+     * Registers a codec ahead of the ones registered so far.
+     *
+     * @param codec codec to be registered.
+     * @throws IllegalArgumentException if a codec with the same id is already registered.
+     */
+    public static synchronized void register(PayloadCodec codec) {
+        if (codecsById.containsKey(codec.getId())) {
+            throw new IllegalArgumentException("A payload codec is already registered with id " + codec.getId());
+        }
+        codecsById.put(codec.getId(), codec);
+        codecs.add(0, codec);
+    }
+
+    /**
+     * @param payload payload to be persisted, may be null.
+     * @return the encoded payload, or null if the payload is null.
+     */
+    public static byte[] encode(Object payload) throws IOException {
+        if (payload == null) {
+            return null;
+        }
+        if (!isEnabled()) {
+            return encodeLegacy(payload);
+        }
+        for (PayloadCodec codec : codecs) {
+            if (codec.canEncode(payload)) {
+                byte[] body = codec.encode(payload);
+                byte[] content = new byte[HEADER_LENGTH + body.length];
+                content[0] = MAGIC_0;
+                content[1] = MAGIC_1;
+                content[2] = VERSION;
+                content[3] = codec.getId();
+                System.arraycopy(body, 0, content, HEADER_LENGTH, body.length);
+                return content;
+            }
+        }
+        throw new IOException("No payload codec is able to encode payload of type " + payload.getClass().getName());
+    }
+
+    /**
+     * @param content persisted payload, in either the codec format or the legacy Java serialization format.
+     * @return the decoded payload, or null if the content is null.
+     */
+    public static Object decode(byte[] content) throws IOException, ClassNotFoundException {
+        if (content == null) {
+            return null;
+        }
+        if (isLegacy(content)) {
+            try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(content))) {
+                return ois.readObject();
+            }
+        }
+        if (content.length < HEADER_LENGTH || content[0] != MAGIC_0 || content[1] != MAGIC_1) {
+            throw new IOException("Unknown payload format");
+        }
+        if (content[2] != VERSION) {
+            throw new IOException("Unsupported payload format version " + content[2]);
+        }
+        PayloadCodec codec = codecsById.get(content[3]);
+        if (codec == null) {
+            throw new IOException("No payload codec is registered with id " + content[3]);
+        }
+        return codec.decode(content, HEADER_LENGTH);
+    }
+
+    /**
+     * @return true if the content is a plain Java serialization stream, as written before the codecs were introduced.
+     */
+    public static boolean isLegacy(byte[] content) {
+        return content != null && content.length >= 2 && content[0] == LEGACY_MAGIC_0 &&
+                content[1] == LEGACY_MAGIC_1;
+    }
+
+    static byte[] encodeLegacy(Object payload) throws IOException {
+        ByteArrayOutputStream bao = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bao)) {
+            oos.writeObject(payload);
+        }
+        return bao.toByteArray();
+    }
+
+    private static boolean isEnabled() {
+        DeviceManagementConfig config = DeviceConfigurationManager.getInstance().getDeviceManagementConfig();
+        if (config == null) {
+            return true;
+        }
+        OperationConfiguration operationConfiguration = config.getOperationConfiguration();
+        return operationConfiguration == null || operationConfiguration.isPayloadCodecEnabled();
+    }
+
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.dao.util.codec;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.device.mgt.common.TransactionManagementException;
+import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOFactory;
+import org.wso2.carbon.device.mgt.core.dao.util.DeviceManagementDAOUtil;
+import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOFactory;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Re-encodes the payloads stored in the legacy Java serialization format with the payload codecs. Each table is
+ * walked in the order of its primary key, a batch of rows per transaction, so that the migration runs alongside the
+ * regular traffic without holding long running locks. Payloads which cannot be decoded are left as they are, as they
+ * are still readable through the legacy path once the classes become available.
+ */
+public class PayloadMigrator implements Runnable {
+
+    private static final Log log = LogFactory.getLog(PayloadMigrator.class);
+
+    private static final PayloadTable[] PAYLOAD_TABLES = {
+            new PayloadTable("DM_PROFILE_OPERATION", "OPERATION_ID", "OPERATION_DETAILS", true),
+            new PayloadTable("DM_POLICY_OPERATION", "OPERATION_ID", "OPERATION_DETAILS", true),
+            new PayloadTable("DM_CONFIG_OPERATION", "OPERATION_ID", "OPERATION_CONFIG", true),
+            new PayloadTable("DM_DEVICE_OPERATION_RESPONSE", "ID", "OPERATION_RESPONSE", true),
+            new PayloadTable("DM_APPLICATION", "ID", "APP_PROPERTIES", false)
+    };
+
+    private final int batchSize;
+
+    public PayloadMigrator(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run() {
+        long startTime = System.currentTimeMillis();
+        int migrated = 0;
+        for (PayloadTable table : PAYLOAD_TABLES) {
+            try {
+                migrated += this.migrate(table);
+            } catch (SQLException | TransactionManagementException e) {
+                log.error("Error occurred while migrating the payloads of " + table.name + ", the remaining " +
+                        "payloads are read through the legacy format", e);
+            }
+        }
+        log.info("Payload migration completed, " + migrated + " payloads re-encoded in " +
+                (System.currentTimeMillis() - startTime) + " ms");
+    }
+
+    private int migrate(PayloadTable table) throws SQLException, TransactionManagementException {
+        int migrated = 0;
+        int lastId = 0;
+        int rows;
+        do {
+            BatchResult result;
+            table.beginTransaction();
+            try {
+                result = this.migrateBatch(table, lastId);
+                table.commitTransaction();
+            } catch (SQLException e) {
+                table.rollbackTransaction();
+                throw e;
+            } finally {
+                table.closeConnection();
+            }
+            rows = result.rows;
+            lastId = result.lastId;
+            migrated += result.migrated;
+        } while (rows == batchSize);
+        if (log.isDebugEnabled()) {
+            log.debug(migrated + " payloads of " + table.name + " re-encoded");
+        }
+        return migrated;
+    }
+
+    private BatchResult migrateBatch(PayloadTable table, int lastId) throws SQLException {
+        PreparedStatement stmt = null;
+        PreparedStatement updateStmt = null;
+        ResultSet rs = null;
+        BatchResult result = new BatchResult(lastId);
+        try {
+            Connection conn = table.getConnection();
+            stmt = conn.prepareStatement("SELECT " + table.idColumn + ", " + table.payloadColumn + " FROM " +
+                    table.name + " WHERE " + table.idColumn + " > ? ORDER BY " + table.idColumn);
+            stmt.setInt(1, lastId);
+            stmt.setMaxRows(batchSize);
+            rs = stmt.executeQuery();
+            updateStmt = conn.prepareStatement("UPDATE " + table.name + " SET " + table.payloadColumn + " = ? " +
+                    "WHERE " + table.idColumn + " = ?");
+            while (rs.next()) {
+                result.rows++;
+                result.lastId = rs.getInt(1);
+                byte[] content = rs.getBytes(2);
+                if (!PayloadCodecs.isLegacy(content)) {
+                    continue;
+                }
+                try {
+                    updateStmt.setBytes(1, PayloadCodecs.encode(PayloadCodecs.decode(content)));
+                } catch (IOException | ClassNotFoundException e) {
+                    log.warn("Unable to re-encode the payload of " + table.name + " with id " + result.lastId, e);
+                    continue;
+                }
+                updateStmt.setInt(2, result.lastId);
+                updateStmt.addBatch();
+                result.migrated++;
+            }
+            if (result.migrated > 0) {
+                updateStmt.executeBatch();
+            }
+        } finally {
+            DeviceManagementDAOUtil.cleanupResources(updateStmt, null);
+            DeviceManagementDAOUtil.cleanupResources(stmt, rs);
+        }
+        return result;
+    }
+
+    private static class BatchResult {
+
+        private int rows;
+        private int migrated;
+        private int lastId;
+
+        BatchResult(int lastId) {
+            this.lastId = lastId;
+        }
+    }
+
+    /**
+     * Table which holds payloads, along with the data source it belongs to.
+     */
+    private static class PayloadTable {
+
+        private final String name;
+        private final String idColumn;
+        private final String payloadColumn;
+        private final boolean operationTable;
+
+        PayloadTable(String name, String idColumn, String payloadColumn, boolean operationTable) {
+            this.name = name;
+            this.idColumn = idColumn;
+            this.payloadColumn = payloadColumn;
+            this.operationTable = operationTable;
+        }
+
+        void beginTransaction() throws TransactionManagementException {
+            if (operationTable) {
+                OperationManagementDAOFactory.beginTransaction();
+            } else {
+                DeviceManagementDAOFactory.beginTransaction();
+            }
+        }
+
+        Connection getConnection() throws SQLException {
+            return operationTable ? OperationManagementDAOFactory.getConnection() :
+                    DeviceManagementDAOFactory.getConnection();
+        }
+
+        void commitTransaction() {
+            if (operationTable) {
+                OperationManagementDAOFactory.commitTransaction();
+            } else {
+                DeviceManagementDAOFactory.commitTransaction();
+            }
+        }
+
+        void rollbackTransaction() {
+            if (operationTable) {
+                OperationManagementDAOFactory.rollbackTransaction();
+            } else {
+                DeviceManagementDAOFactory.rollbackTransaction();
+            }
+        }
+
+        void closeConnection() {
+            if (operationTable) {
+                OperationManagementDAOFactory.closeConnection();
+            } else {
+                DeviceManagementDAOFactory.closeConnection();
+            }
+        }
+    }
+
+}
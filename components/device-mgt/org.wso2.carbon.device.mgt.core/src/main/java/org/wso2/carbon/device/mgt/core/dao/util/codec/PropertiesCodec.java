@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.dao.util.codec;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Encodes {@link Properties} with string keys and values, such as application properties, as a JSON object.
+ */
+public class PropertiesCodec implements PayloadCodec {
+
+    public static final byte ID = 2;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final Type MAP_TYPE = new TypeToken<Map<String, String>>() { }.getType();
+    private static final Gson gson = new Gson();
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public boolean canEncode(Object payload) {
+        if (!(payload instanceof Properties)) {
+            return false;
+        }
+        for (Map.Entry<Object, Object> entry : ((Properties) payload).entrySet()) {
+            if (!(entry.getKey() instanceof String) || !(entry.getValue() instanceof String)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public byte[] encode(Object payload) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        for (Map.Entry<Object, Object> entry : ((Properties) payload).entrySet()) {
+            properties.put((String) entry.getKey(), (String) entry.getValue());
+        }
+        return gson.toJson(properties, MAP_TYPE).getBytes(UTF_8);
+    }
+
+    @Override
+    public Object decode(byte[] content, int offset) {
+        Map<String, String> properties = gson.fromJson(new String(content, offset, content.length - offset, UTF_8),
+                MAP_TYPE);
+        Properties payload = new Properties();
+        if (properties != null) {
+            payload.putAll(properties);
+        }
+        return payload;
+    }
+
+}
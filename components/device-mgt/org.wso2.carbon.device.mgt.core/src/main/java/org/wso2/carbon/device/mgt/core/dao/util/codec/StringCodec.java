@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.dao.util.codec;
+
+import java.nio.charset.Charset;
+
+/**
+ * Encodes string payloads, such as operation responses, as UTF-8 bytes.
+ */
+public class StringCodec implements PayloadCodec {
+
+    public static final byte ID = 1;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public boolean canEncode(Object payload) {
+        return payload instanceof String;
+    }
+
+    @Override
+    public byte[] encode(Object payload) {
+        return ((String) payload).getBytes(UTF_8);
+    }
+
+    @Override
+    public Object decode(byte[] content, int offset) {
+        return new String(content, offset, content.length - offset, UTF_8);
+    }
+
+}
@@ -22,6 +22,7 @@ package org.wso2.carbon.device.mgt.core.device.details.mgt.dao;
 import org.wso2.carbon.device.mgt.common.device.details.DeviceInfo;
 import org.wso2.carbon.device.mgt.common.device.details.DeviceLocation;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -55,6 +56,14 @@ public interface DeviceDetailsDAO {
      */
     DeviceInfo getDeviceInformation(int deviceId) throws DeviceDetailsMgtDAOException;
 
+    /**
+     * This method will return the device information of the given devices.
+     * @param deviceIds - ids of the devices.
+     * @return - device information mapped by the device id. Devices without information are left out.
+     * @throws DeviceDetailsMgtDAOException
+     */
+    Map<Integer, DeviceInfo> getDeviceInformation(List<Integer> deviceIds) throws DeviceDetailsMgtDAOException;
+
     /**
      * This method will return the device properties from database.
      * @param deviceId
@@ -92,6 +101,14 @@ public interface DeviceDetailsDAO {
      */
     DeviceLocation getDeviceLocation(int deviceId) throws DeviceDetailsMgtDAOException;
 
+    /**
+     * This method will return the device locations of the given devices.
+     * @param deviceIds - ids of the devices.
+     * @return - device locations mapped by the device id. Devices without a location are left out.
+     * @throws DeviceDetailsMgtDAOException
+     */
+    Map<Integer, DeviceLocation> getDeviceLocations(List<Integer> deviceIds) throws DeviceDetailsMgtDAOException;
+
     /**
      * This method will delete the device location from the database.
      * @param deviceId
@@ -33,6 +33,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class DeviceDetailsDAOImpl implements DeviceDetailsDAO {
@@ -157,6 +158,39 @@ public class DeviceDetailsDAOImpl implements DeviceDetailsDAO {
         }
     }
 
+    @Override
+    public Map<Integer, DeviceInfo> getDeviceInformation(List<Integer> deviceIds) throws DeviceDetailsMgtDAOException {
+        Map<Integer, DeviceInfo> deviceInfoMap = new HashMap<>();
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            Connection conn = this.getConnection();
+            for (int from = 0; from < deviceIds.size(); from += DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE) {
+                List<Integer> ids = deviceIds.subList(from, Math.min(deviceIds.size(),
+                        from + DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE));
+                String sql = "SELECT * FROM DM_DEVICE_DETAIL WHERE DEVICE_ID IN (" +
+                        DeviceManagementDAOUtil.getInClause(ids.size()) + ")";
+                stmt = conn.prepareStatement(sql);
+                int index = 1;
+                for (Integer deviceId : ids) {
+                    stmt.setInt(index++, deviceId);
+                }
+                rs = stmt.executeQuery();
+                while (rs.next()) {
+                    deviceInfoMap.put(rs.getInt("DEVICE_ID"), DeviceManagementDAOUtil.loadDeviceInfo(rs));
+                }
+                DeviceManagementDAOUtil.cleanupResources(stmt, rs);
+                stmt = null;
+                rs = null;
+            }
+        } catch (SQLException e) {
+            throw new DeviceDetailsMgtDAOException("Error occurred while fetching the details of the registered devices.", e);
+        } finally {
+            DeviceManagementDAOUtil.cleanupResources(stmt, rs);
+        }
+        return deviceInfoMap;
+    }
+
     @Override
     public Map<String, String> getDeviceProperties(int deviceId) throws DeviceDetailsMgtDAOException {
 
@@ -283,6 +317,51 @@ public class DeviceDetailsDAOImpl implements DeviceDetailsDAO {
         }
     }
 
+    @Override
+    public Map<Integer, DeviceLocation> getDeviceLocations(List<Integer> deviceIds)
+            throws DeviceDetailsMgtDAOException {
+        Map<Integer, DeviceLocation> locations = new HashMap<>();
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            Connection conn = this.getConnection();
+            for (int from = 0; from < deviceIds.size(); from += DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE) {
+                List<Integer> ids = deviceIds.subList(from, Math.min(deviceIds.size(),
+                        from + DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE));
+                String sql = "SELECT * FROM DM_DEVICE_LOCATION WHERE DEVICE_ID IN (" +
+                        DeviceManagementDAOUtil.getInClause(ids.size()) + ")";
+                stmt = conn.prepareStatement(sql);
+                int index = 1;
+                for (Integer deviceId : ids) {
+                    stmt.setInt(index++, deviceId);
+                }
+                rs = stmt.executeQuery();
+                while (rs.next()) {
+                    DeviceLocation location = new DeviceLocation();
+                    location.setDeviceId(rs.getInt("DEVICE_ID"));
+                    location.setLatitude(rs.getDouble("LATITUDE"));
+                    location.setLongitude(rs.getDouble("LONGITUDE"));
+                    location.setStreet1(rs.getString("STREET1"));
+                    location.setStreet2(rs.getString("STREET2"));
+                    location.setCity(rs.getString("CITY"));
+                    location.setZip(rs.getString("ZIP"));
+                    location.setState(rs.getString("STATE"));
+                    location.setCountry(rs.getString("COUNTRY"));
+                    location.setUpdatedTime(new java.util.Date(rs.getLong("UPDATE_TIMESTAMP")));
+                    locations.put(location.getDeviceId(), location);
+                }
+                DeviceManagementDAOUtil.cleanupResources(stmt, rs);
+                stmt = null;
+                rs = null;
+            }
+        } catch (SQLException e) {
+            throw new DeviceDetailsMgtDAOException("Error occurred while fetching the location of the registered devices.", e);
+        } finally {
+            DeviceManagementDAOUtil.cleanupResources(stmt, rs);
+        }
+        return locations;
+    }
+
     @Override
     public void deleteDeviceLocation(int deviceId) throws DeviceDetailsMgtDAOException {
 
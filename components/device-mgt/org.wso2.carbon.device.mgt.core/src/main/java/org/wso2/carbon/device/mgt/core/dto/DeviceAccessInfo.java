@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.dto;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Carries the details needed to authorize the access to a device, which are the owner of its latest enrolment and the
+ * groups the device belongs to.
+ */
+public class DeviceAccessInfo {
+
+    private String owner;
+    private Set<Integer> groupIds = new HashSet<>();
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public Set<Integer> getGroupIds() {
+        return groupIds;
+    }
+
+    public void addGroupId(int groupId) {
+        this.groupIds.add(groupId);
+    }
+
+}
@@ -39,12 +39,16 @@ import org.wso2.carbon.device.mgt.core.app.mgt.ApplicationManagerProviderService
 import org.wso2.carbon.device.mgt.core.app.mgt.config.AppManagementConfig;
 import org.wso2.carbon.device.mgt.core.app.mgt.config.AppManagementConfigurationManager;
 import org.wso2.carbon.device.mgt.core.authorization.DeviceAccessAuthorizationServiceImpl;
+import org.wso2.carbon.device.mgt.core.cache.impl.DeviceCacheStatistics;
+import org.wso2.carbon.device.mgt.core.cache.impl.GroupAuthorizationUserStoreListener;
 import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
 import org.wso2.carbon.device.mgt.core.config.DeviceManagementConfig;
 import org.wso2.carbon.device.mgt.core.config.datasource.DataSourceConfig;
+import org.wso2.carbon.device.mgt.core.config.operation.OperationConfiguration;
 import org.wso2.carbon.device.mgt.core.config.tenant.PlatformConfigurationManagementServiceImpl;
 import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOFactory;
 import org.wso2.carbon.device.mgt.core.dao.GroupManagementDAOFactory;
+import org.wso2.carbon.device.mgt.core.dao.util.codec.PayloadMigrator;
 import org.wso2.carbon.device.mgt.core.geo.service.GeoLocationProviderServiceImpl;
 import org.wso2.carbon.device.mgt.core.notification.mgt.NotificationManagementServiceImpl;
 import org.wso2.carbon.device.mgt.core.notification.mgt.dao.NotificationManagementDAOFactory;
@@ -63,11 +67,13 @@ import org.wso2.carbon.device.mgt.core.util.DeviceManagerUtil;
 import org.wso2.carbon.email.sender.core.service.EmailSenderService;
 import org.wso2.carbon.ndatasource.core.DataSourceService;
 import org.wso2.carbon.registry.core.service.RegistryService;
+import org.wso2.carbon.user.core.listener.UserOperationEventListener;
 import org.wso2.carbon.user.core.service.RealmService;
 import org.wso2.carbon.utils.ConfigurationContextService;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -124,6 +130,8 @@ public class DeviceManagementServiceComponent {
     private static List<PluginInitializationListener> listeners = new ArrayList<>();
     private static List<DeviceManagementService> deviceManagers = new ArrayList<>();
     private static List<DeviceManagerStartupListener> startupListeners = new ArrayList<>();
+    private ScheduledExecutorService pushNotificationExecutor;
+    private PushNotificationSchedulerTask pushNotificationSchedulerTask;
 
     public static void registerPluginInitializationListener(PluginInitializationListener listener) {
         synchronized (LOCK) {
@@ -163,6 +171,9 @@ public class DeviceManagementServiceComponent {
             OperationManagementDAOFactory.init(dsConfig);
             /*Initialize the device cache*/
             DeviceManagerUtil.initializeDeviceCache();
+            if (config.getDeviceCacheConfiguration().isEnabled()) {
+                DeviceCacheStatistics.register();
+            }
 
             /* Initialize Operation Manager */
             this.initOperationsManager();
@@ -219,11 +230,13 @@ public class DeviceManagementServiceComponent {
                     config.getPushNotificationConfiguration().setSchedulerTaskInitialDelay(DeviceManagementConstants
                             .PushNotifications.DEFAULT_SCHEDULER_TASK_INITIAL_DELAY);
                 }
-                ScheduledExecutorService pushNotificationExecutor = Executors.newSingleThreadScheduledExecutor();
-                pushNotificationExecutor.scheduleWithFixedDelay(new PushNotificationSchedulerTask(), config
+                pushNotificationSchedulerTask = new PushNotificationSchedulerTask();
+                pushNotificationExecutor = Executors.newSingleThreadScheduledExecutor();
+                pushNotificationExecutor.scheduleWithFixedDelay(pushNotificationSchedulerTask, config
                         .getPushNotificationConfiguration().getSchedulerTaskInitialDelay(), config
                         .getPushNotificationConfiguration().getSchedulerBatchDelayMills(), TimeUnit.MILLISECONDS);
             }
+            this.startPayloadMigration(config.getOperationConfiguration());
             if (log.isDebugEnabled()) {
                 log.debug("Device management core bundle has been successfully initialized");
             }
@@ -234,7 +247,31 @@ public class DeviceManagementServiceComponent {
 
     @SuppressWarnings("unused")
     protected void deactivate(ComponentContext componentContext) {
-        //do nothing
+        DeviceCacheStatistics.unregister();
+        if (pushNotificationExecutor != null) {
+            pushNotificationExecutor.shutdown();
+            pushNotificationExecutor = null;
+        }
+        if (pushNotificationSchedulerTask != null) {
+            pushNotificationSchedulerTask.shutdown();
+            pushNotificationSchedulerTask = null;
+        }
+    }
+
+    private void startPayloadMigration(OperationConfiguration operationConfiguration) {
+        if (operationConfiguration == null || !operationConfiguration.isPayloadCodecEnabled() ||
+                !operationConfiguration.isPayloadMigrationEnabled()) {
+            return;
+        }
+        int batchSize = operationConfiguration.getPayloadMigrationBatchSize();
+        if (batchSize <= 0) {
+            log.error("Payload migration batch size cannot be 0 or less than 0. Setting default batch size to:" +
+                    OperationConfiguration.DEFAULT_PAYLOAD_MIGRATION_BATCH_SIZE);
+            batchSize = OperationConfiguration.DEFAULT_PAYLOAD_MIGRATION_BATCH_SIZE;
+        }
+        ExecutorService payloadMigrationExecutor = Executors.newSingleThreadExecutor();
+        payloadMigrationExecutor.submit(new PayloadMigrator(batchSize));
+        payloadMigrationExecutor.shutdown();
     }
 
     private void initOperationsManager() throws OperationManagementException {
@@ -272,6 +309,15 @@ public class DeviceManagementServiceComponent {
         DeviceManagementDataHolder.getInstance().setGroupManagementProviderService(groupManagementProvider);
         bundleContext.registerService(GroupManagementProviderService.class.getName(), groupManagementProvider, null);
 
+        /* Registering the user store listener which keeps the group authorization cache in line with role changes */
+        DeviceManagementConfig deviceManagementConfig = DeviceConfigurationManager.getInstance()
+                .getDeviceManagementConfig();
+        if (deviceManagementConfig.getGroupAuthorizationCacheConfiguration() != null &&
+                deviceManagementConfig.getGroupAuthorizationCacheConfiguration().isEnabled()) {
+            bundleContext.registerService(UserOperationEventListener.class.getName(),
+                    new GroupAuthorizationUserStoreListener(), null);
+        }
+
 	    /* Registering Tenant Configuration Management Service */
         PlatformConfigurationManagementService
                 tenantConfiguration = new PlatformConfigurationManagementServiceImpl();
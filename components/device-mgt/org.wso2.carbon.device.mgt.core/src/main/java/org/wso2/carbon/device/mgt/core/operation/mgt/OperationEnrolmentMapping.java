@@ -31,6 +31,7 @@ public class OperationEnrolmentMapping {
     private String deviceType;
     private String deviceId;
     private EnrolmentInfo.Status deviceStatus;
+    private long lastActivityTime = -1;
 
     public int getTenantId() {
         return tenantId;
@@ -79,4 +80,15 @@ public class OperationEnrolmentMapping {
     public void setDeviceType(String deviceType) {
         this.deviceType = deviceType;
     }
+
+    /**
+     * @return time of the last completed operation of the enrolment, or -1 if it is not known.
+     */
+    public long getLastActivityTime() {
+        return lastActivityTime;
+    }
+
+    public void setLastActivityTime(long lastActivityTime) {
+        this.lastActivityTime = lastActivityTime;
+    }
 }
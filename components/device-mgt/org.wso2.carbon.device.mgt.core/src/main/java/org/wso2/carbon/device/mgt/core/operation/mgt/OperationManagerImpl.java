@@ -31,17 +31,19 @@ import org.wso2.carbon.device.mgt.common.PaginationRequest;
 import org.wso2.carbon.device.mgt.common.PaginationResult;
 import org.wso2.carbon.device.mgt.common.TransactionManagementException;
 import org.wso2.carbon.device.mgt.common.authorization.DeviceAccessAuthorizationException;
+import org.wso2.carbon.device.mgt.common.authorization.DeviceAuthorizationResult;
 import org.wso2.carbon.device.mgt.common.group.mgt.DeviceGroupConstants;
 import org.wso2.carbon.device.mgt.common.operation.mgt.Activity;
 import org.wso2.carbon.device.mgt.common.operation.mgt.ActivityStatus;
 import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
 import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManagementException;
 import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManager;
-import org.wso2.carbon.device.mgt.common.push.notification.NotificationContext;
 import org.wso2.carbon.device.mgt.common.push.notification.NotificationStrategy;
-import org.wso2.carbon.device.mgt.common.push.notification.PushNotificationExecutionFailedException;
 import org.wso2.carbon.device.mgt.core.DeviceManagementConstants;
+import org.wso2.carbon.device.mgt.core.cache.DeviceCacheManager;
+import org.wso2.carbon.device.mgt.core.cache.impl.DeviceCacheManagerImpl;
 import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
+import org.wso2.carbon.device.mgt.core.config.operation.OperationConfiguration;
 import org.wso2.carbon.device.mgt.core.dao.DeviceDAO;
 import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOException;
 import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOFactory;
@@ -53,7 +55,7 @@ import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOF
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationMappingDAO;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.util.OperationDAOUtil;
 import org.wso2.carbon.device.mgt.core.operation.mgt.util.DeviceIDHolder;
-import org.wso2.carbon.device.mgt.core.operation.mgt.util.OperationCreateTimeComparator;
+import org.wso2.carbon.device.mgt.core.push.notification.mgt.PushNotificationDispatcher;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
 import org.wso2.carbon.device.mgt.core.task.DeviceTaskManager;
 import org.wso2.carbon.device.mgt.core.task.impl.DeviceTaskManagerImpl;
@@ -61,9 +63,11 @@ import org.wso2.carbon.device.mgt.core.util.DeviceManagerUtil;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * This class implements all the functionality exposed as part of the OperationManager. Any transaction initiated
@@ -83,6 +87,7 @@ public class OperationManagerImpl implements OperationManager {
     private DeviceDAO deviceDAO;
     private EnrollmentDAO enrollmentDAO;
     private NotificationStrategy notificationStrategy;
+    private PushNotificationDispatcher notificationDispatcher;
     private String deviceType;
 
     public OperationManagerImpl() {
@@ -108,12 +113,20 @@ public class OperationManagerImpl implements OperationManager {
     public OperationManagerImpl(String deviceType, NotificationStrategy notificationStrategy) {
         this(deviceType);
         this.notificationStrategy = notificationStrategy;
+        if (notificationStrategy != null) {
+            this.notificationDispatcher = new PushNotificationDispatcher(deviceType, notificationStrategy);
+        }
+    }
+
+    public PushNotificationDispatcher getNotificationDispatcher() {
+        return notificationDispatcher;
     }
 
     @Override
     public Activity addOperation(Operation operation,
                                  List<DeviceIdentifier> deviceIds)
             throws OperationManagementException, InvalidDeviceException {
+        Map<Integer, DeviceIdentifier> notifiedEnrolments = null;
         if (log.isDebugEnabled()) {
             log.debug("operation:[" + operation.toString() + "]");
             for (DeviceIdentifier deviceIdentifier : deviceIds) {
@@ -137,6 +150,9 @@ public class OperationManagerImpl implements OperationManager {
                     return activity;
                 }
 
+                int batchSize = this.getBatchSize();
+                Map<Integer, DeviceIdentifier> enrolments = this.getEnrolments(authorizedDeviceList, batchSize);
+
                 OperationManagementDAOFactory.beginTransaction();
                 org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation operationDto =
                         OperationDAOUtil.convertOperation(operation);
@@ -153,58 +169,50 @@ public class OperationManagerImpl implements OperationManager {
                     isScheduled = notificationStrategy.getConfig().isScheduled();
                 }
 
-                boolean hasExistingTaskOperation;
-                int enrolmentId;
+                // Mappings to be notified are persisted as SCHEDULED. The dispatcher moves them to COMPLETED once the
+                // notifications are delivered, so notifications lost before delivery are retried by the scheduler task.
+                boolean isNotificationPending = isScheduled || notificationDispatcher != null;
+
                 if (org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation.Control.NO_REPEAT == operationDto.
                         getControl()) {
                     isNotRepeated = true;
                 }
 
-                //TODO have to create a sql to load device details from deviceDAO using single query.
                 String operationCode = operationDto.getCode();
-                for (DeviceIdentifier deviceId : authorizedDeviceList) {
-                    Device device = getDevice(deviceId);
-                    enrolmentId = device.getEnrolmentInfo().getId();
+                List<Integer> enrolmentIds = new ArrayList<>(enrolments.keySet());
+                for (int from = 0; from < enrolmentIds.size(); from += batchSize) {
+                    List<Integer> enrolmentIdBatch = enrolmentIds.subList(from,
+                            Math.min(from + batchSize, enrolmentIds.size()));
                     //Do not repeat the task operations
                     if (isScheduledOperation) {
-                        hasExistingTaskOperation = operationDAO.updateTaskOperation(enrolmentId, operationCode);
-                        if (!hasExistingTaskOperation) {
-                            operationMappingDAO.addOperationMapping(operationId, enrolmentId, isScheduled);
+                        Set<Integer> existingTaskEnrolments = operationDAO.getEnrolmentsWithPendingOperation(
+                                enrolmentIdBatch, operationCode);
+                        if (!existingTaskEnrolments.isEmpty()) {
+                            enrolmentIdBatch = new ArrayList<>(enrolmentIdBatch);
+                            enrolmentIdBatch.removeAll(existingTaskEnrolments);
+                            enrolments.keySet().removeAll(existingTaskEnrolments);
                         }
                     } else if (isNotRepeated) {
-                        operationDAO.updateEnrollmentOperationsStatus(enrolmentId, operationCode,
-                                org.wso2.carbon.device.mgt.core.dto.operation.mgt.
-                                        Operation.Status.PENDING,
-                                org.wso2.carbon.device.mgt.core.dto.operation.mgt.
-                                        Operation.Status.REPEATED);
-                        operationMappingDAO.addOperationMapping(operationId, enrolmentId, isScheduled);
-                    } else {
-                        operationMappingDAO.addOperationMapping(operationId, enrolmentId, isScheduled);
-                    }
-                    /*
-                    If notification strategy has not enable to send push notification using scheduler task
-                    we will send notification immediately
-                    */
-                    if (notificationStrategy != null && !isScheduled) {
-                        try {
-                            if (log.isDebugEnabled()) {
-                                log.debug("Sending push notification to " + deviceId + " from add operation method.");
-                            }
-                            operation.setId(operationId);
-                            operation.setActivityId(DeviceManagementConstants.OperationAttributes.ACTIVITY + operationId);
-                            notificationStrategy.execute(new NotificationContext(deviceId, operation));
-                            operationMappingDAO.updateOperationMapping(operationId, enrolmentId, org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation.PushNotificationStatus.COMPLETED);
-                        } catch (PushNotificationExecutionFailedException e) {
-                            log.error("Error occurred while sending push notifications to " +
-                                    deviceId.getType() + " device carrying id '" +
-                                    deviceId + "'", e);
-                            // Reschedule if push notification failed.
-                            operationMappingDAO.updateOperationMapping(operationId, enrolmentId, org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation.PushNotificationStatus.SCHEDULED);
-                        }
+                        operationDAO.updateEnrollmentOperationsStatus(enrolmentIdBatch, operationCode,
+                                org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation.Status.PENDING,
+                                org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation.Status.REPEATED);
                     }
+                    operationMappingDAO.addOperationMappings(operationId, enrolmentIdBatch,
+                            isNotificationPending);
                 }
 
                 OperationManagementDAOFactory.commitTransaction();
+
+                /*
+                If notification strategy has not enable to send push notification using scheduler task
+                we will send notification once the operation is committed
+                */
+                if (notificationDispatcher != null && !isScheduled) {
+                    operation.setId(operationId);
+                    operation.setActivityId(DeviceManagementConstants.OperationAttributes.ACTIVITY + operationId);
+                    notifiedEnrolments = enrolments;
+                }
+
                 Activity activity = new Activity();
                 activity.setActivityId(DeviceManagementConstants.OperationAttributes.ACTIVITY + operationId);
                 activity.setCode(operationCode);
@@ -228,6 +236,11 @@ public class OperationManagerImpl implements OperationManager {
             throw new OperationManagementException("Error occurred while initiating the transaction", e);
         } finally {
             OperationManagementDAOFactory.closeConnection();
+            // Notifications are dispatched only after the connection is released, since a full dispatcher queue
+            // sends the notifications in this thread.
+            if (notifiedEnrolments != null) {
+                notificationDispatcher.dispatch(operation, notifiedEnrolments);
+            }
         }
     }
 
@@ -270,14 +283,21 @@ public class OperationManagerImpl implements OperationManager {
             if (operation != null && isAuthenticationSkippedOperation(operation)) {
                 authorizedDeviceList = deviceIds;
             } else {
-                boolean isAuthorized;
-                authorizedDeviceList = new ArrayList<>();
-                for (DeviceIdentifier devId : deviceIds) {
-                    isAuthorized = DeviceManagementDataHolder.getInstance().getDeviceAccessAuthorizationService().
-                            isUserAuthorized(devId);
-                    if (isAuthorized) {
-                        authorizedDeviceList.add(devId);
-                    } else {
+                DeviceAuthorizationResult authorizationResult = DeviceManagementDataHolder.getInstance().
+                        getDeviceAccessAuthorizationService().isUserAuthorized(deviceIds);
+                if (authorizationResult == null) {
+                    // No user in the context, hence the access is decided by the device type as for a single device.
+                    authorizedDeviceList = new ArrayList<>();
+                    for (DeviceIdentifier devId : deviceIds) {
+                        if (DeviceManagementDataHolder.getInstance().requireDeviceAuthorization(devId.getType())) {
+                            unAuthorizedDeviceList.add(devId.getId());
+                        } else {
+                            authorizedDeviceList.add(devId);
+                        }
+                    }
+                } else {
+                    authorizedDeviceList = authorizationResult.getAuthorizedDevices();
+                    for (DeviceIdentifier devId : authorizationResult.getUnauthorizedDevices()) {
                         unAuthorizedDeviceList.add(devId.getId());
                     }
                 }
@@ -291,6 +311,90 @@ public class OperationManagerImpl implements OperationManager {
         return deviceIDHolder;
     }
 
+    /**
+     * Resolves the enrolments of the given devices from the device cache, and the devices which are not cached with
+     * one query per device type and batch, instead of loading each device separately. The devices loaded from the
+     * database are added to the device cache.
+     *
+     * @param deviceIds device identifiers to be resolved.
+     * @param batchSize maximum number of devices resolved by a single query.
+     * @return map of enrolment id against the device identifier, in the order of the given list.
+     * @throws OperationManagementException if the enrolments could not be retrieved.
+     */
+    private Map<Integer, DeviceIdentifier> getEnrolments(List<DeviceIdentifier> deviceIds, int batchSize)
+            throws OperationManagementException {
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        DeviceCacheManager deviceCacheManager = DeviceCacheManagerImpl.getInstance();
+        Map<DeviceIdentifier, Device> devices = deviceCacheManager.getDevicesFromCache(deviceIds, tenantId);
+        Map<String, List<DeviceIdentifier>> deviceIdsByType = new LinkedHashMap<>();
+        for (DeviceIdentifier deviceId : deviceIds) {
+            if (devices.containsKey(deviceId)) {
+                continue;
+            }
+            List<DeviceIdentifier> typeDeviceIds = deviceIdsByType.get(deviceId.getType());
+            if (typeDeviceIds == null) {
+                typeDeviceIds = new ArrayList<>();
+                deviceIdsByType.put(deviceId.getType(), typeDeviceIds);
+            }
+            typeDeviceIds.add(deviceId);
+        }
+        if (!deviceIdsByType.isEmpty()) {
+            List<Device> loadedDevices = new ArrayList<>();
+            try {
+                DeviceManagementDAOFactory.openConnection();
+                for (Map.Entry<String, List<DeviceIdentifier>> entry : deviceIdsByType.entrySet()) {
+                    List<DeviceIdentifier> typeDeviceIds = entry.getValue();
+                    for (int from = 0; from < typeDeviceIds.size(); from += batchSize) {
+                        List<DeviceIdentifier> deviceIdBatch = typeDeviceIds.subList(from,
+                                Math.min(from + batchSize, typeDeviceIds.size()));
+                        List<String> identifiers = new ArrayList<>(deviceIdBatch.size());
+                        for (DeviceIdentifier deviceId : deviceIdBatch) {
+                            identifiers.add(deviceId.getId());
+                        }
+                        Map<String, Device> batchDevices = deviceDAO.getDevices(entry.getKey(), identifiers,
+                                tenantId);
+                        for (DeviceIdentifier deviceId : deviceIdBatch) {
+                            Device device = batchDevices.get(deviceId.getId());
+                            if (device != null) {
+                                devices.put(deviceId, device);
+                            }
+                        }
+                        loadedDevices.addAll(batchDevices.values());
+                    }
+                }
+            } catch (DeviceManagementDAOException e) {
+                throw new OperationManagementException("Error occurred while retrieving enrolments of the devices",
+                        e);
+            } catch (SQLException e) {
+                throw new OperationManagementException(
+                        "Error occurred while opening a connection to the data source", e);
+            } finally {
+                DeviceManagementDAOFactory.closeConnection();
+            }
+            deviceCacheManager.addDevicesToCache(loadedDevices, tenantId);
+        }
+        Map<Integer, DeviceIdentifier> enrolments = new LinkedHashMap<>();
+        for (DeviceIdentifier deviceId : deviceIds) {
+            Device device = devices.get(deviceId);
+            if (device == null || device.getEnrolmentInfo() == null) {
+                log.warn("Enrolment not found for " + deviceId.getType() + " device carrying id '" +
+                        deviceId.getId() + "', hence operation is not added to it.");
+            } else {
+                enrolments.put(device.getEnrolmentInfo().getId(), deviceId);
+            }
+        }
+        return enrolments;
+    }
+
+    private int getBatchSize() {
+        OperationConfiguration operationConfiguration = DeviceConfigurationManager.getInstance().
+                getDeviceManagementConfig().getOperationConfiguration();
+        if (operationConfiguration != null && operationConfiguration.getBatchSize() > 0) {
+            return operationConfiguration.getBatchSize();
+        }
+        return OperationConfiguration.DEFAULT_BATCH_SIZE;
+    }
+
     private Device getDevice(DeviceIdentifier deviceId) throws OperationManagementException {
         try {
             return DeviceManagementDataHolder.getInstance().getDeviceManagementProvider().getDevice(deviceId, false);
@@ -391,50 +495,26 @@ public class OperationManagerImpl implements OperationManager {
     @Override
     public List<? extends Operation> getPendingOperations(DeviceIdentifier deviceId) throws
             OperationManagementException {
+        return this.getPendingOperations(deviceId, 0, 0);
+    }
+
+    @Override
+    public List<? extends Operation> getPendingOperations(DeviceIdentifier deviceId, int lastOperationId, int limit)
+            throws OperationManagementException {
         if (log.isDebugEnabled()) {
             log.debug("Device identifier id:[" + deviceId.getId() + "] type:[" + deviceId.getType() + "]");
         }
         List<Operation> operations = new ArrayList<>();
-        List<org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation> dtoOperationList = new ArrayList<>();
-
-        if (!isActionAuthorized(deviceId)) {
-            throw new OperationManagementException("User '" + getUser() + "' is not authorized to access the '" +
-                    deviceId.getType() + "' device, which carries the identifier '" +
-                    deviceId.getId() + "'");
-        }
-
-        //
-        EnrolmentInfo enrolmentInfo = this.getActiveEnrolmentInfo(deviceId);
-        if (enrolmentInfo == null) {
-            throw new OperationManagementException("Device not found for the given device Identifier:" +
-                    deviceId.getId() + " and given type:" +
-                    deviceId.getType());
-        }
-        int enrolmentId = enrolmentInfo.getId();
-        //Changing the enrollment status & attempt count if the device is marked as inactive or unreachable
-        switch (enrolmentInfo.getStatus()) {
-            case INACTIVE:
-            case UNREACHABLE:
-                this.setEnrolmentStatus(enrolmentId, EnrolmentInfo.Status.ACTIVE);
-                break;
-        }
 
+        int enrolmentId = this.getPollingEnrolmentId(deviceId);
         try {
             OperationManagementDAOFactory.openConnection();
-            dtoOperationList.addAll(commandOperationDAO.getOperationsByDeviceAndStatus(
-                    enrolmentId, org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation.Status.PENDING));
-            dtoOperationList.addAll(configOperationDAO.getOperationsByDeviceAndStatus(
-                    enrolmentId, org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation.Status.PENDING));
-            dtoOperationList.addAll(profileOperationDAO.getOperationsByDeviceAndStatus(
-                    enrolmentId, org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation.Status.PENDING));
-            dtoOperationList.addAll(policyOperationDAO.getOperationsByDeviceAndStatus(
-                    enrolmentId, org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation.Status.PENDING));
-            Operation operation;
-            for (org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation dtoOperation : dtoOperationList) {
-                operation = OperationDAOUtil.convertOperation(dtoOperation);
-                operations.add(operation);
+            // A single ordered query instead of one per operation type, which returns the operations already in the
+            // order they were created.
+            for (org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation dtoOperation :
+                    operationDAO.getPendingOperations(enrolmentId, lastOperationId, limit)) {
+                operations.add(OperationDAOUtil.convertOperation(dtoOperation));
             }
-            Collections.sort(operations, new OperationCreateTimeComparator());
         } catch (OperationManagementDAOException e) {
             throw new OperationManagementException("Error occurred while retrieving the list of " +
                     "pending operations assigned for '" + deviceId.getType() +
@@ -455,6 +535,30 @@ public class OperationManagerImpl implements OperationManager {
         }
         Operation operation = null;
 
+        int enrolmentId = this.getPollingEnrolmentId(deviceId);
+        try {
+            OperationManagementDAOFactory.openConnection();
+            List<? extends org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation> dtoOperations =
+                    operationDAO.getPendingOperations(enrolmentId, 0, 1);
+            if (!dtoOperations.isEmpty()) {
+                operation = OperationDAOUtil.convertOperation(dtoOperations.get(0));
+            }
+        } catch (OperationManagementDAOException e) {
+            throw new OperationManagementException("Error occurred while retrieving next pending operation", e);
+        } catch (SQLException e) {
+            throw new OperationManagementException(
+                    "Error occurred while opening a connection to the data source", e);
+        } finally {
+            OperationManagementDAOFactory.closeConnection();
+        }
+        return operation;
+    }
+
+    /**
+     * Authorizes the access to the device and returns the id of its active enrolment, which is marked as active
+     * again if the device was inactive or unreachable, as the device is polling for its operations.
+     */
+    private int getPollingEnrolmentId(DeviceIdentifier deviceId) throws OperationManagementException {
         if (!isActionAuthorized(deviceId)) {
             throw new OperationManagementException("User '" + getUser() + "' is not authorized to access the '" +
                     deviceId.getType() + "' device, which carries the identifier '" +
@@ -463,8 +567,8 @@ public class OperationManagerImpl implements OperationManager {
 
         EnrolmentInfo enrolmentInfo = this.getActiveEnrolmentInfo(deviceId);
         if (enrolmentInfo == null) {
-            throw new OperationManagementException("Device not found for given device " +
-                    "Identifier:" + deviceId.getId() + " and given type" +
+            throw new OperationManagementException("Device not found for the given device Identifier:" +
+                    deviceId.getId() + " and given type:" +
                     deviceId.getType());
         }
         int enrolmentId = enrolmentInfo.getId();
@@ -475,40 +579,7 @@ public class OperationManagerImpl implements OperationManager {
                 this.setEnrolmentStatus(enrolmentId, EnrolmentInfo.Status.ACTIVE);
                 break;
         }
-
-        try {
-            OperationManagementDAOFactory.openConnection();
-            org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation dtoOperation = operationDAO.getNextOperation(
-                    enrolmentInfo.getId());
-            if (dtoOperation != null) {
-                if (org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation.Type.COMMAND.equals(dtoOperation.getType()
-                )) {
-                    org.wso2.carbon.device.mgt.core.dto.operation.mgt.CommandOperation commandOperation;
-                    commandOperation =
-                            (org.wso2.carbon.device.mgt.core.dto.operation.mgt.CommandOperation) commandOperationDAO.
-                                    getOperation(dtoOperation.getId());
-                    dtoOperation.setEnabled(commandOperation.isEnabled());
-                } else if (org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation.Type.CONFIG.equals(dtoOperation.
-                        getType())) {
-                    dtoOperation = configOperationDAO.getOperation(dtoOperation.getId());
-                } else if (org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation.Type.PROFILE.equals(dtoOperation.
-                        getType())) {
-                    dtoOperation = profileOperationDAO.getOperation(dtoOperation.getId());
-                } else if (org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation.Type.POLICY.equals(dtoOperation.
-                        getType())) {
-                    dtoOperation = policyOperationDAO.getOperation(dtoOperation.getId());
-                }
-                operation = OperationDAOUtil.convertOperation(dtoOperation);
-            }
-        } catch (OperationManagementDAOException e) {
-            throw new OperationManagementException("Error occurred while retrieving next pending operation", e);
-        } catch (SQLException e) {
-            throw new OperationManagementException(
-                    "Error occurred while opening a connection to the data source", e);
-        } finally {
-            OperationManagementDAOFactory.closeConnection();
-        }
-        return operation;
+        return enrolmentId;
     }
 
     @Override
@@ -26,6 +26,7 @@ import org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public interface OperationDAO {
 
@@ -49,13 +50,46 @@ public interface OperationDAO {
 
     Operation getNextOperation(int enrolmentId) throws OperationManagementDAOException;
 
+    /**
+     * This method provides the pending operations of an enrolment along with their payloads, in the order they were
+     * created.
+     * @param enrolmentId Enrolment id of the device
+     * @param lastOperationId Only the operations created after this operation are returned, 0 to start from the first
+     * @param limit Maximum number of operations to be returned, 0 for all
+     * @return Pending operations of the enrolment
+     * @throws OperationManagementDAOException
+     */
+    List<? extends Operation> getPendingOperations(int enrolmentId, int lastOperationId, int limit)
+            throws OperationManagementDAOException;
+
     boolean updateOperationStatus(int enrolmentId, int operationId,Operation.Status status)
             throws OperationManagementDAOException;
 
     void updateEnrollmentOperationsStatus(int enrolmentId, String operationCode, Operation.Status existingStatus,
                                           Operation.Status newStatus) throws OperationManagementDAOException;
 
-    boolean updateTaskOperation(int enrolmentId, String operationCode) throws OperationManagementDAOException;
+    /**
+     * This method moves the operations of the given code from one status to another for a set of enrolments using a
+     * single update.
+     * @param enrolmentIds Enrolments to be updated
+     * @param operationCode Operation code
+     * @param existingStatus Current status of the operation mappings
+     * @param newStatus Status to be set
+     * @throws OperationManagementDAOException
+     */
+    void updateEnrollmentOperationsStatus(List<Integer> enrolmentIds, String operationCode,
+                                          Operation.Status existingStatus, Operation.Status newStatus)
+            throws OperationManagementDAOException;
+
+    /**
+     * This method provides the subset of given enrolments which already have a pending operation of the given code.
+     * @param enrolmentIds Enrolments to be checked
+     * @param operationCode Operation code
+     * @return Enrolment ids having a pending operation of the given code
+     * @throws OperationManagementDAOException
+     */
+    Set<Integer> getEnrolmentsWithPendingOperation(List<Integer> enrolmentIds, String operationCode)
+            throws OperationManagementDAOException;
 
     void addOperationResponse(int enrolmentId, int operationId, Object operationResponse)
             throws OperationManagementDAOException;
@@ -72,11 +106,13 @@ public interface OperationDAO {
      * This method provides operation mappings for given status
      * @param opStatus Operation status
      * @param pushNotificationStatus Push notification Status
+     * @param createdBefore Only the mappings created before this time, in seconds, are returned
      * @param limit Limit for no devices
      * @return Tenant based operation mappings list
      * @throws OperationManagementDAOException
      */
     Map<Integer, List<OperationMapping>> getOperationMappingsByStatus(Operation.Status opStatus, Operation.PushNotificationStatus pushNotificationStatus,
-                                                                     int limit) throws OperationManagementDAOException;
+                                                                     long createdBefore, int limit)
+            throws OperationManagementDAOException;
 
 }
\ No newline at end of file
@@ -63,6 +63,16 @@ public class OperationManagementDAOFactory {
     }
 
     public static OperationMappingDAO getOperationMappingDAO() {
+        if (databaseEngine != null) {
+            switch (databaseEngine) {
+                case DeviceManagementConstants.DataBaseTypes.DB_TYPE_ORACLE:
+                    return new OracleOperationMappingDAOImpl();
+                case DeviceManagementConstants.DataBaseTypes.DB_TYPE_MSSQL:
+                    return new SQLServerOperationMappingDAOImpl();
+                default:
+                    break;
+            }
+        }
         return new OperationMappingDAOImpl();
     }
 
@@ -24,12 +24,22 @@ import org.wso2.carbon.device.mgt.core.operation.mgt.OperationEnrolmentMapping;
 import org.wso2.carbon.device.mgt.core.operation.mgt.OperationMapping;
 
 import java.util.List;
-import java.util.Map;
 
 public interface OperationMappingDAO {
 
     void addOperationMapping(int operationId, Integer deviceId, boolean isScheduled) throws OperationManagementDAOException;
 
+    /**
+     * This method maps an operation to a set of enrolments using a batch insert.
+     *
+     * @param operationId - Id of the operation
+     * @param enrolmentIds - Ids of the enrolments the operation is added to
+     * @param isScheduled - Whether push notifications of the operation are sent by the scheduler task
+     * @throws OperationManagementDAOException
+     */
+    void addOperationMappings(int operationId, List<Integer> enrolmentIds, boolean isScheduled)
+            throws OperationManagementDAOException;
+
     void removeOperationMapping(int operationId, Integer deviceId) throws OperationManagementDAOException;
 
     void updateOperationMapping(int operationId, Integer deviceId, Operation.PushNotificationStatus pushNotificationStatus) throws
@@ -38,29 +48,22 @@ public interface OperationMappingDAO {
             OperationManagementDAOException;
 
     /**
-     * This method returns first pending/repeated operation available for each active enrolment of given device-type
-     * where the operation was created after the given timestamp.
+     * This method returns a page of the first pending/repeated operation available for each active enrolment of
+     * given device-type, along with the time of the last completed operation of the enrolment. Enrolments are
+     * returned in the ascending order of their ids, starting after the given enrolment id.
      *
      * @param minDuration - Upper limit of Operation created time
-     * @param maxDuration - Lower limit of Operation created time
+     * @param maxDuration - Lower limit of Operation created time and of the considered last activity time
      * @param deviceTypeId - Device Type Id of required devices
+     * @param lastEnrolmentId - Id of the last enrolment of the previous page, 0 for the first page
+     * @param limit - Maximum number of enrolments to be returned
      * @return List<OperationEnrolmentMapping> - List of OperationEnrolmentMapping objects containing required data
      * @throws OperationManagementDAOException
      */
     List<OperationEnrolmentMapping> getFirstPendingOperationMappingsForActiveEnrolments(long minDuration,
-                                                                                        long maxDuration, int deviceTypeId)
-            throws OperationManagementDAOException;
-
-    /**
-     * This method returns the timestamp of last completed Operation for each active enrolment of given device-type
-     * where the operation was completed after the given timestamp.
-     *
-     * @param timeStamp - Timestamp of considered time-interval
-     * @param deviceTypeId - Device Type of required devices
-     * @return List<OperationEnrolmentMapping> - List of OperationEnrolmentMapping objects containing required data
-     * @throws OperationManagementDAOException
-     */
-    Map<Integer, Long> getLastConnectedTimeForActiveEnrolments(long timeStamp, int deviceTypeId)
+                                                                                        long maxDuration,
+                                                                                        int deviceTypeId,
+                                                                                        int lastEnrolmentId, int limit)
             throws OperationManagementDAOException;
 
 }
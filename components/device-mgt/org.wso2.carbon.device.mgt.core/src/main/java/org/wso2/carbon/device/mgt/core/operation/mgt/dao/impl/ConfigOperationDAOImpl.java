@@ -21,13 +21,14 @@ package org.wso2.carbon.device.mgt.core.operation.mgt.dao.impl;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.device.mgt.core.dao.util.codec.PayloadCodecs;
 import org.wso2.carbon.device.mgt.core.dto.operation.mgt.ConfigOperation;
 import org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOException;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOFactory;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOUtil;
 
-import java.io.*;
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -48,10 +49,13 @@ public class ConfigOperationDAOImpl extends GenericOperationDAOImpl {
             Connection conn = OperationManagementDAOFactory.getConnection();
             stmt = conn.prepareStatement("INSERT INTO DM_CONFIG_OPERATION(OPERATION_ID, OPERATION_CONFIG) VALUES(?, ?)");
             stmt.setInt(1, operationId);
-            stmt.setObject(2, operation);
+            stmt.setBytes(2, PayloadCodecs.encode(operation));
             stmt.executeUpdate();
         } catch (SQLException e) {
             throw new OperationManagementDAOException("Error occurred while adding command operation", e);
+        } catch (IOException e) {
+            throw new OperationManagementDAOException("Error occurred while serializing configuration operation " +
+                    "object", e);
         } finally {
             OperationManagementDAOUtil.cleanupResources(stmt);
         }
@@ -63,9 +67,6 @@ public class ConfigOperationDAOImpl extends GenericOperationDAOImpl {
         PreparedStatement stmt = null;
         ResultSet rs = null;
         ConfigOperation configOperation = null;
-
-        ByteArrayInputStream bais;
-        ObjectInputStream ois;
         try {
             Connection conn = OperationManagementDAOFactory.getConnection();
             String sql = "SELECT OPERATION_ID, ENABLED, OPERATION_CONFIG FROM DM_CONFIG_OPERATION WHERE OPERATION_ID = ?";
@@ -75,9 +76,7 @@ public class ConfigOperationDAOImpl extends GenericOperationDAOImpl {
 
             if (rs.next()) {
                 byte[] operationDetails = rs.getBytes("OPERATION_CONFIG");
-                bais = new ByteArrayInputStream(operationDetails);
-                ois = new ObjectInputStream(bais);
-                configOperation = (ConfigOperation) ois.readObject();
+                configOperation = (ConfigOperation) PayloadCodecs.decode(operationDetails);
                 configOperation.setId(rs.getInt("OPERATION_ID"));
                 configOperation.setEnabled(rs.getBoolean("ENABLED"));
             }
@@ -104,9 +103,6 @@ public class ConfigOperationDAOImpl extends GenericOperationDAOImpl {
         ResultSet rs = null;
         ConfigOperation configOperation;
         List<Operation> operations = new ArrayList<>();
-
-        ByteArrayInputStream bais = null;
-        ObjectInputStream ois = null;
         try {
             Connection conn = OperationManagementDAOFactory.getConnection();
             String sql = "SELECT co.OPERATION_ID, co.OPERATION_CONFIG FROM DM_CONFIG_OPERATION co " +
@@ -120,9 +116,7 @@ public class ConfigOperationDAOImpl extends GenericOperationDAOImpl {
 
             while (rs.next()) {
                 byte[] operationDetails = rs.getBytes("OPERATION_CONFIG");
-                bais = new ByteArrayInputStream(operationDetails);
-                ois = new ObjectInputStream(bais);
-                configOperation = (ConfigOperation) ois.readObject();
+                configOperation = (ConfigOperation) PayloadCodecs.decode(operationDetails);
                 configOperation.setStatus(status);
                 configOperation.setId(rs.getInt("OPERATION_ID"));
                 operations.add(configOperation);
@@ -137,20 +131,6 @@ public class ConfigOperationDAOImpl extends GenericOperationDAOImpl {
             throw new OperationManagementDAOException("SQL error occurred while retrieving the operation available " +
                     "for the device'" + enrolmentId + "' with status '" + status.toString(), e);
         } finally {
-            if (bais != null) {
-                try {
-                    bais.close();
-                } catch (IOException e) {
-                    log.warn("Error occurred while closing ByteArrayOutputStream", e);
-                }
-            }
-            if (ois != null) {
-                try {
-                    ois.close();
-                } catch (IOException e) {
-                    log.warn("Error occurred while closing ObjectOutputStream", e);
-                }
-            }
             OperationManagementDAOUtil.cleanupResources(stmt, rs);
         }
         return operations;
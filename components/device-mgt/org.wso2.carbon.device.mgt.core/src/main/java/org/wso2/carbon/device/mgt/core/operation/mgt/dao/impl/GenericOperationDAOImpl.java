@@ -25,6 +25,9 @@ import org.wso2.carbon.device.mgt.common.PaginationRequest;
 import org.wso2.carbon.device.mgt.common.operation.mgt.Activity;
 import org.wso2.carbon.device.mgt.common.operation.mgt.ActivityStatus;
 import org.wso2.carbon.device.mgt.common.operation.mgt.OperationResponse;
+import org.wso2.carbon.device.mgt.core.dao.util.DeviceManagementDAOUtil;
+import org.wso2.carbon.device.mgt.core.dao.util.codec.PayloadCodecs;
+import org.wso2.carbon.device.mgt.core.dto.operation.mgt.CommandOperation;
 import org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation;
 import org.wso2.carbon.device.mgt.core.operation.mgt.OperationMapping;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationDAO;
@@ -33,11 +36,7 @@ import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOF
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOUtil;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.util.OperationDAOUtil;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -47,9 +46,12 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * This class holds the generic implementation of OperationDAO which can be used to support ANSI db syntax.
@@ -149,28 +151,64 @@ public class GenericOperationDAOImpl implements OperationDAO {
     }
 
     @Override
-    public boolean updateTaskOperation(int enrolmentId, String operationCode)
+    public void updateEnrollmentOperationsStatus(List<Integer> enrolmentIds, String operationCode,
+                                                 Operation.Status existingStatus, Operation.Status newStatus)
             throws OperationManagementDAOException {
+        if (enrolmentIds.isEmpty()) {
+            return;
+        }
+        PreparedStatement stmt = null;
+        try {
+            Connection connection = OperationManagementDAOFactory.getConnection();
+            String query = "UPDATE DM_ENROLMENT_OP_MAPPING SET STATUS = ?, UPDATED_TIMESTAMP = ? WHERE STATUS = ? " +
+                    "AND OPERATION_ID IN (SELECT ID FROM DM_OPERATION WHERE OPERATION_CODE = ?) AND ENROLMENT_ID IN (" +
+                    DeviceManagementDAOUtil.getInClause(enrolmentIds.size()) + ")";
+            stmt = connection.prepareStatement(query);
+            int index = 1;
+            stmt.setString(index++, newStatus.toString());
+            stmt.setLong(index++, System.currentTimeMillis() / 1000);
+            stmt.setString(index++, existingStatus.toString());
+            stmt.setString(index++, operationCode);
+            for (Integer enrolmentId : enrolmentIds) {
+                stmt.setInt(index++, enrolmentId);
+            }
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new OperationManagementDAOException("Error occurred while updating the status of '" +
+                    operationCode + "' operations of " + enrolmentIds.size() + " enrolments", e);
+        } finally {
+            OperationManagementDAOUtil.cleanupResources(stmt);
+        }
+    }
+
+    @Override
+    public Set<Integer> getEnrolmentsWithPendingOperation(List<Integer> enrolmentIds, String operationCode)
+            throws OperationManagementDAOException {
+        Set<Integer> result = new HashSet<>();
+        if (enrolmentIds.isEmpty()) {
+            return result;
+        }
         PreparedStatement stmt = null;
         ResultSet rs = null;
-        boolean result = false;
         try {
             Connection connection = OperationManagementDAOFactory.getConnection();
-            String query = "SELECT EOM.ID FROM DM_ENROLMENT_OP_MAPPING EOM INNER JOIN DM_OPERATION DM "
-                    + "ON DM.ID = EOM.OPERATION_ID WHERE EOM.ENROLMENT_ID = ? AND DM.OPERATION_CODE = ? AND "
-                    + "EOM.STATUS = ?";
+            String query = "SELECT DISTINCT EOM.ENROLMENT_ID FROM DM_ENROLMENT_OP_MAPPING EOM INNER JOIN DM_OPERATION DM "
+                    + "ON DM.ID = EOM.OPERATION_ID WHERE DM.OPERATION_CODE = ? AND EOM.STATUS = ? AND "
+                    + "EOM.ENROLMENT_ID IN (" + DeviceManagementDAOUtil.getInClause(enrolmentIds.size()) + ")";
             stmt = connection.prepareStatement(query);
-            stmt.setInt(1, enrolmentId);
-            stmt.setString(2, operationCode);
-            stmt.setString(3, Operation.Status.PENDING.toString());
-            // This will return only one result always.
+            int index = 1;
+            stmt.setString(index++, operationCode);
+            stmt.setString(index++, Operation.Status.PENDING.toString());
+            for (Integer enrolmentId : enrolmentIds) {
+                stmt.setInt(index++, enrolmentId);
+            }
             rs = stmt.executeQuery();
-            if (rs.next()) {
-                result = true;
+            while (rs.next()) {
+                result.add(rs.getInt("ENROLMENT_ID"));
             }
         } catch (SQLException e) {
-            throw new OperationManagementDAOException(
-                    "Error occurred while update device mapping operation status " + "metadata", e);
+            throw new OperationManagementDAOException("Error occurred while retrieving enrolments having pending '" +
+                    operationCode + "' operations", e);
         } finally {
             OperationManagementDAOUtil.cleanupResources(stmt, rs);
         }
@@ -181,8 +219,6 @@ public class GenericOperationDAOImpl implements OperationDAO {
     public void addOperationResponse(int enrolmentId, int operationId, Object operationResponse)
             throws OperationManagementDAOException {
         PreparedStatement stmt = null;
-        ByteArrayOutputStream bao = null;
-        ObjectOutputStream oos = null;
         ResultSet rs = null;
         try {
             Connection connection = OperationManagementDAOFactory.getConnection();
@@ -199,35 +235,17 @@ public class GenericOperationDAOImpl implements OperationDAO {
             }
             stmt = connection.prepareStatement("INSERT INTO DM_DEVICE_OPERATION_RESPONSE(OPERATION_ID, ENROLMENT_ID, " +
                     "EN_OP_MAP_ID, OPERATION_RESPONSE, RECEIVED_TIMESTAMP) VALUES(?, ?, ?, ?, ?)");
-            bao = new ByteArrayOutputStream();
-            oos = new ObjectOutputStream(bao);
-            oos.writeObject(operationResponse);
-
             stmt.setInt(1, operationId);
             stmt.setInt(2, enrolmentId);
             stmt.setInt(3, enPrimaryId);
-            stmt.setBytes(4, bao.toByteArray());
+            stmt.setBytes(4, PayloadCodecs.encode(operationResponse));
             stmt.setTimestamp(5, new Timestamp(new Date().getTime()));
             stmt.executeUpdate();
         } catch (SQLException e) {
             throw new OperationManagementDAOException("Error occurred while inserting operation response", e);
         } catch (IOException e) {
-            throw new OperationManagementDAOException("Error occurred while serializing policy operation object", e);
+            throw new OperationManagementDAOException("Error occurred while serializing operation response", e);
         } finally {
-            if (bao != null) {
-                try {
-                    bao.close();
-                } catch (IOException e) {
-                    log.warn("Error occurred while closing ByteArrayOutputStream", e);
-                }
-            }
-            if (oos != null) {
-                try {
-                    oos.close();
-                } catch (IOException e) {
-                    log.warn("Error occurred while closing ObjectOutputStream", e);
-                }
-            }
             OperationManagementDAOUtil.cleanupResources(stmt, rs);
         }
     }
@@ -894,6 +912,137 @@ public class GenericOperationDAOImpl implements OperationDAO {
         }
     }
 
+    @Override
+    public List<? extends Operation> getPendingOperations(int enrolmentId, int lastOperationId, int limit)
+            throws OperationManagementDAOException {
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        // Operations against their ids, in the order they are returned
+        Map<Integer, Operation> operations = new LinkedHashMap<>();
+        List<Integer> profileIds = new ArrayList<>();
+        List<Integer> policyIds = new ArrayList<>();
+        List<Integer> configIds = new ArrayList<>();
+        try {
+            Connection conn = OperationManagementDAOFactory.getConnection();
+            // Operation ids follow the order in which the operations are created, hence they are used both for the
+            // ordering and as the cursor. The payloads are not carried through the join and the ordering; they are
+            // loaded afterwards from their own detail table, only for the operations of the page.
+            String sql = "SELECT o.ID, o.TYPE, o.CREATED_TIMESTAMP, o.RECEIVED_TIMESTAMP, o.OPERATION_CODE, " +
+                    "co.OPERATION_ID AS COMMAND_ID, co.ENABLED AS COMMAND_ENABLED, cfo.OPERATION_ID AS CONFIG_ID, " +
+                    "pro.OPERATION_ID AS PROFILE_ID, plo.OPERATION_ID AS POLICY_ID " +
+                    "FROM DM_ENROLMENT_OP_MAPPING om INNER JOIN DM_OPERATION o ON o.ID = om.OPERATION_ID " +
+                    "LEFT JOIN DM_COMMAND_OPERATION co ON co.OPERATION_ID = o.ID " +
+                    "LEFT JOIN DM_CONFIG_OPERATION cfo ON cfo.OPERATION_ID = o.ID " +
+                    "LEFT JOIN DM_PROFILE_OPERATION pro ON pro.OPERATION_ID = o.ID " +
+                    "LEFT JOIN DM_POLICY_OPERATION plo ON plo.OPERATION_ID = o.ID " +
+                    "WHERE om.ENROLMENT_ID = ? AND om.STATUS = ? AND o.ID > ? AND (co.OPERATION_ID IS NOT NULL " +
+                    "OR cfo.OPERATION_ID IS NOT NULL OR pro.OPERATION_ID IS NOT NULL " +
+                    "OR plo.OPERATION_ID IS NOT NULL) ORDER BY o.ID ASC";
+            stmt = conn.prepareStatement(sql);
+            stmt.setInt(1, enrolmentId);
+            stmt.setString(2, Operation.Status.PENDING.toString());
+            stmt.setInt(3, lastOperationId);
+            if (limit > 0) {
+                stmt.setMaxRows(limit);
+            }
+            rs = stmt.executeQuery();
+
+            Operation operation;
+            while (rs.next()) {
+                int operationId = rs.getInt("ID");
+                if (rs.getObject("PROFILE_ID") != null) {
+                    operation = this.getPendingOperationMetadata(rs);
+                    profileIds.add(operationId);
+                } else if (rs.getObject("POLICY_ID") != null) {
+                    operation = this.getPendingOperationMetadata(rs);
+                    policyIds.add(operationId);
+                } else if (rs.getObject("CONFIG_ID") != null) {
+                    operation = this.getPendingOperationMetadata(rs);
+                    configIds.add(operationId);
+                } else {
+                    operation = new CommandOperation();
+                    operation.setId(operationId);
+                    operation.setEnabled(rs.getBoolean("COMMAND_ENABLED"));
+                    operation.setType(Operation.Type.valueOf(rs.getString("TYPE")));
+                    operation.setCreatedTimeStamp(rs.getString("CREATED_TIMESTAMP"));
+                    operation.setReceivedTimeStamp(rs.getString("RECEIVED_TIMESTAMP"));
+                    operation.setCode(rs.getString("OPERATION_CODE"));
+                    OperationDAOUtil.setActivityId(operation, operationId);
+                }
+                operations.put(operationId, operation);
+            }
+            OperationManagementDAOUtil.cleanupResources(stmt, rs);
+            stmt = null;
+            rs = null;
+
+            this.loadPendingPayloads(conn, "DM_PROFILE_OPERATION", "OPERATION_DETAILS", profileIds, operations);
+            this.loadPendingPayloads(conn, "DM_POLICY_OPERATION", "OPERATION_DETAILS", policyIds, operations);
+            this.loadPendingPayloads(conn, "DM_CONFIG_OPERATION", "OPERATION_CONFIG", configIds, operations);
+        } catch (IOException e) {
+            throw new OperationManagementDAOException("IO Error occurred while de serialize the pending " +
+                    "operations of the enrolment '" + enrolmentId + "'", e);
+        } catch (ClassNotFoundException e) {
+            throw new OperationManagementDAOException("Class not found error occurred while de serialize the " +
+                    "pending operations of the enrolment '" + enrolmentId + "'", e);
+        } catch (SQLException e) {
+            throw new OperationManagementDAOException("SQL error occurred while retrieving the pending operations " +
+                    "of the enrolment '" + enrolmentId + "'", e);
+        } finally {
+            OperationManagementDAOUtil.cleanupResources(stmt, rs);
+        }
+        for (Operation operation : operations.values()) {
+            operation.setStatus(Operation.Status.PENDING);
+        }
+        return new ArrayList<>(operations.values());
+    }
+
+    /**
+     * Nothing but the metadata is known of an operation whose payload is missing, hence it stands for the operation
+     * until the payload is loaded.
+     */
+    private Operation getPendingOperationMetadata(ResultSet rs) throws SQLException {
+        Operation operation = new Operation();
+        operation.setId(rs.getInt("ID"));
+        operation.setType(Operation.Type.valueOf(rs.getString("TYPE")));
+        operation.setCreatedTimeStamp(rs.getString("CREATED_TIMESTAMP"));
+        operation.setCode(rs.getString("OPERATION_CODE"));
+        OperationDAOUtil.setActivityId(operation, rs.getInt("ID"));
+        return operation;
+    }
+
+    /**
+     * Replaces the given operations with the ones decoded from their payloads in the given detail table, reading the
+     * payloads in batches of {@link DeviceManagementDAOUtil#MAX_IN_CLAUSE_SIZE} operations.
+     */
+    private void loadPendingPayloads(Connection conn, String table, String payloadColumn, List<Integer> operationIds,
+                                     Map<Integer, Operation> operations)
+            throws SQLException, IOException, ClassNotFoundException {
+        for (int from = 0; from < operationIds.size(); from += DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE) {
+            List<Integer> ids = operationIds.subList(from, Math.min(operationIds.size(),
+                    from + DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE));
+            PreparedStatement stmt = null;
+            ResultSet rs = null;
+            try {
+                stmt = conn.prepareStatement("SELECT OPERATION_ID, " + payloadColumn + " FROM " + table +
+                        " WHERE OPERATION_ID IN (" + DeviceManagementDAOUtil.getInClause(ids.size()) + ")");
+                for (int i = 0; i < ids.size(); i++) {
+                    stmt.setInt(i + 1, ids.get(i));
+                }
+                rs = stmt.executeQuery();
+                while (rs.next()) {
+                    byte[] payload = rs.getBytes(payloadColumn);
+                    if (payload != null) {
+                        Operation operation = (Operation) PayloadCodecs.decode(payload);
+                        // The id of a config operation is not part of its payload.
+                        operation.setId(rs.getInt("OPERATION_ID"));
+                        operations.put(operation.getId(), operation);
+                    }
+                }
+            } finally {
+                OperationManagementDAOUtil.cleanupResources(stmt, rs);
+            }
+        }
+    }
 
     public List<? extends Operation> getOperationsByDeviceStatusAndType(
             int enrolmentId, Operation.Status status, Operation.Type type) throws OperationManagementDAOException {
@@ -946,7 +1095,8 @@ public class GenericOperationDAOImpl implements OperationDAO {
 
     @Override
     public Map<Integer, List<OperationMapping>> getOperationMappingsByStatus(Operation.Status opStatus, Operation.PushNotificationStatus pushNotificationStatus,
-                                                                             int limit) throws OperationManagementDAOException {
+                                                                             long createdBefore, int limit)
+            throws OperationManagementDAOException {
         PreparedStatement stmt = null;
         ResultSet rs = null;
         Connection conn;
@@ -955,13 +1105,15 @@ public class GenericOperationDAOImpl implements OperationDAO {
         try {
             conn = OperationManagementDAOFactory.getConnection();
             String sql = "SELECT op.ENROLMENT_ID, op.OPERATION_ID, d.DEVICE_IDENTIFICATION, dt.NAME as DEVICE_TYPE, " +
-                    "d.TENANT_ID FROM DM_DEVICE d, DM_ENROLMENT_OP_MAPPING op, DM_DEVICE_TYPE dt  WHERE op.STATUS = ?" +
-                    " AND op.PUSH_NOTIFICATION_STATUS = ? AND d.DEVICE_TYPE_ID = dt.ID AND d.ID=op.ENROLMENT_ID ORDER" +
-                    " BY op.OPERATION_ID LIMIT ?";
+                    "d.TENANT_ID FROM DM_DEVICE d, DM_ENROLMENT e, DM_ENROLMENT_OP_MAPPING op, DM_DEVICE_TYPE dt " +
+                    "WHERE op.STATUS = ? AND op.PUSH_NOTIFICATION_STATUS = ? AND d.DEVICE_TYPE_ID = dt.ID " +
+                    "AND e.ID = op.ENROLMENT_ID AND d.ID = e.DEVICE_ID AND op.CREATED_TIMESTAMP < ? " +
+                    "ORDER BY op.OPERATION_ID LIMIT ?";
             stmt = conn.prepareStatement(sql);
             stmt.setString(1, opStatus.toString());
             stmt.setString(2, pushNotificationStatus.toString());
-            stmt.setInt(3, limit);
+            stmt.setLong(3, createdBefore);
+            stmt.setInt(4, limit);
             rs = stmt.executeQuery();
             while (rs.next()) {
                 int tenantID = rs.getInt("TENANT_ID");
@@ -32,9 +32,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public class OperationMappingDAOImpl implements OperationMappingDAO {
 
@@ -66,6 +64,46 @@ public class OperationMappingDAOImpl implements OperationMappingDAO {
         }
     }
 
+    @Override
+    public void addOperationMappings(int operationId, List<Integer> enrolmentIds, boolean isScheduled)
+            throws OperationManagementDAOException {
+        if (enrolmentIds.isEmpty()) {
+            return;
+        }
+        PreparedStatement stmt = null;
+        try {
+            long time = System.currentTimeMillis() / 1000;
+            Connection conn = OperationManagementDAOFactory.getConnection();
+            String sql = "INSERT INTO DM_ENROLMENT_OP_MAPPING(ENROLMENT_ID, OPERATION_ID, STATUS, " +
+                    "PUSH_NOTIFICATION_STATUS, CREATED_TIMESTAMP, UPDATED_TIMESTAMP) VALUES (?, ?, ?, ?, ?, ?)";
+            stmt = conn.prepareStatement(sql);
+            String pushNotificationStatus = isScheduled ? Operation.PushNotificationStatus.SCHEDULED.toString() :
+                    Operation.PushNotificationStatus.COMPLETED.toString();
+            boolean isBatchSupported = conn.getMetaData().supportsBatchUpdates();
+            for (Integer enrolmentId : enrolmentIds) {
+                stmt.setInt(1, enrolmentId);
+                stmt.setInt(2, operationId);
+                stmt.setString(3, Operation.Status.PENDING.toString());
+                stmt.setString(4, pushNotificationStatus);
+                stmt.setLong(5, time);
+                stmt.setLong(6, time);
+                if (isBatchSupported) {
+                    stmt.addBatch();
+                } else {
+                    stmt.executeUpdate();
+                }
+            }
+            if (isBatchSupported) {
+                stmt.executeBatch();
+            }
+        } catch (SQLException e) {
+            throw new OperationManagementDAOException("Error occurred while persisting device operation mappings " +
+                    "as batch", e);
+        } finally {
+            OperationManagementDAOUtil.cleanupResources(stmt, null);
+        }
+    }
+
     @Override
     public void removeOperationMapping(int operationId,
                                        Integer deviceId) throws OperationManagementDAOException {
@@ -138,71 +176,64 @@ public class OperationMappingDAOImpl implements OperationMappingDAO {
 
     @Override
     public List<OperationEnrolmentMapping> getFirstPendingOperationMappingsForActiveEnrolments(long minDuration,
-                                   long maxDuration, int deviceTypeId) throws OperationManagementDAOException {
+                                   long maxDuration, int deviceTypeId, int lastEnrolmentId, int limit)
+            throws OperationManagementDAOException {
         PreparedStatement stmt = null;
         ResultSet rs = null;
-        List<OperationEnrolmentMapping> enrolmentOperationMappingList = null;
+        List<OperationEnrolmentMapping> enrolmentOperationMappingList = new ArrayList<>();
         try {
             Connection conn = OperationManagementDAOFactory.getConnection();
             //We are specifically looking for operation mappings in 'Pending' & 'Repeated' states. Further we want
             //devices to be active at that moment. Hence filtering by 'ACTIVE' & 'UNREACHABLE' device states.
-            String sql = "SELECT ENROLMENT_ID, D.DEVICE_IDENTIFICATION AS DEVICE_IDENTIFIER, MIN(CREATED_TIMESTAMP) " +
-                    "AS CREATED_TIMESTAMP, E.STATUS AS ENROLMENT_STATUS, E.TENANT_ID FROM " +
-                    "DM_ENROLMENT_OP_MAPPING OP INNER JOIN DM_ENROLMENT E ON OP.ENROLMENT_ID = E.ID INNER JOIN " +
-                    "DM_DEVICE D ON E.DEVICE_ID = D.ID WHERE " +
-                    "OP.STATUS IN ('"+ Operation.Status.PENDING.name() + "','" + Operation.Status.REPEATED.name() + "') " +
-                    "AND OP.CREATED_TIMESTAMP BETWEEN ? AND ? AND E.STATUS IN ('" + EnrolmentInfo.Status.ACTIVE.name() +
-                    "','" + EnrolmentInfo.Status.UNREACHABLE.name() + "') AND D.DEVICE_TYPE_ID = ? GROUP BY ENROLMENT_ID," +
-                    " D.DEVICE_IDENTIFICATION, E.STATUS, E.TENANT_ID";
+            //The page is cut inside the derived table, so that the database stops grouping once the page is full
+            //and the last completed operation is resolved with a correlated sub query only for the enrolments of
+            //the current page.
+            String sql = "SELECT P.ENROLMENT_ID, P.DEVICE_IDENTIFIER, P.CREATED_TIMESTAMP, P.ENROLMENT_STATUS, " +
+                    "P.TENANT_ID, (SELECT MAX(C.UPDATED_TIMESTAMP) FROM DM_ENROLMENT_OP_MAPPING C WHERE " +
+                    "C.ENROLMENT_ID = P.ENROLMENT_ID AND C.STATUS = '" + Operation.Status.COMPLETED.name() + "' AND " +
+                    "C.UPDATED_TIMESTAMP >= ?) AS LAST_CONNECTED_TIME FROM (SELECT OP.ENROLMENT_ID, " +
+                    "D.DEVICE_IDENTIFICATION AS DEVICE_IDENTIFIER, MIN(OP.CREATED_TIMESTAMP) AS CREATED_TIMESTAMP, " +
+                    "E.STATUS AS ENROLMENT_STATUS, E.TENANT_ID FROM DM_ENROLMENT_OP_MAPPING OP INNER JOIN " +
+                    "DM_ENROLMENT E ON OP.ENROLMENT_ID = E.ID INNER JOIN DM_DEVICE D ON E.DEVICE_ID = D.ID WHERE " +
+                    "OP.STATUS IN ('" + Operation.Status.PENDING.name() + "','" + Operation.Status.REPEATED.name() +
+                    "') AND OP.CREATED_TIMESTAMP BETWEEN ? AND ? AND E.STATUS IN ('" +
+                    EnrolmentInfo.Status.ACTIVE.name() + "','" + EnrolmentInfo.Status.UNREACHABLE.name() + "') AND " +
+                    "D.DEVICE_TYPE_ID = ? AND OP.ENROLMENT_ID > ? GROUP BY OP.ENROLMENT_ID, D.DEVICE_IDENTIFICATION, " +
+                    "E.STATUS, E.TENANT_ID ORDER BY OP.ENROLMENT_ID " + this.getPageLimitClause() + ") P " +
+                    "ORDER BY P.ENROLMENT_ID";
             stmt = conn.prepareStatement(sql);
             stmt.setLong(1, maxDuration);
-            stmt.setLong(2, minDuration);
-            stmt.setInt(3, deviceTypeId);
+            stmt.setLong(2, maxDuration);
+            stmt.setLong(3, minDuration);
+            stmt.setInt(4, deviceTypeId);
+            stmt.setInt(5, lastEnrolmentId);
+            stmt.setInt(6, limit);
             rs = stmt.executeQuery();
-            enrolmentOperationMappingList = new ArrayList<>();
             while (rs.next()) {
                 OperationEnrolmentMapping enrolmentOperationMapping = this.getEnrolmentOpMapping(rs);
+                long lastConnectedTime = rs.getLong("LAST_CONNECTED_TIME");
+                if (!rs.wasNull()) {
+                    enrolmentOperationMapping.setLastActivityTime(lastConnectedTime);
+                }
                 enrolmentOperationMappingList.add(enrolmentOperationMapping);
             }
         } catch (SQLException e) {
             throw new OperationManagementDAOException("Error occurred while fetching pending operation mappings for " +
-                    "active devices of type '" + deviceTypeId + "'", e);
+                    "active devices of type '" + deviceTypeId + "' after enrolment " + lastEnrolmentId, e);
         } finally {
             OperationManagementDAOUtil.cleanupResources(stmt, rs);
         }
         return enrolmentOperationMappingList;
     }
 
-    @Override
-    public Map<Integer, Long> getLastConnectedTimeForActiveEnrolments(long timeStamp, int deviceTypeId) throws OperationManagementDAOException {
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
-        Map<Integer, Long> lastConnectedTimeMap = null;
-        try {
-            Connection conn = OperationManagementDAOFactory.getConnection();
-            //We are specifically looking for operation mappings in 'Pending' & 'Repeated' states. Further we want
-            //devices to be active at that moment. Hence filtering by 'ACTIVE' & 'UNREACHABLE' device states.
-            String sql = "SELECT OP.ENROLMENT_ID AS EID, MAX(OP.UPDATED_TIMESTAMP) AS LAST_CONNECTED_TIME FROM " +
-                    "DM_ENROLMENT_OP_MAPPING OP INNER JOIN DM_ENROLMENT E ON OP.ENROLMENT_ID = E.ID INNER JOIN " +
-                    "DM_DEVICE D ON E.DEVICE_ID = D.ID WHERE " +
-                    "OP.STATUS = '" + Operation.Status.COMPLETED.name() + "'" +
-                    "AND OP.UPDATED_TIMESTAMP >= ? AND E.STATUS IN ('" + EnrolmentInfo.Status.ACTIVE.name() +
-                    "','" + EnrolmentInfo.Status.UNREACHABLE.name() + "') AND D.DEVICE_TYPE_ID = ? GROUP BY ENROLMENT_ID";
-            stmt = conn.prepareStatement(sql);
-            stmt.setLong(1, timeStamp);
-            stmt.setInt(2, deviceTypeId);
-            rs = stmt.executeQuery();
-            lastConnectedTimeMap = new HashMap<>();
-            while (rs.next()) {
-                lastConnectedTimeMap.put(rs.getInt("EID"), rs.getLong("LAST_CONNECTED_TIME"));
-            }
-        } catch (SQLException e) {
-            throw new OperationManagementDAOException("Error occurred while fetching last connected time for " +
-                    "active devices of type '" + deviceTypeId + "'", e);
-        } finally {
-            OperationManagementDAOUtil.cleanupResources(stmt, rs);
-        }
-        return lastConnectedTimeMap;
+    /**
+     * Returns the clause which limits an ordered query to the number of rows given as its last parameter.
+     * Overridden by the database engines which do not support the LIMIT syntax.
+     *
+     * @return the row limiting clause
+     */
+    protected String getPageLimitClause() {
+        return "LIMIT ?";
     }
 
     private OperationEnrolmentMapping getEnrolmentOpMapping(ResultSet rs) throws SQLException {
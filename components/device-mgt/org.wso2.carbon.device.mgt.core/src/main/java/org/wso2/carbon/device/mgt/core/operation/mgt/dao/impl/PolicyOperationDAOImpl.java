@@ -20,13 +20,14 @@ package org.wso2.carbon.device.mgt.core.operation.mgt.dao.impl;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.device.mgt.core.dao.util.codec.PayloadCodecs;
 import org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation;
 import org.wso2.carbon.device.mgt.core.dto.operation.mgt.PolicyOperation;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOException;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOFactory;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOUtil;
 
-import java.io.*;
+import java.io.IOException;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -39,8 +40,6 @@ public class PolicyOperationDAOImpl extends GenericOperationDAOImpl {
     public int addOperation(Operation operation) throws OperationManagementDAOException {
         int operationId;
         PreparedStatement stmt = null;
-        ByteArrayOutputStream bao = null;
-        ObjectOutputStream oos = null;
         try {
             operationId = super.addOperation(operation);
             operation.setCreatedTimeStamp(new Timestamp(new java.util.Date().getTime()).toString());
@@ -51,32 +50,14 @@ public class PolicyOperationDAOImpl extends GenericOperationDAOImpl {
             stmt = conn.prepareStatement("INSERT INTO DM_POLICY_OPERATION(OPERATION_ID, OPERATION_DETAILS) " +
                     "VALUES(?, ?)");
 
-            bao = new ByteArrayOutputStream();
-            oos = new ObjectOutputStream(bao);
-            oos.writeObject(operation);
-
             stmt.setInt(1, operationId);
-            stmt.setBytes(2, bao.toByteArray());
+            stmt.setBytes(2, PayloadCodecs.encode(operation));
             stmt.executeUpdate();
         } catch (SQLException e) {
             throw new OperationManagementDAOException("Error occurred while adding policy operation", e);
         } catch (IOException e) {
             throw new OperationManagementDAOException("Error occurred while serializing policy operation object", e);
         } finally {
-            if (bao != null) {
-                try {
-                    bao.close();
-                } catch (IOException e) {
-                    log.warn("Error occurred while closing ByteArrayOutputStream", e);
-                }
-            }
-            if (oos != null) {
-                try {
-                    oos.close();
-                } catch (IOException e) {
-                    log.warn("Error occurred while closing ObjectOutputStream", e);
-                }
-            }
             OperationManagementDAOUtil.cleanupResources(stmt);
         }
         return operationId;
@@ -87,9 +68,6 @@ public class PolicyOperationDAOImpl extends GenericOperationDAOImpl {
         PreparedStatement stmt = null;
         ResultSet rs = null;
         PolicyOperation policyOperation = null;
-
-        ByteArrayInputStream bais;
-        ObjectInputStream ois;
         try {
             Connection conn = OperationManagementDAOFactory.getConnection();
             String sql = "SELECT OPERATION_ID, ENABLED, OPERATION_DETAILS FROM DM_POLICY_OPERATION WHERE OPERATION_ID=?";
@@ -99,9 +77,7 @@ public class PolicyOperationDAOImpl extends GenericOperationDAOImpl {
 
             if (rs.next()) {
                 byte[] operationDetails = rs.getBytes("OPERATION_DETAILS");
-                bais = new ByteArrayInputStream(operationDetails);
-                ois = new ObjectInputStream(bais);
-                policyOperation = (PolicyOperation) ois.readObject();
+                policyOperation = (PolicyOperation) PayloadCodecs.decode(operationDetails);
             }
         } catch (IOException e) {
             throw new OperationManagementDAOException("IO Error occurred while de serialize the policy operation " +
@@ -125,9 +101,6 @@ public class PolicyOperationDAOImpl extends GenericOperationDAOImpl {
         ResultSet rs = null;
         PolicyOperation policyOperation;
         List<Operation> operations = new ArrayList<>();
-
-        ByteArrayInputStream bais = null;
-        ObjectInputStream ois = null;
         try {
             Connection conn = OperationManagementDAOFactory.getConnection();
             String sql = "SELECT po.OPERATION_ID, ENABLED, OPERATION_DETAILS FROM DM_POLICY_OPERATION po " +
@@ -141,9 +114,7 @@ public class PolicyOperationDAOImpl extends GenericOperationDAOImpl {
 
             while (rs.next()) {
                 byte[] operationDetails = rs.getBytes("OPERATION_DETAILS");
-                bais = new ByteArrayInputStream(operationDetails);
-                ois = new ObjectInputStream(bais);
-                policyOperation = (PolicyOperation) ois.readObject();
+                policyOperation = (PolicyOperation) PayloadCodecs.decode(operationDetails);
                 policyOperation.setStatus(status);
                 operations.add(policyOperation);
             }
@@ -157,20 +128,6 @@ public class PolicyOperationDAOImpl extends GenericOperationDAOImpl {
             throw new OperationManagementDAOException("SQL error occurred while retrieving the operation " +
                     "available for the device'" + enrolmentId + "' with status '" + status.toString(), e);
         } finally {
-            if (bais != null) {
-                try {
-                    bais.close();
-                } catch (IOException e) {
-                    log.warn("Error occurred while closing ByteArrayOutputStream", e);
-                }
-            }
-            if (ois != null) {
-                try {
-                    ois.close();
-                } catch (IOException e) {
-                    log.warn("Error occurred while closing ObjectOutputStream", e);
-                }
-            }
             OperationManagementDAOUtil.cleanupResources(stmt, rs);
         }
         return operations;
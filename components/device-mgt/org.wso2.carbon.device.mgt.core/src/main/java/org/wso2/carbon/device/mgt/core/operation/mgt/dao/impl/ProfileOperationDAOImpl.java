@@ -20,13 +20,14 @@ package org.wso2.carbon.device.mgt.core.operation.mgt.dao.impl;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.device.mgt.core.dao.util.codec.PayloadCodecs;
 import org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation;
 import org.wso2.carbon.device.mgt.core.dto.operation.mgt.ProfileOperation;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOException;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOFactory;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOUtil;
 
-import java.io.*;
+import java.io.IOException;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -37,8 +38,6 @@ public class ProfileOperationDAOImpl extends GenericOperationDAOImpl {
 
     public int addOperation(Operation operation) throws OperationManagementDAOException {
         PreparedStatement stmt = null;
-        ByteArrayOutputStream bao = null;
-        ObjectOutputStream oos = null;
 
         int operationId;
         try {
@@ -51,32 +50,14 @@ public class ProfileOperationDAOImpl extends GenericOperationDAOImpl {
             stmt = conn.prepareStatement("INSERT INTO DM_PROFILE_OPERATION(OPERATION_ID, OPERATION_DETAILS) " +
                     "VALUES(?, ?)");
 
-            bao = new ByteArrayOutputStream();
-            oos = new ObjectOutputStream(bao);
-            oos.writeObject(operation);
-
             stmt.setInt(1, operationId);
-            stmt.setBytes(2, bao.toByteArray());
+            stmt.setBytes(2, PayloadCodecs.encode(operation));
             stmt.executeUpdate();
         } catch (SQLException e) {
             throw new OperationManagementDAOException("Error occurred while adding profile operation", e);
         } catch (IOException e) {
             throw new OperationManagementDAOException("Error occurred while serializing profile operation object", e);
         } finally {
-            if (bao != null) {
-                try {
-                    bao.close();
-                } catch (IOException e) {
-                    log.warn("Error occurred while closing ByteArrayOutputStream", e);
-                }
-            }
-            if (oos != null) {
-                try {
-                    oos.close();
-                } catch (IOException e) {
-                    log.warn("Error occurred while closing ObjectOutputStream", e);
-                }
-            }
             OperationManagementDAOUtil.cleanupResources(stmt);
         }
         return operationId;
@@ -86,9 +67,6 @@ public class ProfileOperationDAOImpl extends GenericOperationDAOImpl {
         PreparedStatement stmt = null;
         ResultSet rs = null;
         ProfileOperation profileOperation = null;
-
-        ByteArrayInputStream bais;
-        ObjectInputStream ois;
         try {
             Connection conn = OperationManagementDAOFactory.getConnection();
             String sql = "SELECT OPERATION_ID, ENABLED, OPERATION_DETAILS FROM DM_PROFILE_OPERATION WHERE OPERATION_ID=?";
@@ -99,9 +77,7 @@ public class ProfileOperationDAOImpl extends GenericOperationDAOImpl {
 
             if (rs.next()) {
                 byte[] operationDetails = rs.getBytes("OPERATION_DETAILS");
-                bais = new ByteArrayInputStream(operationDetails);
-                ois = new ObjectInputStream(bais);
-                profileOperation = (ProfileOperation) ois.readObject();
+                profileOperation = (ProfileOperation) PayloadCodecs.decode(operationDetails);
             }
         } catch (IOException e) {
             throw new OperationManagementDAOException("IO Error occurred while de serialize the profile " +
@@ -127,9 +103,6 @@ public class ProfileOperationDAOImpl extends GenericOperationDAOImpl {
 
         List<Operation> operationList = new ArrayList<Operation>();
 
-        ByteArrayInputStream bais = null;
-        ObjectInputStream ois = null;
-
         try {
             Connection conn = OperationManagementDAOFactory.getConnection();
             String sql = "Select po.OPERATION_ID, ENABLED, OPERATION_DETAILS from DM_PROFILE_OPERATION po " +
@@ -145,9 +118,7 @@ public class ProfileOperationDAOImpl extends GenericOperationDAOImpl {
 
             while (rs.next()) {
                 byte[] operationDetails = rs.getBytes("OPERATION_DETAILS");
-                bais = new ByteArrayInputStream(operationDetails);
-                ois = new ObjectInputStream(bais);
-                profileOperation = (ProfileOperation) ois.readObject();
+                profileOperation = (ProfileOperation) PayloadCodecs.decode(operationDetails);
                 profileOperation.setStatus(status);
                 operationList.add(profileOperation);
             }
@@ -162,20 +133,6 @@ public class ProfileOperationDAOImpl extends GenericOperationDAOImpl {
             throw new OperationManagementDAOException("SQL error occurred while retrieving the operation " +
                     "available for the device'" + enrolmentId + "' with status '" + status.toString(), e);
         } finally {
-            if (bais != null) {
-                try {
-                    bais.close();
-                } catch (IOException e) {
-                    log.warn("Error occurred while closing ByteArrayOutputStream", e);
-                }
-            }
-            if (ois != null) {
-                try {
-                    ois.close();
-                } catch (IOException e) {
-                    log.warn("Error occurred while closing ObjectOutputStream", e);
-                }
-            }
             OperationManagementDAOUtil.cleanupResources(stmt, rs);
         }
         return operationList;
@@ -0,0 +1,350 @@
+/*
+ *   Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.wso2.carbon.device.mgt.core.push.notification.mgt;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.common.TransactionManagementException;
+import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
+import org.wso2.carbon.device.mgt.common.push.notification.BatchNotificationStrategy;
+import org.wso2.carbon.device.mgt.common.push.notification.NotificationContext;
+import org.wso2.carbon.device.mgt.common.push.notification.NotificationStrategy;
+import org.wso2.carbon.device.mgt.common.push.notification.PushNotificationExecutionFailedException;
+import org.wso2.carbon.device.mgt.core.DeviceManagementConstants;
+import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
+import org.wso2.carbon.device.mgt.core.config.push.notification.PushNotificationConfiguration;
+import org.wso2.carbon.device.mgt.core.operation.mgt.OperationMapping;
+import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOException;
+import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOFactory;
+import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationMappingDAO;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends the push notifications of newly added operations outside of the transaction which persisted them. Each
+ * device type owns a dispatcher with a bounded queue and a worker pool, and notifications are handed over to the
+ * {@link NotificationStrategy} in batches.
+ *
+ * Operation mappings are persisted as SCHEDULED before they are dispatched, and the mappings of the delivered
+ * notifications are moved to COMPLETED with a single batched update per batch. Notifications which could not be
+ * delivered, or which were lost since the node went down before sending them, are therefore retried by the push
+ * notification scheduler task, which only picks up the mappings scheduled longer than its grace period ago, so that the
+ * mappings which are still being dispatched are not sent twice.
+ * When the queue is full the batch is sent by the calling thread, which slows down the producers instead of dropping
+ * notifications.
+ *
+ * The statistics of each dispatcher are exposed over JMX under {@link #OBJECT_NAME_PREFIX} followed by its id, until
+ * the dispatcher is shut down.
+ */
+public class PushNotificationDispatcher implements PushNotificationDispatcherMBean {
+
+    private static final Log log = LogFactory.getLog(PushNotificationDispatcher.class);
+    private static final long WORKER_KEEP_ALIVE_SECONDS = 60;
+    private static final AtomicInteger dispatcherCount = new AtomicInteger();
+    public static final String OBJECT_NAME_PREFIX = "org.wso2.carbon.device.mgt:type=PushNotificationDispatcher,id=";
+
+    private final int dispatcherId;
+
+    private final String deviceType;
+    private final NotificationStrategy notificationStrategy;
+    private final OperationMappingDAO operationMappingDAO;
+    private final ThreadPoolExecutor executor;
+    private final int batchSize;
+
+    private final AtomicInteger pendingNotifications = new AtomicInteger();
+    private final AtomicLong dispatchedNotifications = new AtomicLong();
+    private final AtomicLong failedNotifications = new AtomicLong();
+    private final AtomicLong rejectedNotifications = new AtomicLong();
+    private final AtomicLong totalDispatchLatency = new AtomicLong();
+
+    public PushNotificationDispatcher(String deviceType, NotificationStrategy notificationStrategy) {
+        this.dispatcherId = dispatcherCount.incrementAndGet();
+        this.deviceType = deviceType;
+        this.notificationStrategy = notificationStrategy;
+        this.operationMappingDAO = OperationManagementDAOFactory.getOperationMappingDAO();
+
+        PushNotificationConfiguration config = DeviceConfigurationManager.getInstance().getDeviceManagementConfig()
+                .getPushNotificationConfiguration();
+        int workerCount = DeviceManagementConstants.PushNotifications.DEFAULT_DISPATCHER_WORKER_COUNT;
+        int queueSize = DeviceManagementConstants.PushNotifications.DEFAULT_DISPATCHER_QUEUE_SIZE;
+        int batchSize = DeviceManagementConstants.PushNotifications.DEFAULT_DISPATCHER_BATCH_SIZE;
+        if (config != null) {
+            if (config.getDispatcherWorkerCount() > 0) {
+                workerCount = config.getDispatcherWorkerCount();
+            }
+            if (config.getDispatcherQueueSize() > 0) {
+                queueSize = config.getDispatcherQueueSize();
+            }
+            if (config.getDispatcherBatchSize() > 0) {
+                batchSize = config.getDispatcherBatchSize();
+            }
+        }
+        this.batchSize = batchSize;
+
+        this.executor = new ThreadPoolExecutor(workerCount, workerCount, WORKER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(queueSize), new DispatcherThreadFactory(deviceType),
+                new ThreadPoolExecutor.AbortPolicy());
+        // Idle dispatchers of device types which are not in use should not hold any threads.
+        this.executor.allowCoreThreadTimeOut(true);
+        this.registerStatistics();
+    }
+
+    /**
+     * Queues the push notifications of an operation which has been committed to the given enrolments. This must not be
+     * called while a transaction is associated with the calling thread, since the batch may be sent by it.
+     *
+     * @param operation   operation to be notified about.
+     * @param enrolments  enrolment id against the identifier of the device to be notified.
+     */
+    public void dispatch(Operation operation, Map<Integer, DeviceIdentifier> enrolments) {
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        List<Map.Entry<Integer, DeviceIdentifier>> entries = new ArrayList<>(enrolments.entrySet());
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            NotificationBatch batch = new NotificationBatch(tenantId, operation,
+                    entries.subList(from, Math.min(from + batchSize, entries.size())));
+            pendingNotifications.addAndGet(batch.size());
+            try {
+                executor.execute(batch);
+            } catch (RejectedExecutionException e) {
+                rejectedNotifications.addAndGet(batch.size());
+                if (log.isDebugEnabled()) {
+                    log.debug("Push notification queue of '" + deviceType + "' is full, hence sending " +
+                            batch.size() + " notifications of operation " + operation.getId() + " in the calling " +
+                            "thread.");
+                }
+                batch.run();
+            }
+        }
+    }
+
+    @Override
+    public String getDeviceType() {
+        return deviceType;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return pendingNotifications.get();
+    }
+
+    @Override
+    public long getDispatchedCount() {
+        return dispatchedNotifications.get();
+    }
+
+    @Override
+    public long getFailedCount() {
+        return failedNotifications.get();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejectedNotifications.get();
+    }
+
+    @Override
+    public long getAverageDispatchLatency() {
+        long attempted = dispatchedNotifications.get() + failedNotifications.get();
+        return attempted == 0 ? 0 : totalDispatchLatency.get() / attempted;
+    }
+
+    /**
+     * @return name under which the statistics of this dispatcher are registered with the platform MBean server.
+     */
+    public String getObjectName() {
+        return OBJECT_NAME_PREFIX + dispatcherId;
+    }
+
+    /**
+     * Stops the workers once the queued notifications are sent, and unregisters the statistics of this dispatcher.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        this.unregisterStatistics();
+    }
+
+    /**
+     * Registers the statistics of this dispatcher with the platform MBean server. Failures are logged, since the
+     * notifications are dispatched regardless of the statistics being exposed.
+     */
+    private void registerStatistics() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(this.getObjectName()));
+        } catch (JMException e) {
+            log.warn("Unable to register the statistics of the push notification dispatcher of '" + deviceType +
+                    "'", e);
+        }
+    }
+
+    private void unregisterStatistics() {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(this.getObjectName());
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            log.warn("Unable to unregister the statistics of the push notification dispatcher of '" + deviceType +
+                    "'", e);
+        }
+    }
+
+    private class NotificationBatch implements Runnable {
+
+        private final int tenantId;
+        private final Operation operation;
+        private final List<Map.Entry<Integer, DeviceIdentifier>> enrolments;
+        private final long queuedTime;
+
+        NotificationBatch(int tenantId, Operation operation, List<Map.Entry<Integer, DeviceIdentifier>> enrolments) {
+            this.tenantId = tenantId;
+            this.operation = operation;
+            this.enrolments = enrolments;
+            this.queuedTime = System.currentTimeMillis();
+        }
+
+        int size() {
+            return enrolments.size();
+        }
+
+        @Override
+        public void run() {
+            try {
+                PrivilegedCarbonContext.startTenantFlow();
+                PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(tenantId, true);
+                List<NotificationContext> notificationContexts = new ArrayList<>(enrolments.size());
+                for (Map.Entry<Integer, DeviceIdentifier> enrolment : enrolments) {
+                    notificationContexts.add(new NotificationContext(enrolment.getValue(), operation));
+                }
+                Set<NotificationContext> failedContexts = this.send(notificationContexts);
+
+                List<OperationMapping> deliveredMappings = new ArrayList<>(enrolments.size() - failedContexts.size());
+                for (int i = 0; i < enrolments.size(); i++) {
+                    if (!failedContexts.contains(notificationContexts.get(i))) {
+                        OperationMapping operationMapping = new OperationMapping();
+                        operationMapping.setOperationId(operation.getId());
+                        operationMapping.setEnrollmentId(enrolments.get(i).getKey());
+                        operationMapping.setPushNotificationStatus(org.wso2.carbon.device.mgt.core.dto.operation.
+                                mgt.Operation.PushNotificationStatus.COMPLETED);
+                        deliveredMappings.add(operationMapping);
+                    }
+                }
+
+                long latency = System.currentTimeMillis() - queuedTime;
+                totalDispatchLatency.addAndGet(latency * enrolments.size());
+                failedNotifications.addAndGet(failedContexts.size());
+                dispatchedNotifications.addAndGet(enrolments.size() - failedContexts.size());
+                if (log.isDebugEnabled()) {
+                    log.debug("Dispatched " + enrolments.size() + " push notifications of operation " +
+                            operation.getId() + " to '" + deviceType + "' devices in " + latency + " ms, " +
+                            failedContexts.size() + " failed. Queue depth : " + getQueueDepth());
+                }
+                if (!deliveredMappings.isEmpty()) {
+                    this.updateOperationMappings(deliveredMappings);
+                }
+            } catch (RuntimeException e) {
+                log.error("Error occurred while dispatching push notifications of operation " + operation.getId() +
+                        " to '" + deviceType + "' devices", e);
+            } finally {
+                pendingNotifications.addAndGet(-enrolments.size());
+                PrivilegedCarbonContext.endTenantFlow();
+            }
+        }
+
+        private Set<NotificationContext> send(List<NotificationContext> notificationContexts) {
+            Set<NotificationContext> failedContexts = Collections.newSetFromMap(
+                    new IdentityHashMap<NotificationContext, Boolean>());
+            if (notificationStrategy instanceof BatchNotificationStrategy) {
+                try {
+                    failedContexts.addAll(((BatchNotificationStrategy) notificationStrategy).
+                            executeBatch(notificationContexts));
+                } catch (PushNotificationExecutionFailedException e) {
+                    log.error("Error occurred while sending push notifications of operation " + operation.getId() +
+                            " to " + notificationContexts.size() + " '" + deviceType + "' devices", e);
+                    failedContexts.addAll(notificationContexts);
+                }
+            } else {
+                for (NotificationContext notificationContext : notificationContexts) {
+                    try {
+                        notificationStrategy.execute(notificationContext);
+                    } catch (PushNotificationExecutionFailedException e) {
+                        log.error("Error occurred while sending push notifications to " + deviceType +
+                                " device carrying id '" + notificationContext.getDeviceId() + "'", e);
+                        failedContexts.add(notificationContext);
+                    }
+                }
+            }
+            return failedContexts;
+        }
+
+        private void updateOperationMappings(List<OperationMapping> operationMappings) {
+            try {
+                OperationManagementDAOFactory.beginTransaction();
+                operationMappingDAO.updateOperationMapping(operationMappings);
+                OperationManagementDAOFactory.commitTransaction();
+            } catch (OperationManagementDAOException e) {
+                OperationManagementDAOFactory.rollbackTransaction();
+                log.error("Error occurred while updating push notification status of operation " +
+                        operation.getId(), e);
+            } catch (TransactionManagementException e) {
+                log.error("Error occurred while initiating the transaction to update push notification status of " +
+                        "operation " + operation.getId(), e);
+            } finally {
+                OperationManagementDAOFactory.closeConnection();
+            }
+        }
+    }
+
+    private static class DispatcherThreadFactory implements ThreadFactory {
+
+        private final String deviceType;
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        DispatcherThreadFactory(String deviceType) {
+            this.deviceType = deviceType;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "push-notification-dispatcher-" + deviceType + "-" +
+                    threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.push.notification.mgt;
+
+/**
+ * Management interface through which the statistics of a push notification dispatcher are exposed over JMX.
+ */
+public interface PushNotificationDispatcherMBean {
+
+    /**
+     * @return name of the device type whose notifications are dispatched.
+     */
+    String getDeviceType();
+
+    /**
+     * @return number of notifications which are queued or being sent.
+     */
+    int getQueueDepth();
+
+    /**
+     * @return number of notifications which were delivered.
+     */
+    long getDispatchedCount();
+
+    /**
+     * @return number of notifications which could not be delivered, and are left to the scheduler task.
+     */
+    long getFailedCount();
+
+    /**
+     * @return number of notifications which were sent by the calling thread since the queue was full.
+     */
+    long getRejectedCount();
+
+    /**
+     * @return average time in milliseconds from queueing a notification until its delivery has been attempted.
+     */
+    long getAverageDispatchLatency();
+
+}
@@ -23,10 +23,13 @@ import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.device.mgt.common.DeviceManagementException;
 import org.wso2.carbon.device.mgt.common.TransactionManagementException;
 import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManagementException;
+import org.wso2.carbon.device.mgt.common.push.notification.BatchNotificationStrategy;
 import org.wso2.carbon.device.mgt.common.push.notification.NotificationContext;
 import org.wso2.carbon.device.mgt.common.push.notification.NotificationStrategy;
 import org.wso2.carbon.device.mgt.common.push.notification.PushNotificationExecutionFailedException;
+import org.wso2.carbon.device.mgt.core.DeviceManagementConstants;
 import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
+import org.wso2.carbon.device.mgt.core.config.push.notification.PushNotificationConfiguration;
 import org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation;
 import org.wso2.carbon.device.mgt.core.internal.DeviceManagementDataHolder;
 import org.wso2.carbon.device.mgt.core.operation.mgt.OperationMapping;
@@ -36,13 +39,30 @@ import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOF
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationMappingDAO;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
 
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * ${{@link PushNotificationSchedulerTask}} is for sending push notifications for given device batch.
+ *
+ * Each batch is grouped by tenant, device type and operation so that every distinct operation and notification
+ * strategy is looked up once per batch. The groups are split into work units which are sent in parallel, each within
+ * a single tenant flow. Batches are fetched back to back until the backlog is drained or no progress is made.
+ *
+ * Only the mappings scheduled longer than the grace period ago are picked up, so that the notifications which are
+ * still being sent by the {@link org.wso2.carbon.device.mgt.core.push.notification.mgt.PushNotificationDispatcher}
+ * are not sent twice.
  */
 public class PushNotificationSchedulerTask implements Runnable {
 
@@ -51,77 +71,256 @@ public class PushNotificationSchedulerTask implements Runnable {
     private final OperationMappingDAO operationMappingDAO = OperationManagementDAOFactory.getOperationMappingDAO();
     private final DeviceManagementProviderService provider = DeviceManagementDataHolder.getInstance()
             .getDeviceManagementProvider();
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final int gracePeriodMills;
+
+    public PushNotificationSchedulerTask() {
+        PushNotificationConfiguration config = DeviceConfigurationManager.getInstance().getDeviceManagementConfig()
+                .getPushNotificationConfiguration();
+        this.parallelism = (config != null && config.getSchedulerTaskParallelism() > 0) ?
+                config.getSchedulerTaskParallelism() :
+                DeviceManagementConstants.PushNotifications.DEFAULT_SCHEDULER_TASK_PARALLELISM;
+        this.gracePeriodMills = (config != null && config.getSchedulerGracePeriodMills() > 0) ?
+                config.getSchedulerGracePeriodMills() :
+                DeviceManagementConstants.PushNotifications.DEFAULT_SCHEDULER_GRACE_PERIOD_MILLS;
+        this.executor = Executors.newFixedThreadPool(parallelism, new ThreadFactory() {
+            private final AtomicInteger threadCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "push-notification-scheduler-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Stops the workers which send the notifications, once the notifications being sent are done. The task must not
+     * be run again after it is shut down.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
 
     @Override
     public void run() {
         try {
-            Map<Integer, List<OperationMapping>> operationMappingsTenantMap = new HashMap<>();
-            List<OperationMapping> operationsCompletedList = new LinkedList<>();
             if (log.isDebugEnabled()) {
                 log.debug("Push notification job started");
             }
+            int batchSize = DeviceConfigurationManager.getInstance().getDeviceManagementConfig()
+                    .getPushNotificationConfiguration().getSchedulerBatchSize();
+            int fetched;
+            int completed;
+            do {
+                Map<Integer, List<OperationMapping>> operationMappingsTenantMap = new HashMap<>();
+                try {
+                    //Get next available operation list per device batch
+                    OperationManagementDAOFactory.openConnection();
+                    operationMappingsTenantMap = operationDAO.getOperationMappingsByStatus(Operation.Status
+                            .PENDING, Operation.PushNotificationStatus.SCHEDULED, this.getScheduledBefore(), batchSize);
+                } catch (OperationManagementDAOException e) {
+                    log.error("Unable to retrieve scheduled pending operations for task.", e);
+                } finally {
+                    OperationManagementDAOFactory.closeConnection();
+                }
+                fetched = 0;
+                for (List<OperationMapping> operationMappings : operationMappingsTenantMap.values()) {
+                    fetched += operationMappings.size();
+                }
+                completed = fetched == 0 ? 0 : this.processBatch(operationMappingsTenantMap);
+                if (log.isDebugEnabled()) {
+                    log.debug("Sent " + completed + " of " + fetched + " scheduled push notifications");
+                }
+                // Keep on draining while full batches are fetched and notifications are being delivered.
+            } while (fetched >= batchSize && completed > 0 && !Thread.currentThread().isInterrupted());
+            if (log.isDebugEnabled()) {
+                log.debug("Push notification job running completed.");
+            }
+        } catch (Throwable cause) {
+            log.error("PushNotificationSchedulerTask failed due to " + cause);
+        }
+    }
+
+    /**
+     * @return time in seconds before which the notifications must have been scheduled to be picked up by the task.
+     */
+    long getScheduledBefore() {
+        return (System.currentTimeMillis() - gracePeriodMills) / 1000;
+    }
+
+    /**
+     * Sends the push notifications of a batch and marks the delivered ones as completed.
+     *
+     * @param operationMappingsTenantMap scheduled operation mappings against the tenant id.
+     * @return number of delivered notifications.
+     */
+    private int processBatch(Map<Integer, List<OperationMapping>> operationMappingsTenantMap)
+            throws InterruptedException {
+        List<NotificationUnit> units = new ArrayList<>();
+        for (Map.Entry<Integer, List<OperationMapping>> tenantMappings : operationMappingsTenantMap.entrySet()) {
+            units.addAll(this.getNotificationUnits(tenantMappings.getKey(), tenantMappings.getValue()));
+        }
+        List<Future<List<OperationMapping>>> results = executor.invokeAll(units);
+        List<OperationMapping> operationsCompletedList = new ArrayList<>();
+        for (Future<List<OperationMapping>> result : results) {
             try {
-                //Get next available operation list per device batch
-                OperationManagementDAOFactory.openConnection();
-                operationMappingsTenantMap = operationDAO.getOperationMappingsByStatus(Operation.Status
-                        .PENDING, Operation.PushNotificationStatus.SCHEDULED, DeviceConfigurationManager.getInstance()
-                        .getDeviceManagementConfig().getPushNotificationConfiguration().getSchedulerBatchSize());
-            } catch (OperationManagementDAOException e) {
-                log.error("Unable to retrieve scheduled pending operations for task.", e);
+                operationsCompletedList.addAll(result.get());
+            } catch (ExecutionException e) {
+                log.error("Error occurred while sending scheduled push notifications", e.getCause());
+            }
+        }
+        // Update push notification status to competed for operations which already sent
+        if (operationsCompletedList.size() > 0) {
+            try {
+                OperationManagementDAOFactory.beginTransaction();
+                operationMappingDAO.updateOperationMapping(operationsCompletedList);
+                OperationManagementDAOFactory.commitTransaction();
+            } catch (TransactionManagementException | OperationManagementDAOException e) {
+                OperationManagementDAOFactory.rollbackTransaction();
+                log.error("Error occurred while updating operation mappings for sent notifications ", e);
+                return 0;
             } finally {
                 OperationManagementDAOFactory.closeConnection();
             }
-            // Sending push notification to each device
-            for (List<OperationMapping> operationMappings : operationMappingsTenantMap.values()) {
-                for (OperationMapping operationMapping : operationMappings) {
-                    try {
-                        if (log.isDebugEnabled()) {
-                            log.debug("Sending push notification for operationId :" + operationMapping.getOperationId() +
-                                    " to deviceId : " + operationMapping.getDeviceIdentifier().getId());
-                        }
-                        // Set tenant id and domain
-                        PrivilegedCarbonContext.startTenantFlow();
-                        PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(operationMapping.getTenantId(), true);
+        }
+        return operationsCompletedList.size();
+    }
+
+    /**
+     * Groups the mappings of a tenant by device type and operation, resolves the operation and the notification
+     * strategy of each group once, and splits the groups into units which can be sent in parallel.
+     */
+    private List<NotificationUnit> getNotificationUnits(int tenantId, List<OperationMapping> operationMappings) {
+        List<NotificationUnit> units = new ArrayList<>();
+        Map<String, List<OperationMapping>> groups = new LinkedHashMap<>();
+        for (OperationMapping operationMapping : operationMappings) {
+            String key = operationMapping.getDeviceIdentifier().getType() + ":" + operationMapping.getOperationId();
+            List<OperationMapping> group = groups.get(key);
+            if (group == null) {
+                group = new ArrayList<>();
+                groups.put(key, group);
+            }
+            group.add(operationMapping);
+        }
+        int unitSize = Math.max(1, (operationMappings.size() + parallelism - 1) / parallelism);
+        try {
+            PrivilegedCarbonContext.startTenantFlow();
+            PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(tenantId, true);
+            Map<String, NotificationStrategy> strategies = new HashMap<>();
+            for (List<OperationMapping> group : groups.values()) {
+                OperationMapping first = group.get(0);
+                String deviceType = first.getDeviceIdentifier().getType();
+                try {
+                    NotificationStrategy notificationStrategy = strategies.get(deviceType);
+                    if (notificationStrategy == null) {
                         // Get notification strategy for given device type
-                        NotificationStrategy notificationStrategy = provider.getNotificationStrategyByDeviceType
-                                (operationMapping.getDeviceIdentifier().getType());
-                        // Send the push notification on given strategy
-                        notificationStrategy.execute(new NotificationContext(operationMapping.getDeviceIdentifier(),
-                                provider.getOperation(operationMapping.getDeviceIdentifier().getType(), operationMapping
-                                        .getOperationId())));
-                        operationMapping.setPushNotificationStatus(Operation.PushNotificationStatus.COMPLETED);
-                        operationsCompletedList.add(operationMapping);
-                    } catch (DeviceManagementException e) {
-                        log.error("Error occurred while getting notification strategy for operation mapping " +
-                                operationMapping.getDeviceIdentifier().getType(), e);
-                    } catch (OperationManagementException e) {
-                        log.error("Unable to get the operation for operation " + operationMapping.getOperationId(), e);
-                    } catch (PushNotificationExecutionFailedException e) {
-                        log.error("Error occurred while sending push notification to operation:  " + operationMapping
-                                .getOperationId(), e);
-                    } finally {
-                        PrivilegedCarbonContext.endTenantFlow();
+                        notificationStrategy = provider.getNotificationStrategyByDeviceType(deviceType);
+                        strategies.put(deviceType, notificationStrategy);
                     }
+                    if (notificationStrategy == null) {
+                        log.warn("No notification strategy is available for device type '" + deviceType +
+                                "', hence skipping " + group.size() + " notifications");
+                        continue;
+                    }
+                    org.wso2.carbon.device.mgt.common.operation.mgt.Operation operation =
+                            provider.getOperation(deviceType, first.getOperationId());
+                    for (int from = 0; from < group.size(); from += unitSize) {
+                        units.add(new NotificationUnit(tenantId, notificationStrategy, operation,
+                                group.subList(from, Math.min(from + unitSize, group.size()))));
+                    }
+                } catch (DeviceManagementException e) {
+                    log.error("Error occurred while getting notification strategy for operation mapping " +
+                            deviceType, e);
+                } catch (OperationManagementException e) {
+                    log.error("Unable to get the operation for operation " + first.getOperationId(), e);
                 }
             }
-            // Update push notification status to competed for operations which already sent
-            if (operationsCompletedList.size() > 0) {
-                try {
-                    OperationManagementDAOFactory.beginTransaction();
-                    operationMappingDAO.updateOperationMapping(operationsCompletedList);
-                    OperationManagementDAOFactory.commitTransaction();
-                } catch (TransactionManagementException | OperationManagementDAOException e) {
-                    OperationManagementDAOFactory.rollbackTransaction();
-                    log.error("Error occurred while updating operation mappings for sent notifications ", e);
-                } finally {
-                    OperationManagementDAOFactory.closeConnection();
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+        return units;
+    }
+
+    /**
+     * Sends the notifications of an operation to a set of devices of a tenant, and returns the mappings of the
+     * devices which were notified.
+     */
+    private static class NotificationUnit implements Callable<List<OperationMapping>> {
+
+        private final int tenantId;
+        private final NotificationStrategy notificationStrategy;
+        private final org.wso2.carbon.device.mgt.common.operation.mgt.Operation operation;
+        private final List<OperationMapping> operationMappings;
+
+        NotificationUnit(int tenantId, NotificationStrategy notificationStrategy,
+                         org.wso2.carbon.device.mgt.common.operation.mgt.Operation operation,
+                         List<OperationMapping> operationMappings) {
+            this.tenantId = tenantId;
+            this.notificationStrategy = notificationStrategy;
+            this.operation = operation;
+            this.operationMappings = operationMappings;
+        }
+
+        @Override
+        public List<OperationMapping> call() {
+            List<OperationMapping> completed = new ArrayList<>(operationMappings.size());
+            try {
+                // Set tenant id and domain
+                PrivilegedCarbonContext.startTenantFlow();
+                PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(tenantId, true);
+                if (notificationStrategy instanceof BatchNotificationStrategy) {
+                    this.sendBatch(completed);
+                } else {
+                    for (OperationMapping operationMapping : operationMappings) {
+                        try {
+                            if (log.isDebugEnabled()) {
+                                log.debug("Sending push notification for operationId :" +
+                                        operationMapping.getOperationId() + " to deviceId : " +
+                                        operationMapping.getDeviceIdentifier().getId());
+                            }
+                            // Send the push notification on given strategy
+                            notificationStrategy.execute(new NotificationContext(
+                                    operationMapping.getDeviceIdentifier(), operation));
+                            operationMapping.setPushNotificationStatus(Operation.PushNotificationStatus.COMPLETED);
+                            completed.add(operationMapping);
+                        } catch (PushNotificationExecutionFailedException e) {
+                            log.error("Error occurred while sending push notification to operation:  " +
+                                    operationMapping.getOperationId(), e);
+                        }
+                    }
                 }
+            } finally {
+                PrivilegedCarbonContext.endTenantFlow();
             }
-            if (log.isDebugEnabled()) {
-                log.debug("Push notification job running completed.");
+            return completed;
+        }
+
+        private void sendBatch(List<OperationMapping> completed) {
+            Map<NotificationContext, OperationMapping> contexts = new IdentityHashMap<>();
+            List<NotificationContext> notificationContexts = new ArrayList<>(operationMappings.size());
+            for (OperationMapping operationMapping : operationMappings) {
+                NotificationContext notificationContext = new NotificationContext(
+                        operationMapping.getDeviceIdentifier(), operation);
+                contexts.put(notificationContext, operationMapping);
+                notificationContexts.add(notificationContext);
+            }
+            try {
+                List<NotificationContext> failedContexts = ((BatchNotificationStrategy) notificationStrategy)
+                        .executeBatch(notificationContexts);
+                for (NotificationContext failedContext : failedContexts) {
+                    contexts.remove(failedContext);
+                }
+                for (OperationMapping operationMapping : contexts.values()) {
+                    operationMapping.setPushNotificationStatus(Operation.PushNotificationStatus.COMPLETED);
+                    completed.add(operationMapping);
+                }
+            } catch (PushNotificationExecutionFailedException e) {
+                log.error("Error occurred while sending push notifications of operation: " + operation.getId() +
+                        " to " + notificationContexts.size() + " devices", e);
             }
-        } catch (Throwable cause) {
-            log.error("PushNotificationSchedulerTask failed due to " + cause);
         }
     }
 }
@@ -27,6 +27,7 @@ import org.wso2.carbon.device.mgt.common.DeviceManagementConstants;
 import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
 import org.wso2.carbon.device.mgt.common.authorization.DeviceAccessAuthorizationException;
 import org.wso2.carbon.device.mgt.common.authorization.DeviceAccessAuthorizationService;
+import org.wso2.carbon.device.mgt.common.authorization.DeviceAuthorizationResult;
 import org.wso2.carbon.device.mgt.common.device.details.DeviceInfo;
 import org.wso2.carbon.device.mgt.common.device.details.DeviceLocation;
 import org.wso2.carbon.device.mgt.common.search.SearchContext;
@@ -40,9 +41,12 @@ import org.wso2.carbon.device.mgt.core.search.mgt.dao.SearchDAOException;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class ProcessorImpl implements Processor {
     private ApplicationDAO applicationDAO;
@@ -128,13 +132,32 @@ public class ProcessorImpl implements Processor {
      */
     private List<Device> authorizedDevices(List<Device> devices) throws SearchMgtException {
         List<Device> filteredList = new ArrayList<>();
+        if (deviceAccessAuthorizationService == null || devices.isEmpty()) {
+            return filteredList;
+        }
+        List<DeviceIdentifier> deviceIdentifiers = new ArrayList<>(devices.size());
+        for (Device device : devices) {
+            deviceIdentifiers.add(new DeviceIdentifier(device.getDeviceIdentifier(), device.getType()));
+        }
         try {
-            for (Device device : devices) {
-                DeviceIdentifier deviceIdentifier = new DeviceIdentifier(device.getDeviceIdentifier(),
-                        device.getType());
-                if (deviceAccessAuthorizationService != null && deviceAccessAuthorizationService
-                        .isUserAuthorized(deviceIdentifier)) {
-                    filteredList.add(device);
+            DeviceAuthorizationResult authorizationResult =
+                    deviceAccessAuthorizationService.isUserAuthorized(deviceIdentifiers);
+            if (authorizationResult == null) {
+                // No user in the context, hence the access is decided by the device type as for a single device.
+                for (Device device : devices) {
+                    if (!DeviceManagementDataHolder.getInstance().requireDeviceAuthorization(device.getType())) {
+                        filteredList.add(device);
+                    }
+                }
+                return filteredList;
+            }
+            // The result carries the given identifier instances, hence they are matched by identity.
+            Set<DeviceIdentifier> authorizedIdentifiers =
+                    Collections.newSetFromMap(new IdentityHashMap<DeviceIdentifier, Boolean>());
+            authorizedIdentifiers.addAll(authorizationResult.getAuthorizedDevices());
+            for (int i = 0; i < devices.size(); i++) {
+                if (authorizedIdentifiers.contains(deviceIdentifiers.get(i))) {
+                    filteredList.add(devices.get(i));
                 }
             }
             return filteredList;
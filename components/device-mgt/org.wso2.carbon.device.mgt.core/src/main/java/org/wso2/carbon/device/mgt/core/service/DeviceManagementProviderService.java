@@ -36,11 +36,13 @@ import org.wso2.carbon.device.mgt.common.policy.mgt.PolicyMonitoringManager;
 import org.wso2.carbon.device.mgt.common.pull.notification.PullNotificationExecutionFailedException;
 import org.wso2.carbon.device.mgt.common.push.notification.NotificationStrategy;
 import org.wso2.carbon.device.mgt.common.spi.DeviceManagementService;
+import org.wso2.carbon.device.mgt.core.dto.DeviceAccessInfo;
 import org.wso2.carbon.device.mgt.core.dto.DeviceType;
 
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Proxy class for all Device Management related operations that take the corresponding plugin type in
@@ -491,6 +493,30 @@ public interface DeviceManagementProviderService {
      */
     boolean isEnrolled(DeviceIdentifier deviceId, String user) throws DeviceManagementException;
 
+    /**
+     * This method is used to retrieve the owner and the groups of a set of devices of the same type with a single
+     * lookup, in order to authorize the access to all of them at once.
+     *
+     * @param deviceType  device type of the devices.
+     * @param identifiers device identifiers of the devices.
+     * @return map of device identifier against the access details of the device. Devices which are not enrolled
+     * are not included.
+     * @throws DeviceManagementException If some unusual behaviour is observed while fetching the details.
+     */
+    Map<String, DeviceAccessInfo> getDeviceAccessInfo(String deviceType, List<String> identifiers)
+            throws DeviceManagementException;
+
+    /**
+     * This method is used to resolve the ids of a set of devices of the same type, in batches of identifiers rather
+     * than one device at a time.
+     *
+     * @param deviceType  device type of the devices.
+     * @param identifiers device identifiers of the devices.
+     * @return map of device identifier against the id of the device. Devices which are not enrolled are not included.
+     * @throws DeviceManagementException If some unusual behaviour is observed while resolving the devices.
+     */
+    Map<String, Integer> getDeviceIds(String deviceType, List<String> identifiers) throws DeviceManagementException;
+
     /**
      * This method is used to get notification strategy for given device type
      *
@@ -545,6 +571,9 @@ public interface DeviceManagementProviderService {
     List<? extends Operation> getPendingOperations(
             DeviceIdentifier deviceId) throws OperationManagementException;
 
+    List<? extends Operation> getPendingOperations(DeviceIdentifier deviceId, int lastOperationId,
+                                                   int limit) throws OperationManagementException;
+
     Operation getNextPendingOperation(DeviceIdentifier deviceId) throws OperationManagementException;
 
     void updateOperation(DeviceIdentifier deviceId, Operation operation) throws OperationManagementException;
@@ -59,7 +59,9 @@ import org.wso2.carbon.device.mgt.common.push.notification.NotificationStrategy;
 import org.wso2.carbon.device.mgt.common.spi.DeviceManagementService;
 import org.wso2.carbon.device.mgt.core.DeviceManagementConstants;
 import org.wso2.carbon.device.mgt.core.DeviceManagementPluginRepository;
+import org.wso2.carbon.device.mgt.core.cache.impl.ApplicationInventoryCacheManagerImpl;
 import org.wso2.carbon.device.mgt.core.cache.impl.DeviceCacheManagerImpl;
+import org.wso2.carbon.device.mgt.core.cache.impl.DeviceTypeRegistry;
 import org.wso2.carbon.device.mgt.core.dao.ApplicationDAO;
 import org.wso2.carbon.device.mgt.core.dao.DeviceDAO;
 import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOException;
@@ -68,6 +70,7 @@ import org.wso2.carbon.device.mgt.core.dao.DeviceTypeDAO;
 import org.wso2.carbon.device.mgt.core.dao.EnrollmentDAO;
 import org.wso2.carbon.device.mgt.core.device.details.mgt.dao.DeviceDetailsDAO;
 import org.wso2.carbon.device.mgt.core.device.details.mgt.dao.DeviceDetailsMgtDAOException;
+import org.wso2.carbon.device.mgt.core.dto.DeviceAccessInfo;
 import org.wso2.carbon.device.mgt.core.dto.DeviceType;
 import org.wso2.carbon.device.mgt.core.dto.DeviceTypeServiceIdentifier;
 import org.wso2.carbon.device.mgt.core.internal.DeviceManagementDataHolder;
@@ -89,15 +92,42 @@ import java.util.Date;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class DeviceManagementProviderServiceImpl implements DeviceManagementProviderService,
         PluginInitializationListener {
 
     private static Log log = LogFactory.getLog(DeviceManagementProviderServiceImpl.class);
+    private static final int DEVICE_INFO_LOADER_THREADS = 4;
+    /**
+     * Loads the device-info of device lists and the plugin-db data of each device type in parallel. The loads are
+     * run by the caller itself when all the loader threads are busy.
+     */
+    private static final ExecutorService deviceInfoLoader = new ThreadPoolExecutor(0, DEVICE_INFO_LOADER_THREADS,
+            60L, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), new ThreadFactory() {
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "device-info-loader-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }, new ThreadPoolExecutor.CallerRunsPolicy());
     private DeviceDAO deviceDAO;
     private DeviceDetailsDAO deviceInfoDAO;
     private DeviceTypeDAO deviceTypeDAO;
@@ -220,6 +250,8 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
                                     addEnrollment(existingDevice.getId(), newEnrolmentInfo, tenantId);
                             DeviceManagementDAOFactory.commitTransaction();
                             this.removeDeviceFromCache(deviceIdentifier);
+                            ApplicationInventoryCacheManagerImpl.getInstance()
+                                    .removeInventoryFingerprint(existingDevice.getId());
                             if (log.isDebugEnabled()) {
                                 log.debug("An enrolment is successfully added with the id '" + enrolmentId +
                                         "' associated with " + "the device identified by key '" +
@@ -427,6 +459,8 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
             deviceDAO.updateDevice(device, tenantId);
             DeviceManagementDAOFactory.commitTransaction();
             this.removeDeviceFromCache(deviceId);
+            // The fingerprint belongs to the enrolment, hence the list reported by a next enrolment is saved in full.
+            ApplicationInventoryCacheManagerImpl.getInstance().removeInventoryFingerprint(device.getId());
         } catch (DeviceManagementDAOException e) {
             DeviceManagementDAOFactory.rollbackTransaction();
             String msg = "Error occurred while dis-enrolling '" + deviceId.getType() +
@@ -504,6 +538,7 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
                 }
                 return null;
             }
+            this.addDevicesToCache(allDevices);
         } catch (DeviceManagementDAOException e) {
             String msg = "Error occurred while retrieving all devices of type '" +
                     deviceType + "' that are being managed within the scope of current tenant";
@@ -540,6 +575,7 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
         try {
             DeviceManagementDAOFactory.openConnection();
             allDevices = deviceDAO.getDevices(this.getTenantId());
+            this.addDevicesToCache(allDevices);
         } catch (DeviceManagementDAOException e) {
             String msg = "Error occurred while retrieving device list pertaining to the current tenant";
             log.error(msg, e);
@@ -629,7 +665,11 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
         try {
             DeviceManagementDAOFactory.openConnection();
             allDevices = deviceDAO.getDevices(request, tenantId);
-            count = deviceDAO.getDeviceCountByType(deviceType, tenantId);
+            if (request.isCountRequired()) {
+                count = deviceDAO.getDeviceCountByType(deviceType, tenantId);
+            } else {
+                count = -1;
+            }
         } catch (DeviceManagementDAOException e) {
             String msg = "Error occurred while retrieving device list pertaining to the current tenant of type "
                     + deviceType;
@@ -691,7 +731,12 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
             try {
                 DeviceManagementDAOFactory.openConnection();
                 allDevices = deviceDAO.getDevices(request, tenantId);
-                count = deviceDAO.getDeviceCount(request, tenantId);
+                if (request.isCountRequired()) {
+                    count = deviceDAO.getDeviceCount(request, tenantId);
+                } else {
+                    // Counting repeats the whole filtered scan, hence skipped unless the caller needs the total.
+                    count = -1;
+                }
             } catch (DeviceManagementDAOException e) {
                 String msg = "Error occurred while retrieving device list pertaining to the current tenant";
                 log.error(msg, e);
@@ -1123,12 +1168,17 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
         if (log.isDebugEnabled()) {
             log.debug("Get available device types");
         }
+        int tenantId = this.getTenantId();
+        List<String> availableDeviceTypes = DeviceTypeRegistry.getAvailableDeviceTypes(tenantId);
+        if (availableDeviceTypes != null) {
+            return new ArrayList<>(availableDeviceTypes);
+        }
+        long registryVersion = DeviceTypeRegistry.getVersion();
         List<DeviceType> deviceTypesProvidedByTenant;
         List<String> publicSharedDeviceTypesInDB;
         List<String> deviceTypesResponse = new ArrayList<>();
         try {
             DeviceManagementDAOFactory.openConnection();
-            int tenantId = this.getTenantId();
             deviceTypesProvidedByTenant = deviceTypeDAO.getDeviceTypesByProvider(tenantId);
             publicSharedDeviceTypesInDB = deviceTypeDAO.getSharedDeviceTypes();
             Map<DeviceTypeServiceIdentifier, DeviceManagementService> registeredTypes =
@@ -1172,6 +1222,7 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
         } finally {
             DeviceManagementDAOFactory.closeConnection();
         }
+        DeviceTypeRegistry.setAvailableDeviceTypes(tenantId, deviceTypesResponse, registryVersion);
         return deviceTypesResponse;
     }
 
@@ -1412,6 +1463,13 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
                 .getPendingOperations(deviceId);
     }
 
+    @Override
+    public List<? extends Operation> getPendingOperations(DeviceIdentifier deviceId, int lastOperationId, int limit)
+            throws OperationManagementException {
+        return pluginRepository.getOperationManager(deviceId.getType(), this.getTenantId())
+                .getPendingOperations(deviceId, lastOperationId, limit);
+    }
+
     @Override
     public Operation getNextPendingOperation(DeviceIdentifier deviceId) throws OperationManagementException {
         return pluginRepository.getOperationManager(deviceId.getType(), this.getTenantId())
@@ -2015,6 +2073,52 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
         return device != null && device.getEnrolmentInfo() != null && device.getEnrolmentInfo().getOwner().equals(user);
     }
 
+    @Override
+    public Map<String, DeviceAccessInfo> getDeviceAccessInfo(String deviceType, List<String> identifiers)
+            throws DeviceManagementException {
+        if (identifiers == null || identifiers.isEmpty()) {
+            return new HashMap<>();
+        }
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            return deviceDAO.getDeviceAccessInfo(deviceType, identifiers, this.getTenantId());
+        } catch (DeviceManagementDAOException e) {
+            String msg = "Error occurred while retrieving the access details of " + identifiers.size() + " '" +
+                    deviceType + "' devices";
+            log.error(msg, e);
+            throw new DeviceManagementException(msg, e);
+        } catch (SQLException e) {
+            String msg = "Error occurred while opening a connection to the data source";
+            log.error(msg, e);
+            throw new DeviceManagementException(msg, e);
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+    }
+
+    @Override
+    public Map<String, Integer> getDeviceIds(String deviceType, List<String> identifiers)
+            throws DeviceManagementException {
+        if (identifiers == null || identifiers.isEmpty()) {
+            return new HashMap<>();
+        }
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            return deviceDAO.getDeviceIds(deviceType, identifiers, this.getTenantId());
+        } catch (DeviceManagementDAOException e) {
+            String msg = "Error occurred while resolving the ids of " + identifiers.size() + " '" + deviceType +
+                    "' devices";
+            log.error(msg, e);
+            throw new DeviceManagementException(msg, e);
+        } catch (SQLException e) {
+            String msg = "Error occurred while opening a connection to the data source";
+            log.error(msg, e);
+            throw new DeviceManagementException(msg, e);
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+    }
+
     @Override
     public NotificationStrategy getNotificationStrategyByDeviceType(String deviceType) throws DeviceManagementException {
         int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
@@ -2438,7 +2542,9 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
 
     /**
      * Returns all the available information (device-info, location, applications and plugin-db data)
-     * of the given device list.
+     * of the given device list. The device-info, locations and applications of the whole list are loaded with a
+     * query each over a single connection, in parallel to the plugin-db data which is loaded by the device managers
+     * of the device types in parallel as well.
      */
     private List<Device> getAllDeviceInfo(List<Device> allDevices) throws DeviceManagementException {
         if (allDevices.size() == 0) {
@@ -2449,28 +2555,147 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
         if (log.isDebugEnabled()) {
             log.debug("Get all device info of devices, num of devices: " + allDevices.size());
         }
-        List<Device> devices = new ArrayList<>();
+        final List<Integer> deviceIds = new ArrayList<>(allDevices.size());
         for (Device device : allDevices) {
-            device.setDeviceInfo(this.getDeviceInfo(device));
-            device.setApplications(this.getInstalledApplications(device));
-            DeviceManager deviceManager = this.getDeviceManager(device.getType());
-            if (deviceManager == null) {
-                if (log.isDebugEnabled()) {
-                    log.debug("Device Manager associated with the device type '" + device.getType() + "' is null. " +
-                            "Therefore, not attempting method 'isEnrolled'");
+            deviceIds.add(device.getId());
+        }
+        Future<DeviceInfoBatch> deviceInfoBatchFuture = deviceInfoLoader.submit(new Callable<DeviceInfoBatch>() {
+            @Override
+            public DeviceInfoBatch call() throws DeviceManagementException {
+                return getDeviceInfoBatch(deviceIds);
+            }
+        });
+
+        Map<String, List<Device>> devicesByType = new LinkedHashMap<>();
+        for (Device device : allDevices) {
+            List<Device> devicesOfType = devicesByType.get(device.getType());
+            if (devicesOfType == null) {
+                devicesOfType = new ArrayList<>();
+                devicesByType.put(device.getType(), devicesOfType);
+            }
+            devicesOfType.add(device);
+        }
+        // The plugin-db data of the last device type is loaded by the caller, while the other types are loaded by
+        // the loader threads.
+        final int tenantId = this.getTenantId();
+        final String username = CarbonContext.getThreadLocalCarbonContext().getUsername();
+        List<Future<Void>> pluginDataFutures = new ArrayList<>();
+        Iterator<Map.Entry<String, List<Device>>> deviceTypes = devicesByType.entrySet().iterator();
+        while (deviceTypes.hasNext()) {
+            final Map.Entry<String, List<Device>> devicesOfType = deviceTypes.next();
+            if (!deviceTypes.hasNext()) {
+                this.loadPluginData(devicesOfType.getKey(), devicesOfType.getValue());
+                break;
+            }
+            pluginDataFutures.add(deviceInfoLoader.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws DeviceManagementException {
+                    try {
+                        PrivilegedCarbonContext.startTenantFlow();
+                        PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(tenantId, true);
+                        PrivilegedCarbonContext.getThreadLocalCarbonContext().setUsername(username);
+                        loadPluginData(devicesOfType.getKey(), devicesOfType.getValue());
+                        return null;
+                    } finally {
+                        PrivilegedCarbonContext.endTenantFlow();
+                    }
                 }
-                devices.add(device);
-                continue;
+            }));
+        }
+        for (Future<Void> pluginDataFuture : pluginDataFutures) {
+            this.waitForDeviceInfo(pluginDataFuture, allDevices.size());
+        }
+        DeviceInfoBatch deviceInfoBatch = this.waitForDeviceInfo(deviceInfoBatchFuture, allDevices.size());
+
+        List<Device> devices = new ArrayList<>();
+        for (Device device : allDevices) {
+            DeviceLocation location = deviceInfoBatch.locations.get(device.getId());
+            if (location == null) {
+                location = new DeviceLocation();
+                location.setDeviceId(device.getId());
+            }
+            DeviceInfo info = deviceInfoBatch.deviceInfo.get(device.getId());
+            if (info == null) {
+                info = new DeviceInfo();
             }
+            info.setLocation(location);
+            device.setDeviceInfo(info);
+            List<Application> applications = deviceInfoBatch.applications.get(device.getId());
+            device.setApplications(applications != null ? applications : new ArrayList<Application>());
+            devices.add(device);
+        }
+        return devices;
+    }
+
+    /**
+     * Sets the features and properties kept by the device manager of the given device type to the given devices.
+     */
+    private void loadPluginData(String deviceType, List<Device> devices) throws DeviceManagementException {
+        DeviceManager deviceManager = this.getDeviceManager(deviceType);
+        if (deviceManager == null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Device Manager associated with the device type '" + deviceType + "' is null. " +
+                        "Therefore, not attempting method 'isEnrolled'");
+            }
+            return;
+        }
+        for (Device device : devices) {
             Device dmsDevice =
                     deviceManager.getDevice(new DeviceIdentifier(device.getDeviceIdentifier(), device.getType()));
             if (dmsDevice != null) {
                 device.setFeatures(dmsDevice.getFeatures());
                 device.setProperties(dmsDevice.getProperties());
             }
-            devices.add(device);
         }
-        return devices;
+    }
+
+    /**
+     * Waits for a part of the device info of a device list, which is loaded by a loader thread.
+     */
+    private <T> T waitForDeviceInfo(Future<T> future, int deviceCount) throws DeviceManagementException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DeviceManagementException("Interrupted while retrieving the device info of " + deviceCount +
+                    " devices", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DeviceManagementException) {
+                throw (DeviceManagementException) e.getCause();
+            }
+            throw new DeviceManagementException("Error occurred while retrieving the device info of " + deviceCount +
+                    " devices", e.getCause());
+        }
+    }
+
+    /**
+     * Returns the device-info, locations and installed apps of the given devices.
+     */
+    private DeviceInfoBatch getDeviceInfoBatch(List<Integer> deviceIds) throws DeviceManagementException {
+        DeviceInfoBatch deviceInfoBatch = new DeviceInfoBatch();
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            deviceInfoBatch.deviceInfo = deviceInfoDAO.getDeviceInformation(deviceIds);
+            deviceInfoBatch.locations = deviceInfoDAO.getDeviceLocations(deviceIds);
+            try {
+                deviceInfoBatch.applications = applicationDAO.getInstalledApplications(deviceIds);
+            } catch (DeviceManagementDAOException e) {
+                // Devices are still listed, without their applications, when the applications cannot be retrieved.
+                log.error("Error occurred while retrieving the application lists of " + deviceIds.size() +
+                        " devices", e);
+            }
+        } catch (DeviceDetailsMgtDAOException e) {
+            String msg = "Error occurred while retrieving advance info of " + deviceIds.size() + " devices";
+            log.error(msg);
+            throw new DeviceManagementException(msg, e);
+        } catch (SQLException e) {
+            String msg = "Error occurred while opening a connection to the data source";
+            log.error(msg, e);
+            throw new DeviceManagementException(msg, e);
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+        return deviceInfoBatch;
     }
 
     /**
@@ -2514,7 +2739,42 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
         DeviceCacheManagerImpl.getInstance().addDeviceToCache(deviceIdentifier, device, this.getTenantId());
     }
 
+    /**
+     * Fills the device cache from a list holding every enrolment of its devices, such as the devices of the tenant or
+     * of a device type. Each device is cached with the enrolment getDevice resolves for it, i.e. the one updated
+     * last, and among the ones updated at the same time the one whose status comes first by name.
+     */
+    private void addDevicesToCache(List<Device> allDevices) {
+        Map<String, Device> resolvedDevices = new LinkedHashMap<>();
+        for (Device device : allDevices) {
+            String key = device.getType() + ":" + device.getDeviceIdentifier();
+            Device resolvedDevice = resolvedDevices.get(key);
+            if (resolvedDevice == null ||
+                    isResolvedBefore(device.getEnrolmentInfo(), resolvedDevice.getEnrolmentInfo())) {
+                resolvedDevices.put(key, device);
+            }
+        }
+        DeviceCacheManagerImpl.getInstance().addDevicesToCache(new ArrayList<>(resolvedDevices.values()),
+                this.getTenantId());
+    }
+
+    private static boolean isResolvedBefore(EnrolmentInfo enrolmentInfo, EnrolmentInfo otherEnrolmentInfo) {
+        long lastUpdate = enrolmentInfo.getDateOfLastUpdate();
+        long otherLastUpdate = otherEnrolmentInfo.getDateOfLastUpdate();
+        if (lastUpdate != otherLastUpdate) {
+            return lastUpdate > otherLastUpdate;
+        }
+        return enrolmentInfo.getStatus().name().compareTo(otherEnrolmentInfo.getStatus().name()) < 0;
+    }
+
     private void removeDeviceFromCache(DeviceIdentifier deviceIdentifier) {
         DeviceCacheManagerImpl.getInstance().removeDeviceFromCache(deviceIdentifier, this.getTenantId());
     }
+
+    private static class DeviceInfoBatch {
+
+        private Map<Integer, DeviceInfo> deviceInfo = new HashMap<>();
+        private Map<Integer, DeviceLocation> locations = new HashMap<>();
+        private Map<Integer, List<Application>> applications = new HashMap<>();
+    }
 }
@@ -26,6 +26,7 @@ import org.wso2.carbon.device.mgt.common.PaginationResult;
 import org.wso2.carbon.device.mgt.common.group.mgt.DeviceGroup;
 import org.wso2.carbon.device.mgt.common.group.mgt.GroupAlreadyExistException;
 import org.wso2.carbon.device.mgt.common.group.mgt.GroupManagementException;
+import org.wso2.carbon.device.mgt.common.group.mgt.GroupMembershipResult;
 import org.wso2.carbon.device.mgt.common.group.mgt.RoleDoesNotExistException;
 import org.wso2.carbon.device.mgt.common.group.mgt.GroupNotExistException;
 
@@ -194,6 +195,30 @@ public interface GroupManagementProviderService {
      */
     void removeDevice(int groupId, List<DeviceIdentifier> deviceIdentifiers) throws GroupManagementException,
                                                                                        DeviceNotFoundException;
+
+    /**
+     * Add a set of devices to device group, resolving and mapping the devices in batches. Devices which are not
+     * found do not fail the operation, but are reported in the result.
+     *
+     * @param groupId   of the group.
+     * @param deviceIdentifiers of devices.
+     * @return the outcome for each of the given devices.
+     * @throws GroupManagementException
+     */
+    GroupMembershipResult addDevicesToGroup(int groupId, List<DeviceIdentifier> deviceIdentifiers)
+            throws GroupManagementException;
+
+    /**
+     * Remove a set of devices from device group, resolving and unmapping the devices in batches. Devices which are
+     * not found do not fail the operation, but are reported in the result.
+     *
+     * @param groupId   of the group.
+     * @param deviceIdentifiers of devices.
+     * @return the outcome for each of the given devices.
+     * @throws GroupManagementException
+     */
+    GroupMembershipResult removeDevicesFromGroup(int groupId, List<DeviceIdentifier> deviceIdentifiers)
+            throws GroupManagementException;
     /**
      * Get device groups of user with permission.
      *
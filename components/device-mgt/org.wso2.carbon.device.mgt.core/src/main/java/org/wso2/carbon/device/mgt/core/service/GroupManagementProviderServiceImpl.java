@@ -31,6 +31,8 @@ import org.wso2.carbon.device.mgt.common.GroupPaginationRequest;
 import org.wso2.carbon.device.mgt.common.PaginationResult;
 import org.wso2.carbon.device.mgt.common.TransactionManagementException;
 import org.wso2.carbon.device.mgt.common.group.mgt.*;
+import org.wso2.carbon.device.mgt.core.cache.GroupAuthorizationCacheManager;
+import org.wso2.carbon.device.mgt.core.cache.impl.GroupAuthorizationCacheManagerImpl;
 import org.wso2.carbon.device.mgt.core.dao.GroupDAO;
 import org.wso2.carbon.device.mgt.core.dao.GroupManagementDAOException;
 import org.wso2.carbon.device.mgt.core.dao.GroupManagementDAOFactory;
@@ -43,20 +45,25 @@ import org.wso2.carbon.user.api.UserStoreManager;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class GroupManagementProviderServiceImpl implements GroupManagementProviderService {
 
     private static Log log = LogFactory.getLog(GroupManagementProviderServiceImpl.class);
 
     private GroupDAO groupDAO;
+    private GroupAuthorizationCacheManager authorizationCacheManager;
 
     /**
      * Set groupDAO from GroupManagementDAOFactory when class instantiate.
      */
     public GroupManagementProviderServiceImpl() {
         this.groupDAO = GroupManagementDAOFactory.getGroupDAO();
+        this.authorizationCacheManager = GroupAuthorizationCacheManagerImpl.getInstance();
     }
 
     /**
@@ -78,8 +85,10 @@ public class GroupManagementProviderServiceImpl implements GroupManagementProvid
             GroupManagementDAOFactory.beginTransaction();
             DeviceGroup existingGroup = this.groupDAO.getGroup(deviceGroup.getName(), tenantId);
             if (existingGroup == null) {
-                this.groupDAO.addGroup(deviceGroup, tenantId);
+                int groupId = this.groupDAO.addGroup(deviceGroup, tenantId);
                 GroupManagementDAOFactory.commitTransaction();
+                // Roles of a previously deleted group may still be cached against a reused id.
+                authorizationCacheManager.invalidateGroup(groupId);
             } else {
                 throw new GroupAlreadyExistException("Group exist with name " + deviceGroup.getName());
             }
@@ -167,6 +176,7 @@ public class GroupManagementProviderServiceImpl implements GroupManagementProvid
             GroupManagementDAOFactory.beginTransaction();
             this.groupDAO.deleteGroup(groupId, CarbonContext.getThreadLocalCarbonContext().getTenantId());
             GroupManagementDAOFactory.commitTransaction();
+            authorizationCacheManager.invalidateGroup(groupId);
             if (log.isDebugEnabled()) {
                 log.debug("DeviceGroup " + deviceGroup.getName() + " removed.");
             }
@@ -330,12 +340,9 @@ public class GroupManagementProviderServiceImpl implements GroupManagementProvid
             log.debug("Get groups of owner '" + username + "'");
         }
         Map<Integer, DeviceGroup> groups = new HashMap<>();
-        UserStoreManager userStoreManager;
         try {
             int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
-            userStoreManager = DeviceManagementDataHolder.getInstance().getRealmService().getTenantUserRealm(tenantId)
-                    .getUserStoreManager();
-            String[] roleList = userStoreManager.getRoleListOfUser(username);
+            String[] roleList = this.getRoleListOfUser(username, tenantId);
             GroupManagementDAOFactory.openConnection();
             List<DeviceGroup> deviceGroups = this.groupDAO.getOwnGroups(username, tenantId);
             for (DeviceGroup deviceGroup : deviceGroups) {
@@ -359,17 +366,26 @@ public class GroupManagementProviderServiceImpl implements GroupManagementProvid
         return new ArrayList<>(groups.values());
     }
 
+    private String[] getRoleListOfUser(String username, int tenantId) throws UserStoreException {
+        // Taken before the read, so that roles read before a concurrent invalidation are not cached.
+        long cacheVersion = authorizationCacheManager.getVersion();
+        String[] roleList = authorizationCacheManager.getUserRoles(username);
+        if (roleList == null) {
+            roleList = DeviceManagementDataHolder.getInstance().getRealmService().getTenantUserRealm(tenantId)
+                    .getUserStoreManager().getRoleListOfUser(username);
+            authorizationCacheManager.addUserRoles(username, roleList, cacheVersion);
+        }
+        return roleList;
+    }
+
     private List<Integer> getGroupIds(String username) throws GroupManagementException {
         if (log.isDebugEnabled()) {
             log.debug("Get groups Ids of owner '" + username + "'");
         }
-        UserStoreManager userStoreManager;
         List<Integer> deviceGroupIds;
         try {
             int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
-            userStoreManager = DeviceManagementDataHolder.getInstance().getRealmService().getTenantUserRealm(tenantId)
-                    .getUserStoreManager();
-            String[] roleList = userStoreManager.getRoleListOfUser(username);
+            String[] roleList = this.getRoleListOfUser(username, tenantId);
             GroupManagementDAOFactory.openConnection();
             deviceGroupIds = this.groupDAO.getOwnGroupIds(username, tenantId);
             deviceGroupIds.addAll(this.groupDAO.getGroupIds(roleList, tenantId));
@@ -478,13 +494,10 @@ public class GroupManagementProviderServiceImpl implements GroupManagementProvid
         if (log.isDebugEnabled()) {
             log.debug("Get groups count of '" + username + "'");
         }
-        UserStoreManager userStoreManager;
         int count;
         try {
             int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
-            userStoreManager = DeviceManagementDataHolder.getInstance().getRealmService().getTenantUserRealm(tenantId)
-                    .getUserStoreManager();
-            String[] roleList = userStoreManager.getRoleListOfUser(username);
+            String[] roleList = this.getRoleListOfUser(username, tenantId);
             GroupManagementDAOFactory.openConnection();
             count = groupDAO.getOwnGroupsCount(username, tenantId);
             count += groupDAO.getGroupsCount(roleList, tenantId);
@@ -522,7 +535,7 @@ public class GroupManagementProviderServiceImpl implements GroupManagementProvid
             log.error(msg, e);
             throw new GroupManagementException(msg, e);
         }
-        List<String> currentUserRoles = getRoles(groupId);
+        List<String> currentUserRoles = this.getRoles(groupId, false);
         try {
 
             GroupManagementDAOFactory.beginTransaction();
@@ -544,6 +557,7 @@ public class GroupManagementProviderServiceImpl implements GroupManagementProvid
                 groupDAO.removeRole(groupId, role, tenantId);
             }
             GroupManagementDAOFactory.commitTransaction();
+            authorizationCacheManager.invalidateGroup(groupId);
         } catch (GroupManagementDAOException e) {
             GroupManagementDAOFactory.rollbackTransaction();
             log.error(e);
@@ -565,13 +579,27 @@ public class GroupManagementProviderServiceImpl implements GroupManagementProvid
      */
     @Override
     public List<String> getRoles(int groupId) throws GroupManagementException {
+        return this.getRoles(groupId, true);
+    }
+
+    private List<String> getRoles(int groupId, boolean useCache) throws GroupManagementException {
         if (log.isDebugEnabled()) {
             log.debug("Group roles for group: " + groupId);
         }
+        // Taken before the read, so that roles read before a concurrent invalidation are not cached.
+        long cacheVersion = authorizationCacheManager.getVersion();
+        if (useCache) {
+            List<String> roles = authorizationCacheManager.getGroupRoles(groupId);
+            if (roles != null) {
+                return roles;
+            }
+        }
         try {
             int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
             GroupManagementDAOFactory.openConnection();
-            return groupDAO.getRoles(groupId, tenantId);
+            List<String> roles = groupDAO.getRoles(groupId, tenantId);
+            authorizationCacheManager.addGroupRoles(groupId, roles, cacheVersion);
+            return roles;
         } catch (GroupManagementDAOException | SQLException e) {
             String msg = "Error occurred while retrieving all groups in tenant";
             log.error(msg, e);
@@ -647,27 +675,13 @@ public class GroupManagementProviderServiceImpl implements GroupManagementProvid
         if (log.isDebugEnabled()) {
             log.debug("Group devices to the group: " + groupId);
         }
-        Device device;
         try {
-            int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
-            GroupManagementDAOFactory.beginTransaction();
-            for (DeviceIdentifier deviceIdentifier : deviceIdentifiers) {
-                device = DeviceManagementDataHolder.getInstance().getDeviceManagementProvider().
-                        getDevice(deviceIdentifier, false);
-                if (device == null) {
-                    throw new DeviceNotFoundException("Device not found for id '" + deviceIdentifier.getId() + "'");
-                }
-                if (!this.groupDAO.isDeviceMappedToGroup(groupId, device.getId(), tenantId)) {
-                    this.groupDAO.addDevice(groupId, device.getId(), tenantId);
-                }
-            }
-            GroupManagementDAOFactory.commitTransaction();
+            this.updateGroupMembership(groupId, deviceIdentifiers, true, true);
         } catch (DeviceManagementException e) {
             String msg = "Error occurred while retrieving device.";
             log.error(msg, e);
             throw new GroupManagementException(msg, e);
         } catch (GroupManagementDAOException e) {
-            GroupManagementDAOFactory.rollbackTransaction();
             String msg = "Error occurred while adding device to group.";
             log.error(msg, e);
             throw new GroupManagementException(msg, e);
@@ -679,8 +693,6 @@ public class GroupManagementProviderServiceImpl implements GroupManagementProvid
             String msg = "Error occurred in addDevices for groupId " + groupId;
             log.error(msg, e);
             throw new GroupManagementException(msg, e);
-        } finally {
-            GroupManagementDAOFactory.closeConnection();
         }
     }
 
@@ -693,19 +705,8 @@ public class GroupManagementProviderServiceImpl implements GroupManagementProvid
         if (log.isDebugEnabled()) {
             log.debug("Remove devices from the group: " + groupId);
         }
-        Device device;
         try {
-            int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
-            GroupManagementDAOFactory.beginTransaction();
-            for (DeviceIdentifier deviceIdentifier : deviceIdentifiers) {
-                device = DeviceManagementDataHolder.getInstance().getDeviceManagementProvider().
-                        getDevice(deviceIdentifier, false);
-                if (device == null) {
-                    throw new DeviceNotFoundException("Device not found for id '" + deviceIdentifier.getId() + "'");
-                }
-                this.groupDAO.removeDevice(groupId, device.getId(), tenantId);
-            }
-            GroupManagementDAOFactory.commitTransaction();
+            this.updateGroupMembership(groupId, deviceIdentifiers, false, true);
         } catch (DeviceManagementException e) {
             String msg = "Error occurred while retrieving device.";
             log.error(msg, e);
@@ -715,7 +716,6 @@ public class GroupManagementProviderServiceImpl implements GroupManagementProvid
             log.error(msg, e);
             throw new GroupManagementException(msg, e);
         } catch (GroupManagementDAOException e) {
-            GroupManagementDAOFactory.rollbackTransaction();
             String msg = "Error occurred while adding device to group.";
             log.error(msg, e);
             throw new GroupManagementException(msg, e);
@@ -723,9 +723,135 @@ public class GroupManagementProviderServiceImpl implements GroupManagementProvid
             String msg = "Error occurred in removeDevice for groupId: " + groupId;
             log.error(msg, e);
             throw new GroupManagementException(msg, e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public GroupMembershipResult addDevicesToGroup(int groupId, List<DeviceIdentifier> deviceIdentifiers)
+            throws GroupManagementException {
+        if (log.isDebugEnabled()) {
+            log.debug("Group " + deviceIdentifiers.size() + " devices to the group: " + groupId);
+        }
+        return this.updateGroupMembership(groupId, deviceIdentifiers, true);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public GroupMembershipResult removeDevicesFromGroup(int groupId, List<DeviceIdentifier> deviceIdentifiers)
+            throws GroupManagementException {
+        if (log.isDebugEnabled()) {
+            log.debug("Remove " + deviceIdentifiers.size() + " devices from the group: " + groupId);
+        }
+        return this.updateGroupMembership(groupId, deviceIdentifiers, false);
+    }
+
+    private GroupMembershipResult updateGroupMembership(int groupId, List<DeviceIdentifier> deviceIdentifiers,
+                                                        boolean add) throws GroupManagementException {
+        try {
+            return this.updateGroupMembership(groupId, deviceIdentifiers, add, false);
+        } catch (DeviceManagementException e) {
+            String msg = "Error occurred while retrieving devices.";
+            log.error(msg, e);
+            throw new GroupManagementException(msg, e);
+        } catch (GroupManagementDAOException e) {
+            String msg = "Error occurred while " + (add ? "adding devices to" : "removing devices from") + " group.";
+            log.error(msg, e);
+            throw new GroupManagementException(msg, e);
+        } catch (TransactionManagementException e) {
+            String msg = "Error occurred while initiating transaction.";
+            log.error(msg, e);
+            throw new GroupManagementException(msg, e);
+        } catch (Exception e) {
+            String msg = "Error occurred in updating the devices of groupId: " + groupId;
+            log.error(msg, e);
+            throw new GroupManagementException(msg, e);
+        }
+    }
+
+    /**
+     * Adds devices to or removes devices from a group. The devices are resolved in batches per device type, the
+     * existing mappings of all of them are read with one query per batch, and only the mappings which change are
+     * written, as JDBC batches within a single transaction.
+     *
+     * @param requireAllDevices whether a device which is not found fails the operation before anything is written.
+     */
+    private GroupMembershipResult updateGroupMembership(int groupId, List<DeviceIdentifier> deviceIdentifiers,
+                                                        boolean add, boolean requireAllDevices)
+            throws DeviceManagementException, DeviceNotFoundException, GroupManagementDAOException,
+            TransactionManagementException {
+        GroupMembershipResult result = new GroupMembershipResult();
+        Map<String, List<DeviceIdentifier>> deviceIdentifiersByType = new LinkedHashMap<>();
+        for (DeviceIdentifier deviceIdentifier : deviceIdentifiers) {
+            List<DeviceIdentifier> typeDeviceIdentifiers = deviceIdentifiersByType.get(deviceIdentifier.getType());
+            if (typeDeviceIdentifiers == null) {
+                typeDeviceIdentifiers = new ArrayList<>();
+                deviceIdentifiersByType.put(deviceIdentifier.getType(), typeDeviceIdentifiers);
+            }
+            typeDeviceIdentifiers.add(deviceIdentifier);
+        }
+        List<Integer> deviceIds = new ArrayList<>();
+        List<DeviceIdentifier> resolvedDeviceIdentifiers = new ArrayList<>();
+        Set<Integer> resolvedDeviceIds = new HashSet<>();
+        DeviceManagementProviderService deviceManagementProviderService =
+                DeviceManagementDataHolder.getInstance().getDeviceManagementProvider();
+        for (Map.Entry<String, List<DeviceIdentifier>> entry : deviceIdentifiersByType.entrySet()) {
+            List<String> identifiers = new ArrayList<>(entry.getValue().size());
+            for (DeviceIdentifier deviceIdentifier : entry.getValue()) {
+                identifiers.add(deviceIdentifier.getId());
+            }
+            Map<String, Integer> typeDeviceIds = deviceManagementProviderService.getDeviceIds(entry.getKey(),
+                    identifiers);
+            for (DeviceIdentifier deviceIdentifier : entry.getValue()) {
+                Integer deviceId = typeDeviceIds.get(deviceIdentifier.getId());
+                if (deviceId == null) {
+                    if (requireAllDevices) {
+                        throw new DeviceNotFoundException("Device not found for id '" + deviceIdentifier.getId() +
+                                "'");
+                    }
+                    result.addNotFoundDevice(deviceIdentifier);
+                } else if (resolvedDeviceIds.add(deviceId)) {
+                    deviceIds.add(deviceId);
+                    resolvedDeviceIdentifiers.add(deviceIdentifier);
+                } else {
+                    // The same device is given more than once.
+                    result.addUnchangedDevice(deviceIdentifier);
+                }
+            }
+        }
+        if (deviceIds.isEmpty()) {
+            return result;
+        }
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        try {
+            GroupManagementDAOFactory.beginTransaction();
+            Set<Integer> mappedDeviceIds = this.groupDAO.getMappedDeviceIds(groupId, deviceIds, tenantId);
+            List<Integer> changedDeviceIds = new ArrayList<>();
+            for (int i = 0; i < deviceIds.size(); i++) {
+                if (mappedDeviceIds.contains(deviceIds.get(i)) != add) {
+                    changedDeviceIds.add(deviceIds.get(i));
+                    result.addUpdatedDevice(resolvedDeviceIdentifiers.get(i));
+                } else {
+                    result.addUnchangedDevice(resolvedDeviceIdentifiers.get(i));
+                }
+            }
+            if (add) {
+                this.groupDAO.addDevices(groupId, changedDeviceIds, tenantId);
+            } else {
+                this.groupDAO.removeDevices(groupId, changedDeviceIds, tenantId);
+            }
+            GroupManagementDAOFactory.commitTransaction();
+        } catch (GroupManagementDAOException e) {
+            GroupManagementDAOFactory.rollbackTransaction();
+            throw e;
         } finally {
             GroupManagementDAOFactory.closeConnection();
         }
+        return result;
     }
 
     /**
@@ -745,9 +871,17 @@ public class GroupManagementProviderServiceImpl implements GroupManagementProvid
             for (DeviceGroup deviceGroup : deviceGroups) {
                 List<String> roles = getRoles(deviceGroup.getGroupId());
                 for (String roleName : roles) {
-                    if (userRealm.getAuthorizationManager().
-                            isRoleAuthorized(roleName, permission, CarbonConstants.UI_PERMISSION_ACTION)) {
+                    long cacheVersion = authorizationCacheManager.getVersion();
+                    Boolean isAuthorized = authorizationCacheManager.isRoleAuthorized(roleName, permission);
+                    if (isAuthorized == null) {
+                        isAuthorized = userRealm.getAuthorizationManager().
+                                isRoleAuthorized(roleName, permission, CarbonConstants.UI_PERMISSION_ACTION);
+                        authorizationCacheManager.addRoleAuthorization(roleName, permission, isAuthorized,
+                                cacheVersion);
+                    }
+                    if (isAuthorized) {
                         permittedDeviceGroups.put(deviceGroup.getGroupId(), deviceGroup);
+                        break;
                     }
                 }
             }
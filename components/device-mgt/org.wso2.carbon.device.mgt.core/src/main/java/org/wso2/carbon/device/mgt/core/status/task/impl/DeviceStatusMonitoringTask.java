@@ -21,10 +21,14 @@ package org.wso2.carbon.device.mgt.core.status.task.impl;
 import com.google.gson.Gson;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.device.mgt.common.DeviceStatusTaskPluginConfig;
 import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
 import org.wso2.carbon.device.mgt.common.TransactionManagementException;
+import org.wso2.carbon.device.mgt.core.cache.DeviceCacheKey;
+import org.wso2.carbon.device.mgt.core.cache.impl.DeviceCacheManagerImpl;
+import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
+import org.wso2.carbon.device.mgt.core.config.status.task.DeviceStatusTaskConfig;
 import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOException;
 import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOFactory;
 import org.wso2.carbon.device.mgt.core.operation.mgt.OperationEnrolmentMapping;
@@ -35,6 +39,7 @@ import org.wso2.carbon.ntask.core.Task;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -65,50 +70,89 @@ public class DeviceStatusMonitoringTask implements Task {
 
     @Override
     public void execute() {
-        List<OperationEnrolmentMapping> operationEnrolmentMappings = null;
-        List<EnrolmentInfo> enrolmentInfoTobeUpdated = new ArrayList<>();
-        List<DeviceIdentifier> identifiers = new ArrayList<>();
-        Map<Integer, Long> lastActivities = null;
-        EnrolmentInfo enrolmentInfo;
-        DeviceIdentifier deviceIdentifier;
-        try {
-            operationEnrolmentMappings = this.getOperationEnrolmentMappings();
-            if (operationEnrolmentMappings != null && operationEnrolmentMappings.size() > 0) {
-                lastActivities = this.getLastDeviceActivities();
+        int batchSize = this.getBatchSize();
+        // Keep the time window fixed while walking the pages, so that every page is evaluated alike.
+        long minTimeWindow = this.getMinTimeWindow();
+        long maxTimeWindow = this.getMaxTimeWindow();
+        int lastEnrolmentId = 0;
+        int updatedCount = 0;
+        List<OperationEnrolmentMapping> operationEnrolmentMappings;
+        do {
+            try {
+                operationEnrolmentMappings = this.getOperationEnrolmentMappings(minTimeWindow, maxTimeWindow,
+                        lastEnrolmentId, batchSize);
+            } catch (DeviceStatusTaskException e) {
+                log.error("Error occurred while fetching OperationEnrolment mappings of deviceType '" + deviceType +
+                        "'", e);
+                return;
             }
-        } catch (DeviceStatusTaskException e) {
-            log.error("Error occurred while fetching OperationEnrolment mappings of deviceType '" + deviceType + "'", e);
-        }
-        for (OperationEnrolmentMapping mapping:operationEnrolmentMappings) {
-            long lastActivity = -1;
-            if (lastActivities != null && lastActivities.containsKey(mapping.getEnrolmentId())) {
-                lastActivity = lastActivities.get(mapping.getEnrolmentId());
+            if (operationEnrolmentMappings.isEmpty()) {
+                break;
             }
-            EnrolmentInfo.Status newStatus = this.determineDeviceStatus(mapping, lastActivity);
-            if (newStatus != mapping.getDeviceStatus()) {
-                enrolmentInfo = new EnrolmentInfo();
-                enrolmentInfo.setId(mapping.getEnrolmentId());
-                enrolmentInfo.setStatus(newStatus);
-                enrolmentInfoTobeUpdated.add(enrolmentInfo);
-
-                deviceIdentifier = new DeviceIdentifier();
-                deviceIdentifier.setId(mapping.getDeviceId());
-                deviceIdentifier.setId(mapping.getDeviceType());
-                identifiers.add(deviceIdentifier);
+            lastEnrolmentId = operationEnrolmentMappings.get(operationEnrolmentMappings.size() - 1).getEnrolmentId();
+
+            List<EnrolmentInfo> enrolmentInfoTobeUpdated = new ArrayList<>();
+            Map<Integer, List<DeviceCacheKey>> cacheKeysTobeRemoved = new HashMap<>();
+            for (OperationEnrolmentMapping mapping : operationEnrolmentMappings) {
+                EnrolmentInfo.Status newStatus = this.determineDeviceStatus(mapping, mapping.getLastActivityTime());
+                if (newStatus != null && newStatus != mapping.getDeviceStatus()) {
+                    EnrolmentInfo enrolmentInfo = new EnrolmentInfo();
+                    enrolmentInfo.setId(mapping.getEnrolmentId());
+                    enrolmentInfo.setStatus(newStatus);
+                    enrolmentInfoTobeUpdated.add(enrolmentInfo);
+
+                    DeviceCacheKey cacheKey = new DeviceCacheKey();
+                    cacheKey.setDeviceId(mapping.getDeviceId());
+                    cacheKey.setDeviceType(deviceType);
+                    cacheKey.setTenantId(mapping.getTenantId());
+                    List<DeviceCacheKey> cacheKeys = cacheKeysTobeRemoved.get(mapping.getTenantId());
+                    if (cacheKeys == null) {
+                        cacheKeys = new ArrayList<>();
+                        cacheKeysTobeRemoved.put(mapping.getTenantId(), cacheKeys);
+                    }
+                    cacheKeys.add(cacheKey);
+                }
             }
+
+            if (enrolmentInfoTobeUpdated.size() > 0) {
+                try {
+                    this.updateDeviceStatus(enrolmentInfoTobeUpdated);
+                    updatedCount += enrolmentInfoTobeUpdated.size();
+                    //Remove updated entries from cache
+                    this.removeDevicesFromCache(cacheKeysTobeRemoved);
+                } catch (DeviceStatusTaskException e) {
+                    log.error("Error occurred while updating non-responsive device-status of devices of type '" +
+                            deviceType + "'", e);
+                }
+            }
+        } while (operationEnrolmentMappings.size() >= batchSize);
+        if (log.isDebugEnabled()) {
+            log.debug("Device status monitoring of deviceType '" + deviceType + "' updated the status of " +
+                    updatedCount + " devices");
         }
+    }
 
-        if (enrolmentInfoTobeUpdated.size() > 0) {
+    private void removeDevicesFromCache(Map<Integer, List<DeviceCacheKey>> cacheKeysByTenant) {
+        for (Map.Entry<Integer, List<DeviceCacheKey>> cacheKeys : cacheKeysByTenant.entrySet()) {
             try {
-                this.updateDeviceStatus(enrolmentInfoTobeUpdated);
-                //Remove updated entries from cache
-                //DeviceCacheManagerImpl.getInstance().removeDevicesFromCache(identifiers);
-            } catch (DeviceStatusTaskException e) {
-                log.error("Error occurred while updating non-responsive device-status of devices of type '" + deviceType + "'",e);
+                PrivilegedCarbonContext.startTenantFlow();
+                PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(cacheKeys.getKey(), true);
+                DeviceCacheManagerImpl.getInstance().removeDevicesFromCache(cacheKeys.getValue());
+            } finally {
+                PrivilegedCarbonContext.endTenantFlow();
             }
         }
     }
 
+    private int getBatchSize() {
+        DeviceStatusTaskConfig deviceStatusTaskConfig = DeviceConfigurationManager.getInstance()
+                .getDeviceManagementConfig().getDeviceStatusTaskConfig();
+        if (deviceStatusTaskConfig != null && deviceStatusTaskConfig.getBatchSize() > 0) {
+            return deviceStatusTaskConfig.getBatchSize();
+        }
+        return DeviceStatusTaskConfig.DEFAULT_BATCH_SIZE;
+    }
+
     private EnrolmentInfo.Status determineDeviceStatus(OperationEnrolmentMapping opMapping, long lastActivityTime) {
         long lastPendingOpBefore = (System.currentTimeMillis()/1000) - opMapping.getCreatedTime();
         EnrolmentInfo.Status newStatus = null;
@@ -156,41 +200,22 @@ public class DeviceStatusMonitoringTask implements Task {
         return updateStatus;
     }
 
-    private List<OperationEnrolmentMapping> getOperationEnrolmentMappings() throws DeviceStatusTaskException {
-        List<OperationEnrolmentMapping> operationEnrolmentMappings = null;
+    private List<OperationEnrolmentMapping> getOperationEnrolmentMappings(long minTimeWindow, long maxTimeWindow,
+                                                                          int lastEnrolmentId, int limit)
+            throws DeviceStatusTaskException {
         try {
             OperationManagementDAOFactory.openConnection();
-            operationEnrolmentMappings = OperationManagementDAOFactory.
-                    getOperationMappingDAO().getFirstPendingOperationMappingsForActiveEnrolments(this.getMinTimeWindow(),
-                    this.getMaxTimeWindow(), this.deviceTypeId);
+            return OperationManagementDAOFactory.getOperationMappingDAO().
+                    getFirstPendingOperationMappingsForActiveEnrolments(minTimeWindow, maxTimeWindow,
+                            this.deviceTypeId, lastEnrolmentId, limit);
         } catch (SQLException e) {
-            throw new DeviceStatusTaskException("Error occurred while getting Enrolment operation mappings for " +
-                    "determining device status of deviceType '" + deviceType + "'", e);
-        } catch (OperationManagementDAOException e) {
             throw new DeviceStatusTaskException("Error occurred obtaining a DB connection for fetching " +
                     "operation-enrolment mappings for status monitoring of deviceType '" + deviceType + "'", e);
-        } finally {
-            OperationManagementDAOFactory.closeConnection();
-        }
-        return operationEnrolmentMappings;
-    }
-
-    private Map<Integer, Long> getLastDeviceActivities() throws DeviceStatusTaskException {
-        Map<Integer, Long> lastActivities = null;
-        try {
-            OperationManagementDAOFactory.openConnection();
-            lastActivities = OperationManagementDAOFactory.
-                    getOperationMappingDAO().getLastConnectedTimeForActiveEnrolments(this.getMaxTimeWindow(),
-                    this.deviceTypeId);
-        } catch (SQLException e) {
-            throw new DeviceStatusTaskException("Error occurred while getting last activities for " +
-                    "determining device status of deviceType '" + deviceType + "'", e);
         } catch (OperationManagementDAOException e) {
-            throw new DeviceStatusTaskException("Error occurred obtaining a DB connection for fetching " +
-                    "last activities for status monitoring of deviceType '" + deviceType + "'", e);
+            throw new DeviceStatusTaskException("Error occurred while getting Enrolment operation mappings for " +
+                    "determining device status of deviceType '" + deviceType + "'", e);
         } finally {
             OperationManagementDAOFactory.closeConnection();
         }
-        return lastActivities;
     }
 }
\ No newline at end of file
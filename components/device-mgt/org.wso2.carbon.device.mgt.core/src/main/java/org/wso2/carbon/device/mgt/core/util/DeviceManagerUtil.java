@@ -37,6 +37,7 @@ import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManagementExcept
 import org.wso2.carbon.device.mgt.common.type.mgt.DeviceTypeMetaDefinition;
 import org.wso2.carbon.device.mgt.core.DeviceManagementConstants;
 import org.wso2.carbon.device.mgt.core.cache.DeviceCacheKey;
+import org.wso2.carbon.device.mgt.core.cache.impl.DeviceTypeRegistry;
 import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
 import org.wso2.carbon.device.mgt.core.config.DeviceManagementConfig;
 import org.wso2.carbon.device.mgt.core.config.datasource.DataSourceConfig;
@@ -152,6 +153,7 @@ public final class DeviceManagerUtil {
                 }
             }
             DeviceManagementDAOFactory.commitTransaction();
+            DeviceTypeRegistry.invalidate();
             status = true;
         } catch (DeviceManagementDAOException e) {
             DeviceManagementDAOFactory.rollbackTransaction();
@@ -207,6 +209,7 @@ public final class DeviceManagerUtil {
                 deviceTypeDAO.removeDeviceType(typeName, tenantId);
             }
             DeviceManagementDAOFactory.commitTransaction();
+            DeviceTypeRegistry.invalidate();
             return true;
         } catch (DeviceManagementDAOException e) {
             DeviceManagementDAOFactory.rollbackTransaction();
@@ -31,13 +31,17 @@ import org.wso2.carbon.registry.core.jdbc.realm.InMemoryRealmService;
 import org.wso2.carbon.registry.core.service.RegistryService;
 import org.wso2.carbon.user.core.service.RealmService;
 
+import javax.sql.DataSource;
 import java.io.InputStream;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class TestUtils {
 
@@ -67,6 +71,31 @@ public class TestUtils {
         }
     }
 
+    /**
+     * @return push notification status of the mappings of the given operation against the identifier of the device.
+     */
+    public static Map<String, String> getPushNotificationStatuses(DataSource dataSource, int operationId)
+            throws SQLException {
+        Map<String, String> statuses = new HashMap<>();
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            conn = dataSource.getConnection();
+            stmt = conn.prepareStatement("SELECT d.DEVICE_IDENTIFICATION, m.PUSH_NOTIFICATION_STATUS " +
+                    "FROM DM_ENROLMENT_OP_MAPPING m, DM_ENROLMENT e, DM_DEVICE d WHERE m.ENROLMENT_ID = e.ID " +
+                    "AND e.DEVICE_ID = d.ID AND m.OPERATION_ID = ?");
+            stmt.setInt(1, operationId);
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                statuses.put(rs.getString("DEVICE_IDENTIFICATION"), rs.getString("PUSH_NOTIFICATION_STATUS"));
+            }
+        } finally {
+            cleanupResources(conn, stmt, rs);
+        }
+        return statuses;
+    }
+
     public static DeviceGroup createDeviceGroup1(){
         DeviceGroup group = new DeviceGroup();
         group.setName("TEST_GROUP_01");
@@ -327,6 +327,34 @@ public class DeviceAccessAuthorizationServiceTest {
                 "Non admin device owner failed to access device");
     }
 
+    @Test(description = "Authorization of owned, group shared, not shared and not enrolled devices in one request")
+    public void nonAdminMixedDevices() throws DeviceAccessAuthorizationException, DeviceManagementException {
+        Device device = new Device();
+        device.setEnrolmentInfo(new EnrolmentInfo(NON_ADMIN_ALLOWED_USER, EnrolmentInfo.OwnerShip.BYOD, null));
+        device.setName("owned");
+        device.setType(DEVICE_TYPE);
+        device.setDeviceIdentifier("5678");
+        DeviceManagementDataHolder.getInstance().getDeviceManagementProvider().enrollDevice(device);
+
+        DeviceIdentifier ownedDeviceId = new DeviceIdentifier("5678", DEVICE_TYPE);
+        DeviceIdentifier unknownDeviceId = new DeviceIdentifier("UNKNOWN-DEVICE", DEVICE_TYPE);
+        List<DeviceIdentifier> identifiers = new ArrayList<>(deviceIds);
+        identifiers.add(ownedDeviceId);
+        identifiers.add(unknownDeviceId);
+
+        PrivilegedCarbonContext.getThreadLocalCarbonContext().setUsername(NON_ADMIN_ALLOWED_USER);
+        DeviceAuthorizationResult deviceAuthorizationResult = deviceAccessAuthorizationService.
+                isUserAuthorized(identifiers, NON_ADMIN_ALLOWED_USER, new String[]{NON_ADMIN_PERMISSION});
+        List<DeviceIdentifier> authorizedDevices = deviceAuthorizationResult.getAuthorizedDevices();
+        Assert.assertEquals(authorizedDevices.size(), 3, "Owned and group shared devices are not authorized");
+        Assert.assertTrue(authorizedDevices.contains(groupDeviceIds.get(0)));
+        Assert.assertTrue(authorizedDevices.contains(groupDeviceIds.get(1)));
+        Assert.assertTrue(authorizedDevices.contains(ownedDeviceId));
+        Assert.assertEquals(deviceAuthorizationResult.getUnauthorizedDevices().size(), 4,
+                "Not shared or not enrolled devices are authorized");
+        Assert.assertTrue(deviceAuthorizationResult.getUnauthorizedDevices().contains(unknownDeviceId));
+    }
+
     @Test(description = "Check authorization without giving permissions")
     public void userAuthWithoutPermissions() throws DeviceAccessAuthorizationException {
         PrivilegedCarbonContext.getThreadLocalCarbonContext().setUsername(NON_ADMIN_ALLOWED_USER);
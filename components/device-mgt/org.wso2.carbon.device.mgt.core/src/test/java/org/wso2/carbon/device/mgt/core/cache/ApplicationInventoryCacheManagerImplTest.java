@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.cache;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.device.mgt.core.cache.impl.ApplicationInventoryCacheManagerImpl;
+import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
+import org.wso2.carbon.device.mgt.core.config.DeviceManagementConfig;
+import org.wso2.carbon.device.mgt.core.config.cache.ApplicationInventoryCacheConfiguration;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+
+import java.io.File;
+
+/**
+ * This class contains unit tests to test {@link ApplicationInventoryCacheManagerImpl} class.
+ */
+public class ApplicationInventoryCacheManagerImplTest {
+
+    private static final String IDENTIFIER = "org.wso2.cache.app";
+    private ApplicationInventoryCacheManager cacheManager;
+    private ApplicationInventoryCacheConfiguration previousConfiguration;
+
+    @BeforeClass
+    public void init() throws Exception {
+        DeviceConfigurationManager.getInstance().initConfig();
+        if (System.getProperty("carbon.home") == null) {
+            File file = new File("src/test/resources");
+            if (file.exists()) {
+                System.setProperty("carbon.home", file.getAbsolutePath());
+            }
+        }
+        PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(
+                MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+        PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(MultitenantConstants.SUPER_TENANT_ID);
+        DeviceManagementConfig config = DeviceConfigurationManager.getInstance().getDeviceManagementConfig();
+        previousConfiguration = config.getApplicationInventoryCacheConfiguration();
+        ApplicationInventoryCacheConfiguration configuration = new ApplicationInventoryCacheConfiguration();
+        configuration.setEnabled(true);
+        config.setApplicationInventoryCacheConfiguration(configuration);
+        cacheManager = ApplicationInventoryCacheManagerImpl.getInstance();
+    }
+
+    @Test(description = "Tests that application ids are cached by both identifier and version")
+    public void testApplicationIds() {
+        cacheManager.addApplicationId(IDENTIFIER, "1.0", 1);
+        cacheManager.addApplicationId(IDENTIFIER, "2.0", 2);
+        cacheManager.addApplicationId(IDENTIFIER + "|1.0", "1.0", 3);
+
+        Assert.assertEquals(cacheManager.getApplicationId(IDENTIFIER, "1.0"), Integer.valueOf(1));
+        Assert.assertEquals(cacheManager.getApplicationId(IDENTIFIER, "2.0"), Integer.valueOf(2));
+        Assert.assertEquals(cacheManager.getApplicationId(IDENTIFIER + "|1.0", "1.0"), Integer.valueOf(3));
+        Assert.assertNull(cacheManager.getApplicationId(IDENTIFIER, "3.0"));
+        Assert.assertNull(cacheManager.getApplicationId(null, "1.0"));
+    }
+
+    @Test(description = "Tests adding, getting and removing the inventory fingerprint of a device")
+    public void testInventoryFingerprints() {
+        cacheManager.addInventoryFingerprint(1, "fingerprint1");
+        Assert.assertEquals(cacheManager.getInventoryFingerprint(1), "fingerprint1");
+        Assert.assertNull(cacheManager.getInventoryFingerprint(2));
+
+        cacheManager.addInventoryFingerprint(1, "fingerprint2");
+        Assert.assertEquals(cacheManager.getInventoryFingerprint(1), "fingerprint2");
+        cacheManager.removeInventoryFingerprint(1);
+        Assert.assertNull(cacheManager.getInventoryFingerprint(1));
+    }
+
+    @Test(description = "Tests that nothing is returned when the cache is disabled",
+            dependsOnMethods = {"testApplicationIds", "testInventoryFingerprints"})
+    public void testDisabledCache() {
+        DeviceConfigurationManager.getInstance().getDeviceManagementConfig()
+                .getApplicationInventoryCacheConfiguration().setEnabled(false);
+        cacheManager.addInventoryFingerprint(1, "fingerprint1");
+        Assert.assertNull(cacheManager.getInventoryFingerprint(1));
+        Assert.assertNull(cacheManager.getApplicationId(IDENTIFIER, "1.0"));
+    }
+
+    @AfterClass
+    public void cleanup() {
+        DeviceConfigurationManager.getInstance().getDeviceManagementConfig()
+                .setApplicationInventoryCacheConfiguration(previousConfiguration);
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.cache;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.common.cache.BoundedExpiringCache;
+
+/**
+ * This class contains unit tests to test {@link BoundedExpiringCache} class.
+ */
+public class BoundedExpiringCacheTest {
+
+    private static final int CAPACITY = 10;
+
+    @Test(description = "Tests that the cache is trimmed below its capacity once it is exceeded")
+    public void testCapacity() {
+        BoundedExpiringCache<String, Integer> cache = new BoundedExpiringCache<>(CAPACITY, 60000);
+        for (int i = 0; i <= CAPACITY; i++) {
+            cache.put("key" + i, i);
+        }
+        Assert.assertEquals(cache.size(), CAPACITY - CAPACITY / 10);
+        Assert.assertEquals(cache.getEvictionCount(), 2);
+    }
+
+    @Test(description = "Tests that the entries are not served once they expire")
+    public void testExpiry() throws InterruptedException {
+        BoundedExpiringCache<String, Integer> cache = new BoundedExpiringCache<>(CAPACITY, 1);
+        cache.put("expiring", 1);
+        cache.put("permanent", 2, 0);
+        Thread.sleep(5);
+        Assert.assertNull(cache.get("expiring"), "Expired entry is returned from the cache");
+        Assert.assertEquals(cache.get("permanent"), Integer.valueOf(2), "Entry without expiry is not returned");
+        Assert.assertEquals(cache.getEvictionCount(), 1);
+    }
+
+    @Test(description = "Tests that a value loaded before a removal is not cached")
+    public void testPutIfNotInvalidated() {
+        BoundedExpiringCache<String, Integer> cache = new BoundedExpiringCache<>(CAPACITY, 60000);
+        long version = cache.getVersion();
+        cache.remove("key");
+        Assert.assertFalse(cache.putIfNotInvalidated("key", 1, version), "Stale value is cached");
+        Assert.assertNull(cache.get("key"));
+
+        version = cache.getVersion();
+        Assert.assertTrue(cache.putIfNotInvalidated("key", 1, version));
+        Assert.assertEquals(cache.get("key"), Integer.valueOf(1));
+
+        cache.put("key", 2);
+        Assert.assertFalse(cache.putIfNotInvalidated("key", 1, version), "Cached value is replaced by a loaded one");
+        Assert.assertEquals(cache.get("key"), Integer.valueOf(2));
+
+        cache.clear();
+        Assert.assertFalse(cache.putIfNotInvalidated("key", 1, version), "Stale value is cached after a clear");
+        Assert.assertEquals(cache.size(), 0);
+    }
+
+}
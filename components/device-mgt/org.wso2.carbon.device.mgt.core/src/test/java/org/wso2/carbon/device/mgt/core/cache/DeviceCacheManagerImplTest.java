@@ -26,17 +26,25 @@ import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.device.mgt.common.Device;
 import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
 import org.wso2.carbon.device.mgt.common.DeviceManagementException;
+import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
+import org.wso2.carbon.device.mgt.common.cache.BoundedExpiringCache;
 import org.wso2.carbon.device.mgt.core.cache.impl.DeviceCacheManagerImpl;
+import org.wso2.carbon.device.mgt.core.cache.impl.DeviceCacheStatistics;
 import org.wso2.carbon.device.mgt.core.common.BaseDeviceManagementTest;
 import org.wso2.carbon.device.mgt.core.common.TestDataHolder;
 import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
 import org.wso2.carbon.device.mgt.core.config.DeviceManagementConfig;
 import org.wso2.carbon.device.mgt.core.config.cache.DeviceCacheConfiguration;
 import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
 import java.io.File;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /*
     Unit tests for DeviceCacheManagerImpl
@@ -126,4 +134,80 @@ public class DeviceCacheManagerImplTest extends BaseDeviceManagementTest {
         }
         deviceCacheManager.removeDevicesFromCache(deviceCacheKeyList);
     }
+
+    @Test(description = "test that the devices are handed out as copies and the lookups are counted",
+            dependsOnMethods = {"testRemoveDevicesFromCache"})
+    public void testGetDeviceCopyFromCache() throws JMException {
+        long hitCount = deviceCacheManager.getCacheHitCount();
+        long missCount = deviceCacheManager.getCacheMissCount();
+        deviceCacheManager.addDeviceToCache(deviceIds.get(1), devices.get(1), MultitenantConstants.SUPER_TENANT_ID);
+        // The first lookup fills the near-cache, which serves the rest.
+        deviceCacheManager.getDeviceFromCache(deviceIds.get(1), MultitenantConstants.SUPER_TENANT_ID);
+        Device tempDevice = deviceCacheManager.getDeviceFromCache(deviceIds.get(1), MultitenantConstants
+                .SUPER_TENANT_ID);
+        tempDevice.setName(UPDATE_NAME);
+        tempDevice.getEnrolmentInfo().setStatus(EnrolmentInfo.Status.REMOVED);
+        tempDevice = deviceCacheManager.getDeviceFromCache(deviceIds.get(1), MultitenantConstants.SUPER_TENANT_ID);
+        Assert.assertEquals(tempDevice.getName(), devices.get(1).getName(), "Cached device is modified by a caller");
+        Assert.assertEquals(tempDevice.getEnrolmentInfo().getStatus(), devices.get(1).getEnrolmentInfo().getStatus(),
+                "Enrolment of the cached device is modified by a caller");
+        Assert.assertNull(deviceCacheManager.getDeviceFromCache(deviceIds.get(0), MultitenantConstants
+                .SUPER_TENANT_ID), "Removed device is returned from cache");
+        Assert.assertEquals(deviceCacheManager.getCacheHitCount() - hitCount, 3);
+        Assert.assertEquals(deviceCacheManager.getCacheMissCount() - missCount, 1);
+
+        DeviceCacheStatistics.register();
+        try {
+            Object exposedHitCount = ManagementFactory.getPlatformMBeanServer().getAttribute(
+                    new ObjectName(DeviceCacheStatistics.OBJECT_NAME), "HitCount");
+            Assert.assertEquals(exposedHitCount, deviceCacheManager.getCacheHitCount(),
+                    "Hit count is not exposed over JMX");
+        } finally {
+            DeviceCacheStatistics.unregister();
+        }
+    }
+
+    @Test(description = "test adding and getting devices in bulk", dependsOnMethods = {"testGetDeviceCopyFromCache"})
+    public void testDevicesInBulk() {
+        deviceCacheManager.removeDevicesFromCache(deviceCacheKeyList);
+        deviceCacheManager.addDevicesToCache(devices.subList(1, NO_OF_DEVICES), MultitenantConstants.SUPER_TENANT_ID);
+        long hitCount = deviceCacheManager.getCacheHitCount();
+        long missCount = deviceCacheManager.getCacheMissCount();
+        Map<DeviceIdentifier, Device> cachedDevices = deviceCacheManager.getDevicesFromCache(deviceIds,
+                MultitenantConstants.SUPER_TENANT_ID);
+        Assert.assertEquals(cachedDevices.size(), NO_OF_DEVICES - 1, "Cached devices are not returned in bulk");
+        Assert.assertFalse(cachedDevices.containsKey(deviceIds.get(0)), "Removed device is returned from cache");
+        for (int i = 1; i < NO_OF_DEVICES; i++) {
+            Assert.assertEquals(cachedDevices.get(deviceIds.get(i)).getDeviceIdentifier(),
+                    devices.get(i).getDeviceIdentifier(), "Device is returned for another identifier");
+        }
+        Assert.assertEquals(deviceCacheManager.getCacheHitCount() - hitCount, NO_OF_DEVICES - 1);
+        Assert.assertEquals(deviceCacheManager.getCacheMissCount() - missCount, 1);
+
+        // The bulk lookup fills the near-cache, which hands out copies of the devices.
+        Device tempDevice = deviceCacheManager.getDevicesFromCache(deviceIds.subList(1, 2),
+                MultitenantConstants.SUPER_TENANT_ID).get(deviceIds.get(1));
+        tempDevice.setName(UPDATE_NAME);
+        Assert.assertEquals(deviceCacheManager.getDeviceFromCache(deviceIds.get(1), MultitenantConstants
+                .SUPER_TENANT_ID).getName(), devices.get(1).getName(), "Cached device is modified by a caller");
+    }
+
+    @Test(description = "test evicting devices from the near-cache upon expiry and capacity")
+    public void testNearCacheEviction() throws InterruptedException {
+        BoundedExpiringCache<DeviceCacheKey, Device> nearCache = new BoundedExpiringCache<>(NO_OF_DEVICES, 60000);
+        for (int i = 0; i < NO_OF_DEVICES * 2; i++) {
+            nearCache.put(new DeviceCacheKey(DEVICE_ID_PREFIX + i, DEVICE_TYPE, MultitenantConstants.SUPER_TENANT_ID),
+                    devices.get(i % NO_OF_DEVICES));
+        }
+        Assert.assertTrue(nearCache.size() <= NO_OF_DEVICES, "Near-cache has exceeded its capacity");
+        Assert.assertTrue(nearCache.getEvictionCount() >= NO_OF_DEVICES, "Evictions are not counted");
+
+        BoundedExpiringCache<DeviceCacheKey, Device> expiringCache = new BoundedExpiringCache<>(NO_OF_DEVICES, 1);
+        DeviceCacheKey cacheKey = new DeviceCacheKey(DEVICE_ID_PREFIX + 0, DEVICE_TYPE,
+                MultitenantConstants.SUPER_TENANT_ID);
+        expiringCache.put(cacheKey, devices.get(0));
+        Thread.sleep(5);
+        Assert.assertNull(expiringCache.get(cacheKey), "Expired device is returned from near-cache");
+        Assert.assertEquals(expiringCache.getEvictionCount(), 1);
+    }
 }
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.cache;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.core.cache.impl.DeviceTypeRegistry;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * This class contains unit tests to test {@link DeviceTypeRegistry} class.
+ */
+public class DeviceTypeRegistryTest {
+
+    private static final int TENANT_ID = -1234;
+
+    @Test(description = "Tests that the device types are served until the registry is invalidated")
+    public void testInvalidate() {
+        DeviceTypeRegistry.setAvailableDeviceTypes(TENANT_ID, Arrays.asList("android", "ios"),
+                DeviceTypeRegistry.getVersion());
+        Assert.assertEquals(DeviceTypeRegistry.getAvailableDeviceTypes(TENANT_ID), Arrays.asList("android", "ios"));
+        Assert.assertNull(DeviceTypeRegistry.getAvailableDeviceTypes(1));
+
+        DeviceTypeRegistry.invalidate();
+        Assert.assertNull(DeviceTypeRegistry.getAvailableDeviceTypes(TENANT_ID));
+    }
+
+    @Test(description = "Tests that device types loaded before an invalidation are not served")
+    public void testStaleLoad() {
+        long version = DeviceTypeRegistry.getVersion();
+        DeviceTypeRegistry.invalidate();
+        DeviceTypeRegistry.setAvailableDeviceTypes(TENANT_ID, Collections.singletonList("android"), version);
+        Assert.assertNull(DeviceTypeRegistry.getAvailableDeviceTypes(TENANT_ID));
+    }
+
+    @AfterClass
+    public void cleanup() {
+        DeviceTypeRegistry.invalidate();
+    }
+
+}
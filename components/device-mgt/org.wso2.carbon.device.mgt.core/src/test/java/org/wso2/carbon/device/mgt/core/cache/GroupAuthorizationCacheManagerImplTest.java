@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.cache;
+
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.device.mgt.core.cache.impl.GroupAuthorizationCacheManagerImpl;
+import org.wso2.carbon.device.mgt.core.cache.impl.GroupAuthorizationUserStoreListener;
+import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
+import org.wso2.carbon.device.mgt.core.config.DeviceManagementConfig;
+import org.wso2.carbon.device.mgt.core.config.cache.GroupAuthorizationCacheConfiguration;
+import org.wso2.carbon.user.api.RealmConfiguration;
+import org.wso2.carbon.user.core.UserStoreException;
+import org.wso2.carbon.user.core.UserStoreManager;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class contains unit tests to test {@link GroupAuthorizationCacheManagerImpl} class.
+ */
+public class GroupAuthorizationCacheManagerImplTest {
+
+    private static final String USER = "cacheUser";
+    private static final String ROLE = "cacheRole";
+    private static final String PERMISSION = "/permission/admin/device-mgt/groups/view";
+    private GroupAuthorizationCacheManager cacheManager;
+    private GroupAuthorizationCacheConfiguration previousConfiguration;
+
+    @BeforeClass
+    public void init() throws Exception {
+        DeviceConfigurationManager.getInstance().initConfig();
+        if (System.getProperty("carbon.home") == null) {
+            File file = new File("src/test/resources");
+            if (file.exists()) {
+                System.setProperty("carbon.home", file.getAbsolutePath());
+            }
+        }
+        PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(
+                MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+        PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(MultitenantConstants.SUPER_TENANT_ID);
+        DeviceManagementConfig config = DeviceConfigurationManager.getInstance().getDeviceManagementConfig();
+        previousConfiguration = config.getGroupAuthorizationCacheConfiguration();
+        GroupAuthorizationCacheConfiguration configuration = new GroupAuthorizationCacheConfiguration();
+        configuration.setEnabled(true);
+        config.setGroupAuthorizationCacheConfiguration(configuration);
+        cacheManager = GroupAuthorizationCacheManagerImpl.getInstance();
+    }
+
+    @Test(description = "Tests that cached entries are returned as copies which can be modified by the callers")
+    public void testCachedEntries() {
+        cacheManager.addUserRoles(USER, new String[]{ROLE});
+        List<String> groupRoles = new ArrayList<>(Arrays.asList(ROLE, "otherRole"));
+        cacheManager.addGroupRoles(1, groupRoles);
+        cacheManager.addRoleAuthorization(ROLE, PERMISSION, true);
+        groupRoles.clear();
+
+        Assert.assertEquals(cacheManager.getUserRoles(USER), new String[]{ROLE});
+        List<String> cachedRoles = cacheManager.getGroupRoles(1);
+        Assert.assertEquals(cachedRoles.size(), 2);
+        cachedRoles.remove(ROLE);
+        Assert.assertEquals(cacheManager.getGroupRoles(1).size(), 2);
+        Assert.assertTrue(cacheManager.isRoleAuthorized(ROLE, PERMISSION));
+        Assert.assertNull(cacheManager.isRoleAuthorized(ROLE, "/permission/admin"));
+        Assert.assertNull(cacheManager.getGroupRoles(2));
+    }
+
+    @Test(description = "Tests the invalidation of groups, users and tenants", dependsOnMethods = "testCachedEntries")
+    public void testInvalidation() {
+        cacheManager.invalidateGroup(1);
+        Assert.assertNull(cacheManager.getGroupRoles(1));
+        Assert.assertNotNull(cacheManager.getUserRoles(USER));
+
+        cacheManager.invalidateUser(USER);
+        Assert.assertNull(cacheManager.getUserRoles(USER));
+        Assert.assertNotNull(cacheManager.isRoleAuthorized(ROLE, PERMISSION));
+
+        cacheManager.addGroupRoles(1, Arrays.asList(ROLE));
+        cacheManager.invalidateTenant();
+        Assert.assertNull(cacheManager.getGroupRoles(1));
+        Assert.assertNull(cacheManager.isRoleAuthorized(ROLE, PERMISSION));
+    }
+
+    @Test(description = "Tests that roles loaded before a concurrent invalidation are not cached",
+            dependsOnMethods = "testInvalidation")
+    public void testStaleFill() {
+        long version = cacheManager.getVersion();
+        cacheManager.invalidateGroup(1);
+        cacheManager.addGroupRoles(1, Arrays.asList(ROLE), version);
+        cacheManager.addUserRoles(USER, new String[]{ROLE}, version);
+        Assert.assertNull(cacheManager.getGroupRoles(1));
+        Assert.assertNull(cacheManager.getUserRoles(USER));
+
+        version = cacheManager.getVersion();
+        cacheManager.addGroupRoles(1, Arrays.asList(ROLE), version);
+        cacheManager.addRoleAuthorization(ROLE, PERMISSION, true, version);
+        Assert.assertEquals(cacheManager.getGroupRoles(1), Arrays.asList(ROLE));
+        Assert.assertTrue(cacheManager.isRoleAuthorized(ROLE, PERMISSION));
+    }
+
+    @Test(description = "Tests the invalidations triggered by role changes of the user store",
+            dependsOnMethods = "testStaleFill")
+    public void testUserStoreListener() throws UserStoreException {
+        UserStoreManager userStoreManager = Mockito.mock(UserStoreManager.class);
+        Mockito.when(userStoreManager.getTenantId()).thenReturn(MultitenantConstants.SUPER_TENANT_ID);
+        Mockito.when(userStoreManager.getRealmConfiguration()).thenReturn(new RealmConfiguration());
+        GroupAuthorizationUserStoreListener listener = new GroupAuthorizationUserStoreListener();
+
+        cacheManager.addUserRoles(USER, new String[]{ROLE});
+        cacheManager.addUserRoles("otherUser", new String[]{ROLE});
+        listener.doPostUpdateUserListOfRole(ROLE, null, new String[]{USER}, userStoreManager);
+        Assert.assertNull(cacheManager.getUserRoles(USER));
+        Assert.assertNotNull(cacheManager.getUserRoles("otherUser"));
+
+        cacheManager.addGroupRoles(1, Arrays.asList(ROLE));
+        listener.doPostDeleteRole(ROLE, userStoreManager);
+        Assert.assertNull(cacheManager.getUserRoles("otherUser"));
+        Assert.assertNull(cacheManager.getGroupRoles(1));
+    }
+
+    @Test(description = "Tests that nothing is cached when the cache is disabled",
+            dependsOnMethods = "testUserStoreListener")
+    public void testDisabledCache() {
+        DeviceConfigurationManager.getInstance().getDeviceManagementConfig()
+                .getGroupAuthorizationCacheConfiguration().setEnabled(false);
+        cacheManager.addUserRoles(USER, new String[]{ROLE});
+        Assert.assertNull(cacheManager.getUserRoles(USER));
+    }
+
+    @AfterClass
+    public void cleanup() {
+        cacheManager.invalidateTenant();
+        DeviceConfigurationManager.getInstance().getDeviceManagementConfig()
+                .setGroupAuthorizationCacheConfiguration(previousConfiguration);
+    }
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.core.dao;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.common.app.mgt.Application;
+import org.wso2.carbon.device.mgt.common.device.details.DeviceInfo;
+import org.wso2.carbon.device.mgt.common.device.details.DeviceLocation;
+import org.wso2.carbon.device.mgt.core.TestDeviceManagementService;
+import org.wso2.carbon.device.mgt.core.common.BaseDeviceManagementTest;
+import org.wso2.carbon.device.mgt.core.common.TestDataHolder;
+import org.wso2.carbon.device.mgt.core.dao.util.DeviceManagementDAOUtil;
+import org.wso2.carbon.device.mgt.core.device.details.mgt.dao.DeviceDetailsDAO;
+import org.wso2.carbon.device.mgt.core.internal.DeviceManagementDataHolder;
+import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class contains unit tests to test the look ups which load the device-info, locations and installed
+ * applications of device lists in bulk.
+ */
+public class DeviceDetailsPersistenceTests extends BaseDeviceManagementTest {
+
+    private static final String DEVICE_TYPE = "DETAILS_TEST_TYPE";
+    private static final String DEVICE_ID_PREFIX = "DETAILS-TEST-DEVICE-ID-";
+    private static final String APP_IDENTIFIER = "details.test.app";
+
+    private DeviceDetailsDAO deviceDetailsDAO = DeviceManagementDAOFactory.getDeviceDetailsDAO();
+    private ApplicationDAO applicationDAO = DeviceManagementDAOFactory.getApplicationDAO();
+    private int detailedDeviceId;
+    private int plainDeviceId;
+
+    @BeforeClass
+    @Override
+    public void init() throws Exception {
+        this.initDataSource();
+        DeviceManagementProviderService deviceMgtService = DeviceManagementDataHolder.getInstance()
+                .getDeviceManagementProvider();
+        deviceMgtService.registerDeviceType(new TestDeviceManagementService(DEVICE_TYPE,
+                MultitenantConstants.SUPER_TENANT_DOMAIN_NAME));
+        List<DeviceIdentifier> deviceIds = new ArrayList<>();
+        deviceIds.add(new DeviceIdentifier(DEVICE_ID_PREFIX + 0, DEVICE_TYPE));
+        deviceIds.add(new DeviceIdentifier(DEVICE_ID_PREFIX + 1, DEVICE_TYPE));
+        for (Device device : TestDataHolder.generateDummyDeviceData(deviceIds)) {
+            deviceMgtService.enrollDevice(device);
+        }
+        this.detailedDeviceId = deviceMgtService.getDevice(deviceIds.get(0), false).getId();
+        this.plainDeviceId = deviceMgtService.getDevice(deviceIds.get(1), false).getId();
+
+        // Only the first device has device-info, a location and an installed application.
+        try {
+            DeviceManagementDAOFactory.beginTransaction();
+            deviceDetailsDAO.addDeviceInformation(this.detailedDeviceId, TestDataHolder.generateDummyDeviceInfo());
+            DeviceLocation location = new DeviceLocation();
+            location.setDeviceId(this.detailedDeviceId);
+            location.setLatitude(6.9);
+            location.setLongitude(79.8);
+            location.setCity("Colombo");
+            deviceDetailsDAO.addDeviceLocation(location);
+            int applicationId = applicationDAO.addApplication(
+                    TestDataHolder.generateApplicationDummyData(APP_IDENTIFIER), TestDataHolder.SUPER_TENANT_ID);
+            DeviceManagementDAOFactory.getApplicationMappingDAO().addApplicationMapping(this.detailedDeviceId,
+                    applicationId, TestDataHolder.SUPER_TENANT_ID);
+            DeviceManagementDAOFactory.commitTransaction();
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+    }
+
+    @Test(description = "Tests that the device-info of a device list is returned for the devices which have it")
+    public void testGetDeviceInformationOfDevices() throws Exception {
+        Map<Integer, DeviceInfo> deviceInfo;
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            deviceInfo = deviceDetailsDAO.getDeviceInformation(this.getDeviceIds());
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+        Assert.assertEquals(deviceInfo.size(), 1);
+        Assert.assertEquals(deviceInfo.get(this.detailedDeviceId).getIMEI(),
+                TestDataHolder.generateDummyDeviceInfo().getIMEI());
+        Assert.assertFalse(deviceInfo.containsKey(this.plainDeviceId));
+    }
+
+    @Test(description = "Tests that the locations of a device list are returned for the devices which have one")
+    public void testGetDeviceLocationsOfDevices() throws Exception {
+        Map<Integer, DeviceLocation> locations;
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            locations = deviceDetailsDAO.getDeviceLocations(this.getDeviceIds());
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+        Assert.assertEquals(locations.size(), 1);
+        Assert.assertEquals(locations.get(this.detailedDeviceId).getCity(), "Colombo");
+    }
+
+    @Test(description = "Tests that the installed applications of a device list are returned per device")
+    public void testGetInstalledApplicationsOfDevices() throws Exception {
+        Map<Integer, List<Application>> applications;
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            applications = applicationDAO.getInstalledApplications(this.getDeviceIds());
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+        Assert.assertEquals(applications.size(), 1);
+        Assert.assertEquals(applications.get(this.detailedDeviceId).size(), 1);
+        Assert.assertEquals(applications.get(this.detailedDeviceId).get(0).getApplicationIdentifier(),
+                APP_IDENTIFIER);
+    }
+
+    @Test(description = "Tests that nothing is returned for an empty device list")
+    public void testEmptyDeviceList() throws Exception {
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            List<Integer> deviceIds = Collections.emptyList();
+            Assert.assertTrue(deviceDetailsDAO.getDeviceInformation(deviceIds).isEmpty());
+            Assert.assertTrue(deviceDetailsDAO.getDeviceLocations(deviceIds).isEmpty());
+            Assert.assertTrue(applicationDAO.getInstalledApplications(deviceIds).isEmpty());
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+    }
+
+    /**
+     * @return ids of the test devices, placed in separate chunks of the IN clause by ids of devices which do not
+     * exist.
+     */
+    private List<Integer> getDeviceIds() {
+        List<Integer> deviceIds = new ArrayList<>();
+        deviceIds.add(this.plainDeviceId);
+        for (int i = 1; i < DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE; i++) {
+            deviceIds.add(-i);
+        }
+        deviceIds.add(this.detailedDeviceId);
+        return deviceIds;
+    }
+
+}
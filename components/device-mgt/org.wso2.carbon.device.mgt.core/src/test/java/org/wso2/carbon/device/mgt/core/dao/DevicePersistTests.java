@@ -25,6 +25,7 @@ import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 import org.wso2.carbon.device.mgt.common.Device;
 import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
 import org.wso2.carbon.device.mgt.common.EnrolmentInfo.Status;
 import org.wso2.carbon.device.mgt.common.TransactionManagementException;
 import org.wso2.carbon.device.mgt.core.TestUtils;
@@ -33,6 +34,10 @@ import org.wso2.carbon.device.mgt.core.common.TestDataHolder;
 import org.wso2.carbon.device.mgt.core.dto.DeviceType;
 
 import java.sql.*;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
 
 public class DevicePersistTests extends BaseDeviceManagementTest {
 
@@ -209,6 +214,80 @@ public class DevicePersistTests extends BaseDeviceManagementTest {
         }
     }
 
+    @Test(dependsOnMethods = "testAddDeviceTest")
+    public void testGetEnrolmentIds() throws DeviceManagementDAOException, SQLException {
+        Device device = TestDataHolder.initialTestDevice;
+        Map<String, Integer> enrolmentIds;
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            enrolmentIds = deviceDAO.getEnrolmentIds(device.getType(),
+                    Arrays.asList(device.getDeviceIdentifier(), "NON-EXISTING-DEVICE"), TestDataHolder.SUPER_TENANT_ID);
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+        if (!isMock()) {
+            Assert.assertEquals(enrolmentIds.size(), 1, "Enrolments were resolved for non existing devices");
+            Assert.assertTrue(enrolmentIds.containsKey(device.getDeviceIdentifier()), "Enrolment of the device " +
+                    "carrying the identifier '" + device.getDeviceIdentifier() + "' was not resolved");
+        }
+    }
+
+    @Test(dependsOnMethods = "testAddDeviceTest")
+    public void testGetEnrolmentIdsOfReEnrolledDevice() throws DeviceManagementDAOException,
+            TransactionManagementException {
+        int tenantId = TestDataHolder.SUPER_TENANT_ID;
+        EnrolmentInfo enrolmentInfo = TestDataHolder.generateEnrollmentInfo(new Date().getTime(),
+                new Date().getTime(), TestDataHolder.OWNER, EnrolmentInfo.OwnerShip.BYOD, Status.ACTIVE);
+        Device device = TestDataHolder.generateDummyDeviceData("RE-ENROLLED-DEVICE",
+                TestDataHolder.TEST_DEVICE_TYPE, enrolmentInfo);
+        EnrollmentDAO enrollmentDAO = DeviceManagementDAOFactory.getEnrollmentDAO();
+        int reusedEnrolmentId;
+        try {
+            DeviceManagementDAOFactory.beginTransaction();
+            int deviceId = deviceDAO.addDevice(TestDataHolder.initialTestDeviceType.getId(), device, tenantId);
+            device.setId(deviceId);
+            reusedEnrolmentId = enrollmentDAO.addEnrollment(deviceId, enrolmentInfo, tenantId);
+            EnrolmentInfo removedEnrolment = TestDataHolder.generateEnrollmentInfo(new Date().getTime(),
+                    new Date().getTime(), TestDataHolder.OWNER, EnrolmentInfo.OwnerShip.BYOD, Status.REMOVED);
+            enrollmentDAO.addEnrollment(deviceId, removedEnrolment, tenantId);
+            // The device enrols again, reusing its older enrolment row.
+            enrolmentInfo.setId(reusedEnrolmentId);
+            enrollmentDAO.updateEnrollment(enrolmentInfo);
+            DeviceManagementDAOFactory.commitTransaction();
+        } catch (DeviceManagementDAOException e) {
+            DeviceManagementDAOFactory.rollbackTransaction();
+            throw e;
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+
+        Map<String, Integer> enrolmentIds;
+        Map<String, Device> devices;
+        Device resolvedDevice;
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            enrolmentIds = deviceDAO.getEnrolmentIds(device.getType(),
+                    Collections.singletonList(device.getDeviceIdentifier()), tenantId);
+            devices = deviceDAO.getDevices(device.getType(),
+                    Arrays.asList(device.getDeviceIdentifier(), "NON-EXISTING-DEVICE"), tenantId);
+            resolvedDevice = deviceDAO.getDevice(new DeviceIdentifier(device.getDeviceIdentifier(),
+                    device.getType()), tenantId);
+        } catch (SQLException e) {
+            throw new DeviceManagementDAOException("Error occurred while opening a connection", e);
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+        if (!isMock()) {
+            Assert.assertEquals(enrolmentIds.get(device.getDeviceIdentifier()), Integer.valueOf(reusedEnrolmentId),
+                    "The reused enrolment of the re-enrolled device was not resolved");
+            Assert.assertEquals(resolvedDevice.getEnrolmentInfo().getId(), reusedEnrolmentId,
+                    "Enrolment resolved differently from getDevice");
+            Assert.assertEquals(devices.size(), 1, "Devices were retrieved for non existing identifiers");
+            Assert.assertEquals(devices.get(device.getDeviceIdentifier()).getEnrolmentInfo().getId(),
+                    reusedEnrolmentId, "Enrolment of the retrieved device differs from getDevice");
+        }
+    }
+
     private Status getEnrolmentStatus(String identifier, String deviceType, int tenantId)
             throws DeviceManagementDAOException {
 
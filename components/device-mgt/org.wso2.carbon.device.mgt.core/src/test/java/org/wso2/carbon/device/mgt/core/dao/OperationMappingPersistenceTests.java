@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.dao;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
+import org.wso2.carbon.device.mgt.core.TestDeviceManagementService;
+import org.wso2.carbon.device.mgt.core.common.BaseDeviceManagementTest;
+import org.wso2.carbon.device.mgt.core.common.TestDataHolder;
+import org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation;
+import org.wso2.carbon.device.mgt.core.internal.DeviceManagementDataHolder;
+import org.wso2.carbon.device.mgt.core.operation.mgt.CommandOperation;
+import org.wso2.carbon.device.mgt.core.operation.mgt.OperationEnrolmentMapping;
+import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOFactory;
+import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationMappingDAO;
+import org.wso2.carbon.device.mgt.core.operation.mgt.dao.util.OperationDAOUtil;
+import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class contains unit tests to test the paginated look up of the pending operation mappings of active
+ * enrolments, which is used by the device status monitoring task.
+ */
+public class OperationMappingPersistenceTests extends BaseDeviceManagementTest {
+
+    private static final String DEVICE_TYPE = "MAPPING_TEST_TYPE";
+    private static final String DEVICE_ID_PREFIX = "MAPPING-TEST-DEVICE-ID-";
+    private static final int NO_OF_DEVICES = 5;
+    private static final int PAGE_SIZE = 2;
+
+    private OperationMappingDAO operationMappingDAO = OperationManagementDAOFactory.getOperationMappingDAO();
+    private List<Integer> enrolmentIds;
+    private List<Integer> activeEnrolmentIds;
+    private int deviceTypeId;
+    private int completedOperationId;
+    private long createdTime;
+
+    @BeforeClass
+    @Override
+    public void init() throws Exception {
+        this.initDataSource();
+        List<DeviceIdentifier> deviceIds = new ArrayList<>();
+        List<String> identifiers = new ArrayList<>();
+        for (int i = 0; i < NO_OF_DEVICES; i++) {
+            deviceIds.add(new DeviceIdentifier(DEVICE_ID_PREFIX + i, DEVICE_TYPE));
+            identifiers.add(DEVICE_ID_PREFIX + i);
+        }
+        DeviceManagementProviderService deviceMgtService = DeviceManagementDataHolder.getInstance()
+                .getDeviceManagementProvider();
+        deviceMgtService.registerDeviceType(new TestDeviceManagementService(DEVICE_TYPE,
+                MultitenantConstants.SUPER_TENANT_DOMAIN_NAME));
+        for (Device device : TestDataHolder.generateDummyDeviceData(deviceIds)) {
+            deviceMgtService.enrollDevice(device);
+        }
+        try {
+            DeviceManagementDAOFactory.beginTransaction();
+            this.deviceTypeId = DeviceManagementDAOFactory.getDeviceTypeDAO().getDeviceType(DEVICE_TYPE,
+                    TestDataHolder.SUPER_TENANT_ID).getId();
+            Map<String, Integer> enrolments = DeviceManagementDAOFactory.getDeviceDAO().getEnrolmentIds(DEVICE_TYPE,
+                    identifiers, TestDataHolder.SUPER_TENANT_ID);
+            this.enrolmentIds = new ArrayList<>(enrolments.values());
+            Collections.sort(this.enrolmentIds);
+            // The last enrolment is left inactive, hence its mappings are not considered for status monitoring
+            this.activeEnrolmentIds = this.enrolmentIds.subList(0, NO_OF_DEVICES - 1);
+            for (int enrolmentId : this.activeEnrolmentIds) {
+                DeviceManagementDAOFactory.getEnrollmentDAO().setStatus(enrolmentId, EnrolmentInfo.Status.ACTIVE,
+                        TestDataHolder.SUPER_TENANT_ID);
+            }
+            DeviceManagementDAOFactory.commitTransaction();
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+        this.createdTime = System.currentTimeMillis() / 1000;
+        try {
+            OperationManagementDAOFactory.beginTransaction();
+            this.completedOperationId = this.addOperation();
+            this.addOperation();
+            OperationManagementDAOFactory.getOperationDAO().updateOperationStatus(this.enrolmentIds.get(0),
+                    this.completedOperationId, Operation.Status.COMPLETED);
+            OperationManagementDAOFactory.commitTransaction();
+        } finally {
+            OperationManagementDAOFactory.closeConnection();
+        }
+    }
+
+    @Test(description = "Tests that the pending mappings of the active enrolments are returned page by page in the " +
+            "order of the enrolment ids")
+    public void testGetFirstPendingOperationMappingsInPages() throws Exception {
+        List<Integer> fetchedEnrolmentIds = new ArrayList<>();
+        List<OperationEnrolmentMapping> page;
+        int lastEnrolmentId = 0;
+        do {
+            page = this.getPendingOperationMappings(this.createdTime + 60, this.createdTime - 60, lastEnrolmentId);
+            Assert.assertTrue(page.size() <= PAGE_SIZE, "Page is larger than the requested limit");
+            for (OperationEnrolmentMapping mapping : page) {
+                Assert.assertTrue(mapping.getEnrolmentId() > lastEnrolmentId, "Enrolments are not in ascending order");
+                lastEnrolmentId = mapping.getEnrolmentId();
+                fetchedEnrolmentIds.add(mapping.getEnrolmentId());
+            }
+        } while (page.size() == PAGE_SIZE);
+        Assert.assertEquals(fetchedEnrolmentIds, this.activeEnrolmentIds);
+    }
+
+    @Test(description = "Tests that the time of the last completed operation is returned along with the first " +
+            "pending operation")
+    public void testLastActivityTimeOfPendingOperationMappings() throws Exception {
+        List<OperationEnrolmentMapping> page = this.getPendingOperationMappings(this.createdTime + 60,
+                this.createdTime - 60, 0);
+        Assert.assertEquals(page.size(), PAGE_SIZE);
+        OperationEnrolmentMapping connected = page.get(0);
+        Assert.assertEquals(connected.getEnrolmentId(), (int) this.enrolmentIds.get(0));
+        Assert.assertTrue(connected.getLastActivityTime() >= this.createdTime,
+                "Last activity time of the enrolment which completed an operation is not returned");
+        Assert.assertTrue(connected.getCreatedTime() >= this.createdTime);
+        Assert.assertEquals(page.get(1).getLastActivityTime(), -1,
+                "Last activity time is returned for an enrolment which did not complete any operation");
+    }
+
+    @Test(description = "Tests that the mappings created out of the given time window are not returned")
+    public void testPendingOperationMappingsOutOfTimeWindow() throws Exception {
+        Assert.assertTrue(this.getPendingOperationMappings(this.createdTime - 60, this.createdTime - 120, 0)
+                .isEmpty());
+        Assert.assertTrue(this.getPendingOperationMappings(this.createdTime + 60, this.createdTime - 60,
+                this.activeEnrolmentIds.get(this.activeEnrolmentIds.size() - 1)).isEmpty());
+    }
+
+    private List<OperationEnrolmentMapping> getPendingOperationMappings(long minDuration, long maxDuration,
+                                                                        int lastEnrolmentId) throws Exception {
+        try {
+            OperationManagementDAOFactory.openConnection();
+            return operationMappingDAO.getFirstPendingOperationMappingsForActiveEnrolments(minDuration, maxDuration,
+                    this.deviceTypeId, lastEnrolmentId, PAGE_SIZE);
+        } finally {
+            OperationManagementDAOFactory.closeConnection();
+        }
+    }
+
+    private int addOperation() throws Exception {
+        org.wso2.carbon.device.mgt.common.operation.mgt.Operation operation = new CommandOperation();
+        operation.setType(org.wso2.carbon.device.mgt.common.operation.mgt.Operation.Type.COMMAND);
+        operation.setCode("MAPPING-TEST");
+        int operationId = OperationManagementDAOFactory.getCommandOperationDAO().addOperation(
+                OperationDAOUtil.convertOperation(operation));
+        operationMappingDAO.addOperationMappings(operationId, this.enrolmentIds, false);
+        return operationId;
+    }
+}
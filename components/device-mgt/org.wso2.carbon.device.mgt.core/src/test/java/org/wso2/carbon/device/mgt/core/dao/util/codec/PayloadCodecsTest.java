@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.dao.util.codec;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.core.dto.operation.mgt.CommandOperation;
+import org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation;
+import org.wso2.carbon.device.mgt.core.dto.operation.mgt.ProfileOperation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * This class contains unit tests to test {@link PayloadCodecs} class.
+ */
+public class PayloadCodecsTest {
+
+    @Test(description = "Tests that operations are round tripped and encoded smaller than the legacy format")
+    public void testOperationRoundTrip() throws Exception {
+        ProfileOperation operation = this.createOperation();
+        byte[] content = PayloadCodecs.encode(operation);
+        Assert.assertFalse(PayloadCodecs.isLegacy(content));
+        Assert.assertEquals(content[3], CompressedSerializationCodec.ID);
+        Assert.assertTrue(content.length < PayloadCodecs.encodeLegacy(operation).length);
+
+        ProfileOperation decoded = (ProfileOperation) PayloadCodecs.decode(content);
+        Assert.assertEquals(decoded.getCode(), operation.getCode());
+        Assert.assertEquals(decoded.getStatus(), Operation.Status.PENDING);
+        Assert.assertEquals(decoded.getPayLoad(), operation.getPayLoad());
+    }
+
+    @Test(description = "Tests that operations with string payloads are round tripped through the JSON codec")
+    public void testJsonOperationRoundTrip() throws Exception {
+        ProfileOperation operation = new ProfileOperation();
+        operation.setId(10);
+        operation.setCode("PASSCODE_POLICY");
+        operation.setType(Operation.Type.PROFILE);
+        operation.setStatus(Operation.Status.PENDING);
+        operation.setEnabled(true);
+        operation.setCreatedTimeStamp("2018-04-15 10:00:00.0");
+        operation.setActivityId("ACTIVITY_10");
+        operation.setPayLoad("{"allowSimple":true,"minLength":8}");
+        Properties properties = new Properties();
+        properties.setProperty("priority", "high");
+        operation.setProperties(properties);
+        byte[] content = PayloadCodecs.encode(operation);
+        Assert.assertEquals(content[3], OperationJsonCodec.ID);
+        Assert.assertTrue(content.length < PayloadCodecs.encodeLegacy(operation).length);
+
+        ProfileOperation decoded = (ProfileOperation) PayloadCodecs.decode(content);
+        Assert.assertEquals(decoded.getId(), operation.getId());
+        Assert.assertEquals(decoded.getCode(), operation.getCode());
+        Assert.assertEquals(decoded.getType(), Operation.Type.PROFILE);
+        Assert.assertEquals(decoded.getStatus(), Operation.Status.PENDING);
+        Assert.assertTrue(decoded.isEnabled());
+        Assert.assertEquals(decoded.getCreatedTimeStamp(), operation.getCreatedTimeStamp());
+        Assert.assertNull(decoded.getReceivedTimeStamp());
+        Assert.assertEquals(decoded.getActivityId(), operation.getActivityId());
+        Assert.assertEquals(decoded.getPayLoad(), operation.getPayLoad());
+        Assert.assertNull(decoded.getOperationResponse());
+        Assert.assertEquals(decoded.getProperties(), properties);
+
+        CommandOperation command = new CommandOperation();
+        command.setCode("DEVICE_LOCK");
+        command.setEnabled(false);
+        content = PayloadCodecs.encode(command);
+        Assert.assertEquals(content[3], OperationJsonCodec.ID);
+        CommandOperation decodedCommand = (CommandOperation) PayloadCodecs.decode(content);
+        Assert.assertEquals(decodedCommand.getCode(), "DEVICE_LOCK");
+        Assert.assertFalse(decodedCommand.isEnabled());
+        Assert.assertNull(decodedCommand.getStatus());
+        Assert.assertNull(decodedCommand.getProperties());
+    }
+
+    @Test(description = "Tests that operations which do not fit the JSON schema are left to Java serialization")
+    public void testJsonCodecFallback() throws Exception {
+        ProfileOperation operation = new ProfileOperation();
+        operation.setCode("WIFI");
+        operation.setType(Operation.Type.PROFILE);
+        operation.setPayLoad("{}");
+        operation.addConfigProperty("ssid", "wso2", String.class);
+        Assert.assertEquals(PayloadCodecs.encode(operation)[3], CompressedSerializationCodec.ID);
+
+        Properties properties = new Properties();
+        properties.put("retries", 3);
+        operation = new ProfileOperation();
+        operation.setCode("WIFI");
+        operation.setPayLoad("{}");
+        operation.setProperties(properties);
+        Assert.assertEquals(PayloadCodecs.encode(operation)[3], CompressedSerializationCodec.ID);
+    }
+
+    @Test(description = "Tests that payloads written in the Java serialization format are still readable")
+    public void testLegacyPayload() throws Exception {
+        ProfileOperation operation = this.createOperation();
+        byte[] legacyContent = PayloadCodecs.encodeLegacy(operation);
+        Assert.assertTrue(PayloadCodecs.isLegacy(legacyContent));
+        Assert.assertEquals(((ProfileOperation) PayloadCodecs.decode(legacyContent)).getPayLoad(),
+                operation.getPayLoad());
+        Assert.assertEquals(PayloadCodecs.decode(PayloadCodecs.encodeLegacy("response")), "response");
+    }
+
+    @Test(description = "Tests the codecs of operation responses and application properties")
+    public void testResponsesAndProperties() throws Exception {
+        byte[] response = PayloadCodecs.encode("{\"status\":\"done\"}");
+        Assert.assertEquals(response[3], StringCodec.ID);
+        Assert.assertEquals(PayloadCodecs.decode(response), "{\"status\":\"done\"}");
+
+        Properties properties = new Properties();
+        properties.setProperty("isSystemApp", "true");
+        properties.setProperty("packageName", "org.wso2.iot.agent");
+        byte[] content = PayloadCodecs.encode(properties);
+        Assert.assertEquals(content[3], PropertiesCodec.ID);
+        Assert.assertTrue(content.length < PayloadCodecs.encodeLegacy(properties).length);
+        Assert.assertEquals(PayloadCodecs.decode(content), properties);
+
+        Assert.assertNull(PayloadCodecs.encode(null));
+        Assert.assertNull(PayloadCodecs.decode(null));
+    }
+
+    @Test(description = "Tests that payloads in an unknown format are rejected", expectedExceptions = IOException.class)
+    public void testUnknownFormat() throws Exception {
+        PayloadCodecs.decode(new byte[]{1, 2, 3, 4, 5});
+    }
+
+    @Test(description = "Tests that codecs cannot be registered twice with the same id",
+            expectedExceptions = IllegalArgumentException.class)
+    public void testDuplicateCodec() {
+        PayloadCodecs.register(new StringCodec());
+    }
+
+    private ProfileOperation createOperation() {
+        ProfileOperation operation = new ProfileOperation();
+        operation.setCode("PASSCODE_POLICY");
+        operation.setType(Operation.Type.PROFILE);
+        operation.setStatus(Operation.Status.PENDING);
+        operation.setEnabled(true);
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("allowSimple", true);
+        payload.put("minLength", 8);
+        List<String> history = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            history.add("history-entry-" + i);
+        }
+        payload.put("history", history);
+        operation.setPayLoad(payload);
+        return operation;
+    }
+
+}
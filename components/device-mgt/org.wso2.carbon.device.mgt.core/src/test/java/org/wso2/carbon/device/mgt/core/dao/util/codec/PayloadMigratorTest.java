@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.dao.util.codec;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.core.TestUtils;
+import org.wso2.carbon.device.mgt.core.common.BaseDeviceManagementTest;
+import org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation;
+import org.wso2.carbon.device.mgt.core.dto.operation.mgt.ProfileOperation;
+import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * This class contains unit tests to test the re-encoding of legacy payloads by {@link PayloadMigrator}.
+ */
+public class PayloadMigratorTest extends BaseDeviceManagementTest {
+
+    private static final String PAYLOAD = "{\"passcodePolicy\":{\"minLength\":8,\"allowSimple\":false}}";
+    private static final byte[] CORRUPTED_PAYLOAD = {(byte) 0xAC, (byte) 0xED, 0, 5, 1};
+
+    private int legacyOperationId;
+    private int encodedOperationId;
+    private int corruptedOperationId;
+    private byte[] encodedPayload;
+
+    @BeforeClass
+    @Override
+    public void init() throws Exception {
+        this.initDataSource();
+        try {
+            OperationManagementDAOFactory.beginTransaction();
+            this.legacyOperationId = this.addOperation();
+            this.encodedOperationId = this.addOperation();
+            this.corruptedOperationId = this.addOperation();
+            OperationManagementDAOFactory.commitTransaction();
+        } finally {
+            OperationManagementDAOFactory.closeConnection();
+        }
+        this.encodedPayload = this.getPayload(this.encodedOperationId);
+        this.setPayload(this.legacyOperationId, PayloadCodecs.encodeLegacy(this.createOperation()));
+        this.setPayload(this.corruptedOperationId, CORRUPTED_PAYLOAD);
+    }
+
+    @Test(description = "Tests that the legacy payloads are re-encoded in batches while the others are left as they " +
+            "are")
+    public void testMigration() throws Exception {
+        Assert.assertTrue(PayloadCodecs.isLegacy(this.getPayload(this.legacyOperationId)));
+        // A batch size of one makes the migrator walk through the table a row at a time
+        new PayloadMigrator(1).run();
+
+        byte[] migratedPayload = this.getPayload(this.legacyOperationId);
+        Assert.assertFalse(PayloadCodecs.isLegacy(migratedPayload));
+        Assert.assertEquals(migratedPayload[3], OperationJsonCodec.ID);
+        ProfileOperation operation = (ProfileOperation) PayloadCodecs.decode(migratedPayload);
+        Assert.assertEquals(operation.getCode(), "PASSCODE_POLICY");
+        Assert.assertEquals(operation.getPayLoad(), PAYLOAD);
+
+        Assert.assertEquals(this.getPayload(this.encodedOperationId), this.encodedPayload);
+        Assert.assertEquals(this.getPayload(this.corruptedOperationId), CORRUPTED_PAYLOAD,
+                "Payload which cannot be decoded is not left as it is");
+    }
+
+    @Test(description = "Tests that running the migration again does not change the migrated payloads",
+            dependsOnMethods = "testMigration")
+    public void testRepeatedMigration() throws Exception {
+        byte[] migratedPayload = this.getPayload(this.legacyOperationId);
+        new PayloadMigrator(100).run();
+        Assert.assertEquals(this.getPayload(this.legacyOperationId), migratedPayload);
+    }
+
+    private int addOperation() throws Exception {
+        return OperationManagementDAOFactory.getProfileOperationDAO().addOperation(this.createOperation());
+    }
+
+    private ProfileOperation createOperation() {
+        ProfileOperation operation = new ProfileOperation();
+        operation.setCode("PASSCODE_POLICY");
+        operation.setType(Operation.Type.PROFILE);
+        operation.setStatus(Operation.Status.PENDING);
+        operation.setPayLoad(PAYLOAD);
+        return operation;
+    }
+
+    private byte[] getPayload(int operationId) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            conn = this.getDataSource().getConnection();
+            stmt = conn.prepareStatement("SELECT OPERATION_DETAILS FROM DM_PROFILE_OPERATION WHERE OPERATION_ID = ?");
+            stmt.setInt(1, operationId);
+            rs = stmt.executeQuery();
+            Assert.assertTrue(rs.next(), "Profile operation " + operationId + " is not found");
+            return rs.getBytes(1);
+        } finally {
+            TestUtils.cleanupResources(conn, stmt, rs);
+        }
+    }
+
+    private void setPayload(int operationId, byte[] payload) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        try {
+            conn = this.getDataSource().getConnection();
+            stmt = conn.prepareStatement("UPDATE DM_PROFILE_OPERATION SET OPERATION_DETAILS = ? " +
+                    "WHERE OPERATION_ID = ?");
+            stmt.setBytes(1, payload);
+            stmt.setInt(2, operationId);
+            stmt.executeUpdate();
+        } finally {
+            TestUtils.cleanupResources(conn, stmt, null);
+        }
+    }
+
+}
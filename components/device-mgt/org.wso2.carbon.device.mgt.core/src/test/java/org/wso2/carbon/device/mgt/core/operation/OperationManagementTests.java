@@ -250,6 +250,22 @@ public class OperationManagementTests extends BaseDeviceManagementTest {
         }
     }
 
+    @Test(dependsOnMethods = "getPendingOperations")
+    public void getPendingOperationsAfterCursor() throws OperationManagementException {
+        for (DeviceIdentifier deviceIdentifier : deviceIds) {
+            List<? extends Operation> operations = this.operationMgtService.getPendingOperations(deviceIdentifier);
+            List<? extends Operation> firstPage = this.operationMgtService.getPendingOperations(deviceIdentifier, 0, 2);
+            Assert.assertEquals(firstPage.size(), 2);
+            Assert.assertEquals(firstPage.get(0).getId(), operations.get(0).getId());
+            List<? extends Operation> secondPage = this.operationMgtService.getPendingOperations(deviceIdentifier,
+                    firstPage.get(1).getId(), 0);
+            Assert.assertEquals(secondPage.size(), 2);
+            Assert.assertTrue(secondPage.get(0).getId() > firstPage.get(1).getId());
+            Assert.assertEquals(this.operationMgtService.getNextPendingOperation(deviceIdentifier).getId(),
+                    operations.get(0).getId());
+        }
+    }
+
     @Test(dependsOnMethods = "getOperations", expectedExceptions = OperationManagementException.class)
     public void getPendingOperationsAsNonAdmin() throws DeviceManagementException, OperationManagementException,
             InvalidDeviceException {
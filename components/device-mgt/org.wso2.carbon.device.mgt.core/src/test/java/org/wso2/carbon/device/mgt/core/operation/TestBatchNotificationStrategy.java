@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.operation;
+
+import org.wso2.carbon.device.mgt.common.push.notification.BatchNotificationStrategy;
+import org.wso2.carbon.device.mgt.common.push.notification.NotificationContext;
+import org.wso2.carbon.device.mgt.common.push.notification.PushNotificationConfig;
+import org.wso2.carbon.device.mgt.common.push.notification.PushNotificationExecutionFailedException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Batch notification strategy which records the operation and device of every notification sent. It can be made to
+ * fail the whole batch, or the notifications of given devices.
+ */
+public class TestBatchNotificationStrategy implements BatchNotificationStrategy {
+
+    private final PushNotificationConfig config;
+    private final Set<String> notifications = Collections.synchronizedSet(new HashSet<String>());
+    private final Set<String> notifiedDevices = Collections.synchronizedSet(new HashSet<String>());
+    private volatile boolean mixedBatchSent;
+    private volatile boolean failBatch;
+    private volatile Set<String> failedDevices = Collections.emptySet();
+
+    /**
+     * @param scheduled whether the notifications are to be sent by the scheduler task instead of the dispatcher.
+     */
+    public TestBatchNotificationStrategy(boolean scheduled) {
+        this.config = new PushNotificationConfig("TEST", scheduled, new HashMap<String, String>());
+    }
+
+    /**
+     * Forgets the notifications sent so far, and sets the notifications to be failed from now on.
+     */
+    public void reset(boolean failBatch, String... failedDevices) {
+        this.failBatch = failBatch;
+        Set<String> devices = new HashSet<>();
+        Collections.addAll(devices, failedDevices);
+        this.failedDevices = devices;
+        this.notifications.clear();
+        this.notifiedDevices.clear();
+        this.mixedBatchSent = false;
+    }
+
+    /**
+     * @return operation id and device id, separated by a colon, of each notification delivered.
+     */
+    public Set<String> getNotifications() {
+        return notifications;
+    }
+
+    /**
+     * @return ids of the devices notified.
+     */
+    public Set<String> getNotifiedDevices() {
+        return notifiedDevices;
+    }
+
+    /**
+     * @return whether a batch carried the notifications of more than one operation.
+     */
+    public boolean isMixedBatchSent() {
+        return mixedBatchSent;
+    }
+
+    @Override
+    public List<NotificationContext> executeBatch(List<NotificationContext> contexts)
+            throws PushNotificationExecutionFailedException {
+        if (failBatch) {
+            throw new PushNotificationExecutionFailedException("Push notification service is unavailable");
+        }
+        Set<Integer> operationIds = new HashSet<>();
+        List<NotificationContext> failedContexts = new ArrayList<>();
+        for (NotificationContext context : contexts) {
+            operationIds.add(context.getOperation().getId());
+            if (failedDevices.contains(context.getDeviceId().getId())) {
+                failedContexts.add(context);
+            } else {
+                notifications.add(context.getOperation().getId() + ":" + context.getDeviceId().getId());
+                notifiedDevices.add(context.getDeviceId().getId());
+            }
+        }
+        if (operationIds.size() > 1) {
+            mixedBatchSent = true;
+        }
+        return failedContexts;
+    }
+
+    @Override
+    public void init() {
+    }
+
+    @Override
+    public void execute(NotificationContext ctx) throws PushNotificationExecutionFailedException {
+        this.executeBatch(Collections.singletonList(ctx));
+    }
+
+    @Override
+    public NotificationContext buildContext() {
+        return null;
+    }
+
+    @Override
+    public void undeploy() {
+    }
+
+    @Override
+    public PushNotificationConfig getConfig() {
+        return config;
+    }
+
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.push.notification.mgt;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.common.operation.mgt.Activity;
+import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
+import org.wso2.carbon.device.mgt.core.DeviceManagementConstants;
+import org.wso2.carbon.device.mgt.core.TestDeviceManagementService;
+import org.wso2.carbon.device.mgt.core.TestUtils;
+import org.wso2.carbon.device.mgt.core.common.BaseDeviceManagementTest;
+import org.wso2.carbon.device.mgt.core.common.TestDataHolder;
+import org.wso2.carbon.device.mgt.core.internal.DeviceManagementDataHolder;
+import org.wso2.carbon.device.mgt.core.operation.TestBatchNotificationStrategy;
+import org.wso2.carbon.device.mgt.core.operation.mgt.CommandOperation;
+import org.wso2.carbon.device.mgt.core.operation.mgt.OperationManagerImpl;
+import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class contains unit tests to test {@link PushNotificationDispatcher} class.
+ */
+public class PushNotificationDispatcherTest extends BaseDeviceManagementTest {
+
+    private static final String DEVICE_TYPE = "DISPATCHER_TEST_TYPE";
+    private static final String DEVICE_ID_PREFIX = "DISPATCHER-TEST-DEVICE-ID-";
+    private static final String OPERATION_CODE = "DISPATCHER-TEST";
+    private static final int NO_OF_DEVICES = 3;
+    private static final long DISPATCH_TIMEOUT = 10000;
+
+    private List<DeviceIdentifier> deviceIds = new ArrayList<>();
+    private TestBatchNotificationStrategy notificationStrategy;
+    private OperationManagerImpl operationManager;
+
+    @BeforeClass
+    public void init() throws Exception {
+        for (int i = 0; i < NO_OF_DEVICES; i++) {
+            deviceIds.add(new DeviceIdentifier(DEVICE_ID_PREFIX + i, DEVICE_TYPE));
+        }
+        DeviceManagementProviderService deviceMgtService = DeviceManagementDataHolder.getInstance().
+                getDeviceManagementProvider();
+        deviceMgtService.registerDeviceType(new TestDeviceManagementService(DEVICE_TYPE,
+                MultitenantConstants.SUPER_TENANT_DOMAIN_NAME));
+        for (Device device : TestDataHolder.generateDummyDeviceData(this.deviceIds)) {
+            deviceMgtService.enrollDevice(device);
+        }
+        this.notificationStrategy = new TestBatchNotificationStrategy(false);
+        this.operationManager = new OperationManagerImpl(DEVICE_TYPE, notificationStrategy);
+    }
+
+    @Test(description = "Tests that the mappings of delivered notifications are moved to COMPLETED")
+    public void testDeliveredNotifications() throws Exception {
+        notificationStrategy.reset(false);
+        Map<String, String> statuses = this.addOperation();
+        Assert.assertEquals(statuses.size(), NO_OF_DEVICES);
+        for (Map.Entry<String, String> status : statuses.entrySet()) {
+            Assert.assertEquals(status.getValue(), "COMPLETED", "Notification to " + status.getKey() +
+                    " is not completed");
+        }
+        Assert.assertEquals(notificationStrategy.getNotifiedDevices().size(), NO_OF_DEVICES);
+    }
+
+    @Test(description = "Tests that the mappings stay SCHEDULED when the whole batch could not be delivered")
+    public void testFailedNotifications() throws Exception {
+        notificationStrategy.reset(true);
+        Map<String, String> statuses = this.addOperation();
+        Assert.assertEquals(statuses.size(), NO_OF_DEVICES);
+        for (Map.Entry<String, String> status : statuses.entrySet()) {
+            Assert.assertEquals(status.getValue(), "SCHEDULED", "Failed notification to " + status.getKey() +
+                    " is not scheduled to be retried");
+        }
+    }
+
+    @Test(description = "Tests that only the mappings of the undelivered notifications of a batch stay SCHEDULED")
+    public void testPartiallyDeliveredBatch() throws Exception {
+        String failedDevice = DEVICE_ID_PREFIX + 1;
+        notificationStrategy.reset(false, failedDevice);
+        Map<String, String> statuses = this.addOperation();
+        Assert.assertEquals(statuses.size(), NO_OF_DEVICES);
+        for (Map.Entry<String, String> status : statuses.entrySet()) {
+            Assert.assertEquals(status.getValue(), failedDevice.equals(status.getKey()) ? "SCHEDULED" :
+                    "COMPLETED", "Unexpected push notification status of " + status.getKey());
+        }
+    }
+
+    @Test(description = "Tests that the statistics of a dispatcher are exposed over JMX until it is shut down")
+    public void testStatistics() throws Exception {
+        PushNotificationDispatcher dispatcher = new PushNotificationDispatcher(DEVICE_TYPE,
+                new TestBatchNotificationStrategy(false));
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName(dispatcher.getObjectName());
+        Assert.assertTrue(mBeanServer.isRegistered(objectName));
+        Assert.assertEquals(mBeanServer.getAttribute(objectName, "DeviceType"), DEVICE_TYPE);
+        Assert.assertEquals(mBeanServer.getAttribute(objectName, "QueueDepth"), 0);
+        dispatcher.shutdown();
+        Assert.assertFalse(mBeanServer.isRegistered(objectName));
+    }
+
+    /**
+     * Adds an operation to the test devices, waits until its notifications are dispatched and returns the push
+     * notification status of each device.
+     */
+    private Map<String, String> addOperation() throws Exception {
+        Operation operation = new CommandOperation();
+        operation.setType(Operation.Type.COMMAND);
+        operation.setCode(OPERATION_CODE);
+        Activity activity = operationManager.addOperation(operation, deviceIds);
+        int operationId = Integer.parseInt(activity.getActivityId().replace(
+                DeviceManagementConstants.OperationAttributes.ACTIVITY, ""));
+        PushNotificationDispatcher dispatcher = operationManager.getNotificationDispatcher();
+        long deadline = System.currentTimeMillis() + DISPATCH_TIMEOUT;
+        while (dispatcher.getQueueDepth() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        Assert.assertEquals(dispatcher.getQueueDepth(), 0, "Notifications were not dispatched in time");
+        return TestUtils.getPushNotificationStatuses(this.getDataSource(), operationId);
+    }
+
+}
@@ -20,26 +20,40 @@ package org.wso2.carbon.device.mgt.core.push.notification.mgt.task;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
 import org.wso2.carbon.device.mgt.common.DeviceManagementException;
 import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManagementException;
+import org.wso2.carbon.device.mgt.core.TestDeviceManagementService;
+import org.wso2.carbon.device.mgt.core.TestUtils;
 import org.wso2.carbon.device.mgt.core.common.BaseDeviceManagementTest;
+import org.wso2.carbon.device.mgt.core.common.TestDataHolder;
 import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
+import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOFactory;
 import org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation;
 import org.wso2.carbon.device.mgt.core.internal.DeviceManagementDataHolder;
 import org.wso2.carbon.device.mgt.core.internal.DeviceManagementServiceComponent;
+import org.wso2.carbon.device.mgt.core.operation.TestBatchNotificationStrategy;
 import org.wso2.carbon.device.mgt.core.operation.TestNotificationStrategy;
+import org.wso2.carbon.device.mgt.core.operation.mgt.CommandOperation;
 import org.wso2.carbon.device.mgt.core.operation.mgt.OperationMapping;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationDAO;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOException;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOFactory;
+import org.wso2.carbon.device.mgt.core.operation.mgt.dao.util.OperationDAOUtil;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderServiceImpl;
-import org.wso2.carbon.registry.core.exceptions.RegistryException;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -48,15 +62,32 @@ import java.util.Map;
  */
 public class PushNotificationSchedulerTaskTest extends BaseDeviceManagementTest {
     private static final Log log = LogFactory.getLog(PushNotificationSchedulerTask.class);
+    private static final String DEVICE_TYPE = "SCHEDULER_TEST_TYPE";
+    private static final String DEVICE_ID_PREFIX = "SCHEDULER-TEST-DEVICE-ID-";
+    private static final String OPERATION_CODE = "SCHEDULER-TEST";
+    private static final int NO_OF_DEVICES = 5;
+    private static final int NO_OF_OPERATIONS = 3;
+    private List<DeviceIdentifier> deviceIds = new ArrayList<>();
     private DeviceManagementProviderService deviceMgtProviderService;
     private PushNotificationSchedulerTask pushNotificationSchedulerTask;
     private OperationDAO operationDAO;
 
     @BeforeClass
-    public void init() throws DeviceManagementException, RegistryException {
+    public void init() throws Exception {
         DeviceConfigurationManager.getInstance().initConfig();
         log.info("Initializing Push Notification Scheduler Test Class");
         DeviceManagementServiceComponent.notifyStartupListeners();
+        this.initDataSource();
+        for (int i = 0; i < NO_OF_DEVICES; i++) {
+            deviceIds.add(new DeviceIdentifier(DEVICE_ID_PREFIX + i, DEVICE_TYPE));
+        }
+        DeviceManagementProviderService deviceMgtService = DeviceManagementDataHolder.getInstance()
+                .getDeviceManagementProvider();
+        deviceMgtService.registerDeviceType(new TestDeviceManagementService(DEVICE_TYPE,
+                MultitenantConstants.SUPER_TENANT_DOMAIN_NAME));
+        for (Device device : TestDataHolder.generateDummyDeviceData(this.deviceIds)) {
+            deviceMgtService.enrollDevice(device);
+        }
         this.deviceMgtProviderService = Mockito.mock(DeviceManagementProviderServiceImpl.class, Mockito.CALLS_REAL_METHODS);
         DeviceManagementDataHolder.getInstance().setDeviceManagementProvider(this.deviceMgtProviderService);
         this.operationDAO = OperationManagementDAOFactory.getOperationDAO();
@@ -77,12 +108,133 @@ public class PushNotificationSchedulerTaskTest extends BaseDeviceManagementTest
             OperationManagementDAOFactory.openConnection();
             Map<Integer, List<OperationMapping>> operationMappingsTenantMap = operationDAO
                     .getOperationMappingsByStatus(Operation.Status.PENDING, Operation.PushNotificationStatus.SCHEDULED,
-                            DeviceConfigurationManager.getInstance().getDeviceManagementConfig()
-                                    .getPushNotificationConfiguration().getSchedulerBatchSize());
+                            this.pushNotificationSchedulerTask.getScheduledBefore(), DeviceConfigurationManager
+                                    .getInstance().getDeviceManagementConfig().getPushNotificationConfiguration()
+                                    .getSchedulerBatchSize());
             Assert.assertEquals(operationMappingsTenantMap.size(), 0);
             log.info("Push notification task execution complete.");
         } finally {
             OperationManagementDAOFactory.closeConnection();
         }
     }
+
+    @Test(dependsOnMethods = "testPushNotificationScheduler",
+            description = "Tests that the scheduled notifications of several operations are sent in parallel units")
+    public void testParallelPushNotificationScheduler() throws Exception {
+        TestBatchNotificationStrategy notificationStrategy = new TestBatchNotificationStrategy(true);
+        List<Integer> operationIds = new ArrayList<>();
+        for (int i = 0; i < NO_OF_OPERATIONS; i++) {
+            operationIds.add(this.addScheduledOperation(true));
+        }
+        for (int operationId : operationIds) {
+            Map<String, String> statuses = TestUtils.getPushNotificationStatuses(this.getDataSource(), operationId);
+            for (String status : statuses.values()) {
+                Assert.assertEquals(status, "SCHEDULED");
+            }
+        }
+        Mockito.doReturn(notificationStrategy).when(this.deviceMgtProviderService)
+                .getNotificationStrategyByDeviceType(Mockito.anyString());
+        Mockito.doAnswer(new Answer<org.wso2.carbon.device.mgt.common.operation.mgt.Operation>() {
+            @Override
+            public org.wso2.carbon.device.mgt.common.operation.mgt.Operation answer(InvocationOnMock invocation) {
+                org.wso2.carbon.device.mgt.common.operation.mgt.Operation operation = new CommandOperation();
+                operation.setId((Integer) invocation.getArguments()[1]);
+                return operation;
+            }
+        }).when(this.deviceMgtProviderService).getOperation(Mockito.anyString(), Mockito.anyInt());
+        this.pushNotificationSchedulerTask.run();
+
+        for (int operationId : operationIds) {
+            Map<String, String> statuses = TestUtils.getPushNotificationStatuses(this.getDataSource(), operationId);
+            Assert.assertEquals(statuses.size(), NO_OF_DEVICES);
+            for (Map.Entry<String, String> status : statuses.entrySet()) {
+                Assert.assertEquals(status.getValue(), "COMPLETED", "Notification of operation " + operationId +
+                        " to " + status.getKey() + " is not completed");
+                Assert.assertTrue(notificationStrategy.getNotifications().contains(operationId + ":" +
+                        status.getKey()), "Operation " + operationId + " is not notified to " + status.getKey());
+            }
+        }
+        Assert.assertFalse(notificationStrategy.isMixedBatchSent(), "A batch carried more than one operation");
+    }
+
+    @Test(dependsOnMethods = "testParallelPushNotificationScheduler",
+            description = "Tests that the notifications scheduled within the grace period are left to the dispatcher")
+    public void testRecentlyScheduledNotifications() throws Exception {
+        TestBatchNotificationStrategy notificationStrategy = new TestBatchNotificationStrategy(true);
+        int operationId = this.addScheduledOperation(false);
+        Mockito.doReturn(notificationStrategy).when(this.deviceMgtProviderService)
+                .getNotificationStrategyByDeviceType(Mockito.anyString());
+        this.pushNotificationSchedulerTask.run();
+        Assert.assertTrue(notificationStrategy.getNotifications().isEmpty());
+        for (String status : TestUtils.getPushNotificationStatuses(this.getDataSource(), operationId).values()) {
+            Assert.assertEquals(status, "SCHEDULED");
+        }
+    }
+
+    @Test(dependsOnMethods = "testRecentlyScheduledNotifications",
+            description = "Tests that the scheduler task does not send notifications once it is shut down")
+    public void testShutdown() throws Exception {
+        TestBatchNotificationStrategy notificationStrategy = new TestBatchNotificationStrategy(true);
+        int operationId = this.addScheduledOperation(true);
+        Mockito.doReturn(notificationStrategy).when(this.deviceMgtProviderService)
+                .getNotificationStrategyByDeviceType(Mockito.anyString());
+        this.pushNotificationSchedulerTask.shutdown();
+        // The rejected notifications are logged, and left to be sent by the task of the next start up
+        this.pushNotificationSchedulerTask.run();
+        Assert.assertTrue(notificationStrategy.getNotifications().isEmpty());
+        Map<String, String> statuses = TestUtils.getPushNotificationStatuses(this.getDataSource(), operationId);
+        Assert.assertEquals(statuses.size(), NO_OF_DEVICES);
+        for (String status : statuses.values()) {
+            Assert.assertEquals(status, "SCHEDULED");
+        }
+    }
+
+    /**
+     * Adds an operation to the test devices, with the push notifications scheduled to be sent by the task.
+     *
+     * @param pastGracePeriod whether the notifications are to be scheduled before the grace period of the task.
+     */
+    private int addScheduledOperation(boolean pastGracePeriod) throws Exception {
+        org.wso2.carbon.device.mgt.common.operation.mgt.Operation operation = new CommandOperation();
+        operation.setType(org.wso2.carbon.device.mgt.common.operation.mgt.Operation.Type.COMMAND);
+        operation.setCode(OPERATION_CODE);
+        List<String> identifiers = new ArrayList<>();
+        for (DeviceIdentifier deviceId : deviceIds) {
+            identifiers.add(deviceId.getId());
+        }
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            Map<String, Integer> enrolmentIds = DeviceManagementDAOFactory.getDeviceDAO().getEnrolmentIds(DEVICE_TYPE,
+                    identifiers, TestDataHolder.SUPER_TENANT_ID);
+            OperationManagementDAOFactory.beginTransaction();
+            int operationId = OperationManagementDAOFactory.getCommandOperationDAO().addOperation(
+                    OperationDAOUtil.convertOperation(operation));
+            OperationManagementDAOFactory.getOperationMappingDAO().addOperationMappings(operationId,
+                    new ArrayList<>(enrolmentIds.values()), true);
+            OperationManagementDAOFactory.commitTransaction();
+            if (pastGracePeriod) {
+                this.setScheduledTime(operationId, this.pushNotificationSchedulerTask.getScheduledBefore() - 1);
+            }
+            return operationId;
+        } finally {
+            OperationManagementDAOFactory.closeConnection();
+            DeviceManagementDAOFactory.closeConnection();
+        }
+    }
+
+    private void setScheduledTime(int operationId, long scheduledTime) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        try {
+            conn = this.getDataSource().getConnection();
+            stmt = conn.prepareStatement("UPDATE DM_ENROLMENT_OP_MAPPING SET CREATED_TIMESTAMP = ? " +
+                    "WHERE OPERATION_ID = ?");
+            stmt.setLong(1, scheduledTime);
+            stmt.setInt(2, operationId);
+            stmt.executeUpdate();
+        } finally {
+            TestUtils.cleanupResources(conn, stmt, null);
+        }
+    }
+
 }
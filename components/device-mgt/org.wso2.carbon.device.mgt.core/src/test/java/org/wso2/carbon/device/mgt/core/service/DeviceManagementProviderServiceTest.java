@@ -638,6 +638,28 @@ public class DeviceManagementProviderServiceTest extends BaseDeviceManagementTes
         }
     }
 
+    @Test(dependsOnMethods = {"testSuccessfulDeviceEnrollment"})
+    public void testGetDevicesOfTypeWithKeysetPagination() throws DeviceManagementException {
+        if (!isMock()) {
+            PaginationRequest request = new PaginationRequest(0, 1);
+            request.setDeviceType(DEVICE_TYPE);
+            request.setCountRequired(false);
+            PaginationResult firstPage = deviceMgtService.getDevicesByType(request, false);
+            Assert.assertEquals(firstPage.getRecordsTotal(), -1);
+            Assert.assertEquals(firstPage.getData().size(), 1);
+            int lastEnrolmentId = ((Device) firstPage.getData().get(0)).getEnrolmentInfo().getId();
+
+            request = new PaginationRequest(0, 100);
+            request.setDeviceType(DEVICE_TYPE);
+            request.setAfterEnrolmentId(lastEnrolmentId);
+            PaginationResult nextPage = deviceMgtService.getDevicesByType(request, false);
+            Assert.assertTrue(nextPage.getRecordsTotal() > 0);
+            for (Object device : nextPage.getData()) {
+                Assert.assertTrue(((Device) device).getEnrolmentInfo().getId() > lastEnrolmentId);
+            }
+        }
+    }
+
     @Test(dependsOnMethods = {"testSuccessfulDeviceEnrollment"})
     public void testGetAllDevicesWithInfo() throws DeviceManagementException, NoSuchFieldException,
             IllegalAccessException {
@@ -646,6 +668,8 @@ public class DeviceManagementProviderServiceTest extends BaseDeviceManagementTes
         cleanupMockDatasource(dataSource);
         Assert.assertTrue(!devices.isEmpty());
         Assert.assertTrue(devices.get(0).getDeviceInfo() != null);
+        Assert.assertTrue(devices.get(0).getDeviceInfo().getLocation() != null);
+        Assert.assertTrue(devices.get(0).getApplications() != null);
     }
 
     @Test(dependsOnMethods = {"testSuccessfulDeviceEnrollment"})
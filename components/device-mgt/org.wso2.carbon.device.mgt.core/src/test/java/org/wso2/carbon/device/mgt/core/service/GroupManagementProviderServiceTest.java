@@ -257,6 +257,33 @@ public class GroupManagementProviderServiceTest extends BaseDeviceManagementTest
                 TestUtils.createDeviceGroup3().getName()).getGroupId(), list);
     }
 
+    @Test(dependsOnMethods = ("removeDevice"))
+    public void addAndRemoveDevicesWithResult() throws GroupManagementException {
+        int groupId = groupManagementProviderService.getGroup(TestUtils.createDeviceGroup3().getName()).getGroupId();
+        List<DeviceIdentifier> list = TestUtils.getDeviceIdentifiersList();
+        list.addAll(TestUtils.getDeviceIdentifiersList());
+        DeviceIdentifier unknownIdentifier = new DeviceIdentifier();
+        unknownIdentifier.setId("unknown-device");
+        unknownIdentifier.setType(TestDataHolder.TEST_DEVICE_TYPE);
+        list.add(unknownIdentifier);
+
+        GroupMembershipResult result = groupManagementProviderService.addDevicesToGroup(groupId, list);
+        Assert.assertEquals(result.getUpdatedDevices().size(), 1);
+        Assert.assertEquals(result.getUnchangedDevices().size(), 1);
+        Assert.assertEquals(result.getNotFoundDevices().size(), 1);
+        Assert.assertEquals(result.getNotFoundDevices().get(0).getId(), "unknown-device");
+        Assert.assertEquals(groupManagementProviderService.getDeviceCount(groupId), 1);
+
+        result = groupManagementProviderService.addDevicesToGroup(groupId, list);
+        Assert.assertEquals(result.getUpdatedDevices().size(), 0);
+        Assert.assertEquals(result.getUnchangedDevices().size(), 2);
+
+        result = groupManagementProviderService.removeDevicesFromGroup(groupId, list);
+        Assert.assertEquals(result.getUpdatedDevices().size(), 1);
+        Assert.assertEquals(result.getNotFoundDevices().size(), 1);
+        Assert.assertEquals(groupManagementProviderService.getDeviceCount(groupId), 0);
+    }
+
     @Test(dependsOnMethods = ("createGroup"))
     public void getGroupsByUsernameAndPermissions() throws GroupManagementException {
         List<DeviceGroup> groups = groupManagementProviderService.getGroups("admin", "/permission/device-mgt/admin/groups");
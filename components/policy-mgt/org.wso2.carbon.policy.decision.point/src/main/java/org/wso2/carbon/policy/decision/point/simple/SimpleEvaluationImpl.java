@@ -26,15 +26,10 @@ import org.wso2.carbon.policy.decision.point.internal.PolicyDecisionPointDataHol
 import org.wso2.carbon.policy.mgt.common.*;
 import org.wso2.carbon.policy.mgt.core.PolicyManagerService;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-
 public class SimpleEvaluationImpl implements SimpleEvaluation {
 
     private static final Log log = LogFactory.getLog(SimpleEvaluationImpl.class);
     private PolicyManagerService policyManagerService;
-    private List<Policy> policyList = new ArrayList<Policy>();
 
     @Override
     public Policy getEffectivePolicy(DeviceIdentifier deviceIdentifier) throws PolicyEvaluationException {
@@ -48,12 +43,11 @@ public class SimpleEvaluationImpl implements SimpleEvaluation {
 
                 policyInformationPoint = policyManagerService.getPIP();
                 PIPDevice pipDevice = policyInformationPoint.getDeviceData(deviceIdentifier);
-                policyList = policyInformationPoint.getRelatedPolicies(pipDevice);
+                // Picks the highest priority match from the precompiled index, instead of building and sorting the
+                // whole list of related policies.
+                policy = policyInformationPoint.getEffectivePolicy(pipDevice);
                 policyAdministratorPoint = policyManagerService.getPAP();
-                sortPolicies();
-                if(!policyList.isEmpty()) {
-                    policy = policyList.get(0);
-                } else {
+                if (policy == null) {
                     policyAdministratorPoint.removePolicyUsed(deviceIdentifier);
                     return null;
                 }
@@ -70,11 +64,6 @@ public class SimpleEvaluationImpl implements SimpleEvaluation {
         return policy;
     }
 
-    @Override
-    public void sortPolicies() throws PolicyEvaluationException {
-        Collections.sort(policyList);
-    }
-
     private PolicyManagerService getPolicyManagerService() {
         return PolicyDecisionPointDataHolder.getInstance().getPolicyManagerService();
     }
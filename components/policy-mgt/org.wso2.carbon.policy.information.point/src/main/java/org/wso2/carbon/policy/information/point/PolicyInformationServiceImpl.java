@@ -37,6 +37,11 @@ public class PolicyInformationServiceImpl implements PolicyInformationPoint {
         return null;
     }
 
+    @Override
+    public Policy getEffectivePolicy(PIPDevice pipDevice) {
+        return null;
+    }
+
     @Override
     public List<Feature> getRelatedFeatures(String deviceType) {
         return null;
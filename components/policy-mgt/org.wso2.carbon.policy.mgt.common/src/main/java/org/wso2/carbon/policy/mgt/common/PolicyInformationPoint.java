@@ -45,6 +45,14 @@ public interface PolicyInformationPoint {
      */
     List<Policy> getRelatedPolicies(PIPDevice pipDevice) throws PolicyManagementException;
 
+    /**
+     * This method will return the highest priority policy related to the given device data, without building the
+     * whole list of related policies.
+     * @param pipDevice
+     * @return effective policy, or null if there is no policy related to the device.
+     */
+    Policy getEffectivePolicy(PIPDevice pipDevice) throws PolicyManagementException;
+
     /**
      * This is will retrieve the features related to device type. This feature list will be used for dynamically
      * merging the policies.
@@ -49,6 +49,23 @@ public interface PolicyCacheManager {
      */
     List<Policy> getAllPolicies() throws PolicyManagementException;
 
+    /**
+     * This method will return the indexed snapshot of all the policies. The snapshot is never modified, hence it can
+     * be used without copying.
+     * @return - snapshot of the policies
+     * @throws PolicyManagementException
+     */
+    PolicySnapshot getPolicySnapshot() throws PolicyManagementException;
+
+    /**
+     * This method will return the decision index of the given device type, built from the current snapshot. The
+     * index is kept on this node and reused until the snapshot is replaced.
+     * @param deviceType - name of the device type
+     * @return - decision index of the active policies of the device type
+     * @throws PolicyManagementException
+     */
+    PolicyDecisionIndex getDecisionIndex(String deviceType) throws PolicyManagementException;
+
     /**
      * This method will repopulate the cache, this will be called when there is a change of the policies.
      * @throws PolicyManagementException
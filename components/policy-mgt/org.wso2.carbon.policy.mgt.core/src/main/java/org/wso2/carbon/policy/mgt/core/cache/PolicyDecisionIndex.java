@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.policy.mgt.core.cache;
+
+import org.wso2.carbon.device.mgt.common.group.mgt.DeviceGroup;
+import org.wso2.carbon.device.mgt.common.policy.mgt.DeviceGroupWrapper;
+import org.wso2.carbon.device.mgt.common.policy.mgt.Policy;
+import org.wso2.carbon.policy.mgt.common.PIPDevice;
+import org.wso2.carbon.policy.mgt.core.util.PolicyManagementConstants;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Precompiled decision index of the active policies of a single device type. Policies are numbered in the order of
+ * their priority, and a bitset of matching policies is kept for every ownership type, role, user and device group,
+ * along with a bitset of the policies which match any value of the criterion. A device is evaluated by intersecting
+ * the bitsets of its attributes, and the lowest set bit is the effective policy.
+ *
+ * The matching rules are the same as the ones of {@link org.wso2.carbon.policy.mgt.core.impl.PolicyFilterImpl}.
+ */
+public class PolicyDecisionIndex {
+
+    private final Policy[] policies;
+    private final BitSet ownershipAny = new BitSet();
+    private final Map<String, BitSet> ownershipIndex = new HashMap<>();
+    private final BitSet roleAny = new BitSet();
+    private final Map<String, BitSet> roleIndex = new HashMap<>();
+    private final BitSet userAny = new BitSet();
+    private final Map<String, BitSet> userIndex = new HashMap<>();
+    private final BitSet groupAny = new BitSet();
+    private final Map<Integer, BitSet> groupIndex = new HashMap<>();
+
+    /**
+     * @param deviceTypePolicies policies of the device type. Inactive policies are left out of the index.
+     */
+    public PolicyDecisionIndex(List<Policy> deviceTypePolicies) {
+        List<Policy> activePolicies = new ArrayList<>();
+        for (Policy policy : deviceTypePolicies) {
+            if (policy.isActive()) {
+                activePolicies.add(policy);
+            }
+        }
+        // Stable, hence policies of the same priority keep their order as in the policy evaluation so far.
+        Collections.sort(activePolicies);
+        this.policies = activePolicies.toArray(new Policy[activePolicies.size()]);
+
+        for (int i = 0; i < policies.length; i++) {
+            Policy policy = policies[i];
+
+            String ownershipType = policy.getOwnershipType();
+            if (ownershipType == null || PolicyManagementConstants.ANY.equalsIgnoreCase(ownershipType)) {
+                ownershipAny.set(i);
+            } else {
+                this.set(ownershipIndex, ownershipType.toLowerCase(), i);
+            }
+
+            List<String> roles = policy.getRoles();
+            if (roles == null || roles.isEmpty() || PolicyManagementConstants.ANY.equalsIgnoreCase(roles.get(0))) {
+                roleAny.set(i);
+            } else {
+                for (String role : roles) {
+                    this.set(roleIndex, role.toLowerCase(), i);
+                }
+            }
+
+            List<String> users = policy.getUsers();
+            if (users == null || users.isEmpty() || users.contains(PolicyManagementConstants.ANY)) {
+                userAny.set(i);
+            } else {
+                for (String user : users) {
+                    this.set(userIndex, user.toLowerCase(), i);
+                }
+            }
+
+            List<DeviceGroupWrapper> deviceGroups = policy.getDeviceGroups();
+            if (deviceGroups == null || deviceGroups.isEmpty() ||
+                    PolicyManagementConstants.ANY.equalsIgnoreCase(deviceGroups.get(0).getName())) {
+                groupAny.set(i);
+            } else {
+                for (DeviceGroupWrapper deviceGroup : deviceGroups) {
+                    this.set(groupIndex, deviceGroup.getId(), i);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param pipDevice device to be evaluated.
+     * @return the highest priority policy applicable to the device, or null if none is applicable.
+     */
+    public Policy getEffectivePolicy(PIPDevice pipDevice) {
+        BitSet matches = this.match(pipDevice);
+        int first = matches.nextSetBit(0);
+        return first < 0 ? null : policies[first];
+    }
+
+    /**
+     * @param pipDevice device to be evaluated.
+     * @return the policies applicable to the device in the order of their priority.
+     */
+    public List<Policy> getMatchingPolicies(PIPDevice pipDevice) {
+        BitSet matches = this.match(pipDevice);
+        List<Policy> matchingPolicies = new ArrayList<>(matches.cardinality());
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            matchingPolicies.add(policies[i]);
+        }
+        return matchingPolicies;
+    }
+
+    public int size() {
+        return policies.length;
+    }
+
+    private BitSet match(PIPDevice pipDevice) {
+        BitSet matches = new BitSet(policies.length);
+        matches.set(0, policies.length);
+
+        String ownershipType = pipDevice.getOwnershipType();
+        if (ownershipType != null && !ownershipType.isEmpty()) {
+            matches.and(this.union(ownershipAny, ownershipIndex.get(ownershipType.toLowerCase())));
+        }
+
+        String[] roles = pipDevice.getRoles();
+        if (roles != null) {
+            BitSet roleMatches = (BitSet) roleAny.clone();
+            for (String role : roles) {
+                BitSet indexed = roleIndex.get(role.toLowerCase());
+                if (indexed != null) {
+                    roleMatches.or(indexed);
+                }
+            }
+            matches.and(roleMatches);
+        }
+
+        String userId = pipDevice.getUserId();
+        if (userId != null && !userId.isEmpty()) {
+            matches.and(this.union(userAny, userIndex.get(userId.toLowerCase())));
+        }
+
+        List<DeviceGroup> deviceGroups = pipDevice.getDeviceGroups();
+        if (deviceGroups != null && !deviceGroups.isEmpty()) {
+            BitSet groupMatches = (BitSet) groupAny.clone();
+            for (DeviceGroup deviceGroup : deviceGroups) {
+                BitSet indexed = groupIndex.get(deviceGroup.getGroupId());
+                if (indexed != null) {
+                    groupMatches.or(indexed);
+                }
+            }
+            matches.and(groupMatches);
+        }
+        return matches;
+    }
+
+    private BitSet union(BitSet any, BitSet indexed) {
+        if (indexed == null) {
+            return any;
+        }
+        BitSet union = (BitSet) any.clone();
+        union.or(indexed);
+        return union;
+    }
+
+    private <K> void set(Map<K, BitSet> index, K key, int position) {
+        BitSet bitSet = index.get(key);
+        if (bitSet == null) {
+            bitSet = new BitSet(policies.length);
+            index.put(key, bitSet);
+        }
+        bitSet.set(position);
+    }
+
+}
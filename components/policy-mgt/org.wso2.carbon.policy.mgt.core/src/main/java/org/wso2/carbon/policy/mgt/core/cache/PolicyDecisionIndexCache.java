@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.policy.mgt.core.cache;
+
+import org.wso2.carbon.device.mgt.common.cache.BoundedExpiringCache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Node local cache of the {@link PolicyDecisionIndex}es built for the policy snapshots of the tenants. The snapshots
+ * are copied whenever they are read from the distributed cache, hence the indexes are kept here by tenant and snapshot
+ * version instead of with the snapshot, so that they are built once per snapshot instead of once per evaluation.
+ */
+public class PolicyDecisionIndexCache {
+
+    private static final int DEFAULT_CAPACITY = 1000;
+
+    private final BoundedExpiringCache<String, ConcurrentMap<String, PolicyDecisionIndex>> indexesBySnapshot;
+
+    public PolicyDecisionIndexCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity maximum number of snapshots whose decision indexes are kept.
+     */
+    public PolicyDecisionIndexCache(int capacity) {
+        // Snapshots are replaced rather than modified, so their indexes never go stale and need no expiry time.
+        indexesBySnapshot = new BoundedExpiringCache<>(capacity, 0);
+    }
+
+    /**
+     * @param tenantId   tenant the snapshot belongs to.
+     * @param snapshot   current policy snapshot of the tenant.
+     * @param deviceType name of the device type.
+     * @return decision index of the active policies of the device type in the given snapshot.
+     */
+    public PolicyDecisionIndex getDecisionIndex(int tenantId, PolicySnapshot snapshot, String deviceType) {
+        String deviceTypeKey = deviceType == null ? "" : deviceType.toLowerCase();
+        ConcurrentMap<String, PolicyDecisionIndex> indexes = this.getIndexes(tenantId, snapshot);
+        PolicyDecisionIndex decisionIndex = indexes.get(deviceTypeKey);
+        if (decisionIndex == null) {
+            // Building twice on a race is harmless, both indexes are built from the same policies.
+            decisionIndex = new PolicyDecisionIndex(snapshot.getPoliciesOfDeviceType(deviceType));
+            PolicyDecisionIndex existing = indexes.putIfAbsent(deviceTypeKey, decisionIndex);
+            if (existing != null) {
+                decisionIndex = existing;
+            }
+        }
+        return decisionIndex;
+    }
+
+    /**
+     * Drops the decision indexes of all the snapshots.
+     */
+    public void clear() {
+        indexesBySnapshot.clear();
+    }
+
+    private ConcurrentMap<String, PolicyDecisionIndex> getIndexes(int tenantId, PolicySnapshot snapshot) {
+        String key = this.getKey(tenantId, snapshot.getVersion());
+        ConcurrentMap<String, PolicyDecisionIndex> indexes = indexesBySnapshot.get(key);
+        if (indexes != null) {
+            return indexes;
+        }
+        indexes = new ConcurrentHashMap<>();
+        if (snapshot.getPreviousVersion() != null) {
+            // Carry over the indexes of the device types which are not affected by the change.
+            ConcurrentMap<String, PolicyDecisionIndex> previousIndexes = indexesBySnapshot.get(
+                    this.getKey(tenantId, snapshot.getPreviousVersion()));
+            if (previousIndexes != null) {
+                for (Map.Entry<String, PolicyDecisionIndex> entry : previousIndexes.entrySet()) {
+                    if (!snapshot.getChangedDeviceTypes().contains(entry.getKey())) {
+                        indexes.put(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+        }
+        // Racing readers of the same snapshot may each create a map; the indexes are rebuilt on the next miss then.
+        indexesBySnapshot.put(key, indexes);
+        return indexes;
+    }
+
+    private String getKey(int tenantId, String snapshotVersion) {
+        return tenantId + ":" + snapshotVersion;
+    }
+
+}
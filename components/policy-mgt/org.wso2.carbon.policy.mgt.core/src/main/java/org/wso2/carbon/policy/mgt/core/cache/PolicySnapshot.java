@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.policy.mgt.core.cache;
+
+import org.wso2.carbon.device.mgt.common.policy.mgt.DeviceGroupWrapper;
+import org.wso2.carbon.device.mgt.common.policy.mgt.Policy;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Immutable view of the policies of a tenant, indexed by policy id, device type, role, user, ownership type and
+ * device group. A snapshot is never modified once it is built; changes are applied by building a new snapshot and
+ * replacing the cached one, so readers always see a consistent set of policies.
+ *
+ * Each snapshot carries a version, which is kept when the snapshot is copied by the cache, so that the node local
+ * {@link PolicyDecisionIndexCache} can reuse the decision indexes built for it. A snapshot derived from another one
+ * records the version it was derived from and the device types affected by the change, so that the decision indexes of
+ * the other device types can be carried over.
+ */
+public class PolicySnapshot implements Serializable {
+
+    private static final long serialVersionUID = 20180415L;
+
+    private final String version = UUID.randomUUID().toString();
+    private final String previousVersion;
+    private final Set<String> changedDeviceTypes;
+
+    private final List<Policy> policies;
+    private final Map<Integer, Policy> policiesById = new HashMap<>();
+    private final Map<String, List<Policy>> policiesByDeviceType = new HashMap<>();
+    private final Map<String, List<Policy>> policiesByRole = new HashMap<>();
+    private final Map<String, List<Policy>> policiesByUser = new HashMap<>();
+    private final Map<String, List<Policy>> policiesByOwnershipType = new HashMap<>();
+    private final Map<Integer, List<Policy>> policiesByGroup = new HashMap<>();
+
+    public PolicySnapshot(List<Policy> policies) {
+        this(policies, null, Collections.<String>emptySet());
+    }
+
+    private PolicySnapshot(List<Policy> policies, String previousVersion, Set<String> changedDeviceTypes) {
+        this.previousVersion = previousVersion;
+        this.changedDeviceTypes = changedDeviceTypes;
+        List<Policy> policyList = new ArrayList<>();
+        if (policies != null) {
+            for (Policy policy : policies) {
+                // The last occurrence of a policy wins, as updates are appended to the end.
+                if (policiesById.put(policy.getId(), policy) != null) {
+                    this.removeById(policyList, policy.getId());
+                }
+                policyList.add(policy);
+            }
+        }
+        this.policies = Collections.unmodifiableList(policyList);
+        for (Policy policy : this.policies) {
+            this.index(policy);
+        }
+    }
+
+    /**
+     * @return all the policies, in the order they were added.
+     */
+    public List<Policy> getPolicies() {
+        return policies;
+    }
+
+    public Policy getPolicy(int policyId) {
+        return policiesById.get(policyId);
+    }
+
+    public List<Policy> getPoliciesOfDeviceType(String deviceType) {
+        return this.lookup(policiesByDeviceType, deviceType == null ? null : deviceType.toLowerCase());
+    }
+
+    /**
+     * Role names and usernames are matched regardless of their case, as the user stores do.
+     */
+    public List<Policy> getPoliciesOfRole(String role) {
+        return this.lookup(policiesByRole, role == null ? null : role.toLowerCase());
+    }
+
+    public List<Policy> getPoliciesOfUser(String username) {
+        return this.lookup(policiesByUser, username == null ? null : username.toLowerCase());
+    }
+
+    public List<Policy> getPoliciesOfOwnershipType(String ownershipType) {
+        return this.lookup(policiesByOwnershipType, ownershipType);
+    }
+
+    public List<Policy> getPoliciesOfGroup(int groupId) {
+        return this.lookup(policiesByGroup, groupId);
+    }
+
+    public int size() {
+        return policies.size();
+    }
+
+    /**
+     * @return an identifier which is unique to this snapshot and kept by its copies.
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * @return version of the snapshot this one was derived from, or null if it was built from the stored policies.
+     */
+    public String getPreviousVersion() {
+        return previousVersion;
+    }
+
+    /**
+     * @return device types, in lower case, whose policies differ from the ones of the previous snapshot.
+     */
+    public Set<String> getChangedDeviceTypes() {
+        return Collections.unmodifiableSet(changedDeviceTypes);
+    }
+
+    /**
+     * @param policy policy to be added, or to replace the existing policy with the same id.
+     * @return a new snapshot which contains the given policy.
+     */
+    public PolicySnapshot withPolicy(Policy policy) {
+        List<Policy> policyList = new ArrayList<>(policies);
+        policyList.add(policy);
+        return new PolicySnapshot(policyList, version, this.getChangedDeviceTypes(this.getPolicy(policy.getId()),
+                policy));
+    }
+
+    /**
+     * @param policyId id of the policy to be removed.
+     * @return a new snapshot without the given policy, or this snapshot if it does not contain the policy.
+     */
+    public PolicySnapshot withoutPolicy(int policyId) {
+        if (!policiesById.containsKey(policyId)) {
+            return this;
+        }
+        List<Policy> policyList = new ArrayList<>(policies);
+        this.removeById(policyList, policyId);
+        return new PolicySnapshot(policyList, version, this.getChangedDeviceTypes(this.getPolicy(policyId), null));
+    }
+
+    private Set<String> getChangedDeviceTypes(Policy oldPolicy, Policy newPolicy) {
+        Set<String> deviceTypes = new HashSet<>();
+        deviceTypes.add(this.getDeviceTypeKey(oldPolicy));
+        deviceTypes.add(this.getDeviceTypeKey(newPolicy));
+        return deviceTypes;
+    }
+
+    private String getDeviceTypeKey(Policy policy) {
+        if (policy == null || policy.getProfile() == null || policy.getProfile().getDeviceType() == null) {
+            return "";
+        }
+        return policy.getProfile().getDeviceType().toLowerCase();
+    }
+
+    private void index(Policy policy) {
+        if (policy.getProfile() != null && policy.getProfile().getDeviceType() != null) {
+            this.put(policiesByDeviceType, policy.getProfile().getDeviceType().toLowerCase(), policy);
+        }
+        if (policy.getRoles() != null) {
+            for (String role : policy.getRoles()) {
+                this.put(policiesByRole, role == null ? null : role.toLowerCase(), policy);
+            }
+        }
+        if (policy.getUsers() != null) {
+            for (String user : policy.getUsers()) {
+                this.put(policiesByUser, user == null ? null : user.toLowerCase(), policy);
+            }
+        }
+        if (policy.getOwnershipType() != null) {
+            this.put(policiesByOwnershipType, policy.getOwnershipType(), policy);
+        }
+        if (policy.getDeviceGroups() != null) {
+            for (DeviceGroupWrapper deviceGroup : policy.getDeviceGroups()) {
+                this.put(policiesByGroup, deviceGroup.getId(), policy);
+            }
+        }
+    }
+
+    private void removeById(List<Policy> policyList, int policyId) {
+        for (int i = 0; i < policyList.size(); i++) {
+            if (policyList.get(i).getId() == policyId) {
+                policyList.remove(i);
+                return;
+            }
+        }
+    }
+
+    private <K> void put(Map<K, List<Policy>> index, K key, Policy policy) {
+        List<Policy> indexedPolicies = index.get(key);
+        if (indexedPolicies == null) {
+            indexedPolicies = new ArrayList<>();
+            index.put(key, indexedPolicies);
+        }
+        indexedPolicies.add(policy);
+    }
+
+    private <K> List<Policy> lookup(Map<K, List<Policy>> index, K key) {
+        List<Policy> indexedPolicies = index.get(key);
+        if (indexedPolicies == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(indexedPolicies);
+    }
+
+}
@@ -21,26 +21,37 @@ package org.wso2.carbon.policy.mgt.core.cache.impl;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.device.mgt.common.policy.mgt.Policy;
 import org.wso2.carbon.policy.mgt.common.PolicyManagementException;
 import org.wso2.carbon.policy.mgt.core.cache.PolicyCacheManager;
+import org.wso2.carbon.policy.mgt.core.cache.PolicyDecisionIndex;
+import org.wso2.carbon.policy.mgt.core.cache.PolicyDecisionIndexCache;
+import org.wso2.carbon.policy.mgt.core.cache.PolicySnapshot;
 import org.wso2.carbon.policy.mgt.core.mgt.PolicyManager;
 import org.wso2.carbon.policy.mgt.core.mgt.impl.PolicyManagerImpl;
 import org.wso2.carbon.policy.mgt.core.util.PolicyManagementConstants;
 import org.wso2.carbon.policy.mgt.core.util.PolicyManagerUtil;
 
 import javax.cache.Cache;
-import java.util.Iterator;
+import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Keeps the policies of the tenant as a single {@link PolicySnapshot}. Changes build a new snapshot from the current
+ * one and replace it in the cache, so readers never observe a partially updated set of policies.
+ */
 public class PolicyCacheManagerImpl implements PolicyCacheManager {
 
     private static final Log log = LogFactory.getLog(PolicyCacheManagerImpl.class);
+    private static final int SNAPSHOT_KEY = 1;
 
     private static PolicyCacheManagerImpl policyCacheManager;
 
-    private static Cache<Integer, List<Policy>> getPolicyListCache() {
-        return PolicyManagerUtil.getPolicyListCache(PolicyManagementConstants.DM_CACHE_LIST);
+    private final PolicyDecisionIndexCache decisionIndexCache = new PolicyDecisionIndexCache();
+
+    private static Cache<Integer, PolicySnapshot> getPolicySnapshotCache() {
+        return PolicyManagerUtil.getPolicySnapshotCache(PolicyManagementConstants.DM_CACHE_LIST);
     }
 
     private PolicyCacheManagerImpl() {
@@ -60,29 +71,35 @@ public class PolicyCacheManagerImpl implements PolicyCacheManager {
     @Override
     public void addAllPolicies(List<Policy> policies) {
 
-        Cache<Integer, List<Policy>> lCache = getPolicyListCache();
-        lCache.put(1, policies);
+        Cache<Integer, PolicySnapshot> lCache = getPolicySnapshotCache();
+        lCache.put(SNAPSHOT_KEY, new PolicySnapshot(policies));
     }
 
     @Override
     public void updateAllPolicies(List<Policy> policies) {
 
-        Cache<Integer, List<Policy>> lCache = getPolicyListCache();
-        lCache.removeAll();
-        lCache.put(1, policies);
+        Cache<Integer, PolicySnapshot> lCache = getPolicySnapshotCache();
+        lCache.put(SNAPSHOT_KEY, new PolicySnapshot(policies));
     }
 
     @Override
     public List<Policy> getAllPolicies() throws PolicyManagementException {
+        // Callers are free to sort or otherwise modify the returned list.
+        return new ArrayList<>(this.getPolicySnapshot().getPolicies());
+    }
+
+    @Override
+    public PolicySnapshot getPolicySnapshot() throws PolicyManagementException {
 
-        Cache<Integer, List<Policy>> lCache = getPolicyListCache();
-        if (!lCache.containsKey(1)) {
+        Cache<Integer, PolicySnapshot> lCache = getPolicySnapshotCache();
+        PolicySnapshot snapshot = lCache.get(SNAPSHOT_KEY);
+        if (snapshot == null) {
             PolicyManager policyManager = new PolicyManagerImpl();
-            this.addAllPolicies(policyManager.getPolicies());
+            snapshot = new PolicySnapshot(policyManager.getPolicies());
+            lCache.put(SNAPSHOT_KEY, snapshot);
         }
         if (log.isDebugEnabled()) {
-            List<Policy> cachedPolicy = lCache.get(1);
-            for (Policy policy : cachedPolicy) {
+            for (Policy policy : snapshot.getPolicies()) {
                 log.debug("Policy id in cache .. : " + policy.getId() + " policy name : " + policy.
                         getPolicyName() + " Activated : " + policy.isActive());
 
@@ -97,57 +114,49 @@ public class PolicyCacheManagerImpl implements PolicyCacheManager {
             }
 
         }
-        return lCache.get(1);
+        return snapshot;
+    }
 
+    @Override
+    public PolicyDecisionIndex getDecisionIndex(String deviceType) throws PolicyManagementException {
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        return decisionIndexCache.getDecisionIndex(tenantId, this.getPolicySnapshot(), deviceType);
     }
 
     @Override
     public void rePopulateCache() throws PolicyManagementException {
-
-        this.removeAllPolicies();
-        this.getAllPolicies();
+        // The new snapshot replaces the current one only once it is fully loaded, so that readers keep on using the
+        // current snapshot meanwhile instead of loading the policies themselves.
+        PolicyManager policyManager = new PolicyManagerImpl();
+        PolicySnapshot snapshot = new PolicySnapshot(policyManager.getPolicies());
+        getPolicySnapshotCache().put(SNAPSHOT_KEY, snapshot);
     }
 
     @Override
     public void removeAllPolicies() {
 
-        Cache<Integer, List<Policy>> lCache = getPolicyListCache();
+        Cache<Integer, PolicySnapshot> lCache = getPolicySnapshotCache();
         lCache.removeAll();
     }
 
     @Override
-    public void addPolicy(Policy policy) {
+    public synchronized void addPolicy(Policy policy) {
 
-        Cache<Integer, List<Policy>> lCache = getPolicyListCache();
-        if (lCache.containsKey(1)) {
-            List<Policy> cachedPolicy = lCache.get(1);
-
-            for (Policy pol : cachedPolicy) {
-                if (pol.getId() == policy.getId()) {
-                    return;
-                }
-            }
-            cachedPolicy.add(policy);
+        Cache<Integer, PolicySnapshot> lCache = getPolicySnapshotCache();
+        PolicySnapshot snapshot = lCache.get(SNAPSHOT_KEY);
+        if (snapshot != null && snapshot.getPolicy(policy.getId()) == null) {
+            lCache.put(SNAPSHOT_KEY, snapshot.withPolicy(policy));
         }
 
     }
 
     @Override
-    public void updatePolicy(Policy policy) {
-
-        Cache<Integer, List<Policy>> lCache = getPolicyListCache();
-        if (lCache.containsKey(1)) {
-            List<Policy> cachedPolicy = lCache.get(1);
-            Iterator iterator = cachedPolicy.iterator();
-            while (iterator.hasNext()) {
-                Policy pol = (Policy) iterator.next();
-                if (pol.getId() == policy.getId()) {
-                    iterator.remove();
-                    break;
-                }
-            }
-            cachedPolicy.add(policy);
-            lCache.replace(1, cachedPolicy);
+    public synchronized void updatePolicy(Policy policy) {
+
+        Cache<Integer, PolicySnapshot> lCache = getPolicySnapshotCache();
+        PolicySnapshot snapshot = lCache.get(SNAPSHOT_KEY);
+        if (snapshot != null) {
+            lCache.put(SNAPSHOT_KEY, snapshot.withPolicy(policy));
         }
 
     }
@@ -155,8 +164,8 @@ public class PolicyCacheManagerImpl implements PolicyCacheManager {
     @Override
     public void updatePolicy(int policyId) throws PolicyManagementException {
 
-        Cache<Integer, List<Policy>> lCache = getPolicyListCache();
-        if (lCache.containsKey(1)) {
+        Cache<Integer, PolicySnapshot> lCache = getPolicySnapshotCache();
+        if (lCache.containsKey(SNAPSHOT_KEY)) {
             PolicyManager policyManager = new PolicyManagerImpl();
             Policy policy = policyManager.getPolicy(policyId);
             this.updatePolicy(policy);
@@ -165,42 +174,18 @@ public class PolicyCacheManagerImpl implements PolicyCacheManager {
     }
 
     @Override
-    public void removePolicy(int policyId) {
-
-        Cache<Integer, List<Policy>> lCache = getPolicyListCache();
-        if (lCache.containsKey(1)) {
-            List<Policy> cachedPolicy = lCache.get(1);
-            Iterator iterator = cachedPolicy.iterator();
-            while (iterator.hasNext()) {
-                Policy pol = (Policy) iterator.next();
-                if (pol.getId() == policyId) {
-                    iterator.remove();
-                    break;
-                }
-            }
-            lCache.replace(1, cachedPolicy);
+    public synchronized void removePolicy(int policyId) {
+
+        Cache<Integer, PolicySnapshot> lCache = getPolicySnapshotCache();
+        PolicySnapshot snapshot = lCache.get(SNAPSHOT_KEY);
+        if (snapshot != null) {
+            lCache.put(SNAPSHOT_KEY, snapshot.withoutPolicy(policyId));
         }
     }
 
     @Override
     public Policy getPolicy(int policyId) throws PolicyManagementException {
-
-        Cache<Integer, List<Policy>> lCache = getPolicyListCache();
-        if (!lCache.containsKey(1)) {
-            this.removeAllPolicies();
-            this.getAllPolicies();
-        }
-
-        Policy policy = null;
-        List<Policy> cachedPolicy = lCache.get(1);
-        Iterator iterator = cachedPolicy.iterator();
-        while (iterator.hasNext()) {
-            Policy pol = (Policy) iterator.next();
-            if (pol.getId() == policyId) {
-                policy = pol;
-            }
-        }
-        return policy;
+        return this.getPolicySnapshot().getPolicy(policyId);
     }
 
     @Override
@@ -22,6 +22,7 @@ package org.wso2.carbon.policy.mgt.core.dao;
 import org.wso2.carbon.device.mgt.common.policy.mgt.monitor.NonComplianceData;
 import org.wso2.carbon.device.mgt.common.policy.mgt.monitor.ComplianceFeature;
 import org.wso2.carbon.policy.mgt.common.monitor.PolicyDeviceWrapper;
+import org.wso2.carbon.policy.mgt.core.dao.dto.EnrolmentMonitoringDTO;
 
 import java.util.List;
 import java.util.Map;
@@ -63,4 +64,21 @@ public interface MonitoringDAO {
 
     void updateAttempts(List<Integer> deviceId, boolean reset) throws MonitoringDAOException;
 
+    /**
+     * Retrieves a page of the enrolments of a device type which are eligible for monitoring, along with the policy
+     * applied to them and their compliance record. Only the enrolments which have either of the two are returned.
+     * Enrolments are split in to slots by their id, so that the monitoring of a device type can be spread across the
+     * monitoring interval.
+     *
+     * @param deviceType name of the device type.
+     * @param lastEnrolmentId id of the last enrolment of the previous page, 0 for the first page.
+     * @param slot slot of the enrolments to be returned.
+     * @param slotCount number of slots the enrolments are split in to. All the enrolments are returned if 1.
+     * @param limit maximum number of enrolments to be returned.
+     * @return enrolments in the ascending order of their ids.
+     * @throws MonitoringDAOException
+     */
+    List<EnrolmentMonitoringDTO> getEnrolmentsToMonitor(String deviceType, int lastEnrolmentId, int slot,
+                                                        int slotCount, int limit) throws MonitoringDAOException;
+
 }
\ No newline at end of file
@@ -28,6 +28,7 @@ import org.wso2.carbon.policy.mgt.core.config.datasource.JNDILookupDefinition;
 import org.wso2.carbon.policy.mgt.core.dao.impl.MonitoringDAOImpl;
 import org.wso2.carbon.policy.mgt.core.dao.impl.PolicyDAOImpl;
 import org.wso2.carbon.policy.mgt.core.dao.impl.ProfileDAOImpl;
+import org.wso2.carbon.policy.mgt.core.dao.impl.SQLServerMonitoringDAOImpl;
 import org.wso2.carbon.policy.mgt.core.dao.impl.feature.GenericFeatureDAOImpl;
 import org.wso2.carbon.policy.mgt.core.dao.impl.feature.OracleServerFeatureDAOImpl;
 import org.wso2.carbon.policy.mgt.core.dao.impl.feature.SQLServerFeatureDAOImpl;
@@ -91,6 +92,9 @@ public class PolicyManagementDAOFactory {
     }
 
     public static MonitoringDAO getMonitoringDAO() {
+        if (DeviceManagementConstants.DataBaseTypes.DB_TYPE_MSSQL.equals(databaseEngine)) {
+            return new SQLServerMonitoringDAOImpl();
+        }
         return new MonitoringDAOImpl();
     }
 
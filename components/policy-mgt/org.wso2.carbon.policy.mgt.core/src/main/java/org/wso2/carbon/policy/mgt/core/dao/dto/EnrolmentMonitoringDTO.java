@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.policy.mgt.core.dao.dto;
+
+/**
+ * Monitoring state of an enrolment, i.e. the policy applied to it and its compliance record, read in a single query
+ * by the policy monitoring task.
+ */
+public class EnrolmentMonitoringDTO {
+
+    private int enrolmentId;
+    private int deviceId;
+    private String deviceIdentification;
+    private int appliedPolicyId;
+    private int complianceStatusId;
+    private int attempts;
+
+    public int getEnrolmentId() {
+        return enrolmentId;
+    }
+
+    public void setEnrolmentId(int enrolmentId) {
+        this.enrolmentId = enrolmentId;
+    }
+
+    public int getDeviceId() {
+        return deviceId;
+    }
+
+    public void setDeviceId(int deviceId) {
+        this.deviceId = deviceId;
+    }
+
+    public String getDeviceIdentification() {
+        return deviceIdentification;
+    }
+
+    public void setDeviceIdentification(String deviceIdentification) {
+        this.deviceIdentification = deviceIdentification;
+    }
+
+    /**
+     * @return id of the policy applied to the enrolment, or 0 if no policy has been applied.
+     */
+    public int getAppliedPolicyId() {
+        return appliedPolicyId;
+    }
+
+    public void setAppliedPolicyId(int appliedPolicyId) {
+        this.appliedPolicyId = appliedPolicyId;
+    }
+
+    /**
+     * @return id of the compliance record of the enrolment, or 0 if the enrolment has not been monitored yet.
+     */
+    public int getComplianceStatusId() {
+        return complianceStatusId;
+    }
+
+    public void setComplianceStatusId(int complianceStatusId) {
+        this.complianceStatusId = complianceStatusId;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+}
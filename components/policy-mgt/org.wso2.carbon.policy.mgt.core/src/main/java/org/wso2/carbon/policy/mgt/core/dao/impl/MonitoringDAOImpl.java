@@ -22,12 +22,14 @@ package org.wso2.carbon.policy.mgt.core.dao.impl;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
 import org.wso2.carbon.device.mgt.common.policy.mgt.monitor.NonComplianceData;
 import org.wso2.carbon.device.mgt.common.policy.mgt.monitor.ComplianceFeature;
 import org.wso2.carbon.policy.mgt.common.monitor.PolicyDeviceWrapper;
 import org.wso2.carbon.policy.mgt.core.dao.MonitoringDAO;
 import org.wso2.carbon.policy.mgt.core.dao.MonitoringDAOException;
 import org.wso2.carbon.policy.mgt.core.dao.PolicyManagementDAOFactory;
+import org.wso2.carbon.policy.mgt.core.dao.dto.EnrolmentMonitoringDTO;
 import org.wso2.carbon.policy.mgt.core.dao.util.PolicyManagementDAOUtil;
 import org.wso2.carbon.policy.mgt.core.util.PolicyManagerUtil;
 
@@ -460,6 +462,73 @@ public class MonitoringDAOImpl implements MonitoringDAO {
         }
     }
 
+    @Override
+    public List<EnrolmentMonitoringDTO> getEnrolmentsToMonitor(String deviceType, int lastEnrolmentId, int slot,
+                                                               int slotCount, int limit)
+            throws MonitoringDAOException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        ResultSet resultSet = null;
+        List<EnrolmentMonitoringDTO> enrolments = new ArrayList<>();
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        try {
+            conn = this.getConnection();
+            String query = "SELECT E.ID AS ENROLMENT_ID, E.DEVICE_ID, D.DEVICE_IDENTIFICATION, " +
+                    "PA.POLICY_ID, CS.ID AS COMPLIANCE_STATUS_ID, CS.ATTEMPTS FROM DM_ENROLMENT E " +
+                    "INNER JOIN DM_DEVICE D ON D.ID = E.DEVICE_ID " +
+                    "INNER JOIN DM_DEVICE_TYPE T ON T.ID = D.DEVICE_TYPE_ID " +
+                    "LEFT JOIN DM_DEVICE_POLICY_APPLIED PA ON PA.DEVICE_ID = E.DEVICE_ID " +
+                    "AND PA.ENROLMENT_ID = E.ID AND PA.TENANT_ID = E.TENANT_ID " +
+                    "LEFT JOIN DM_POLICY_COMPLIANCE_STATUS CS ON CS.DEVICE_ID = E.DEVICE_ID " +
+                    "AND CS.ENROLMENT_ID = E.ID AND CS.TENANT_ID = E.TENANT_ID " +
+                    "WHERE E.TENANT_ID = ? AND T.NAME = ? AND E.ID > ? " +
+                    "AND E.STATUS NOT IN (?, ?, ?, ?, ?) AND (PA.ID IS NOT NULL OR CS.ID IS NOT NULL)";
+            if (slotCount > 1) {
+                query = query + " AND " + this.getSlotCondition();
+            }
+            query = query + " ORDER BY E.ID";
+            stmt = conn.prepareStatement(query);
+            int paramIndex = 1;
+            stmt.setInt(paramIndex++, tenantId);
+            stmt.setString(paramIndex++, deviceType);
+            stmt.setInt(paramIndex++, lastEnrolmentId);
+            stmt.setString(paramIndex++, EnrolmentInfo.Status.BLOCKED.toString());
+            stmt.setString(paramIndex++, EnrolmentInfo.Status.REMOVED.toString());
+            stmt.setString(paramIndex++, EnrolmentInfo.Status.UNCLAIMED.toString());
+            stmt.setString(paramIndex++, EnrolmentInfo.Status.DISENROLLMENT_REQUESTED.toString());
+            stmt.setString(paramIndex++, EnrolmentInfo.Status.SUSPENDED.toString());
+            if (slotCount > 1) {
+                stmt.setInt(paramIndex++, slotCount);
+                stmt.setInt(paramIndex, slot);
+            }
+            stmt.setMaxRows(limit);
+            resultSet = stmt.executeQuery();
+            while (resultSet.next()) {
+                EnrolmentMonitoringDTO enrolment = new EnrolmentMonitoringDTO();
+                enrolment.setEnrolmentId(resultSet.getInt("ENROLMENT_ID"));
+                enrolment.setDeviceId(resultSet.getInt("DEVICE_ID"));
+                enrolment.setDeviceIdentification(resultSet.getString("DEVICE_IDENTIFICATION"));
+                enrolment.setAppliedPolicyId(resultSet.getInt("POLICY_ID"));
+                enrolment.setComplianceStatusId(resultSet.getInt("COMPLIANCE_STATUS_ID"));
+                enrolment.setAttempts(resultSet.getInt("ATTEMPTS"));
+                enrolments.add(enrolment);
+            }
+            return enrolments;
+        } catch (SQLException e) {
+            throw new MonitoringDAOException("Unable to retrieve the enrolments to be monitored for device type '" +
+                    deviceType + "' from database.", e);
+        } finally {
+            PolicyManagementDAOUtil.cleanupResources(stmt, resultSet);
+        }
+    }
+
+    /**
+     * @return condition which selects the enrolments of a slot, taking the slot count and the slot as parameters.
+     */
+    protected String getSlotCondition() {
+        return "MOD(E.ID, ?) = ?";
+    }
+
     private Connection getConnection() throws MonitoringDAOException {
         return PolicyManagementDAOFactory.getConnection();
     }
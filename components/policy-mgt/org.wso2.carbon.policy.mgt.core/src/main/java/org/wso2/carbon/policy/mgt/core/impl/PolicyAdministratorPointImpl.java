@@ -340,7 +340,7 @@ public class PolicyAdministratorPointImpl implements PolicyAdministratorPoint {
 
     @Override
     public int getPolicyCount() throws PolicyManagementException {
-        return PolicyCacheManagerImpl.getInstance().getAllPolicies().size();
+        return PolicyCacheManagerImpl.getInstance().getPolicySnapshot().size();
     }
 
 }
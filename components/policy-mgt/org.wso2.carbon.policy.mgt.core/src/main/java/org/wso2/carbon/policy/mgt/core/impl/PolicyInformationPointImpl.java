@@ -24,7 +24,6 @@ import org.wso2.carbon.context.CarbonContext;
 import org.wso2.carbon.device.mgt.common.Device;
 import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
 import org.wso2.carbon.device.mgt.common.DeviceManagementException;
-import org.wso2.carbon.device.mgt.common.group.mgt.DeviceGroup;
 import org.wso2.carbon.device.mgt.common.group.mgt.GroupManagementException;
 import org.wso2.carbon.device.mgt.common.policy.mgt.Policy;
 import org.wso2.carbon.device.mgt.core.dto.DeviceType;
@@ -34,6 +33,8 @@ import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderServiceIm
 import org.wso2.carbon.device.mgt.core.service.GroupManagementProviderService;
 import org.wso2.carbon.device.mgt.core.service.GroupManagementProviderServiceImpl;
 import org.wso2.carbon.policy.mgt.common.*;
+import org.wso2.carbon.policy.mgt.core.cache.PolicyDecisionIndex;
+import org.wso2.carbon.policy.mgt.core.cache.impl.PolicyCacheManagerImpl;
 import org.wso2.carbon.policy.mgt.core.internal.PolicyManagementDataHolder;
 import org.wso2.carbon.policy.mgt.core.mgt.FeatureManager;
 import org.wso2.carbon.policy.mgt.core.mgt.PolicyManager;
@@ -101,40 +102,13 @@ public class PolicyInformationPointImpl implements PolicyInformationPoint {
     @Override
     public List<Policy> getRelatedPolicies(PIPDevice pipDevice) throws PolicyManagementException {
 
-        List<Policy> policies = policyManager.getPoliciesOfDeviceType(pipDevice.getDeviceType().getName());
-        PolicyFilter policyFilter = new PolicyFilterImpl();
-
+        PolicyDecisionIndex decisionIndex = this.getDecisionIndex(pipDevice);
         if (log.isDebugEnabled()) {
-            log.debug("No of policies for the device type : " + pipDevice.getDeviceType().getName() + " : " +
-                    policies.size());
-            for (Policy policy : policies) {
-                log.debug("Names of policy for above device type : " + policy.getPolicyName());
-            }
+            log.debug("No of active policies for the device type : " + pipDevice.getDeviceType().getName() + " : " +
+                    decisionIndex.size());
         }
 
-        policies = policyFilter.filterActivePolicies(policies);
-
-        if (pipDevice.getDeviceType() != null) {
-            policies = policyFilter.filterDeviceTypeBasedPolicies(pipDevice.getDeviceType().getName(), policies);
-        }
-        if (pipDevice.getOwnershipType() != null && !pipDevice.getOwnershipType().isEmpty()) {
-            policies = policyFilter.filterOwnershipTypeBasedPolicies(pipDevice.getOwnershipType(), policies);
-        }
-        if (pipDevice.getRoles() != null) {
-            policies = policyFilter.filterRolesBasedPolicies(pipDevice.getRoles(), policies);
-        }
-        if (pipDevice.getUserId() != null && !pipDevice.getUserId().isEmpty()) {
-            policies = policyFilter.filterUserBasedPolicies(pipDevice.getUserId(), policies);
-        }
-        if (pipDevice.getDeviceGroups() != null && !pipDevice.getDeviceGroups().isEmpty()) {
-
-            Map<Integer, DeviceGroup> groupMap = new HashMap<>();
-            List<DeviceGroup> groups = pipDevice.getDeviceGroups();
-            for(DeviceGroup gr: groups){
-                groupMap.put(gr.getGroupId(), gr);
-            }
-            policies = policyFilter.filterDeviceGroupsPolicies(groupMap, policies);
-        }
+        List<Policy> policies = decisionIndex.getMatchingPolicies(pipDevice);
 
         if (log.isDebugEnabled()) {
             log.debug("No of policies selected for the device type : " + pipDevice.getDeviceType().getName() + " : " +
@@ -147,12 +121,27 @@ public class PolicyInformationPointImpl implements PolicyInformationPoint {
         return policies;
     }
 
+    @Override
+    public Policy getEffectivePolicy(PIPDevice pipDevice) throws PolicyManagementException {
+        Policy policy = this.getDecisionIndex(pipDevice).getEffectivePolicy(pipDevice);
+        if (log.isDebugEnabled()) {
+            log.debug("Effective policy of the device " + pipDevice.getDeviceIdentifier() + " : " +
+                    (policy == null ? "none" : policy.getPolicyName()));
+        }
+        return policy;
+    }
+
     @Override
     public List<Feature> getRelatedFeatures(String deviceType) throws FeatureManagementException {
         return featureManager.getAllFeatures(deviceType);
 
     }
 
+    private PolicyDecisionIndex getDecisionIndex(PIPDevice pipDevice) throws PolicyManagementException {
+        // The index of the device type is built once per policy snapshot and reused for every device evaluated.
+        return PolicyCacheManagerImpl.getInstance().getDecisionIndex(pipDevice.getDeviceType().getName());
+    }
+
     private String[] getRoleOfDevice(Device device) throws PolicyManagementException {
         try {
             UserRealm userRealm = CarbonContext.getThreadLocalCarbonContext().getUserRealm();
@@ -39,6 +39,22 @@ public interface MonitoringManager {
 
     void addMonitoringOperation(List<Device> devices) throws PolicyComplianceException;
 
+    /**
+     * Adds the monitoring operation to the enrolments of the given device type which are due for monitoring. The
+     * enrolments are read from the database page by page, and only the ones in the given slot are monitored. No more
+     * pages are read once the deadline has passed, and the next call for the same tenant, device type and slot resumes
+     * from the enrolment the monitoring was stopped at.
+     *
+     * @param deviceType name of the device type.
+     * @param slot slot of the enrolments to be monitored.
+     * @param slotCount number of slots the enrolments are split in to.
+     * @param deadline time in milliseconds after which the monitoring is stopped, Long.MAX_VALUE for no deadline.
+     * @return number of enrolments monitored.
+     * @throws PolicyComplianceException
+     */
+    int addMonitoringOperations(String deviceType, int slot, int slotCount, long deadline)
+            throws PolicyComplianceException;
+
     List<String> getDeviceTypes() throws PolicyComplianceException;
 
 }
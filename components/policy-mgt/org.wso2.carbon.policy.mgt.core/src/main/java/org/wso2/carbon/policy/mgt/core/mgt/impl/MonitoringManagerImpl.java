@@ -20,6 +20,7 @@ package org.wso2.carbon.policy.mgt.core.mgt.impl;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.device.mgt.common.Device;
 import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
 import org.wso2.carbon.device.mgt.common.DeviceManagementException;
@@ -39,16 +40,20 @@ import org.wso2.carbon.policy.mgt.common.PolicyManagementException;
 import org.wso2.carbon.device.mgt.common.policy.mgt.ProfileFeature;
 import org.wso2.carbon.policy.mgt.common.monitor.*;
 import org.wso2.carbon.policy.mgt.core.dao.*;
+import org.wso2.carbon.policy.mgt.core.dao.dto.EnrolmentMonitoringDTO;
 import org.wso2.carbon.policy.mgt.core.impl.ComplianceDecisionPointImpl;
 import org.wso2.carbon.policy.mgt.core.internal.PolicyManagementDataHolder;
 import org.wso2.carbon.policy.mgt.core.mgt.MonitoringManager;
 import org.wso2.carbon.policy.mgt.core.mgt.PolicyManager;
+import org.wso2.carbon.policy.mgt.core.util.PolicyManagerUtil;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class MonitoringManagerImpl implements MonitoringManager {
 
@@ -56,6 +61,8 @@ public class MonitoringManagerImpl implements MonitoringManager {
     private MonitoringDAO monitoringDAO;
     private ComplianceDecisionPoint complianceDecisionPoint;
     private PolicyConfiguration policyConfiguration;
+    // Last monitored enrolment of each tenant, device type and slot of which the monitoring was stopped at the deadline
+    private final ConcurrentMap<String, Integer> monitoringCursors = new ConcurrentHashMap<>();
 
     private static final Log log = LogFactory.getLog(MonitoringManagerImpl.class);
     private static final String OPERATION_MONITOR = "MONITOR";
@@ -238,16 +245,26 @@ public class MonitoringManagerImpl implements MonitoringManager {
 
         try {
             PolicyManagementDAOFactory.openConnection();
-            //TODO: Return a map from getCompliance to reduce O(n^2) -> O(n)
-            List<NonComplianceData> cd = monitoringDAO.getCompliance();
+            Map<Integer, List<NonComplianceData>> complianceOfEnrolments = new HashMap<>();
+            for (NonComplianceData data : monitoringDAO.getCompliance()) {
+                List<NonComplianceData> enrolmentCompliance = complianceOfEnrolments.get(data.getEnrolmentId());
+                if (enrolmentCompliance == null) {
+                    enrolmentCompliance = new ArrayList<>();
+                    complianceOfEnrolments.put(data.getEnrolmentId(), enrolmentCompliance);
+                }
+                enrolmentCompliance.add(data);
+            }
 
             for (Device device : devices) {
                 deviceIds.put(device.getId(), device);
 
-                for (NonComplianceData data : cd) {
-                    if (device.getId() == data.getDeviceId() && device.getEnrolmentInfo().getId() == data
-                            .getEnrolmentId()) {
-                        complianceDatas.add(data);
+                List<NonComplianceData> enrolmentCompliance =
+                        complianceOfEnrolments.get(device.getEnrolmentInfo().getId());
+                if (enrolmentCompliance != null) {
+                    for (NonComplianceData data : enrolmentCompliance) {
+                        if (device.getId() == data.getDeviceId()) {
+                            complianceDatas.add(data);
+                        }
                     }
                 }
             }
@@ -350,6 +367,118 @@ public class MonitoringManagerImpl implements MonitoringManager {
         }
     }
 
+    @Override
+    public int addMonitoringOperations(String deviceType, int slot, int slotCount, long deadline)
+            throws PolicyComplianceException {
+        int batchSize = PolicyManagerUtil.getMonitoringBatchSize();
+        String cursorKey = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId() + ":" + deviceType +
+                ":" + slot + ":" + slotCount;
+        // A pass over the slot which was stopped at the deadline is resumed from where it was stopped, so that the
+        // enrolments with higher ids are monitored even when the tenant overruns in every run.
+        Integer cursor = monitoringCursors.remove(cursorKey);
+        int lastEnrolmentId = cursor == null ? 0 : cursor;
+        int monitoredCount = 0;
+        List<EnrolmentMonitoringDTO> enrolments;
+        do {
+            if (System.currentTimeMillis() > deadline) {
+                monitoringCursors.put(cursorKey, lastEnrolmentId);
+                log.warn("Monitoring of device type '" + deviceType + "' was stopped after " + monitoredCount +
+                        " enrolments as the deadline of the tenant has passed. It will be resumed from enrolment " +
+                        lastEnrolmentId + " in the next run of slot " + slot + ".");
+                break;
+            }
+            try {
+                PolicyManagementDAOFactory.openConnection();
+                enrolments = monitoringDAO.getEnrolmentsToMonitor(deviceType, lastEnrolmentId, slot, slotCount,
+                        batchSize);
+            } catch (SQLException e) {
+                throw new PolicyComplianceException("Error occurred while opening a connection to the data source.",
+                        e);
+            } catch (MonitoringDAOException e) {
+                throw new PolicyComplianceException("Error occurred while retrieving the enrolments to be " +
+                        "monitored for device type '" + deviceType + "'.", e);
+            } finally {
+                PolicyManagementDAOFactory.closeConnection();
+            }
+            if (enrolments.isEmpty()) {
+                break;
+            }
+            lastEnrolmentId = enrolments.get(enrolments.size() - 1).getEnrolmentId();
+            monitoredCount += this.addMonitoringOperations(deviceType, enrolments);
+        } while (enrolments.size() == batchSize);
+
+        if (log.isDebugEnabled()) {
+            log.debug("Monitored " + monitoredCount + " enrolments of device type '" + deviceType + "' in slot " +
+                    slot + " of " + slotCount);
+        }
+        return monitoredCount;
+    }
+
+    /**
+     * Updates the compliance records of a page of enrolments and adds the monitoring operation to the ones which are
+     * monitored for the first time or have responded to the previous monitoring operation.
+     */
+    private int addMonitoringOperations(String deviceType, List<EnrolmentMonitoringDTO> enrolments)
+            throws PolicyComplianceException {
+        // Keyed by the device id as the compliance records are updated per device.
+        Map<Integer, DeviceIdentifier> devicesToAddOperation = new HashMap<>();
+        Map<Integer, DeviceIdentifier> monitoredDevices = new HashMap<>();
+        List<PolicyDeviceWrapper> firstTimeDevices = new ArrayList<>();
+
+        for (EnrolmentMonitoringDTO enrolment : enrolments) {
+            if (monitoredDevices.containsKey(enrolment.getDeviceId())) {
+                continue;
+            }
+            DeviceIdentifier deviceIdentifier = new DeviceIdentifier(enrolment.getDeviceIdentification(), deviceType);
+            monitoredDevices.put(enrolment.getDeviceId(), deviceIdentifier);
+            if (enrolment.getComplianceStatusId() == 0) {
+                PolicyDeviceWrapper policyDeviceWrapper = new PolicyDeviceWrapper();
+                policyDeviceWrapper.setDeviceId(enrolment.getDeviceId());
+                policyDeviceWrapper.setEnrolmentId(enrolment.getEnrolmentId());
+                policyDeviceWrapper.setPolicyId(enrolment.getAppliedPolicyId());
+                firstTimeDevices.add(policyDeviceWrapper);
+                devicesToAddOperation.put(enrolment.getDeviceId(), deviceIdentifier);
+            } else if (enrolment.getAttempts() == 0) {
+                devicesToAddOperation.put(enrolment.getDeviceId(), deviceIdentifier);
+            }
+        }
+
+        if (log.isDebugEnabled()) {
+            for (PolicyDeviceWrapper wrapper : firstTimeDevices) {
+                log.debug("First time device primary key : " + wrapper.getDeviceId() + " & policy id " +
+                        wrapper.getPolicyId());
+            }
+        }
+
+        try {
+            PolicyManagementDAOFactory.beginTransaction();
+            if (!firstTimeDevices.isEmpty()) {
+                monitoringDAO.addComplianceDetails(firstTimeDevices);
+            }
+            monitoringDAO.updateAttempts(new ArrayList<>(monitoredDevices.keySet()), false);
+            PolicyManagementDAOFactory.commitTransaction();
+        } catch (MonitoringDAOException e) {
+            PolicyManagementDAOFactory.rollbackTransaction();
+            throw new PolicyComplianceException("Error occurred from monitoring dao.", e);
+        } catch (PolicyManagerDAOException e) {
+            throw new PolicyComplianceException("Error occurred while starting a transaction.", e);
+        } finally {
+            PolicyManagementDAOFactory.closeConnection();
+        }
+
+        if (!devicesToAddOperation.isEmpty()) {
+            try {
+                this.addMonitoringOperationToDevices(deviceType,
+                        new ArrayList<>(devicesToAddOperation.values()));
+            } catch (InvalidDeviceException e) {
+                throw new PolicyComplianceException("Invalid Device Identifiers found.", e);
+            } catch (OperationManagementException e) {
+                throw new PolicyComplianceException("Error occurred while adding monitoring operation to devices", e);
+            }
+        }
+        return monitoredDevices.size();
+    }
+
     @Override
     public List<String> getDeviceTypes() throws PolicyComplianceException {
 
@@ -370,6 +499,16 @@ public class MonitoringManagerImpl implements MonitoringManager {
             throws PolicyComplianceException, OperationManagementException, InvalidDeviceException {
 
         List<DeviceIdentifier> deviceIdentifiers = this.getDeviceIdentifiersFromDevices(devices);
+        //TODO: Fix this properly later adding device type to be passed in when the task manage executes "addOperations()"
+        String type = null;
+        if (deviceIdentifiers.size() > 0) {
+            type = deviceIdentifiers.get(0).getType();
+        }
+        this.addMonitoringOperationToDevices(type, deviceIdentifiers);
+    }
+
+    private void addMonitoringOperationToDevices(String type, List<DeviceIdentifier> deviceIdentifiers)
+            throws OperationManagementException, InvalidDeviceException {
         CommandOperation monitoringOperation = new CommandOperation();
         monitoringOperation.setEnabled(true);
         monitoringOperation.setType(Operation.Type.COMMAND);
@@ -383,11 +522,6 @@ public class MonitoringManagerImpl implements MonitoringManager {
         //	    appListOperation.setType(Operation.Type.COMMAND);
         //	    appListOperation.setCode(OPERATION_APP_LIST);
 
-        //TODO: Fix this properly later adding device type to be passed in when the task manage executes "addOperations()"
-        String type = null;
-        if (deviceIdentifiers.size() > 0) {
-            type = deviceIdentifiers.get(0).getType();
-        }
         DeviceManagementProviderService service = PolicyManagementDataHolder.getInstance().getDeviceManagementService();
         service.addOperation(type, monitoringOperation, deviceIdentifiers);
         //	    service.addOperation(infoOperation, deviceIdentifiers);
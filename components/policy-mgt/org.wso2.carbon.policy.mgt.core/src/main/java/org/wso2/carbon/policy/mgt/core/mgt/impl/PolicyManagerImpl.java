@@ -40,6 +40,7 @@ import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderServiceIm
 import org.wso2.carbon.device.mgt.core.service.GroupManagementProviderService;
 import org.wso2.carbon.device.mgt.core.service.GroupManagementProviderServiceImpl;
 import org.wso2.carbon.policy.mgt.common.*;
+import org.wso2.carbon.policy.mgt.core.cache.PolicySnapshot;
 import org.wso2.carbon.policy.mgt.core.cache.impl.PolicyCacheManagerImpl;
 import org.wso2.carbon.policy.mgt.core.dao.*;
 import org.wso2.carbon.policy.mgt.core.enforcement.PolicyDelegationException;
@@ -682,14 +683,11 @@ public class PolicyManagerImpl implements PolicyManager {
             PolicyManagementDAOFactory.closeConnection();
         }
 
-//        List<Policy> tempPolicyList = this.getPolicies();
-        List<Policy> tempPolicyList = PolicyCacheManagerImpl.getInstance().getAllPolicies();
-
-        for (Policy policy : tempPolicyList) {
-            for (Integer i : policyIdList) {
-                if (policy.getId() == i) {
-                    policies.add(policy);
-                }
+        PolicySnapshot snapshot = PolicyCacheManagerImpl.getInstance().getPolicySnapshot();
+        for (Integer policyId : policyIdList) {
+            Policy policy = snapshot.getPolicy(policyId);
+            if (policy != null) {
+                policies.add(policy);
             }
         }
 
@@ -699,91 +697,24 @@ public class PolicyManagerImpl implements PolicyManager {
 
     @Override
     public List<Policy> getPoliciesOfDeviceType(String deviceTypeName) throws PolicyManagementException {
-        List<Policy> policies = new ArrayList<>();
-//        try {
-        // List<Profile> profileList = profileManager.getProfilesOfDeviceType(deviceTypeName);
-//            List<Policy> allPolicies = this.getPolicies();
-        List<Policy> allPolicies = PolicyCacheManagerImpl.getInstance().getAllPolicies();
-
-        for (Policy policy : allPolicies) {
-            if (policy.getProfile().getDeviceType().equalsIgnoreCase(deviceTypeName)) {
-                policies.add(policy);
-            }
-        }
-
-//            for (Profile profile : profileList) {
-//                for (Policy policy : allPolicies) {
-//                    if (policy.getProfileId() == profile.getProfileId()) {
-//                        policy.setProfile(profile);
-//                        policies.add(policy);
-//                    }
-//                }
-//            }
+        List<Policy> policies = new ArrayList<>(PolicyCacheManagerImpl.getInstance().getPolicySnapshot()
+                .getPoliciesOfDeviceType(deviceTypeName));
         Collections.sort(policies);
-//        } catch (ProfileManagementException e) {
-//            throw new PolicyManagementException("Error occurred while getting all the profile features.", e);
-//        }
         return policies;
     }
 
     @Override
     public List<Policy> getPoliciesOfRole(String roleName) throws PolicyManagementException {
-
-        List<Policy> policies = new ArrayList<>();
-        List<Integer> policyIdList;
-
-        try {
-            PolicyManagementDAOFactory.openConnection();
-            policyIdList = policyDAO.getPolicyOfRole(roleName);
-
-        } catch (PolicyManagerDAOException e) {
-            throw new PolicyManagementException("Error occurred while getting the policies.", e);
-        } catch (SQLException e) {
-            throw new PolicyManagementException("Error occurred while open a data source connection", e);
-        } finally {
-            PolicyManagementDAOFactory.closeConnection();
-        }
-
-//        List<Policy> tempPolicyList = this.getPolicies();
-        List<Policy> tempPolicyList = PolicyCacheManagerImpl.getInstance().getAllPolicies();
-
-        for (Policy policy : tempPolicyList) {
-            for (Integer i : policyIdList) {
-                if (policy.getId() == i) {
-                    policies.add(policy);
-                }
-            }
-        }
+        List<Policy> policies = new ArrayList<>(PolicyCacheManagerImpl.getInstance().getPolicySnapshot()
+                .getPoliciesOfRole(roleName));
         Collections.sort(policies);
         return policies;
     }
 
     @Override
     public List<Policy> getPoliciesOfUser(String username) throws PolicyManagementException {
-
-        List<Policy> policies = new ArrayList<>();
-        List<Integer> policyIdList;
-
-        try {
-            PolicyManagementDAOFactory.openConnection();
-            policyIdList = policyDAO.getPolicyOfUser(username);
-        } catch (PolicyManagerDAOException e) {
-            throw new PolicyManagementException("Error occurred while getting the policies.", e);
-        } catch (SQLException e) {
-            throw new PolicyManagementException("Error occurred while open a data source connection", e);
-        } finally {
-            PolicyManagementDAOFactory.closeConnection();
-        }
-//        List<Policy> tempPolicyList = this.getPolicies();
-        List<Policy> tempPolicyList = PolicyCacheManagerImpl.getInstance().getAllPolicies();
-
-        for (Policy policy : tempPolicyList) {
-            for (Integer i : policyIdList) {
-                if (policy.getId() == i) {
-                    policies.add(policy);
-                }
-            }
-        }
+        List<Policy> policies = new ArrayList<>(PolicyCacheManagerImpl.getInstance().getPolicySnapshot()
+                .getPoliciesOfUser(username));
         Collections.sort(policies);
         return policies;
     }
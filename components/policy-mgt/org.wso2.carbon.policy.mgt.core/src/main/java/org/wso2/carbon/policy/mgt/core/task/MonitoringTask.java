@@ -22,9 +22,7 @@ package org.wso2.carbon.policy.mgt.core.task;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
-import org.wso2.carbon.device.mgt.common.Device;
 import org.wso2.carbon.device.mgt.common.DeviceManagementException;
-import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
 import org.wso2.carbon.device.mgt.common.policy.mgt.PolicyMonitoringManager;
 import org.wso2.carbon.device.mgt.common.policy.mgt.monitor.PolicyComplianceException;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
@@ -32,15 +30,28 @@ import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderServiceIm
 import org.wso2.carbon.ntask.core.Task;
 import org.wso2.carbon.policy.mgt.core.internal.PolicyManagementDataHolder;
 import org.wso2.carbon.policy.mgt.core.mgt.MonitoringManager;
+import org.wso2.carbon.policy.mgt.core.util.PolicyManagementConstants;
+import org.wso2.carbon.policy.mgt.core.util.PolicyManagerUtil;
 import org.wso2.carbon.user.api.UserStoreException;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class MonitoringTask implements Task {
 
     private static Log log = LogFactory.getLog(MonitoringTask.class);
+    // The task is instantiated for every run, hence the next slot of each tenant is kept across the instances.
+    private static final ConcurrentMap<Integer, AtomicLong> slotCounters = new ConcurrentHashMap<>();
 
     Map<String, String> properties;
     private boolean executeForTenants = false;
@@ -68,7 +79,7 @@ public class MonitoringTask implements Task {
         if(executeForTenants) {
             this.executeforAllTenants();
         } else {
-            this.executeTask();
+            this.executeTask(Long.MAX_VALUE);
         }
     }
 
@@ -94,29 +105,100 @@ public class MonitoringTask implements Task {
         if (log.isDebugEnabled()) {
             log.debug("Monitoring task started to run for all tenants.");
         }
+        List<Integer> tenants;
         try {
             DeviceManagementProviderService deviceManagementService = new DeviceManagementProviderServiceImpl();
-            List<Integer> tenants = deviceManagementService.getDeviceEnrolledTenants();
+            tenants = new ArrayList<>(deviceManagementService.getDeviceEnrolledTenants());
+        } catch (DeviceManagementException e) {
+            log.error("Error occurred while trying to get the available tenants from device manager service ", e);
+            return;
+        }
+        if (tenants.isEmpty()) {
+            return;
+        }
+        // Tenants are taken up in a different order in every run, so that the same tenants do not always wait
+        // behind the large ones.
+        Collections.shuffle(tenants);
+
+        int parallelism = Math.min(PolicyManagerUtil.getMonitoringTenantParallelism(), tenants.size());
+        ExecutorService executorService = Executors.newFixedThreadPool(parallelism);
+        List<Future<Integer>> results = new ArrayList<>();
+        long startTime = System.currentTimeMillis();
+        int monitoredCount = 0;
+        try {
             for (Integer tenant : tenants) {
-                String tenantDomain = PolicyManagementDataHolder.getInstance().
-                        getRealmService().getTenantManager().getDomain(tenant);
+                results.add(executorService.submit(new TenantMonitoringUnit(tenant)));
+            }
+            for (int i = 0; i < results.size(); i++) {
                 try {
-                    PrivilegedCarbonContext.startTenantFlow();
-                    PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(tenantDomain);
-                    PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(tenant);
-                    this.executeTask();
-                } finally {
-                    PrivilegedCarbonContext.endTenantFlow();
+                    monitoredCount += results.get(i).get();
+                } catch (ExecutionException e) {
+                    log.error("Error occurred while monitoring the devices of tenant " + tenants.get(i), e.getCause());
                 }
             }
-        } catch (UserStoreException e) {
-            log.error("Error occurred while trying to get the available tenants", e);
-        } catch (DeviceManagementException e) {
-            log.error("Error occurred while trying to get the available tenants from device manager service ", e);
+            if (log.isDebugEnabled()) {
+                log.debug("Monitored " + monitoredCount + " enrolments of " + tenants.size() + " tenants in " +
+                        (System.currentTimeMillis() - startTime) + " ms with " + parallelism + " threads.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Monitoring task was interrupted while waiting for the tenants to be monitored.", e);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * @return maximum time in milliseconds to be spent on monitoring a single tenant. Unless configured, it is the
+     * interval of the task, so that a tenant does not delay the next run.
+     */
+    private long getTenantTimeout() {
+        long timeout = PolicyManagerUtil.getMonitoringTenantTimeout();
+        if (timeout == 0 && properties != null &&
+                properties.get(PolicyManagementConstants.MONITORING_SLOT_INTERVAL) != null) {
+            timeout = Long.parseLong(properties.get(PolicyManagementConstants.MONITORING_SLOT_INTERVAL));
+        }
+        return timeout;
+    }
+
+    private int getSlotCount() {
+        if (properties == null || properties.get(PolicyManagementConstants.MONITORING_SLOT_COUNT) == null) {
+            return 1;
+        }
+        int slotCount = Integer.parseInt(properties.get(PolicyManagementConstants.MONITORING_SLOT_COUNT));
+        return slotCount > 0 ? slotCount : 1;
+    }
+
+    /**
+     * Returns the slot to be monitored in this run and advances the slot counter of the tenant in the current
+     * context, so that the slots are monitored one after the other, once per run, however late or early the task
+     * fires. The counters are kept by the node, hence the slots start over from the first when the task is moved to
+     * another node.
+     */
+    private int getCurrentSlot(int slotCount) {
+        if (slotCount == 1) {
+            return 0;
+        }
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        AtomicLong slotCounter = slotCounters.get(tenantId);
+        if (slotCounter == null) {
+            AtomicLong newSlotCounter = new AtomicLong();
+            slotCounter = slotCounters.putIfAbsent(tenantId, newSlotCounter);
+            if (slotCounter == null) {
+                slotCounter = newSlotCounter;
+            }
         }
+        return (int) (slotCounter.getAndIncrement() % slotCount);
     }
 
-    private void executeTask(){
+    /**
+     * Monitors the devices of the tenant in the current context.
+     *
+     * @param deadline time in milliseconds after which the monitoring is stopped.
+     * @return number of enrolments monitored.
+     */
+    private int executeTask(long deadline) {
+        int monitoredCount = 0;
 
         MonitoringManager monitoringManager = PolicyManagementDataHolder.getInstance().getMonitoringManager();
         List<String> deviceTypes = new ArrayList<>();
@@ -132,46 +214,23 @@ public class MonitoringTask implements Task {
             log.error("Error occurred while getting the device types.");
         }
         if (!deviceTypes.isEmpty()) {
+            int slotCount = this.getSlotCount();
+            int slot = this.getCurrentSlot(slotCount);
             try {
-                DeviceManagementProviderService deviceManagementProviderService =
-                        PolicyManagementDataHolder.getInstance().getDeviceManagementService();
                 for (String deviceType : configDeviceTypes) {
-                    if (log.isDebugEnabled()) {
-                        log.debug("Running task for device type : " + deviceType);
+                    if (System.currentTimeMillis() > deadline) {
+                        log.warn("Monitoring task stopped before monitoring device type '" + deviceType +
+                                "' as the deadline has passed.");
+                        break;
                     }
-                    PolicyMonitoringManager monitoringService =
-                            PolicyManagementDataHolder.getInstance().getDeviceManagementService()
-                                    .getPolicyMonitoringManager(deviceType);
-                    List<Device> devices = deviceManagementProviderService.getAllDevices(deviceType, false);
-                    if (monitoringService != null && !devices.isEmpty()) {
-                        List<Device> notifiableDevices = new ArrayList<>();
-                        if (log.isDebugEnabled()) {
-                            log.debug("Removing inactive and blocked devices from the list for the device type : " +
-                                    deviceType);
-                        }
-                        for (Device device : devices) {
-
-                            EnrolmentInfo.Status status = device.getEnrolmentInfo().getStatus();
-                            if (status.equals(EnrolmentInfo.Status.BLOCKED) ||
-                                    status.equals(EnrolmentInfo.Status.REMOVED) ||
-                                    status.equals(EnrolmentInfo.Status.UNCLAIMED) ||
-                                    status.equals(EnrolmentInfo.Status.DISENROLLMENT_REQUESTED) ||
-                                    status.equals(EnrolmentInfo.Status.SUSPENDED)) {
-                                continue;
-                            } else {
-                                notifiableDevices.add(device);
-                            }
-                        }
-                        if (log.isDebugEnabled()) {
-                            log.debug("Following devices selected to send the notification for " + deviceType);
-                            for (Device device : notifiableDevices) {
-                                log.debug(device.getDeviceIdentifier());
-                            }
-                        }
-                        if (!notifiableDevices.isEmpty()) {
-                            monitoringManager.addMonitoringOperation(notifiableDevices);
-                        }
+                    if (log.isDebugEnabled()) {
+                        log.debug("Running task for device type : " + deviceType + ", slot " + slot + " of " +
+                                slotCount);
                     }
+                    // Only the enrolments which are eligible for monitoring, i.e. the ones which are not blocked,
+                    // removed, unclaimed, suspended or requested to be disenrolled, are read from the database.
+                    monitoredCount += monitoringManager.addMonitoringOperations(deviceType, slot, slotCount,
+                            deadline);
                 }
                 if (log.isDebugEnabled()) {
                     log.debug("Monitoring task running completed.");
@@ -182,5 +241,46 @@ public class MonitoringTask implements Task {
         } else {
             log.info("No device types registered currently. So did not run the monitoring task.");
         }
+        return monitoredCount;
+    }
+
+    /**
+     * Monitors the devices of a single tenant within its own tenant flow, and reports the time taken and the number
+     * of enrolments monitored.
+     */
+    private class TenantMonitoringUnit implements Callable<Integer> {
+
+        private final int tenantId;
+
+        TenantMonitoringUnit(int tenantId) {
+            this.tenantId = tenantId;
+        }
+
+        @Override
+        public Integer call() throws UserStoreException {
+            long startTime = System.currentTimeMillis();
+            long timeout = getTenantTimeout();
+            long deadline = timeout > 0 ? startTime + timeout : Long.MAX_VALUE;
+            String tenantDomain = PolicyManagementDataHolder.getInstance().
+                    getRealmService().getTenantManager().getDomain(tenantId);
+            int monitoredCount;
+            try {
+                PrivilegedCarbonContext.startTenantFlow();
+                PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(tenantDomain);
+                PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(tenantId);
+                monitoredCount = executeTask(deadline);
+            } finally {
+                PrivilegedCarbonContext.endTenantFlow();
+            }
+            long duration = System.currentTimeMillis() - startTime;
+            if (System.currentTimeMillis() > deadline) {
+                log.warn("Monitoring of tenant " + tenantDomain + " exceeded the deadline of " + timeout +
+                        " ms, monitored " + monitoredCount + " enrolments in " + duration + " ms.");
+            } else if (log.isDebugEnabled()) {
+                log.debug("Monitored " + monitoredCount + " enrolments of tenant " + tenantDomain + " in " +
+                        duration + " ms.");
+            }
+            return monitoredCount;
+        }
     }
 }
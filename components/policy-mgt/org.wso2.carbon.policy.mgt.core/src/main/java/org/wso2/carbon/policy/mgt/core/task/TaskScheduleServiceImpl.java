@@ -31,6 +31,7 @@ import org.wso2.carbon.ntask.core.service.TaskService;
 import org.wso2.carbon.policy.mgt.common.PolicyMonitoringTaskException;
 import org.wso2.carbon.policy.mgt.core.internal.PolicyManagementDataHolder;
 import org.wso2.carbon.policy.mgt.core.util.PolicyManagementConstants;
+import org.wso2.carbon.policy.mgt.core.util.PolicyManagerUtil;
 import org.wso2.carbon.ntask.core.TaskInfo.TriggerInfo;
 
 import java.util.HashMap;
@@ -66,11 +67,12 @@ public class TaskScheduleServiceImpl implements TaskScheduleService {
                 TaskManager taskManager = taskService.getTaskManager(PolicyManagementConstants.MONITORING_TASK_TYPE);
 
                 TriggerInfo triggerInfo = new TriggerInfo();
-                triggerInfo.setIntervalMillis(monitoringFrequency);
+                triggerInfo.setIntervalMillis(this.getSlotInterval(monitoringFrequency));
                 triggerInfo.setRepeatCount(-1);
 
                 Map<String, String> properties = new HashMap<>();
                 properties.put(PolicyManagementConstants.TENANT_ID, String.valueOf(tenantId));
+                this.addSlotProperties(properties, monitoringFrequency);
 
                 String taskName = PolicyManagementConstants.MONITORING_TASK_NAME + "_" + String.valueOf(tenantId);
 
@@ -125,11 +127,12 @@ public class TaskScheduleServiceImpl implements TaskScheduleService {
 
                 taskManager.deleteTask(taskName);
                 TriggerInfo triggerInfo = new TriggerInfo();
-                triggerInfo.setIntervalMillis(monitoringFrequency);
+                triggerInfo.setIntervalMillis(this.getSlotInterval(monitoringFrequency));
                 triggerInfo.setRepeatCount(-1);
 
                 Map<String, String> properties = new HashMap<>();
                 properties.put("tenantId", String.valueOf(tenantId));
+                this.addSlotProperties(properties, monitoringFrequency);
 
                 TaskInfo taskInfo = new TaskInfo(taskName, PolicyManagementConstants.MONITORING_TASK_CLAZZ, properties,
                         triggerInfo);
@@ -162,6 +165,21 @@ public class TaskScheduleServiceImpl implements TaskScheduleService {
         }
     }
 
+    /**
+     * The enrolments are split in to slots and the task monitors one slot per run, hence it runs once per slot within
+     * the monitoring frequency.
+     */
+    private int getSlotInterval(int monitoringFrequency) {
+        return Math.max(monitoringFrequency / PolicyManagerUtil.getMonitoringSlotCount(), 1);
+    }
+
+    private void addSlotProperties(Map<String, String> properties, int monitoringFrequency) {
+        properties.put(PolicyManagementConstants.MONITORING_SLOT_COUNT,
+                String.valueOf(PolicyManagerUtil.getMonitoringSlotCount()));
+        properties.put(PolicyManagementConstants.MONITORING_SLOT_INTERVAL,
+                String.valueOf(this.getSlotInterval(monitoringFrequency)));
+    }
+
     private int getTenantId() {
         return PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
     }
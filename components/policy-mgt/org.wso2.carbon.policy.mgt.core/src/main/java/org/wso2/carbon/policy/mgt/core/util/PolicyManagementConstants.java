@@ -34,6 +34,11 @@ public final class PolicyManagementConstants {
     public static final String MONITORING_TASK_TYPE = "MONITORING_TASK";
     public static final String MONITORING_TASK_NAME = "MONITORING";
     public static final String MONITORING_TASK_CLAZZ = "org.wso2.carbon.policy.mgt.core.task.MonitoringTask";
+    public static final String MONITORING_SLOT_COUNT = "MONITORING_SLOT_COUNT";
+    public static final String MONITORING_SLOT_INTERVAL = "MONITORING_SLOT_INTERVAL";
+    public static final int DEFAULT_MONITORING_BATCH_SIZE = 1000;
+    public static final int DEFAULT_MONITORING_SLOT_COUNT = 1;
+    public static final int DEFAULT_MONITORING_TENANT_PARALLELISM = 4;
 
     public static final String DM_CACHE_MANAGER = "DM_CACHE_MANAGER";
     // public static final String DM_CACHE = "DM_CACHE";
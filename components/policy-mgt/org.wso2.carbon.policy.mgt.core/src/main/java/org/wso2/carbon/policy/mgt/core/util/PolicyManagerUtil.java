@@ -36,6 +36,7 @@ import org.wso2.carbon.device.mgt.core.operation.mgt.ProfileOperation;
 import org.wso2.carbon.device.mgt.common.policy.mgt.Policy;
 import org.wso2.carbon.policy.mgt.common.PolicyManagementException;
 import org.wso2.carbon.device.mgt.common.policy.mgt.ProfileFeature;
+import org.wso2.carbon.policy.mgt.core.cache.PolicySnapshot;
 import org.wso2.carbon.policy.mgt.core.config.datasource.DataSourceConfig;
 import org.wso2.carbon.policy.mgt.core.config.datasource.JNDILookupDefinition;
 import org.wso2.carbon.policy.mgt.core.dao.util.PolicyManagementDAOUtil;
@@ -170,10 +171,10 @@ public class PolicyManagerUtil {
                 Caching.getCacheManager().<Integer, Policy>getCache(name);
     }
 
-    public static Cache<Integer, List<Policy>> getPolicyListCache(String name) {
+    public static Cache<Integer, PolicySnapshot> getPolicySnapshotCache(String name) {
         CacheManager manager = getCacheManager();
-        return (manager != null) ? manager.<Integer, List<Policy>>getCache(name) :
-                Caching.getCacheManager().<Integer, List<Policy>>getCache(name);
+        return (manager != null) ? manager.<Integer, PolicySnapshot>getCache(name) :
+                Caching.getCacheManager().<Integer, PolicySnapshot>getCache(name);
     }
 
     private static CacheManager getCacheManager() {
@@ -227,6 +228,43 @@ public class PolicyManagerUtil {
     }
 
 
+    /**
+     * @return number of enrolments to be read from the database at a time by the monitoring task.
+     */
+    public static int getMonitoringBatchSize() {
+        int batchSize = DeviceConfigurationManager.getInstance().getDeviceManagementConfig().getPolicyConfiguration()
+                .getMonitoringBatchSize();
+        return batchSize > 0 ? batchSize : PolicyManagementConstants.DEFAULT_MONITORING_BATCH_SIZE;
+    }
+
+    /**
+     * @return number of slots the enrolments are split in to, so that their monitoring is spread across the
+     * monitoring frequency.
+     */
+    public static int getMonitoringSlotCount() {
+        int slotCount = DeviceConfigurationManager.getInstance().getDeviceManagementConfig().getPolicyConfiguration()
+                .getMonitoringSlotCount();
+        return slotCount > 0 ? slotCount : PolicyManagementConstants.DEFAULT_MONITORING_SLOT_COUNT;
+    }
+
+    /**
+     * @return number of tenants monitored in parallel by the monitoring task in cloud mode.
+     */
+    public static int getMonitoringTenantParallelism() {
+        int parallelism = DeviceConfigurationManager.getInstance().getDeviceManagementConfig()
+                .getPolicyConfiguration().getMonitoringTenantParallelism();
+        return parallelism > 0 ? parallelism : PolicyManagementConstants.DEFAULT_MONITORING_TENANT_PARALLELISM;
+    }
+
+    /**
+     * @return maximum time in milliseconds to be spent on monitoring a single tenant, 0 if not configured.
+     */
+    public static long getMonitoringTenantTimeout() {
+        long timeout = DeviceConfigurationManager.getInstance().getDeviceManagementConfig().getPolicyConfiguration()
+                .getMonitoringTenantTimeout();
+        return timeout > 0 ? timeout : 0;
+    }
+
     public static Map<Integer, DeviceGroup> convertDeviceGroupMap(List<DeviceGroup> deviceGroups) {
         Map<Integer, DeviceGroup> groupMap = new HashMap<>();
         for (DeviceGroup dg: deviceGroups){
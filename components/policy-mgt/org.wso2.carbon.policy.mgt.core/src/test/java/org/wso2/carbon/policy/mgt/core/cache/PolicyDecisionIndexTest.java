@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.policy.mgt.core.cache;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.common.group.mgt.DeviceGroup;
+import org.wso2.carbon.device.mgt.common.policy.mgt.DeviceGroupWrapper;
+import org.wso2.carbon.device.mgt.common.policy.mgt.Policy;
+import org.wso2.carbon.device.mgt.common.policy.mgt.Profile;
+import org.wso2.carbon.policy.mgt.common.PIPDevice;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class contains unit tests to test {@link PolicyDecisionIndex} class.
+ */
+public class PolicyDecisionIndexTest {
+
+    private static final int TENANT_ID = -1234;
+
+    @Test(description = "Tests that the highest priority matching policy is selected")
+    public void testEffectivePolicy() {
+        Policy adminPolicy = this.createPolicy(1, 3, true, "BYOD", Collections.singletonList("admin"), 10);
+        Policy anyPolicy = this.createPolicy(2, 5, true, "ANY", Collections.singletonList("ANY"), 0);
+        Policy inactivePolicy = this.createPolicy(3, 1, false, "BYOD", Collections.singletonList("admin"), 10);
+        PolicyDecisionIndex decisionIndex = new PolicyDecisionIndex(Arrays.asList(anyPolicy, adminPolicy,
+                inactivePolicy));
+
+        Assert.assertEquals(decisionIndex.size(), 2);
+        Assert.assertEquals(decisionIndex.getEffectivePolicy(this.createDevice("BYOD", "Admin", 10)).getId(), 1);
+        Assert.assertEquals(decisionIndex.getEffectivePolicy(this.createDevice("COPE", "admin", 10)).getId(), 2);
+        Assert.assertEquals(decisionIndex.getEffectivePolicy(this.createDevice("BYOD", "admin", 11)).getId(), 2);
+
+        List<Policy> matchingPolicies = decisionIndex.getMatchingPolicies(this.createDevice("BYOD", "admin", 10));
+        Assert.assertEquals(matchingPolicies.size(), 2);
+        Assert.assertEquals(matchingPolicies.get(0).getId(), 1);
+        Assert.assertEquals(matchingPolicies.get(1).getId(), 2);
+    }
+
+    @Test(description = "Tests that no policy is selected when none of the policies match the device")
+    public void testNoMatchingPolicy() {
+        PolicyDecisionIndex decisionIndex = new PolicyDecisionIndex(Collections.singletonList(
+                this.createPolicy(1, 1, true, "BYOD", Collections.singletonList("admin"), 10)));
+
+        Assert.assertNull(decisionIndex.getEffectivePolicy(this.createDevice("COPE", "admin", 10)));
+        Assert.assertTrue(decisionIndex.getMatchingPolicies(this.createDevice("BYOD", "user", 10)).isEmpty());
+        Assert.assertNull(new PolicyDecisionIndex(Collections.<Policy>emptyList())
+                .getEffectivePolicy(this.createDevice("BYOD", "admin", 10)));
+    }
+
+    @Test(description = "Tests that the decision indexes of unaffected device types are reused by new snapshots")
+    public void testSnapshotDecisionIndexes() {
+        Policy androidPolicy = this.createPolicy(1, 1, true, "BYOD", Collections.singletonList("admin"), 10);
+        Policy iosPolicy = this.createPolicy(2, 1, true, "BYOD", Collections.singletonList("admin"), 10);
+        iosPolicy.getProfile().setDeviceType("ios");
+        PolicyDecisionIndexCache decisionIndexCache = new PolicyDecisionIndexCache();
+        PolicySnapshot snapshot = new PolicySnapshot(Arrays.asList(androidPolicy, iosPolicy));
+        PolicyDecisionIndex androidIndex = decisionIndexCache.getDecisionIndex(TENANT_ID, snapshot, "android");
+        PolicyDecisionIndex iosIndex = decisionIndexCache.getDecisionIndex(TENANT_ID, snapshot, "ios");
+        Assert.assertSame(decisionIndexCache.getDecisionIndex(TENANT_ID, snapshot, "Android"), androidIndex);
+        Assert.assertNotSame(decisionIndexCache.getDecisionIndex(TENANT_ID + 1, snapshot, "android"), androidIndex);
+
+        PolicySnapshot updated = snapshot.withPolicy(this.createPolicy(3, 2, true, "COPE",
+                Collections.singletonList("admin"), 10));
+        Assert.assertSame(decisionIndexCache.getDecisionIndex(TENANT_ID, updated, "ios"), iosIndex);
+        PolicyDecisionIndex updatedAndroidIndex = decisionIndexCache.getDecisionIndex(TENANT_ID, updated, "android");
+        Assert.assertNotSame(updatedAndroidIndex, androidIndex);
+        Assert.assertEquals(updatedAndroidIndex.size(), 2);
+    }
+
+    @Test(description = "Tests that the decision indexes are reused for the copies of a snapshot")
+    public void testDecisionIndexesOfSnapshotCopies() throws Exception {
+        PolicyDecisionIndexCache decisionIndexCache = new PolicyDecisionIndexCache();
+        PolicySnapshot snapshot = new PolicySnapshot(Collections.singletonList(
+                this.createPolicy(1, 1, true, "BYOD", Collections.singletonList("admin"), 10)));
+        PolicyDecisionIndex decisionIndex = decisionIndexCache.getDecisionIndex(TENANT_ID, snapshot, "android");
+
+        // The distributed cache hands out a copy of the snapshot on every read.
+        PolicySnapshot copy = this.copy(snapshot);
+        Assert.assertNotSame(copy, snapshot);
+        Assert.assertEquals(copy.getVersion(), snapshot.getVersion());
+        Assert.assertSame(decisionIndexCache.getDecisionIndex(TENANT_ID, copy, "android"), decisionIndex);
+        Assert.assertNotSame(decisionIndexCache.getDecisionIndex(TENANT_ID,
+                new PolicySnapshot(snapshot.getPolicies()), "android"), decisionIndex);
+    }
+
+    private PolicySnapshot copy(PolicySnapshot snapshot) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(snapshot);
+        out.close();
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        try {
+            return (PolicySnapshot) in.readObject();
+        } finally {
+            in.close();
+        }
+    }
+
+    private Policy createPolicy(int id, int priority, boolean active, String ownershipType, List<String> roles,
+                                int groupId) {
+        Policy policy = new Policy();
+        policy.setId(id);
+        policy.setPriorityId(priority);
+        policy.setActive(active);
+        Profile profile = new Profile();
+        profile.setDeviceType("android");
+        policy.setProfile(profile);
+        policy.setOwnershipType(ownershipType);
+        policy.setRoles(roles);
+        policy.setUsers(Collections.<String>emptyList());
+        DeviceGroupWrapper deviceGroup = new DeviceGroupWrapper();
+        if (groupId > 0) {
+            deviceGroup.setId(groupId);
+            deviceGroup.setName("group" + groupId);
+        } else {
+            deviceGroup.setName("ANY");
+        }
+        policy.setDeviceGroups(Collections.singletonList(deviceGroup));
+        return policy;
+    }
+
+    private PIPDevice createDevice(String ownershipType, String role, int groupId) {
+        PIPDevice pipDevice = new PIPDevice();
+        pipDevice.setOwnershipType(ownershipType);
+        pipDevice.setRoles(new String[]{role});
+        pipDevice.setUserId("user1");
+        DeviceGroup deviceGroup = new DeviceGroup();
+        deviceGroup.setGroupId(groupId);
+        pipDevice.setDeviceGroups(Collections.singletonList(deviceGroup));
+        return pipDevice;
+    }
+
+}
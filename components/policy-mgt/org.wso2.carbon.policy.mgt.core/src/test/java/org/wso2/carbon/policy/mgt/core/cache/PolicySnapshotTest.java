@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.policy.mgt.core.cache;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.common.policy.mgt.DeviceGroupWrapper;
+import org.wso2.carbon.device.mgt.common.policy.mgt.Policy;
+import org.wso2.carbon.device.mgt.common.policy.mgt.Profile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class contains unit tests to test {@link PolicySnapshot} class.
+ */
+public class PolicySnapshotTest {
+
+    @Test(description = "Tests the lookups of the indexes built for the policies")
+    public void testIndexes() {
+        PolicySnapshot snapshot = new PolicySnapshot(Arrays.asList(
+                this.createPolicy(1, "android", "BYOD", Collections.singletonList("admin"),
+                        Collections.singletonList("user1"), 10),
+                this.createPolicy(2, "ios", "COPE", Arrays.asList("admin", "manager"),
+                        Collections.<String>emptyList(), 11)));
+
+        Assert.assertEquals(snapshot.size(), 2);
+        Assert.assertEquals(snapshot.getPolicy(2).getId(), 2);
+        Assert.assertNull(snapshot.getPolicy(3));
+        Assert.assertEquals(snapshot.getPoliciesOfDeviceType("Android").size(), 1);
+        Assert.assertEquals(snapshot.getPoliciesOfRole("admin").size(), 2);
+        Assert.assertEquals(snapshot.getPoliciesOfRole("manager").get(0).getId(), 2);
+        Assert.assertEquals(snapshot.getPoliciesOfUser("user1").get(0).getId(), 1);
+        Assert.assertEquals(snapshot.getPoliciesOfOwnershipType("COPE").get(0).getId(), 2);
+        Assert.assertEquals(snapshot.getPoliciesOfGroup(10).get(0).getId(), 1);
+        Assert.assertTrue(snapshot.getPoliciesOfUser("user2").isEmpty());
+    }
+
+    @Test(description = "Tests that the policies of roles and users are looked up regardless of the case")
+    public void testCaseInsensitiveLookups() {
+        PolicySnapshot snapshot = new PolicySnapshot(Arrays.asList(
+                this.createPolicy(1, "android", "BYOD", Collections.singletonList("Internal/Devices"),
+                        Collections.singletonList("John"), 10),
+                this.createPolicy(2, "ios", "COPE", Collections.singletonList("internal/devices"),
+                        Collections.singletonList("john"), 11)));
+
+        Assert.assertEquals(snapshot.getPoliciesOfRole("INTERNAL/devices").size(), 2);
+        Assert.assertEquals(snapshot.getPoliciesOfRole("internal/devices").size(), 2);
+        Assert.assertEquals(snapshot.getPoliciesOfUser("JOHN").size(), 2);
+        Assert.assertTrue(snapshot.getPoliciesOfRole("internal/other").isEmpty());
+    }
+
+    @Test(description = "Tests that changes build new snapshots and leave the existing one untouched")
+    public void testCopyOnWrite() {
+        PolicySnapshot snapshot = new PolicySnapshot(Collections.singletonList(
+                this.createPolicy(1, "android", "BYOD", Collections.singletonList("admin"),
+                        Collections.<String>emptyList(), 10)));
+
+        PolicySnapshot updated = snapshot.withPolicy(this.createPolicy(1, "android", "COPE",
+                Collections.singletonList("manager"), Collections.<String>emptyList(), 10));
+        Assert.assertEquals(updated.size(), 1);
+        Assert.assertEquals(updated.getPolicy(1).getOwnershipType(), "COPE");
+        Assert.assertTrue(updated.getPoliciesOfRole("admin").isEmpty());
+        Assert.assertEquals(snapshot.getPolicy(1).getOwnershipType(), "BYOD");
+        Assert.assertEquals(snapshot.getPoliciesOfRole("admin").size(), 1);
+
+        PolicySnapshot removed = updated.withoutPolicy(1);
+        Assert.assertEquals(removed.size(), 0);
+        Assert.assertTrue(removed.getPoliciesOfDeviceType("android").isEmpty());
+        Assert.assertEquals(updated.size(), 1);
+        Assert.assertSame(removed.withoutPolicy(1), removed);
+    }
+
+    private Policy createPolicy(int id, String deviceType, String ownershipType, List<String> roles,
+                                List<String> users, int groupId) {
+        Policy policy = new Policy();
+        policy.setId(id);
+        Profile profile = new Profile();
+        profile.setDeviceType(deviceType);
+        policy.setProfile(profile);
+        policy.setOwnershipType(ownershipType);
+        policy.setRoles(new ArrayList<>(roles));
+        policy.setUsers(new ArrayList<>(users));
+        DeviceGroupWrapper deviceGroup = new DeviceGroupWrapper();
+        deviceGroup.setId(groupId);
+        policy.setDeviceGroups(Collections.singletonList(deviceGroup));
+        return policy;
+    }
+
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.policy.mgt.core.mgt.impl;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
+import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
+import org.wso2.carbon.device.mgt.core.config.policy.PolicyConfiguration;
+import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOFactory;
+import org.wso2.carbon.policy.mgt.common.monitor.PolicyDeviceWrapper;
+import org.wso2.carbon.policy.mgt.core.BasePolicyManagementDAOTest;
+import org.wso2.carbon.policy.mgt.core.dao.MonitoringDAO;
+import org.wso2.carbon.policy.mgt.core.dao.PolicyManagementDAOFactory;
+import org.wso2.carbon.policy.mgt.core.dao.dto.EnrolmentMonitoringDTO;
+import org.wso2.carbon.policy.mgt.core.dao.impl.MonitoringDAOImpl;
+import org.wso2.carbon.policy.mgt.core.dao.impl.SQLServerMonitoringDAOImpl;
+import org.wso2.carbon.policy.mgt.core.mock.TypeXDeviceManagementService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class contains unit tests to test the paginated monitoring of the enrolments of a device type, by
+ * {@link MonitoringManagerImpl} and the monitoring DAOs.
+ */
+public class MonitoringManagerImplTest extends BasePolicyManagementDAOTest {
+
+    private static final Log log = LogFactory.getLog(MonitoringManagerImplTest.class);
+
+    private static final String DEVICE_TYPE = "monitoringTestType";
+    private static final String DEVICE_PREFIX = "monitoringTestDevice";
+    private static final int NO_OF_DEVICES = 7;
+    private static final int BATCH_SIZE = 2;
+    private static final int POLICY_ID = 1;
+
+    private List<Integer> eligibleEnrolmentIds = new ArrayList<>();
+    private int initialBatchSize;
+
+    @BeforeClass
+    public void init() throws Exception {
+        log.info("Initializing monitoring manager tests");
+        super.initializeServices();
+        PolicyConfiguration policyConfiguration = DeviceConfigurationManager.getInstance().getDeviceManagementConfig()
+                .getPolicyConfiguration();
+        this.initialBatchSize = policyConfiguration.getMonitoringBatchSize();
+        policyConfiguration.setMonitoringBatchSize(BATCH_SIZE);
+
+        deviceMgtService.registerDeviceType(new TypeXDeviceManagementService(DEVICE_TYPE));
+        List<PolicyDeviceWrapper> monitoredDevices = new ArrayList<>();
+        int blockedEnrolmentId = 0;
+        for (int i = 0; i < NO_OF_DEVICES; i++) {
+            enrollDevice(DEVICE_PREFIX + i, DEVICE_TYPE);
+            Device device = deviceMgtService.getDevice(new DeviceIdentifier(DEVICE_PREFIX + i, DEVICE_TYPE), false);
+            int enrolmentId = device.getEnrolmentInfo().getId();
+            if (i == 0) {
+                // Neither a policy is applied to the first device nor it has been monitored, hence not eligible
+                continue;
+            }
+            PolicyDeviceWrapper wrapper = new PolicyDeviceWrapper();
+            wrapper.setDeviceId(device.getId());
+            wrapper.setEnrolmentId(enrolmentId);
+            wrapper.setPolicyId(POLICY_ID);
+            monitoredDevices.add(wrapper);
+            if (i == 1) {
+                // Blocked enrolments are not monitored, even if they have been monitored before
+                blockedEnrolmentId = enrolmentId;
+            } else {
+                eligibleEnrolmentIds.add(enrolmentId);
+            }
+        }
+        Collections.sort(eligibleEnrolmentIds);
+
+        try {
+            PolicyManagementDAOFactory.beginTransaction();
+            PolicyManagementDAOFactory.getMonitoringDAO().addComplianceDetails(monitoredDevices);
+            PolicyManagementDAOFactory.commitTransaction();
+        } finally {
+            PolicyManagementDAOFactory.closeConnection();
+        }
+        try {
+            DeviceManagementDAOFactory.beginTransaction();
+            DeviceManagementDAOFactory.getEnrollmentDAO().setStatus(blockedEnrolmentId, EnrolmentInfo.Status.BLOCKED,
+                    PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId());
+            DeviceManagementDAOFactory.commitTransaction();
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+    }
+
+    @AfterClass
+    public void cleanup() {
+        DeviceConfigurationManager.getInstance().getDeviceManagementConfig().getPolicyConfiguration()
+                .setMonitoringBatchSize(initialBatchSize);
+    }
+
+    @Test(description = "Tests that the eligible enrolments are returned page by page in the order of their ids")
+    public void testGetEnrolmentsToMonitorInPages() throws Exception {
+        Assert.assertEquals(this.getEnrolmentIdsToMonitor(new MonitoringDAOImpl(), 0, 1), eligibleEnrolmentIds);
+    }
+
+    @Test(description = "Tests that the eligible enrolments are split in to slots by their ids")
+    public void testGetEnrolmentsToMonitorInSlots() throws Exception {
+        int slotCount = 2;
+        List<Integer> enrolmentIds = new ArrayList<>();
+        for (int slot = 0; slot < slotCount; slot++) {
+            List<Integer> slotEnrolmentIds = this.getEnrolmentIdsToMonitor(new MonitoringDAOImpl(), slot, slotCount);
+            for (int enrolmentId : slotEnrolmentIds) {
+                Assert.assertEquals(enrolmentId % slotCount, slot, "Enrolment " + enrolmentId +
+                        " is returned in a wrong slot");
+            }
+            enrolmentIds.addAll(slotEnrolmentIds);
+        }
+        Collections.sort(enrolmentIds);
+        Assert.assertEquals(enrolmentIds, eligibleEnrolmentIds);
+    }
+
+    @Test(description = "Tests that the MSSQL slot condition selects the same enrolments as the generic one")
+    public void testSQLServerGetEnrolmentsToMonitorInSlots() throws Exception {
+        int slotCount = 3;
+        for (int slot = 0; slot < slotCount; slot++) {
+            Assert.assertEquals(this.getEnrolmentIdsToMonitor(new SQLServerMonitoringDAOImpl(), slot, slotCount),
+                    this.getEnrolmentIdsToMonitor(new MonitoringDAOImpl(), slot, slotCount));
+        }
+    }
+
+    @Test(description = "Tests that all the eligible enrolments are monitored when there is no deadline")
+    public void testAddMonitoringOperations() throws Exception {
+        MonitoringManagerImpl monitoringManager = new MonitoringManagerImpl();
+        Assert.assertEquals(monitoringManager.addMonitoringOperations(DEVICE_TYPE, 0, 1, Long.MAX_VALUE),
+                eligibleEnrolmentIds.size());
+    }
+
+    @Test(description = "Tests that the monitoring stops at the deadline and is resumed from the enrolment it was " +
+            "stopped at by the next run of the slot")
+    public void testAddMonitoringOperationsAfterDeadline() throws Exception {
+        MonitoringManagerImpl monitoringManager = new MonitoringManagerImpl();
+        final List<Integer> requestedEnrolmentIds = new ArrayList<>();
+        final long pageReadTime = 200;
+        MonitoringDAO monitoringDAO = Mockito.spy(new MonitoringDAOImpl());
+        Mockito.doAnswer(new Answer<List<EnrolmentMonitoringDTO>>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public List<EnrolmentMonitoringDTO> answer(InvocationOnMock invocation) throws Throwable {
+                requestedEnrolmentIds.add((Integer) invocation.getArguments()[1]);
+                Thread.sleep(pageReadTime);
+                return (List<EnrolmentMonitoringDTO>) invocation.callRealMethod();
+            }
+        }).when(monitoringDAO).getEnrolmentsToMonitor(Mockito.anyString(), Mockito.anyInt(), Mockito.anyInt(),
+                Mockito.anyInt(), Mockito.anyInt());
+        changeFieldValue(monitoringManager, "monitoringDAO", monitoringDAO);
+
+        // The deadline passes while the first page is read, hence only the first page is monitored
+        int monitoredCount = monitoringManager.addMonitoringOperations(DEVICE_TYPE, 0, 1,
+                System.currentTimeMillis() + pageReadTime / 2);
+        Assert.assertEquals(monitoredCount, BATCH_SIZE);
+        Assert.assertEquals(requestedEnrolmentIds, Collections.singletonList(0));
+
+        // The next run goes on from the last monitored enrolment, up to the last enrolment
+        requestedEnrolmentIds.clear();
+        monitoredCount = monitoringManager.addMonitoringOperations(DEVICE_TYPE, 0, 1, Long.MAX_VALUE);
+        Assert.assertEquals(monitoredCount, eligibleEnrolmentIds.size() - BATCH_SIZE);
+        Assert.assertEquals(requestedEnrolmentIds.get(0), eligibleEnrolmentIds.get(BATCH_SIZE - 1));
+
+        // Once all the enrolments are monitored, the run after starts over from the first enrolment
+        requestedEnrolmentIds.clear();
+        monitoredCount = monitoringManager.addMonitoringOperations(DEVICE_TYPE, 0, 1, Long.MAX_VALUE);
+        Assert.assertEquals(monitoredCount, eligibleEnrolmentIds.size());
+        Assert.assertEquals(requestedEnrolmentIds.get(0), Integer.valueOf(0));
+    }
+
+    private List<Integer> getEnrolmentIdsToMonitor(MonitoringDAO monitoringDAO, int slot, int slotCount)
+            throws Exception {
+        List<Integer> enrolmentIds = new ArrayList<>();
+        List<EnrolmentMonitoringDTO> enrolments;
+        int lastEnrolmentId = 0;
+        do {
+            enrolments = this.getEnrolmentsToMonitor(monitoringDAO, lastEnrolmentId, slot, slotCount);
+            Assert.assertTrue(enrolments.size() <= BATCH_SIZE, "Page is larger than the requested limit");
+            for (EnrolmentMonitoringDTO enrolment : enrolments) {
+                Assert.assertTrue(enrolment.getEnrolmentId() > lastEnrolmentId,
+                        "Enrolments are not in the ascending order of their ids");
+                Assert.assertTrue(enrolment.getComplianceStatusId() > 0, "Compliance record of enrolment " +
+                        enrolment.getEnrolmentId() + " is not returned");
+                lastEnrolmentId = enrolment.getEnrolmentId();
+                enrolmentIds.add(lastEnrolmentId);
+            }
+        } while (enrolments.size() == BATCH_SIZE);
+        return enrolmentIds;
+    }
+
+    private List<EnrolmentMonitoringDTO> getEnrolmentsToMonitor(MonitoringDAO monitoringDAO, int lastEnrolmentId,
+                                                                int slot, int slotCount)
+            throws Exception {
+        try {
+            PolicyManagementDAOFactory.openConnection();
+            return monitoringDAO.getEnrolmentsToMonitor(DEVICE_TYPE, lastEnrolmentId, slot, slotCount, BATCH_SIZE);
+        } finally {
+            PolicyManagementDAOFactory.closeConnection();
+        }
+    }
+}
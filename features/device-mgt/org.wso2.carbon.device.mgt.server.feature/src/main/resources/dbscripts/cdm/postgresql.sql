@@ -137,6 +137,7 @@ CREATE TABLE IF NOT EXISTS  DM_ENROLMENT_OP_MAPPING (
 CREATE INDEX IDX_ENROLMENT_OP_MAPPING ON DM_ENROLMENT_OP_MAPPING (UPDATED_TIMESTAMP);
 CREATE INDEX IDX_EN_OP_MAPPING_EN_ID ON DM_ENROLMENT_OP_MAPPING(ENROLMENT_ID);
 CREATE INDEX IDX_EN_OP_MAPPING_OP_ID ON DM_ENROLMENT_OP_MAPPING(OPERATION_ID);
+CREATE INDEX IDX_EN_OP_MAPPING_EN_ID_STATUS ON DM_ENROLMENT_OP_MAPPING(ENROLMENT_ID, STATUS);
 
 CREATE TABLE IF NOT EXISTS  DM_DEVICE_OPERATION_RESPONSE (
   ID BIGSERIAL NOT NULL PRIMARY KEY,